@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.ContextThemeWrapper;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.resources.test.R;
+import androidx.core.graphics.drawable.DrawableCompat;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ResourceManagerInternalTest {
+    private Context mContext;
+    private ResourceManagerInternal mManager;
+    private int mHits;
+    private int mMisses;
+
+    @Before
+    public void setUp() {
+        // Tinted drawables are only shared between contexts from API 24
+        assumeTrue(Build.VERSION.SDK_INT >= 24);
+        mContext = ApplicationProvider.getApplicationContext();
+        mManager = new ResourceManagerInternal();
+        mManager.setHooks(new TintHooks());
+        // The first drawable loaded by the manager also loads a vector to check the setup of
+        // the app, so load one before counting cache lookups
+        mManager.getDrawable(mContext, R.drawable.ic_heart_empty);
+    }
+
+    @Test
+    public void getDrawable_reusesTintedDrawable() {
+        final Drawable first = getDrawable(mContext, R.drawable.ic_heart_full);
+        assertNotNull(first);
+        assertEquals(0, mHits);
+        assertEquals(1, mMisses);
+
+        final Drawable second = getDrawable(mContext, R.drawable.ic_heart_full);
+        assertNotNull(second);
+        assertEquals(1, mHits);
+        assertEquals(1, mMisses);
+        assertNotSame(first, second);
+        assertNotSame(first.getConstantState(), second.getConstantState());
+    }
+
+    @Test
+    public void getDrawable_changesToReturnedDrawableAreNotCached() {
+        final Drawable first = getDrawable(mContext, R.drawable.ic_heart_full);
+        DrawableCompat.setTint(first, Color.BLUE);
+        first.setAlpha(10);
+
+        final Drawable second = getDrawable(mContext, R.drawable.ic_heart_full);
+        assertEquals(1, mHits);
+        assertEquals(255, DrawableCompat.getAlpha(second));
+    }
+
+    @Test
+    public void getDrawable_reusesTintedDrawableForContextWithSameTheme() {
+        final Context first = new ContextThemeWrapper(mContext,
+                android.R.style.Theme_Material_Light);
+        final Context second = new ContextThemeWrapper(mContext,
+                android.R.style.Theme_Material_Light);
+        final Context other = new ContextThemeWrapper(mContext, android.R.style.Theme_Material);
+
+        getDrawable(first, R.drawable.ic_heart_full);
+        getDrawable(second, R.drawable.ic_heart_full);
+        assertEquals(1, mHits);
+
+        getDrawable(other, R.drawable.ic_heart_full);
+        assertEquals(1, mHits);
+        assertEquals(2, mMisses);
+    }
+
+    @Test
+    public void getDrawable_themeChangedAfterCaching() {
+        final Context first = new ContextThemeWrapper(mContext,
+                android.R.style.Theme_Material_Light);
+        getDrawable(first, R.drawable.ic_heart_full);
+        first.getTheme().applyStyle(android.R.style.ThemeOverlay_Material_Dark, true);
+
+        // The drawable was tinted for the theme before the style was applied
+        getDrawable(first, R.drawable.ic_heart_full);
+        assertEquals(0, mHits);
+        assertEquals(2, mMisses);
+
+        // ...and is still found for a context with that theme
+        final Context second = new ContextThemeWrapper(mContext,
+                android.R.style.Theme_Material_Light);
+        getDrawable(second, R.drawable.ic_heart_full);
+        assertEquals(1, mHits);
+    }
+
+    @Test
+    public void getDrawable_bitmapDrawableNotCached() {
+        getDrawable(mContext, R.drawable.state_list_density_1);
+        getDrawable(mContext, R.drawable.state_list_density_1);
+        assertEquals(0, mHits);
+        assertEquals(2, mMisses);
+    }
+
+    @Test
+    public void getDrawable_drawableWithoutTintListNotCounted() {
+        mManager.setHooks(new TintHooks() {
+            @Override
+            public ColorStateList getTintListForDrawableRes(@NonNull Context context,
+                    int resId) {
+                return null;
+            }
+        });
+        getDrawable(mContext, R.drawable.ic_heart_full);
+        getDrawable(mContext, R.drawable.ic_heart_full);
+        assertEquals(0, mHits);
+        assertEquals(0, mMisses);
+    }
+
+    private Drawable getDrawable(@NonNull Context context, int resId) {
+        final int hitCount = mManager.getTintedDrawableCacheHitCount();
+        final int missCount = mManager.getTintedDrawableCacheMissCount();
+        final Drawable drawable = mManager.getDrawable(context, resId);
+        mHits += mManager.getTintedDrawableCacheHitCount() - hitCount;
+        mMisses += mManager.getTintedDrawableCacheMissCount() - missCount;
+        return drawable;
+    }
+
+    /**
+     * Tints all drawables in red.
+     */
+    private static class TintHooks implements ResourceManagerInternal.ResourceManagerHooks {
+        @Override
+        public Drawable createDrawableFor(@NonNull ResourceManagerInternal manager,
+                @NonNull Context context, int resId) {
+            return null;
+        }
+
+        @Override
+        public boolean tintDrawable(@NonNull Context context, int resId,
+                @NonNull Drawable drawable) {
+            return false;
+        }
+
+        @Override
+        public ColorStateList getTintListForDrawableRes(@NonNull Context context, int resId) {
+            return ColorStateList.valueOf(Color.RED);
+        }
+
+        @Override
+        public boolean tintDrawableUsingColorFilter(@NonNull Context context, int resId,
+                @NonNull Drawable drawable) {
+            return false;
+        }
+
+        @Override
+        public PorterDuff.Mode getTintModeForDrawableRes(int resId) {
+            return null;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
@@ -109,7 +110,12 @@ public final class ResourceManagerInternal {
         }
     }
 
-    private static final ColorFilterLruCache COLOR_FILTER_CACHE = new ColorFilterLruCache(6);
+    private static final ColorFilterLruCache COLOR_FILTER_CACHE = new ColorFilterLruCache(32);
+
+    /**
+     * The number of tinted drawables whose state is kept by {@link #mTintedDrawableCache}.
+     */
+    private static final int TINTED_DRAWABLE_CACHE_SIZE = 64;
 
     private WeakHashMap<Context, SparseArrayCompat<ColorStateList>> mTintLists;
     private SimpleArrayMap<String, InflateDelegate> mDelegates;
@@ -118,6 +124,15 @@ public final class ResourceManagerInternal {
     private final WeakHashMap<Context, LongSparseArray<WeakReference<ConstantState>>>
             mDrawableCaches = new WeakHashMap<>(0);
 
+    /**
+     * Strongly keeps the state of recently tinted vector drawables, independently of the context
+     * they were loaded for, so that contexts with the same theme and configuration, such as a
+     * recreated activity, don't inflate and tint them again. Only vector drawables are kept, as
+     * their state is small compared to the bitmap of other drawables.
+     */
+    private final LruCache<TintedDrawableKey, ConstantState> mTintedDrawableCache =
+            new LruCache<>(TINTED_DRAWABLE_CACHE_SIZE);
+
     private TypedValue mTypedValue;
 
     private boolean mHasCheckedVectorDrawableSetup;
@@ -136,7 +151,13 @@ public final class ResourceManagerInternal {
             boolean failIfNotKnown) {
         checkVectorDrawableSetup(context);
 
-        Drawable drawable = loadDrawableFromDelegates(context, resId);
+        Drawable drawable = getCachedTintedDrawable(context, resId);
+        if (drawable != null) {
+            DrawableUtils.fixDrawable(drawable);
+            return drawable;
+        }
+
+        drawable = loadDrawableFromDelegates(context, resId);
         if (drawable == null) {
             drawable = createDrawableIfNeeded(context, resId);
         }
@@ -211,6 +232,7 @@ public final class ResourceManagerInternal {
             if (tintMode != null) {
                 DrawableCompat.setTintMode(drawable, tintMode);
             }
+            addTintedDrawableToCache(context, resId, drawable);
         } else if ((mHooks != null) && mHooks.tintDrawable(context, resId, drawable)) {
             // If we're here, the installed hooks reported successful tinting of the
             // specific drawable
@@ -346,9 +368,81 @@ public final class ResourceManagerInternal {
         return false;
     }
 
+    /**
+     * Returns a new drawable for {@code resId} tinted for {@code context}, if a drawable was
+     * tinted for a context with the same theme and configuration recently.
+     */
+    private Drawable getCachedTintedDrawable(@NonNull Context context,
+            @DrawableRes int resId) {
+        if (Build.VERSION.SDK_INT < 24 || getTintList(context, resId) == null) {
+            // Themes are only compared by their styles from API 24, and drawables which are
+            // not tinted with a tint list are never cached, so don't count a lookup.
+            return null;
+        }
+        final Resources res = context.getResources();
+        final ConstantState cs = mTintedDrawableCache.get(
+                new TintedDrawableKey(resId, res.getConfiguration(), context.getTheme()));
+        if (cs == null) {
+            return null;
+        }
+        // Drawables tinted by getDrawable() are mutated, so don't share the cached state with
+        // the caller.
+        return cs.newDrawable(res).mutate();
+    }
+
+    private void addTintedDrawableToCache(@NonNull Context context, @DrawableRes int resId,
+            @NonNull Drawable drawable) {
+        if (Build.VERSION.SDK_INT < 24 || !isVectorDrawable(DrawableCompat.unwrap(drawable))) {
+            return;
+        }
+        final ConstantState cs = drawable.getConstantState();
+        if (cs == null) {
+            return;
+        }
+        // Cache the state of a mutated copy, so that changes made by the caller to the returned
+        // drawable aren't cached.
+        final Resources res = context.getResources();
+        final Drawable copy = cs.newDrawable(res);
+        if (!DrawableUtils.canSafelyMutateDrawable(copy)) {
+            return;
+        }
+        final ConstantState copyState = copy.mutate().getConstantState();
+        if (copyState != null) {
+            // The theme of the context may still change, so key the drawable by a copy of it.
+            final Resources.Theme theme = context.getTheme();
+            Resources.Theme themeCopy = null;
+            if (theme != null) {
+                themeCopy = res.newTheme();
+                themeCopy.setTo(theme);
+            }
+            mTintedDrawableCache.put(new TintedDrawableKey(resId,
+                    new Configuration(res.getConfiguration()), themeCopy), copyState);
+        }
+    }
+
+    /**
+     * Returns the number of times a tinted drawable was found in the cache shared between
+     * contexts.
+     */
+    public synchronized int getTintedDrawableCacheHitCount() {
+        return mTintedDrawableCache.hitCount();
+    }
+
+    /**
+     * Returns the number of times a tinted drawable was not found in the cache shared between
+     * contexts.
+     */
+    public synchronized int getTintedDrawableCacheMissCount() {
+        return mTintedDrawableCache.missCount();
+    }
+
     synchronized Drawable onDrawableLoadedFromResources(@NonNull Context context,
             @NonNull VectorEnabledTintResources resources, @DrawableRes final int resId) {
-        Drawable drawable = loadDrawableFromDelegates(context, resId);
+        Drawable drawable = getCachedTintedDrawable(context, resId);
+        if (drawable != null) {
+            return drawable;
+        }
+        drawable = loadDrawableFromDelegates(context, resId);
         if (drawable == null) {
             drawable = resources.superGetDrawable(resId);
         }
@@ -410,6 +504,46 @@ public final class ResourceManagerInternal {
         themeTints.append(resId, tintList);
     }
 
+    /**
+     * The key of a tinted drawable in {@link #mTintedDrawableCache}. The tint of a drawable and
+     * the drawable itself only depend on the theme and the configuration of the context it is
+     * loaded for. Themes are compared by their applied styles, which requires API 24. Keys
+     * kept by the cache hold a copy of the theme, so that styles applied to the theme of the
+     * context later don't change the key.
+     */
+    private static final class TintedDrawableKey {
+        private final int mResId;
+        private final Configuration mConfiguration;
+        private final Resources.Theme mTheme;
+        private final int mHashCode;
+
+        TintedDrawableKey(@DrawableRes int resId, @NonNull Configuration configuration,
+                @Nullable Resources.Theme theme) {
+            mResId = resId;
+            mConfiguration = configuration;
+            mTheme = theme;
+            int hashCode = resId;
+            hashCode = 31 * hashCode + configuration.hashCode();
+            hashCode = 31 * hashCode + (theme != null ? theme.hashCode() : 0);
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TintedDrawableKey)) return false;
+            final TintedDrawableKey other = (TintedDrawableKey) o;
+            return mResId == other.mResId
+                    && mConfiguration.equals(other.mConfiguration)
+                    && (mTheme == null ? other.mTheme == null : mTheme.equals(other.mTheme));
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
     private static class ColorFilterLruCache extends LruCache<Integer, PorterDuffColorFilter> {
 
         public ColorFilterLruCache(int maxSize) {
@@ -464,6 +598,20 @@ public final class ResourceManagerInternal {
         return getPorterDuffColorFilter(color, tintMode);
     }
 
+    /**
+     * Returns the number of times a color filter was found in the cache.
+     */
+    public static synchronized int getColorFilterCacheHitCount() {
+        return COLOR_FILTER_CACHE.hitCount();
+    }
+
+    /**
+     * Returns the number of times a color filter was not found in the cache.
+     */
+    public static synchronized int getColorFilterCacheMissCount() {
+        return COLOR_FILTER_CACHE.missCount();
+    }
+
     public static synchronized PorterDuffColorFilter getPorterDuffColorFilter(
             int color, PorterDuff.Mode mode) {
         // First, let's see if the cache already contains the color filter
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.benchmark
+
+import androidx.appsearch.app.AppSearchSchema
+import androidx.appsearch.app.AppSearchSession
+import androidx.appsearch.app.GenericDocument
+import androidx.appsearch.app.PutDocumentsRequest
+import androidx.appsearch.app.SetSchemaRequest
+import androidx.appsearch.localstorage.LocalStorage
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures the throughput of indexing a batch of documents with
+ * [AppSearchSession.putDocuments].
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class PutDocumentsBenchmark(private val documentCount: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var session: AppSearchSession
+    private lateinit var request: PutDocumentsRequest
+
+    @Before
+    fun setup() {
+        val context = LocalStorage.SearchContext.Builder(
+            ApplicationProvider.getApplicationContext()
+        ).setDatabaseName(DATABASE_NAME).build()
+        session = LocalStorage.createSearchSession(context).get()
+
+        val documents = List(documentCount) { i ->
+            GenericDocument.Builder<GenericDocument.Builder<*>>("uri$i", SCHEMA_TYPE)
+                .setNamespace(NAMESPACE)
+                .setPropertyString(PROPERTY_SUBJECT, "subject $i")
+                .setPropertyString(PROPERTY_BODY, "the body of message number $i")
+                .build()
+        }
+        request = PutDocumentsRequest.Builder().addGenericDocument(documents).build()
+    }
+
+    @After
+    fun tearDown() {
+        clearDatabase()
+        session.close()
+    }
+
+    @Test
+    fun putDocuments() {
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                // Re-creating the schema type removes the documents of the previous iteration, so
+                // that each iteration indexes new documents instead of replacing them.
+                clearDatabase()
+                session.setSchema(
+                    SetSchemaRequest.Builder().addSchema(SCHEMA).build()
+                ).get()
+            }
+            val result = session.putDocuments(request).get()
+            runWithTimingDisabled {
+                assertTrue(result.isSuccess)
+            }
+        }
+    }
+
+    private fun clearDatabase() {
+        session.setSchema(SetSchemaRequest.Builder().setForceOverride(true).build()).get()
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "documentCount={0}")
+        fun data() = listOf(1_000, 10_000, 100_000)
+
+        private const val DATABASE_NAME = "put-documents-benchmark"
+        private const val NAMESPACE = "namespace"
+        private const val SCHEMA_TYPE = "Message"
+        private const val PROPERTY_SUBJECT = "subject"
+        private const val PROPERTY_BODY = "body"
+
+        private val SCHEMA = AppSearchSchema.Builder(SCHEMA_TYPE)
+            .addProperty(stringProperty(PROPERTY_SUBJECT))
+            .addProperty(stringProperty(PROPERTY_BODY))
+            .build()
+
+        private fun stringProperty(name: String) = AppSearchSchema.PropertyConfig.Builder(name)
+            .setDataType(AppSearchSchema.PropertyConfig.DATA_TYPE_STRING)
+            .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+            .setIndexingType(AppSearchSchema.PropertyConfig.INDEXING_TYPE_PREFIXES)
+            .setTokenizerType(AppSearchSchema.PropertyConfig.TOKENIZER_TYPE_PLAIN)
+            .build()
+    }
+}
@@ -101,6 +101,7 @@ class ExportToFramework:
             .replace('androidx.annotation.', 'android.annotation.')
             .replace('androidx.collection.ArrayMap', 'android.util.ArrayMap')
             .replace('androidx.collection.ArraySet', 'android.util.ArraySet')
+            .replace('androidx.collection.LruCache', 'android.util.LruCache')
             .replace(
                     'androidx.core.util.ObjectsCompat',
                     'java.util.Objects')
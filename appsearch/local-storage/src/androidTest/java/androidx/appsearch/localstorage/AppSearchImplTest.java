@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.junit.Assert.assertThrows;
 
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
 import androidx.appsearch.app.SearchResult;
@@ -50,6 +51,8 @@ import org.junit.rules.TemporaryFolder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class AppSearchImplTest {
     @Rule
@@ -367,6 +370,80 @@ public class AppSearchImplTest {
                 .isLessThan(AppSearchImpl.CHECK_OPTIMIZE_INTERVAL);
     }
 
+    @Test
+    public void testPutDocuments() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        mAppSearchImpl.setSchema("package", "database", schemas, /*schemasNotPlatformSurfaceable=*/
+                Collections.emptyList(), /*forceOverride=*/ false);
+
+        GenericDocument document1 = new GenericDocument.Builder<>("uri1", "type").setNamespace(
+                "namespace").build();
+        GenericDocument document2 = new GenericDocument.Builder<>("uri2", "unknownType")
+                .setNamespace("namespace").build();
+        AppSearchBatchResult<String, Void> result = mAppSearchImpl.putDocuments("package",
+                "database", ImmutableList.of(document1, document2), /*executor=*/ null);
+
+        assertThat(result.getSuccesses()).containsExactly("uri1", null);
+        assertThat(result.getFailures().keySet()).containsExactly("uri2");
+        assertThat(mAppSearchImpl.getDocument("package", "database", "namespace", "uri1"))
+                .isEqualTo(document1);
+    }
+
+    @Test
+    public void testPutDocuments_convertedInParallel() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        mAppSearchImpl.setSchema("package", "database", schemas, /*schemasNotPlatformSurfaceable=*/
+                Collections.emptyList(), /*forceOverride=*/ false);
+
+        int documentCount = AppSearchImpl.MIN_DOCUMENTS_PER_CONVERSION_TASK * 8 + 1;
+        List<GenericDocument> documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            documents.add(new GenericDocument.Builder<>("uri" + i, "type").setNamespace(
+                    "namespace").build());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AppSearchBatchResult<String, Void> result = mAppSearchImpl.putDocuments("package",
+                    "database", documents, executor);
+            assertThat(result.isSuccess()).isTrue();
+            assertThat(result.getSuccesses()).hasSize(documentCount);
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < documentCount; i++) {
+            assertThat(mAppSearchImpl.getDocument("package", "database", "namespace", "uri" + i))
+                    .isEqualTo(documents.get(i));
+        }
+    }
+
+    @Test
+    public void testPutDocuments_onSingleThreadExecutor() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        mAppSearchImpl.setSchema("package", "database", schemas, /*schemasNotPlatformSurfaceable=*/
+                Collections.emptyList(), /*forceOverride=*/ false);
+
+        int documentCount = AppSearchImpl.MIN_DOCUMENTS_PER_CONVERSION_TASK * 8;
+        List<GenericDocument> documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            documents.add(new GenericDocument.Builder<>("uri" + i, "type").setNamespace(
+                    "namespace").build());
+        }
+        // The conversion tasks are queued behind the put itself and must not be waited for.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AppSearchBatchResult<String, Void> result = executor.submit(
+                    () -> mAppSearchImpl.putDocuments("package", "database", documents,
+                            executor)).get();
+            assertThat(result.isSuccess()).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testRewriteSearchSpec_oneInstance() throws Exception {
         SearchSpecProto.Builder searchSpecProto =
@@ -435,6 +512,65 @@ public class AppSearchImplTest {
         assertThat(searchResultPage.getResults()).isEmpty();
     }
 
+    @Test
+    public void testQuery_resultsCachedUntilMutation() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        mAppSearchImpl.setSchema("package", "database", schemas, /*schemasNotPlatformSurfaceable=*/
+                Collections.emptyList(), /*forceOverride=*/ false);
+        mAppSearchImpl.putDocument("package", "database",
+                new GenericDocument.Builder<>("uri1", "type").setNamespace("namespace").build());
+
+        SearchSpec searchSpec =
+                new SearchSpec.Builder().setTermMatch(TermMatchType.Code.PREFIX_VALUE).build();
+        SearchResultPage firstPage = mAppSearchImpl.query("package", "database", "", searchSpec);
+        assertThat(firstPage.getResults()).hasSize(1);
+
+        // The same query is answered from the cache, with a page of its own.
+        QueryResultCache cache = mAppSearchImpl.getQueryResultCache();
+        int hitCount = cache.getHitCount();
+        SearchResultPage secondPage = mAppSearchImpl.query("package", "database", "", searchSpec);
+        assertThat(cache.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(secondPage).isNotSameInstanceAs(firstPage);
+        assertThat(secondPage.getBundle()).isNotSameInstanceAs(firstPage.getBundle());
+        assertThat(secondPage.getResults()).hasSize(1);
+        assertThat(secondPage.getResults().get(0).getDocument())
+                .isEqualTo(firstPage.getResults().get(0).getDocument());
+
+        // A mutation invalidates the cached results.
+        mAppSearchImpl.putDocument("package", "database",
+                new GenericDocument.Builder<>("uri2", "type").setNamespace("namespace").build());
+        SearchResultPage thirdPage = mAppSearchImpl.query("package", "database", "", searchSpec);
+        assertThat(cache.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(thirdPage.getResults()).hasSize(2);
+    }
+
+    @Test
+    public void testQuery_resultsWithNextPageNotCached() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        mAppSearchImpl.setSchema("package", "database", schemas, /*schemasNotPlatformSurfaceable=*/
+                Collections.emptyList(), /*forceOverride=*/ false);
+        for (int i = 0; i < 3; i++) {
+            mAppSearchImpl.putDocument("package", "database",
+                    new GenericDocument.Builder<>("uri" + i, "type").setNamespace("namespace")
+                            .build());
+        }
+
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(TermMatchType.Code.PREFIX_VALUE)
+                .setResultCountPerPage(2)
+                .build();
+        SearchResultPage firstPage = mAppSearchImpl.query("package", "database", "", searchSpec);
+        assertThat(firstPage.getNextPageToken()).isNotEqualTo(0);
+        SearchResultPage secondPage = mAppSearchImpl.query("package", "database", "", searchSpec);
+        assertThat(secondPage).isNotSameInstanceAs(firstPage);
+        assertThat(secondPage.getNextPageToken()).isNotEqualTo(firstPage.getNextPageToken());
+
+        mAppSearchImpl.invalidateNextPageToken(firstPage.getNextPageToken());
+        mAppSearchImpl.invalidateNextPageToken(secondPage.getNextPageToken());
+    }
+
     @Test
     public void testGlobalQueryEmptyDatabase() throws Exception {
         SearchSpec searchSpec =
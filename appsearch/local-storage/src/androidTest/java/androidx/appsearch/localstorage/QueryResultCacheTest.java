@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localstorage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.icing.proto.DocumentProto;
+import com.google.android.icing.proto.ResultSpecProto;
+import com.google.android.icing.proto.ScoringSpecProto;
+import com.google.android.icing.proto.SearchResultProto;
+import com.google.android.icing.proto.SearchSpecProto;
+
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+    private static final QueryResultCache.Key KEY = new QueryResultCache.Key(
+            SearchSpecProto.getDefaultInstance(), ScoringSpecProto.getDefaultInstance(),
+            ResultSpecProto.getDefaultInstance());
+
+    @Test
+    public void testGet_withoutTtl() {
+        QueryResultCache cache = new QueryResultCache(/*maxSize=*/ 1);
+        SearchResultProto result = createResult(
+                DocumentProto.newBuilder().setUri("uri").setCreationTimestampMs(0).build());
+
+        cache.put(KEY, cache.getGeneration(), result);
+        assertThat(cache.get(KEY)).isSameInstanceAs(result);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGet_documentNotExpired() {
+        QueryResultCache cache = new QueryResultCache(/*maxSize=*/ 1);
+        SearchResultProto result = createResult(DocumentProto.newBuilder().setUri("uri")
+                .setCreationTimestampMs(System.currentTimeMillis()).setTtlMs(60_000).build());
+
+        cache.put(KEY, cache.getGeneration(), result);
+        assertThat(cache.get(KEY)).isSameInstanceAs(result);
+    }
+
+    @Test
+    public void testGet_documentExpired() {
+        QueryResultCache cache = new QueryResultCache(/*maxSize=*/ 1);
+        long now = System.currentTimeMillis();
+        SearchResultProto result = createResult(
+                DocumentProto.newBuilder().setUri("uri1").setCreationTimestampMs(now).build(),
+                DocumentProto.newBuilder().setUri("uri2")
+                        .setCreationTimestampMs(now - 2_000).setTtlMs(1_000).build());
+
+        cache.put(KEY, cache.getGeneration(), result);
+        assertThat(cache.get(KEY)).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPut_afterInvalidate() {
+        QueryResultCache cache = new QueryResultCache(/*maxSize=*/ 1);
+        long generation = cache.getGeneration();
+        cache.invalidate();
+
+        cache.put(KEY, generation, createResult());
+        assertThat(cache.get(KEY)).isNull();
+    }
+
+    private static SearchResultProto createResult(DocumentProto... documents) {
+        SearchResultProto.Builder builder = SearchResultProto.newBuilder();
+        for (DocumentProto document : documents) {
+            builder.addResults(SearchResultProto.ResultProto.newBuilder().setDocument(document));
+        }
+        return builder.build();
+    }
+}
@@ -16,14 +16,18 @@
 
 package androidx.appsearch.localstorage;
 
+import static androidx.appsearch.app.AppSearchResult.throwableToFailedResult;
+
 import android.os.Bundle;
 import android.util.Log;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
@@ -71,6 +75,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -125,6 +133,17 @@ public final class AppSearchImpl {
     @VisibleForTesting
     static final int CHECK_OPTIMIZE_INTERVAL = 100;
 
+    /**
+     * The minimum number of documents converted by one task in {@link #putDocuments}. Smaller
+     * batches are converted on the calling thread.
+     */
+    @VisibleForTesting
+    static final int MIN_DOCUMENTS_PER_CONVERSION_TASK = 64;
+
+    /** The maximum number of complete query results kept in {@link #mQueryResultCache}. */
+    @VisibleForTesting
+    static final int QUERY_RESULT_CACHE_SIZE = 32;
+
     private final ReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
 
     @GuardedBy("mReadWriteLock")
@@ -153,6 +172,13 @@ public final class AppSearchImpl {
     @GuardedBy("mReadWriteLock")
     private int mOptimizeIntervalCountLocked = 0;
 
+    /**
+     * Results of recent queries. Invalidated under the WRITE lock by every method of the mutate
+     * group.
+     */
+    private final QueryResultCache mQueryResultCache =
+            new QueryResultCache(QUERY_RESULT_CACHE_SIZE);
+
     /**
      * Creates and initializes an instance of {@link AppSearchImpl} which writes data to the given
      * folder.
@@ -222,6 +248,7 @@ public final class AppSearchImpl {
     void initializeVisibilityStore() throws AppSearchException {
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             mVisibilityStoreLocked.initialize();
         } finally {
             mReadWriteLock.writeLock().unlock();
@@ -251,6 +278,7 @@ public final class AppSearchImpl {
             boolean forceOverride) throws AppSearchException {
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             SchemaProto.Builder existingSchemaBuilder = getSchemaProtoLocked().toBuilder();
 
             SchemaProto.Builder newSchemaBuilder = SchemaProto.newBuilder();
@@ -390,6 +418,7 @@ public final class AppSearchImpl {
         PutResultProto putResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             putResultProto = mIcingSearchEngineLocked.put(documentBuilder.build());
             addToMap(mNamespaceMapLocked, prefix, documentBuilder.getNamespace());
             // The existing documents with same URI will be deleted, so there maybe some resources
@@ -401,6 +430,152 @@ public final class AppSearchImpl {
         checkSuccess(putResultProto.getStatus());
     }
 
+    /**
+     * Adds a batch of documents to the AppSearch index.
+     *
+     * <p>The documents are converted to protos and prefixed before the WRITE lock is taken, in
+     * parallel on {@code executor} if one is given. All of them are then written to Icing under a
+     * single acquisition of the WRITE lock, and the need for optimize() is checked once for the
+     * whole batch.
+     *
+     * <p>This method belongs to mutate group.
+     *
+     * @param packageName  The package name that owns the documents.
+     * @param databaseName The databaseName the documents reside in.
+     * @param documents    The documents to index.
+     * @param executor     The executor to convert the documents on in addition to the calling
+     *                     thread, or {@code null} to convert them on the calling thread only. The
+     *                     calling thread never waits for a task that the executor has not started,
+     *                     so it is safe to pass the executor this method is running on.
+     * @return The result of each document, keyed by its URI.
+     */
+    @NonNull
+    public AppSearchBatchResult<String, Void> putDocuments(@NonNull String packageName,
+            @NonNull String databaseName, @NonNull List<GenericDocument> documents,
+            @Nullable Executor executor) {
+        String prefix = createPrefix(packageName, databaseName);
+        int documentCount = documents.size();
+        DocumentProto[] documentProtos = new DocumentProto[documentCount];
+        Throwable[] failures = new Throwable[documentCount];
+        convertDocuments(documents, prefix, documentProtos, failures, executor);
+
+        mReadWriteLock.writeLock().lock();
+        try {
+            mQueryResultCache.invalidate();
+            int putCount = 0;
+            for (int i = 0; i < documentCount; i++) {
+                if (documentProtos[i] == null) {
+                    continue;
+                }
+                PutResultProto putResultProto = mIcingSearchEngineLocked.put(documentProtos[i]);
+                try {
+                    checkSuccess(putResultProto.getStatus());
+                    addToMap(mNamespaceMapLocked, prefix, documentProtos[i].getNamespace());
+                    putCount++;
+                } catch (AppSearchException e) {
+                    failures[i] = e;
+                }
+            }
+            if (putCount > 0) {
+                try {
+                    // The existing documents with same URI will be deleted, so there maybe some
+                    // resources could be released after optimize().
+                    checkForOptimizeLocked(putCount, /* force= */ false);
+                } catch (AppSearchException e) {
+                    // The documents are already indexed, so don't report them as failed.
+                    Log.w(TAG, "Failed to check for optimize after putting documents", e);
+                }
+            }
+        } finally {
+            mReadWriteLock.writeLock().unlock();
+        }
+
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        for (int i = 0; i < documentCount; i++) {
+            String uri = documents.get(i).getUri();
+            if (failures[i] == null) {
+                resultBuilder.setSuccess(uri, /*result=*/ null);
+            } else {
+                resultBuilder.setResult(uri, throwableToFailedResult(failures[i]));
+            }
+        }
+        return resultBuilder.build();
+    }
+
+    /**
+     * Converts {@code documents} to prefixed {@link DocumentProto}s.
+     *
+     * <p>The documents are split into chunks which are claimed by the calling thread and by tasks
+     * posted to {@code executor}. A task that starts after all chunks are claimed does nothing,
+     * therefore the calling thread only waits for chunks that are being converted.
+     *
+     * @param documentProtos Receives the converted document at the index of the document.
+     * @param failures       Receives the failure to convert a document at its index.
+     */
+    private static void convertDocuments(@NonNull List<GenericDocument> documents,
+            @NonNull String prefix, @NonNull DocumentProto[] documentProtos,
+            @NonNull Throwable[] failures, @Nullable Executor executor) {
+        int documentCount = documents.size();
+        int chunkCount = Math.min(Runtime.getRuntime().availableProcessors(),
+                documentCount / MIN_DOCUMENTS_PER_CONVERSION_TASK);
+        if (executor == null || chunkCount <= 1) {
+            convertDocuments(documents, 0, documentCount, prefix, documentProtos, failures);
+            return;
+        }
+
+        AtomicInteger nextChunk = new AtomicInteger();
+        CountDownLatch convertedChunks = new CountDownLatch(chunkCount);
+        Runnable converter = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                convertDocuments(documents,
+                        (int) ((long) chunk * documentCount / chunkCount),
+                        (int) ((long) (chunk + 1) * documentCount / chunkCount),
+                        prefix, documentProtos, failures);
+                convertedChunks.countDown();
+            }
+        };
+        for (int i = 1; i < chunkCount; i++) {
+            try {
+                executor.execute(converter);
+            } catch (RejectedExecutionException e) {
+                // The calling thread converts the remaining chunks.
+                break;
+            }
+        }
+        converter.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                convertedChunks.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void convertDocuments(@NonNull List<GenericDocument> documents, int start,
+            int end, @NonNull String prefix, @NonNull DocumentProto[] documentProtos,
+            @NonNull Throwable[] failures) {
+        for (int i = start; i < end; i++) {
+            try {
+                DocumentProto.Builder documentBuilder =
+                        GenericDocumentToProtoConverter.toDocumentProto(documents.get(i))
+                                .toBuilder();
+                addPrefixToDocument(documentBuilder, prefix);
+                documentProtos[i] = documentBuilder.build();
+            } catch (Throwable t) {
+                failures[i] = t;
+            }
+        }
+    }
+
     /**
      * Retrieves a document from the AppSearch index by URI.
      *
@@ -452,14 +627,31 @@ public final class AppSearchImpl {
             @NonNull String databaseName,
             @NonNull String queryExpression,
             @NonNull SearchSpec searchSpec) throws AppSearchException {
+        SearchResultProto searchResultProto = null;
+        SearchResultProto cachedResultProto;
+        QueryResultCache.Key cacheKey;
+        long cacheGeneration = 0;
         mReadWriteLock.readLock().lock();
         try {
-            return doQueryLocked(Collections.singleton(createPrefix(packageName, databaseName)),
-                    queryExpression,
-                    searchSpec);
+            cacheKey = createQueryCacheKeyLocked(
+                    Collections.singleton(createPrefix(packageName, databaseName)),
+                    queryExpression, searchSpec);
+            if (cacheKey == null) {
+                return new SearchResultPage(Bundle.EMPTY);
+            }
+            cachedResultProto = mQueryResultCache.get(cacheKey);
+            if (cachedResultProto == null) {
+                cacheGeneration = mQueryResultCache.getGeneration();
+                searchResultProto = doQueryLocked(cacheKey);
+            }
         } finally {
             mReadWriteLock.readLock().unlock();
         }
+        if (cachedResultProto != null) {
+            // Every caller gets its own page, as pages are mutable.
+            return rewriteSearchResultProto(cachedResultProto);
+        }
+        return toSearchResultPage(searchResultProto, cacheKey, cacheGeneration);
     }
 
     /**
@@ -481,6 +673,10 @@ public final class AppSearchImpl {
         // TODO(b/169883602): Check if the platform is querying us at a higher level. At this
         //  point, we should add all platform-surfaceable schemas assuming the querier has been
         //  verified.
+        SearchResultProto searchResultProto = null;
+        SearchResultProto cachedResultProto;
+        QueryResultCache.Key cacheKey;
+        long cacheGeneration = 0;
         mReadWriteLock.readLock().lock();
         try {
             // We use the mNamespaceMap.keySet here because it's the smaller set of valid prefixes
@@ -491,17 +687,37 @@ public final class AppSearchImpl {
             prefixes.remove(createPrefix(VisibilityStore.PACKAGE_NAME,
                     VisibilityStore.DATABASE_NAME));
 
-            return doQueryLocked(prefixes, queryExpression, searchSpec);
+            cacheKey = createQueryCacheKeyLocked(prefixes, queryExpression, searchSpec);
+            if (cacheKey == null) {
+                return new SearchResultPage(Bundle.EMPTY);
+            }
+            cachedResultProto = mQueryResultCache.get(cacheKey);
+            if (cachedResultProto == null) {
+                cacheGeneration = mQueryResultCache.getGeneration();
+                searchResultProto = doQueryLocked(cacheKey);
+            }
         } finally {
             mReadWriteLock.readLock().unlock();
         }
+        if (cachedResultProto != null) {
+            // Every caller gets its own page, as pages are mutable.
+            return rewriteSearchResultProto(cachedResultProto);
+        }
+        return toSearchResultPage(searchResultProto, cacheKey, cacheGeneration);
     }
 
+    /**
+     * Rewrites the given query for {@code prefixes} into the specs sent to Icing, which are also
+     * the key of the query in {@link #mQueryResultCache}.
+     *
+     * @return the specs of the query, or {@code null} if none of the prefixes exist and the query
+     * can't have any results.
+     */
     @GuardedBy("mReadWriteLock")
-    private SearchResultPage doQueryLocked(
+    @Nullable
+    private QueryResultCache.Key createQueryCacheKeyLocked(
             @NonNull Set<String> prefixes, @NonNull String queryExpression,
-            @NonNull SearchSpec searchSpec)
-            throws AppSearchException {
+            @NonNull SearchSpec searchSpec) {
         SearchSpecProto.Builder searchSpecBuilder =
                 SearchSpecToProtoConverter.toSearchSpecProto(searchSpec).toBuilder().setQuery(
                         queryExpression);
@@ -509,8 +725,17 @@ public final class AppSearchImpl {
         // client is trying to search on exist, so we can return an empty SearchResult and skip
         // sending request to Icing.
         if (!rewriteSearchSpecForPrefixesLocked(searchSpecBuilder, prefixes)) {
-            return new SearchResultPage(Bundle.EMPTY);
+            return null;
         }
+        // The filters come from sets, so sort them to make equal queries produce equal keys.
+        List<String> schemaTypeFilters = new ArrayList<>(
+                searchSpecBuilder.getSchemaTypeFiltersList());
+        Collections.sort(schemaTypeFilters);
+        List<String> namespaceFilters = new ArrayList<>(
+                searchSpecBuilder.getNamespaceFiltersList());
+        Collections.sort(namespaceFilters);
+        searchSpecBuilder.clearSchemaTypeFilters().addAllSchemaTypeFilters(schemaTypeFilters)
+                .clearNamespaceFilters().addAllNamespaceFilters(namespaceFilters);
 
         ResultSpecProto.Builder resultSpecBuilder =
                 SearchSpecToProtoConverter.toResultSpecProto(searchSpec).toBuilder();
@@ -519,14 +744,30 @@ public final class AppSearchImpl {
         // client is trying to search on exist, so we can return an empty SearchResult and skip
         // sending request to Icing.
         if (!rewriteResultSpecForPrefixesLocked(resultSpecBuilder, prefixes)) {
-            return new SearchResultPage(Bundle.EMPTY);
+            return null;
         }
 
         ScoringSpecProto scoringSpec = SearchSpecToProtoConverter.toScoringSpecProto(searchSpec);
-        SearchResultProto searchResultProto = mIcingSearchEngineLocked.search(
-                searchSpecBuilder.build(), scoringSpec, resultSpecBuilder.build());
-        checkSuccess(searchResultProto.getStatus());
+        return new QueryResultCache.Key(searchSpecBuilder.build(), scoringSpec,
+                resultSpecBuilder.build());
+    }
+
+    @GuardedBy("mReadWriteLock")
+    @NonNull
+    private SearchResultProto doQueryLocked(@NonNull QueryResultCache.Key query) {
+        return mIcingSearchEngineLocked.search(query.getSearchSpec(), query.getScoringSpec(),
+                query.getResultSpec());
+    }
 
+    /**
+     * Converts the results of a query outside of the lock, and caches them if they are complete.
+     */
+    @NonNull
+    private SearchResultPage toSearchResultPage(@NonNull SearchResultProto searchResultProto,
+            @NonNull QueryResultCache.Key cacheKey, long cacheGeneration)
+            throws AppSearchException {
+        checkSuccess(searchResultProto.getStatus());
+        mQueryResultCache.put(cacheKey, cacheGeneration, searchResultProto);
         return rewriteSearchResultProto(searchResultProto);
     }
 
@@ -543,15 +784,16 @@ public final class AppSearchImpl {
     @NonNull
     public SearchResultPage getNextPage(long nextPageToken)
             throws AppSearchException {
+        SearchResultProto searchResultProto;
         mReadWriteLock.readLock().lock();
         try {
-            SearchResultProto searchResultProto = mIcingSearchEngineLocked.getNextPage(
-                    nextPageToken);
-            checkSuccess(searchResultProto.getStatus());
-            return rewriteSearchResultProto(searchResultProto);
+            searchResultProto = mIcingSearchEngineLocked.getNextPage(nextPageToken);
         } finally {
             mReadWriteLock.readLock().unlock();
         }
+        // The results are converted outside of the lock so that mutations don't wait for them.
+        checkSuccess(searchResultProto.getStatus());
+        return rewriteSearchResultProto(searchResultProto);
     }
 
     /**
@@ -589,6 +831,7 @@ public final class AppSearchImpl {
         DeleteResultProto deleteResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             deleteResultProto = mIcingSearchEngineLocked.delete(prefixedNamespace, uri);
             checkForOptimizeLocked(/* force= */false);
         } finally {
@@ -619,6 +862,7 @@ public final class AppSearchImpl {
         DeleteByQueryResultProto deleteResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             // Only rewrite SearchSpec for non empty prefixes.
             // rewriteSearchSpecForPrefixesLocked will return false for empty prefixes, we
             // should skip sending request to Icing and return in here.
@@ -669,6 +913,7 @@ public final class AppSearchImpl {
         ResetResultProto resetResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mQueryResultCache.invalidate();
             resetResultProto = mIcingSearchEngineLocked.reset();
             mOptimizeIntervalCountLocked = 0;
             mSchemaMapLocked.clear();
@@ -1102,7 +1347,23 @@ public final class AppSearchImpl {
      */
     @GuardedBy("mReadWriteLock")
     private void checkForOptimizeLocked(boolean force) throws AppSearchException {
-        ++mOptimizeIntervalCountLocked;
+        checkForOptimizeLocked(/* mutationCount= */ 1, force);
+    }
+
+    /**
+     * Checks whether {@link IcingSearchEngine#optimize()} should be called to release resources
+     * after a batch of mutations.
+     *
+     * @param mutationCount the number of mutations in the batch, counted towards
+     *                      {@link #CHECK_OPTIMIZE_INTERVAL}.
+     * @param force         whether we should directly call
+     *                      {@link IcingSearchEngine#getOptimizeInfo()}.
+     * @see #checkForOptimizeLocked(boolean)
+     */
+    @GuardedBy("mReadWriteLock")
+    private void checkForOptimizeLocked(int mutationCount, boolean force)
+            throws AppSearchException {
+        mOptimizeIntervalCountLocked += mutationCount;
         if (force || mOptimizeIntervalCountLocked >= CHECK_OPTIMIZE_INTERVAL) {
             mOptimizeIntervalCountLocked = 0;
             GetOptimizeInfoResultProto optimizeInfo = getOptimizeInfoResultLocked();
@@ -1149,6 +1410,11 @@ public final class AppSearchImpl {
         return mIcingSearchEngineLocked.getOptimizeInfo();
     }
 
+    @VisibleForTesting
+    QueryResultCache getQueryResultCache() {
+        return mQueryResultCache;
+    }
+
     @GuardedBy("mReadWriteLock")
     @VisibleForTesting
     VisibilityStore getVisibilityStoreLocked() {
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localstorage;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+import androidx.core.util.ObjectsCompat;
+
+import com.google.android.icing.proto.DocumentProto;
+import com.google.android.icing.proto.ResultSpecProto;
+import com.google.android.icing.proto.ScoringSpecProto;
+import com.google.android.icing.proto.SearchResultProto;
+import com.google.android.icing.proto.SearchSpecProto;
+
+/**
+ * A bounded cache of query results, used by {@link AppSearchImpl} to answer repeated identical
+ * queries without going to Icing.
+ *
+ * <p>Only complete results, i.e. pages without a next page, are cached. A next-page token belongs
+ * to a single query execution in Icing and can't be shared between callers.
+ *
+ * <p>All entries are dropped on every mutation. A result computed before a mutation but put
+ * after it is discarded by comparing the generation that was current when the query started.
+ * Documents with a TTL expire without a mutation, so a result is only kept until the first of its
+ * documents expires.
+ *
+ * <p>The results are kept as the immutable protos returned by Icing, so that every caller gets
+ * its own {@link androidx.appsearch.app.SearchResultPage} built from them.
+ *
+ * <p>This class is thread safe.
+ */
+class QueryResultCache {
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private final LruCache<Key, Entry> mCache;
+
+    @GuardedBy("mLock")
+    private long mGeneration;
+
+    @GuardedBy("mLock")
+    private int mHitCount;
+
+    QueryResultCache(int maxSize) {
+        mCache = new LruCache<>(maxSize);
+    }
+
+    /** Returns the current generation, to be passed to {@link #put} for a new result. */
+    long getGeneration() {
+        synchronized (mLock) {
+            return mGeneration;
+        }
+    }
+
+    /**
+     * Returns the cached result for the query, or {@code null} if there is none or one of its
+     * documents has expired since it was cached.
+     */
+    @Nullable
+    SearchResultProto get(@NonNull Key key) {
+        synchronized (mLock) {
+            Entry entry = mCache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= entry.mExpirationMillis) {
+                mCache.remove(key);
+                return null;
+            }
+            mHitCount++;
+            return entry.mResult;
+        }
+    }
+
+    /**
+     * Caches the result of a query if it has no next page and no mutation happened since
+     * {@code generation}.
+     */
+    void put(@NonNull Key key, long generation, @NonNull SearchResultProto result) {
+        if (result.getNextPageToken() != 0) {
+            return;
+        }
+        long expirationMillis = Long.MAX_VALUE;
+        for (int i = 0; i < result.getResultsCount(); i++) {
+            DocumentProto document = result.getResults(i).getDocument();
+            if (document.getTtlMs() > 0) {
+                expirationMillis = Math.min(expirationMillis,
+                        document.getCreationTimestampMs() + document.getTtlMs());
+            }
+        }
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mCache.put(key, new Entry(result, expirationMillis));
+            }
+        }
+    }
+
+    /** Drops all cached results. Must be called on every mutation of the index. */
+    void invalidate() {
+        synchronized (mLock) {
+            mGeneration++;
+            mCache.evictAll();
+        }
+    }
+
+    /** Returns the number of times a result was returned by {@link #get}. */
+    @VisibleForTesting
+    int getHitCount() {
+        synchronized (mLock) {
+            return mHitCount;
+        }
+    }
+
+    private static final class Entry {
+        final SearchResultProto mResult;
+        /** When the first document of the result expires, in milliseconds since the epoch. */
+        final long mExpirationMillis;
+
+        Entry(@NonNull SearchResultProto result, long expirationMillis) {
+            mResult = result;
+            mExpirationMillis = expirationMillis;
+        }
+    }
+
+    /**
+     * The rewritten specs of a query. The filters of {@code searchSpec} must be in a stable order
+     * so that the same query over the same prefixes results in an equal key.
+     */
+    static final class Key {
+        private final SearchSpecProto mSearchSpec;
+        private final ScoringSpecProto mScoringSpec;
+        private final ResultSpecProto mResultSpec;
+        private final int mHashCode;
+
+        Key(@NonNull SearchSpecProto searchSpec, @NonNull ScoringSpecProto scoringSpec,
+                @NonNull ResultSpecProto resultSpec) {
+            mSearchSpec = searchSpec;
+            mScoringSpec = scoringSpec;
+            mResultSpec = resultSpec;
+            mHashCode = ObjectsCompat.hash(searchSpec, scoringSpec, resultSpec);
+        }
+
+        @NonNull
+        SearchSpecProto getSearchSpec() {
+            return mSearchSpec;
+        }
+
+        @NonNull
+        ScoringSpecProto getScoringSpec() {
+            return mScoringSpec;
+        }
+
+        @NonNull
+        ResultSpecProto getResultSpec() {
+            return mResultSpec;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key otherKey = (Key) other;
+            return mHashCode == otherKey.mHashCode
+                    && mSearchSpec.equals(otherKey.mSearchSpec)
+                    && mScoringSpec.equals(otherKey.mScoringSpec)
+                    && mResultSpec.equals(otherKey.mResultSpec);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
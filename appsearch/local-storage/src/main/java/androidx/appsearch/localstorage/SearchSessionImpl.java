@@ -101,19 +101,10 @@ class SearchSessionImpl implements AppSearchSession {
         Preconditions.checkNotNull(request);
         Preconditions.checkState(!mIsClosed, "AppSearchSession has already been closed");
         return execute(() -> {
-            AppSearchBatchResult.Builder<String, Void> resultBuilder =
-                    new AppSearchBatchResult.Builder<>();
-            for (int i = 0; i < request.getDocuments().size(); i++) {
-                GenericDocument document = request.getDocuments().get(i);
-                try {
-                    mAppSearchImpl.putDocument(mPackageName, mDatabaseName, document);
-                    resultBuilder.setSuccess(document.getUri(), /*result=*/ null);
-                } catch (Throwable t) {
-                    resultBuilder.setResult(document.getUri(), throwableToFailedResult(t));
-                }
-            }
+            AppSearchBatchResult<String, Void> result = mAppSearchImpl.putDocuments(
+                    mPackageName, mDatabaseName, request.getDocuments(), mExecutorService);
             mIsMutated = true;
-            return resultBuilder.build();
+            return result;
         });
     }
 
@@ -87,6 +87,47 @@ class BenchmarkStateTest {
         )
     }
 
+    @Suppress("DEPRECATION")
+    @UseExperimental(ExperimentalMetricCaptureApi::class)
+    @Test
+    fun customMetricCapture() {
+        val capture = object : MetricCapture() {
+            override val name = "customCount"
+            var count = 0L
+            var started = 0L
+
+            override fun captureStart() {
+                started = count
+            }
+
+            override fun captureStop() = count - started
+
+            override fun capturePaused() {}
+
+            override fun captureResumed() {}
+        }
+        val state = BenchmarkState()
+        state.addMetricCapture(capture)
+        while (state.keepRunning()) {
+            capture.count += 3
+        }
+        val stats = state.getReport().getStats("customCount")
+        assertEquals(3, stats.median)
+        // captured per repeat, so there is no distribution to report
+        assertEquals(null, stats.percentile99)
+    }
+
+    @Suppress("DEPRECATION")
+    @UseExperimental(ExperimentalMetricCaptureApi::class)
+    @Test
+    fun customMetricCaptureAfterStart() {
+        val state = BenchmarkState()
+        assertEquals(true, state.keepRunning())
+        assertFailsWith<IllegalStateException> {
+            state.addMetricCapture(TimeCapture())
+        }
+    }
+
     @Test
     fun keepRunningMissingResume() {
         val state = BenchmarkState()
@@ -161,7 +202,13 @@ class BenchmarkStateTest {
         val report = state.getReport()
         val expectedRepeatCount = BenchmarkState.REPEAT_COUNT_TIME +
             if (!checkingForThermalThrottling) BenchmarkState.REPEAT_COUNT_ALLOCATION else 0
-        val expectedCount = report.warmupIterations + report.repeatIterations * expectedRepeatCount
+        // sampled iterations are run one per repeat
+        val expectedCount = report.warmupIterations + state.iterationSampleCount +
+            report.repeatIterations * expectedRepeatCount
+        assertEquals(
+            if (checkingForThermalThrottling) 0 else state.iterationSampleCount,
+            report.getStats("timeNs").histogram?.totalCount ?: 0
+        )
         assertEquals(expectedCount, total)
 
         // verify we're not in warmup mode
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SmallTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import kotlin.test.assertFailsWith
+
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class HistogramTest {
+    @Test
+    fun smallValuesHaveExactBuckets() {
+        val histogram = Histogram(longArrayOf(0, 1, 1, 255))
+        assertEquals(
+            listOf(
+                Histogram.Bucket(0, 0, 1),
+                Histogram.Bucket(1, 1, 2),
+                Histogram.Bucket(255, 255, 1)
+            ),
+            histogram.buckets
+        )
+    }
+
+    @Test
+    fun largeValuesHaveBoundedRelativeError() {
+        listOf(256L, 257L, 1_000L, 123_456L, 987_654_321L, Long.MAX_VALUE / 3).forEach { value ->
+            val bucket = Histogram(longArrayOf(value)).buckets.single()
+            assertTrue(value in bucket.lowerBound..bucket.upperBound)
+            val width = bucket.upperBound - bucket.lowerBound + 1
+            assertTrue(
+                "bucket $bucket too wide for $value",
+                width.toDouble() / bucket.lowerBound < 0.01
+            )
+        }
+    }
+
+    @Test
+    fun valueAtPercentile() {
+        val histogram = Histogram(LongArray(1000) { it.toLong() + 1 })
+        assertEquals(1, histogram.valueAtPercentile(0.0))
+        assertEquals(100, histogram.valueAtPercentile(10.0))
+        assertTrue(histogram.valueAtPercentile(99.0) in 990L..997L)
+        assertEquals(histogram.buckets.last().upperBound, histogram.valueAtPercentile(100.0))
+    }
+
+    @Test
+    fun negativeValue() {
+        assertFailsWith<IllegalArgumentException> {
+            Histogram(longArrayOf(-1))
+        }
+    }
+}
@@ -49,6 +49,8 @@ class AllocationCountCaptureTest {
  *
  * This is done to reduce variance, e.g. from random background allocations
  */
+@Suppress("DEPRECATION")
+@UseExperimental(ExperimentalMetricCaptureApi::class)
 private fun MetricCapture.verifyMedian(expected: IntRange, block: MetricCapture.() -> Unit) {
     val results = List(200) {
         captureStart()
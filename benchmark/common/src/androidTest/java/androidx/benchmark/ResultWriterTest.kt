@@ -39,6 +39,17 @@ public class ResultWriterTest {
         )
     )
 
+    private val sampledMetricResults = listOf(
+        MetricResult(
+            data = listOf(100L, 101L, 102L),
+            stats = Stats(
+                data = longArrayOf(100L, 101L, 102L),
+                name = "timeNs",
+                iterationData = longArrayOf(100L, 102L, 102L)
+            )
+        )
+    )
+
     private val reportA = BenchmarkResult(
         testName = "MethodA",
         className = "package.Class1",
@@ -52,7 +63,7 @@ public class ResultWriterTest {
         testName = "MethodB",
         className = "package.Class2",
         totalRunTimeNs = 900000000,
-        metrics = metricResults,
+        metrics = sampledMetricResults,
         repeatIterations = 100000,
         thermalThrottleSleepSeconds = 90000000,
         warmupIterations = 8000
@@ -126,6 +137,21 @@ public class ResultWriterTest {
                                 "minimum": 100,
                                 "maximum": 102,
                                 "median": 101,
+                                "histogram": {
+                                    "totalCount": 3,
+                                    "buckets": [
+                                        {
+                                            "lowerBound": 100,
+                                            "upperBound": 100,
+                                            "count": 1
+                                        },
+                                        {
+                                            "lowerBound": 102,
+                                            "upperBound": 102,
+                                            "count": 2
+                                        }
+                                    ]
+                                },
                                 "runs": [
                                     100,
                                     101,
@@ -56,6 +56,46 @@ class StatsTest {
         assertEquals(29.01, stats.standardDeviation, 0.05)
     }
 
+    @Test
+    fun percentiles() {
+        val stats = Stats(
+            longArrayOf(10),
+            "test",
+            iterationData = (1L..10000L).toList().toLongArray()
+        )
+        assertEquals(9000, stats.percentile90)
+        assertEquals(9900, stats.percentile99)
+        assertEquals(9990, stats.percentile999)
+        assertEquals(10000, stats.histogram!!.totalCount)
+    }
+
+    @Test
+    fun percentilesNeedEnoughSamples() {
+        val stats = Stats(
+            longArrayOf(10),
+            "test",
+            iterationData = (1L..1000L).toList().toLongArray()
+        )
+        assertEquals(900, stats.percentile90)
+        assertEquals(990, stats.percentile99)
+        assertEquals(null, stats.percentile999)
+    }
+
+    @Test
+    fun noPercentilesWithoutIterationData() {
+        val stats = Stats((1L..1000L).toList().toLongArray(), "test")
+        assertEquals(null, stats.percentile90)
+        assertEquals(null, stats.percentile99)
+        assertEquals(null, stats.percentile999)
+        assertEquals(null, stats.histogram)
+    }
+
+    @Test
+    fun negativeValuesHaveNoHistogram() {
+        val stats = Stats(longArrayOf(0), "test", iterationData = longArrayOf(-1, 1))
+        assertEquals(null, stats.histogram)
+    }
+
     @Test
     fun lerp() {
         assertEquals(Stats.lerp(0, 1000, 0.5), 500)
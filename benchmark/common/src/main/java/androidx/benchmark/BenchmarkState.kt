@@ -55,6 +55,8 @@ import java.util.concurrent.TimeUnit
 public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) constructor() {
 
     private var stages = listOf(
+        MetricsContainer(arrayOf(TimeCapture()), 1),
+        // replaced at the end of warmup, once the number of iterations to sample is known
         MetricsContainer(arrayOf(TimeCapture()), 1),
         MetricsContainer(arrayOf(TimeCapture()), REPEAT_COUNT_TIME),
         MetricsContainer(arrayOf(AllocationCountCapture()), REPEAT_COUNT_ALLOCATION)
@@ -62,6 +64,10 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
     private var metrics = stages[0]
 
+    @Suppress("DEPRECATION")
+    @UseExperimental(ExperimentalMetricCaptureApi::class)
+    private val customMetricCaptures = mutableListOf<MetricCapture>()
+
     /** @suppress */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public var traceUniqueName: String = "benchmark"
@@ -84,6 +90,26 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
      */
     private var iterationsPerRepeat = 1
 
+    /**
+     * Number of single iterations timed in [RUNNING_ITERATION_SAMPLING_STAGE], or 0 if that stage
+     * is skipped.
+     */
+    internal var iterationSampleCount = 0
+        private set
+
+    /**
+     * Duration of each iteration timed in [RUNNING_ITERATION_SAMPLING_STAGE], used for the
+     * percentiles and histogram of the time metric.
+     */
+    private var iterationSamples: LongArray? = null
+
+    /**
+     * Iterations in each repeat of the current stage - iterations are timed one by one while
+     * sampling them.
+     */
+    private val stageIterationsPerRepeat: Int
+        get() = if (state == RUNNING_ITERATION_SAMPLING_STAGE) 1 else iterationsPerRepeat
+
     private var state = NOT_STARTED // Current benchmark state.
 
     private val warmupManager = WarmupManager()
@@ -122,6 +148,42 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
         return stats.first { it.name == "timeNs" }.min
     }
 
+    /**
+     * Adds a custom metric to capture around each measurement of this benchmark.
+     *
+     * Custom metrics are measured in a dedicated stage after timing and allocation counting, and
+     * reported next to them in the output JSON. Like allocation counts, they are captured per
+     * repeat, so no percentiles or histograms are reported for them.
+     *
+     * ```
+     * @Test
+     * public void sampleMethod() {
+     *     BenchmarkState state = benchmarkRule.getState();
+     *     state.addMetricCapture(new MyCounterCapture());
+     *     while (state.keepRunning()) {
+     *         // ...
+     *     }
+     * }
+     * ```
+     *
+     * @throws [IllegalStateException] if the benchmark has already started.
+     * @throws [IllegalArgumentException] if a metric with the same name is already captured.
+     */
+    @ExperimentalMetricCaptureApi
+    public fun addMetricCapture(metricCapture: MetricCapture) {
+        check(state == NOT_STARTED) {
+            "Unable to add a metric capture, the benchmark has already started."
+        }
+        require(
+            metricCapture.name != TIME_METRIC_NAME &&
+                metricCapture.name != ALLOCATION_METRIC_NAME &&
+                metricCapture !in customMetricCaptures
+        ) {
+            "Unable to add a metric capture, metric ${metricCapture.name} is already captured."
+        }
+        customMetricCaptures.add(metricCapture)
+    }
+
     private fun checkState() {
         check(state != NOT_STARTED) {
             "The benchmark wasn't started! Every test in a class " +
@@ -219,6 +281,9 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 iterationsPerRepeat = 1
                 Trace.beginSection("Warmup")
             }
+            RUNNING_ITERATION_SAMPLING_STAGE -> {
+                Trace.beginSection("Benchmark Iteration Sampling")
+            }
             RUNNING_TIME_STAGE -> {
                 Arguments.profiler?.start(traceUniqueName)
                 Trace.beginSection("Benchmark Time")
@@ -226,8 +291,11 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
             RUNNING_ALLOCATION_STAGE -> {
                 Trace.beginSection("Benchmark Allocations")
             }
+            RUNNING_CUSTOM_METRIC_STAGE -> {
+                Trace.beginSection("Benchmark Custom Metrics")
+            }
         }
-        iterationsRemaining = iterationsPerRepeat
+        iterationsRemaining = stageIterationsPerRepeat
         metrics.captureStart()
     }
 
@@ -252,30 +320,61 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 warmupRepeats = repeatCount
                 iterationsPerRepeat = computeMaxIterations()
             }
-            RUNNING_TIME_STAGE, RUNNING_ALLOCATION_STAGE -> {
+            RUNNING_ITERATION_SAMPLING_STAGE -> {
+                // not reported on its own, only as the distribution of the time metric
+                iterationSamples = metrics.data[0]
+            }
+            RUNNING_TIME_STAGE, RUNNING_ALLOCATION_STAGE, RUNNING_CUSTOM_METRIC_STAGE -> {
                 if (state == RUNNING_TIME_STAGE) {
                     Arguments.profiler?.stop()
                 }
 
-                stats.addAll(metrics.captureFinished(maxIterations = iterationsPerRepeat))
+                stats.addAll(
+                    metrics.captureFinished(
+                        maxIterations = iterationsPerRepeat,
+                        iterationData = if (state == RUNNING_TIME_STAGE) iterationSamples else null
+                    )
+                )
                 allData.addAll(metrics.data)
             }
         }
         state++
+        if (state == RUNNING_ITERATION_SAMPLING_STAGE) {
+            // skip sampling single iterations for minimal looping as well, percentiles aren't
+            // reported then
+            if (isMinimalLooping()) {
+                state++
+            } else {
+                iterationSampleCount = computeIterationSampleCount()
+                stages = stages.toMutableList().apply {
+                    set(
+                        RUNNING_ITERATION_SAMPLING_STAGE,
+                        MetricsContainer(arrayOf(TimeCapture()), iterationSampleCount)
+                    )
+                }
+            }
+        }
         if (state == RUNNING_ALLOCATION_STAGE) {
             // skip allocation stage if we are only doing minimal looping (startupMode, dryRunMode,
             // profilingMode), or if we only care about timing (checkForThermalThrottling)
-            if (simplifiedTimingOnlyMode ||
-                Arguments.startupMode ||
-                Arguments.dryRunMode ||
-                Arguments.profiler != null
-            ) {
+            if (isMinimalLooping()) {
+                state++
+            }
+        }
+        if (state == RUNNING_CUSTOM_METRIC_STAGE) {
+            // same for custom metrics, which are also skipped if none were added
+            if (isMinimalLooping() || customMetricCaptures.isEmpty()) {
                 state++
             }
         }
         return true
     }
 
+    private fun isMinimalLooping() = simplifiedTimingOnlyMode ||
+        Arguments.startupMode ||
+        Arguments.dryRunMode ||
+        Arguments.profiler != null
+
     /**
      * @return whether the entire, multi-stage benchmark still has anything left to do
      */
@@ -289,8 +388,11 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 endRunningStage()
                 beginRunningStage()
             }
-        } else if (state == RUNNING_TIME_STAGE && repeatCount >= REPEAT_COUNT_TIME ||
-            state == RUNNING_ALLOCATION_STAGE && repeatCount >= REPEAT_COUNT_ALLOCATION
+        } else if (
+            state == RUNNING_ITERATION_SAMPLING_STAGE && repeatCount >= iterationSampleCount ||
+            state == RUNNING_TIME_STAGE && repeatCount >= REPEAT_COUNT_TIME ||
+            state == RUNNING_ALLOCATION_STAGE && repeatCount >= REPEAT_COUNT_ALLOCATION ||
+            state == RUNNING_CUSTOM_METRIC_STAGE && repeatCount >= REPEAT_COUNT_CUSTOM_METRIC
         ) {
             if (endRunningStage()) {
                 if (state == FINISHED) {
@@ -300,7 +402,7 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 beginRunningStage()
             }
         }
-        iterationsRemaining = iterationsPerRepeat
+        iterationsRemaining = stageIterationsPerRepeat
         metrics.captureStart()
         return true
     }
@@ -380,7 +482,11 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 beginRunningStage()
                 return true
             }
-            RUNNING_WARMUP_STAGE, RUNNING_TIME_STAGE, RUNNING_ALLOCATION_STAGE -> {
+            RUNNING_WARMUP_STAGE,
+            RUNNING_ITERATION_SAMPLING_STAGE,
+            RUNNING_TIME_STAGE,
+            RUNNING_ALLOCATION_STAGE,
+            RUNNING_CUSTOM_METRIC_STAGE -> {
                 iterationsRemaining--
                 if (iterationsRemaining <= 0) {
                     throwIfPaused() // only check at end of loop to save cycles
@@ -416,6 +522,13 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
             ThreadPriority.bumpCurrentThreadPriority()
         }
 
+        if (customMetricCaptures.isNotEmpty()) {
+            stages = stages + MetricsContainer(
+                customMetricCaptures.toTypedArray(),
+                REPEAT_COUNT_CUSTOM_METRIC
+            )
+        }
+
         totalRunTimeStartNs = System.nanoTime() // Record this time to find total duration
         state = RUNNING_WARMUP_STAGE // begin benchmarking
         if (Arguments.dryRunMode || Arguments.startupMode) state = RUNNING_TIME_STAGE
@@ -440,6 +553,14 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
         return idealIterations
     }
 
+    private fun computeIterationSampleCount(): Int {
+        // Bounded by time only, slow benchmarks get fewer samples and no tail percentiles, see
+        // Stats.MIN_SAMPLES_ABOVE_PERCENTILE
+        return (ITERATION_SAMPLING_DURATION_TARGET_NS / warmupManager.estimatedIterationTimeNs)
+            .toInt()
+            .coerceIn(1, MAX_ITERATION_SAMPLES)
+    }
+
     private fun throwIfPaused() = check(!paused) {
         "Benchmark loop finished in paused state." +
             " Call BenchmarkState.resumeTiming() before BenchmarkState.keepRunning()."
@@ -521,9 +642,15 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
         private const val NOT_STARTED = -1 // The benchmark has not started yet.
         private const val RUNNING_WARMUP_STAGE = 0 // The benchmark warmup stage is running.
-        private const val RUNNING_TIME_STAGE = 1 // The time benchmarking stage is running.
-        private const val RUNNING_ALLOCATION_STAGE = 2 // The alloc benchmarking stage is running.
-        private const val FINISHED = 3 // The benchmark has stopped; all stages are finished.
+        // Single iterations are being timed, for percentiles.
+        private const val RUNNING_ITERATION_SAMPLING_STAGE = 1
+        private const val RUNNING_TIME_STAGE = 2 // The time benchmarking stage is running.
+        private const val RUNNING_ALLOCATION_STAGE = 3 // The alloc benchmarking stage is running.
+        private const val RUNNING_CUSTOM_METRIC_STAGE = 4 // The custom metric stage is running.
+        private const val FINISHED = 5 // The benchmark has stopped; all stages are finished.
+
+        internal const val TIME_METRIC_NAME = "timeNs"
+        internal const val ALLOCATION_METRIC_NAME = "allocationCount"
 
         // Values determined empirically.
         @VisibleForTesting
@@ -536,6 +663,8 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
 
         internal const val REPEAT_COUNT_ALLOCATION = 5
 
+        internal const val REPEAT_COUNT_CUSTOM_METRIC = 5
+
         private val OVERRIDE_ITERATIONS = if (
             Arguments.dryRunMode ||
             Arguments.startupMode ||
@@ -549,6 +678,14 @@ public class BenchmarkState @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP) construc
                 TimeUnit.SECONDS.toNanos(Arguments.profilerSampleDurationSeconds) /
                     REPEAT_COUNT_TIME
         }
+        /**
+         * Time spent timing single iterations, which bounds the number of samples. Each sample
+         * includes the overhead of reading the clock around one iteration, which is why they're
+         * only used for percentiles and histograms.
+         */
+        internal val ITERATION_SAMPLING_DURATION_TARGET_NS = TimeUnit.SECONDS.toNanos(1)
+        internal const val MAX_ITERATION_SAMPLES = 10_000
+
         internal const val MAX_TEST_ITERATIONS = 1_000_000
         internal const val MIN_TEST_ITERATIONS = 1
 
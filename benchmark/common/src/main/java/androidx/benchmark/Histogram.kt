@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.benchmark
+
+import androidx.annotation.RestrictTo
+
+/**
+ * Log-linear histogram of non-negative values, in the style of HdrHistogram.
+ *
+ * Values below [SUB_BUCKET_COUNT] get a bucket each. Larger values are grouped by power of two,
+ * and each power of two is split into `SUB_BUCKET_COUNT / 2` linear sub-buckets, so every bucket
+ * spans less than 1% of the values it contains regardless of their magnitude. Only non-empty
+ * buckets are kept.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class Histogram(data: LongArray) {
+    /**
+     * A range of values, `[lowerBound, upperBound]`, and how many values fell into it.
+     */
+    public data class Bucket(val lowerBound: Long, val upperBound: Long, val count: Int)
+
+    public val buckets: List<Bucket>
+
+    public val totalCount: Int = data.size
+
+    init {
+        val counts = sortedMapOf<Long, Int>()
+        data.forEach {
+            require(it >= 0) { "Histogram values must be non-negative, was $it" }
+            val lowerBound = bucketLowerBound(it)
+            counts[lowerBound] = (counts[lowerBound] ?: 0) + 1
+        }
+        buckets = counts.map { (lowerBound, count) ->
+            Bucket(lowerBound, bucketUpperBound(lowerBound), count)
+        }
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the value at the given percentile, so the
+     * result is never lower than the exact percentile.
+     */
+    public fun valueAtPercentile(percentile: Double): Long {
+        require(totalCount > 0) { "At least one result is necessary." }
+        val target = Math.ceil(percentile.coerceIn(0.0, 100.0) / 100.0 * totalCount)
+            .toInt()
+            .coerceAtLeast(1)
+        var seen = 0
+        buckets.forEach {
+            seen += it.count
+            if (seen >= target) {
+                return it.upperBound
+            }
+        }
+        return buckets.last().upperBound
+    }
+
+    internal companion object {
+        internal const val SUB_BUCKET_BITS = 8
+        internal const val SUB_BUCKET_COUNT = 1 shl SUB_BUCKET_BITS
+
+        /**
+         * Values below [SUB_BUCKET_COUNT] get a bucket each, larger values keep their
+         * [SUB_BUCKET_BITS] most significant bits.
+         */
+        internal fun bucketLowerBound(value: Long): Long {
+            if (value < SUB_BUCKET_COUNT) {
+                return value
+            }
+            val shift = 64 - java.lang.Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS
+            return (value shr shift) shl shift
+        }
+
+        internal fun bucketUpperBound(lowerBound: Long): Long {
+            if (lowerBound < SUB_BUCKET_COUNT) {
+                return lowerBound
+            }
+            val shift = 64 - java.lang.Long.numberOfLeadingZeros(lowerBound) - SUB_BUCKET_BITS
+            return lowerBound + (1L shl shift) - 1
+        }
+    }
+}
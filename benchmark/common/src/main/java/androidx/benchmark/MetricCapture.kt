@@ -18,36 +18,55 @@ package androidx.benchmark
 
 import android.os.Debug
 
-internal abstract class MetricCapture {
-    abstract val name: String
+/**
+ * Marks the APIs used to register custom metrics in a benchmark.
+ */
+@Suppress("DEPRECATION")
+@Experimental
+@Retention(AnnotationRetention.BINARY)
+public annotation class ExperimentalMetricCaptureApi
+
+/**
+ * Captures a single metric around each measurement of a benchmark.
+ *
+ * Custom captures are registered with [BenchmarkState.addMetricCapture], and measured in a
+ * dedicated stage after timing and allocations, so they don't perturb the timing results.
+ * Reported values are divided by the number of iterations of each measurement.
+ */
+@ExperimentalMetricCaptureApi
+public abstract class MetricCapture {
+    /**
+     * Name of the metric, used as key in the benchmark output. Must be unique in a benchmark.
+     */
+    public abstract val name: String
 
     /**
      * Starts collecting data for a run.
      *
      * Must be called at the start of each run.
      */
-    abstract fun captureStart()
+    public abstract fun captureStart()
 
     /**
      * Marks the end of a run, and stores the metric value changes since the last start.
      *
      * Should be called when a run stops.
      */
-    abstract fun captureStop(): Long
+    public abstract fun captureStop(): Long
 
     /**
      * Pauses data collection.
      *
      * Call when you want to not capture the following part of a run.
      */
-    abstract fun capturePaused()
+    public abstract fun capturePaused()
 
     /**
      * Resumes data collection.
      *
      * Call when you want to resume capturing a capturePaused-ed run.
      */
-    abstract fun captureResumed()
+    public abstract fun captureResumed()
 
     override fun equals(other: Any?): Boolean {
         return (other is MetricCapture && other.name == this.name)
@@ -58,6 +77,8 @@ internal abstract class MetricCapture {
     }
 }
 
+@Suppress("DEPRECATION")
+@UseExperimental(ExperimentalMetricCaptureApi::class)
 internal class TimeCapture : MetricCapture() {
     override val name: String = "timeNs"
     private var currentStarted = 0L
@@ -83,6 +104,8 @@ internal class TimeCapture : MetricCapture() {
 }
 
 @Suppress("DEPRECATION")
+@Suppress("DEPRECATION")
+@UseExperimental(ExperimentalMetricCaptureApi::class)
 internal class AllocationCountCapture : MetricCapture() {
     override val name = "allocationCount"
     private var currentPausedStarted = 0
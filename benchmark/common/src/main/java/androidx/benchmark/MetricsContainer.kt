@@ -18,6 +18,8 @@ package androidx.benchmark
 
 import android.util.Log
 
+@Suppress("DEPRECATION")
+@UseExperimental(ExperimentalMetricCaptureApi::class)
 internal class MetricsContainer(
     /**
      * Each MetricCapture represents a single metric to be captured. It is possible this may change.
@@ -91,15 +93,18 @@ internal class MetricsContainer(
      * Finishes and cleans up a benchmark, and returns statistics about all that benchmark's data.
      *
      * Call exactly once at the end of a benchmark.
+     *
+     * @param iterationData Durations of single iterations, to compute percentiles and a histogram
+     * from, or null to report none.
      */
-    fun captureFinished(maxIterations: Int): List<Stats> {
+    fun captureFinished(maxIterations: Int, iterationData: LongArray? = null): List<Stats> {
         for (eachArray in data) { // do this at the end for efficiency
             for (i in 0..eachArray.lastIndex) {
                 eachArray[i] = eachArray[i] / maxIterations
             }
         }
         doLog()
-        return metrics.mapIndexed { i, it -> Stats(data[i], it.name) }
+        return metrics.mapIndexed { i, it -> Stats(data[i], it.name, iterationData) }
     }
 
     private fun doLog() {
@@ -138,9 +138,28 @@ public object ResultWriter {
         name("minimum").value(stats.min)
         name("maximum").value(stats.max)
         name("median").value(stats.median)
+        stats.percentile90?.let { name("percentile90").value(it) }
+        stats.percentile99?.let { name("percentile99").value(it) }
+        stats.percentile999?.let { name("percentile999").value(it) }
+        stats.histogram?.let { name("histogram").histogramObject(it) }
         return this
     }
 
+    private fun JsonWriter.histogramObject(histogram: Histogram): JsonWriter {
+        beginObject()
+        name("totalCount").value(histogram.totalCount)
+        name("buckets").beginArray()
+        histogram.buckets.forEach {
+            beginObject()
+                .name("lowerBound").value(it.lowerBound)
+                .name("upperBound").value(it.upperBound)
+                .name("count").value(it.count)
+                .endObject()
+        }
+        endArray()
+        return endObject()
+    }
+
     private fun JsonWriter.metricsContainerObject(
         metricResults: List<MetricResult>
     ): JsonWriter {
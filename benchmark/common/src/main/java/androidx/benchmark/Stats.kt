@@ -25,15 +25,52 @@ import kotlin.math.roundToLong
 /**
  * Provides statistics such as mean, median, min, max, and percentiles, given a list of input
  * values.
+ *
+ * Mean, median, min, max and standard deviation are computed over [data], usually one averaged
+ * measurement per repeat. Percentiles and the histogram describe the distribution of single
+ * iterations, so they are only computed from [iterationData], and are null without it.
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-public class Stats(data: LongArray, public val name: String) {
+public class Stats(
+    data: LongArray,
+    public val name: String,
+    iterationData: LongArray? = null
+) {
     public val median: Long
     public val min: Long
     public val max: Long
     public val mean: Double = data.average()
     public val standardDeviation: Double
 
+    /**
+     * 90th percentile of the sampled iterations, or null if there are too few samples to tell it
+     * apart from the maximum.
+     */
+    public val percentile90: Long?
+
+    /**
+     * 99th percentile of the sampled iterations, or null if there are too few samples to tell it
+     * apart from the maximum.
+     */
+    public val percentile99: Long?
+
+    /**
+     * 99.9th percentile of the sampled iterations, or null if there are too few samples to tell
+     * it apart from the maximum.
+     */
+    public val percentile999: Long?
+
+    /**
+     * Histogram of the sampled iterations, or null if there are none, or they contain negative
+     * values.
+     */
+    public val histogram: Histogram? =
+        if (iterationData != null && iterationData.isNotEmpty() && iterationData.all { it >= 0 }) {
+            Histogram(iterationData)
+        } else {
+            null
+        }
+
     init {
         val values = data.sorted()
         val size = values.size
@@ -44,6 +81,11 @@ public class Stats(data: LongArray, public val name: String) {
         min = values.first()
         max = values.last()
         median = getPercentile(values, 50)
+
+        val samples = iterationData?.sorted() ?: emptyList()
+        percentile90 = getTailPercentile(samples, 90.0)
+        percentile99 = getTailPercentile(samples, 99.0)
+        percentile999 = getTailPercentile(samples, 99.9)
         standardDeviation = if (size == 1) {
             NaN
         } else {
@@ -54,7 +96,8 @@ public class Stats(data: LongArray, public val name: String) {
 
     internal fun getSummary(): String {
         return "Stats for $name: median $median, min $min, max $max, mean $mean, " +
-            "standardDeviation: $standardDeviation"
+            "standardDeviation: $standardDeviation, p90 $percentile90, p99 $percentile99, " +
+            "p99.9 $percentile999"
     }
 
     public fun putInBundle(status: Bundle, prefix: String) {
@@ -88,8 +131,31 @@ public class Stats(data: LongArray, public val name: String) {
             return (a * (1 - ratio) + b * (ratio)).roundToLong()
         }
 
+        /**
+         * Minimum number of samples above a tail percentile for it to be reported, below that
+         * it is mostly a copy of the largest sample.
+         */
+        internal const val MIN_SAMPLES_ABOVE_PERCENTILE = 10
+
+        /**
+         * Returns the given percentile of the sorted [data], or null if too few samples lie above
+         * it to be meaningful.
+         */
+        internal fun getTailPercentile(data: List<Long>, percentile: Double): Long? {
+            // scaled by 100 and rounded, so that e.g. 10 of 10000 samples are above p99.9
+            val samplesAboveX100 = (data.size * (100.0 - percentile)).roundToLong()
+            if (samplesAboveX100 < MIN_SAMPLES_ABOVE_PERCENTILE * 100L) {
+                return null
+            }
+            return getPercentile(data, percentile)
+        }
+
         internal fun getPercentile(data: List<Long>, percentile: Int): Long {
-            val idealIndex = percentile.coerceIn(0, 100) / 100.0 * (data.size - 1)
+            return getPercentile(data, percentile.toDouble())
+        }
+
+        internal fun getPercentile(data: List<Long>, percentile: Double): Long {
+            val idealIndex = percentile.coerceIn(0.0, 100.0) / 100.0 * (data.size - 1)
             val firstIndex = idealIndex.toInt()
             val secondIndex = firstIndex + 1
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.compose.runtime.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.compose.runtime.AbstractApplier
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.ComposeNode
+import androidx.compose.runtime.ExperimentalComposeApi
+import androidx.compose.runtime.Recomposer
+import androidx.compose.runtime.compositionFor
+import androidx.compose.runtime.dispatch.MonotonicFrameClock
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.snapshots.Snapshot
+import androidx.test.filters.LargeTest
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures the time of a frame in which all of [compositionCount] independent compositions are
+ * invalidated, with the compositions recomposed one after the other or concurrently.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@OptIn(ExperimentalComposeApi::class)
+class ConcurrentRecompositionBenchmark(
+    private val compositionCount: Int,
+    private val concurrent: Boolean
+) {
+    companion object {
+        private const val NodeCount = 500
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "compositions={0}_concurrent={1}")
+        fun data(): Collection<Array<Any>> =
+            listOf(1, 2, 4, 8).flatMap { count ->
+                listOf(arrayOf<Any>(count, false), arrayOf<Any>(count, true))
+            }
+    }
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun recomposeFrame() = runBlocking(ImmediateFrameClock) {
+        val recomposer = Recomposer(coroutineContext)
+        launch {
+            if (concurrent) {
+                recomposer.runRecomposeConcurrentlyAndApplyChanges(Dispatchers.Default)
+            } else {
+                recomposer.runRecomposeAndApplyChanges()
+            }
+        }
+
+        val states = List(compositionCount) { mutableStateOf(0) }
+        val compositions = states.map { state ->
+            val root = Node()
+            compositionFor(root, NodeApplier(root), recomposer).apply {
+                setContent { Nodes(NodeCount, state.value) }
+            }
+        }
+        recomposer.awaitIdle()
+
+        benchmarkRule.measureRepeatedSuspendable {
+            states.forEach { it.value++ }
+            Snapshot.sendApplyNotifications()
+            recomposer.awaitIdle()
+        }
+
+        compositions.forEach { it.dispose() }
+        recomposer.shutDown()
+    }
+}
+
+@Composable
+private fun Nodes(count: Int, value: Int) {
+    repeat(count) { index ->
+        ComposeNode<Node, NodeApplier>(
+            factory = { Node() },
+            update = { set(value + index) { this.value = it } }
+        )
+    }
+}
+
+private class Node {
+    val children = mutableListOf<Node>()
+    var value = 0
+}
+
+@OptIn(ExperimentalComposeApi::class)
+private class NodeApplier(root: Node) : AbstractApplier<Node>(root) {
+    override fun insertTopDown(index: Int, instance: Node) {
+        // Ignored as the tree is built bottom-up.
+    }
+
+    override fun insertBottomUp(index: Int, instance: Node) {
+        current.children.add(index, instance)
+    }
+
+    override fun remove(index: Int, count: Int) {
+        current.children.remove(index, count)
+    }
+
+    override fun move(from: Int, to: Int, count: Int) {
+        current.children.move(from, to, count)
+    }
+
+    override fun onClear() {
+        root.children.clear()
+    }
+}
+
+/**
+ * Produces frames immediately, so that only the work of the frame is measured.
+ */
+private object ImmediateFrameClock : MonotonicFrameClock {
+    override suspend fun <R> withFrameNanos(onFrame: (frameTimeNanos: Long) -> R): R =
+        onFrame(System.nanoTime())
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.compose.runtime.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.compose.runtime.ExperimentalComposeApi
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.snapshots.Snapshot
+import androidx.compose.runtime.snapshots.takeMutableSnapshot
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures the writes of a frame of animations and applying them, as done every frame by the
+ * animation clock and the recomposer. The allocations are reported in the allocationCount
+ * metric.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+@OptIn(ExperimentalComposeApi::class)
+class SnapshotApplyBenchmark {
+    companion object {
+        private const val StateCount = 500
+        private const val ObserverCount = 4
+    }
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val states = List(StateCount) { mutableStateOf(0) }
+    private val unregisterObservers = mutableListOf<() -> Unit>()
+
+    @Before
+    fun setup() {
+        repeat(ObserverCount) {
+            unregisterObservers += Snapshot.registerApplyObserver { _, _ -> }
+            unregisterObservers += Snapshot.registerGlobalWriteObserver { }
+        }
+    }
+
+    @After
+    fun teardown() {
+        unregisterObservers.forEach { it() }
+    }
+
+    @Test
+    fun writeAndApplyMutableSnapshot() {
+        var value = 0
+        benchmarkRule.measureRepeated {
+            val snapshot = takeMutableSnapshot()
+            value++
+            snapshot.enter {
+                states.forEach { it.value = value }
+            }
+            snapshot.apply().check()
+            snapshot.dispose()
+        }
+    }
+
+    @Test
+    fun writeGlobalAndSendApplyNotifications() {
+        var value = 0
+        benchmarkRule.measureRepeated {
+            value++
+            states.forEach { it.value = value }
+            Snapshot.sendApplyNotifications()
+        }
+    }
+}
@@ -830,6 +830,9 @@ class Composer<N>(
     @ExperimentalComposeApi
     @OptIn(InternalComposeApi::class)
     internal fun dispose() {
+        // A root composition that is recomposing on another thread is disposed by its
+        // Recomposer once the recomposition is done
+        if (parentReference.deferDispose(this)) return
         trace("Compose:Composer.dispose") {
             parentReference.unregisterComposer(this)
             invalidateStack.clear()
@@ -851,6 +854,25 @@ class Composer<N>(
         }
     }
 
+    /**
+     * Shrink the storage of the composition if it retains much more memory than it uses, such
+     * as after a large part of the composition was removed. Only part of the work is done per
+     * call; returns true if memory was released and calling again might release more.
+     */
+    internal fun compact(): Boolean {
+        if (isComposing || isDisposed) return false
+        if (slotTable.compact()) {
+            // Don't retain the previous arrays through the closed reader
+            reader = slotTable.openReader().also { it.close() }
+            return true
+        }
+        if (insertTable.isEmpty && insertTable.compact()) {
+            writer = insertTable.openWriter().also { it.close() }
+            return true
+        }
+        return false
+    }
+
     /**
      * Start a group with the given key. During recomposition if the currently expected group does
      * not match the given key a group the groups emitted in the same parent group are inspected
@@ -2088,8 +2110,34 @@ class Composer<N>(
         return false
     }
 
+    /**
+     * Discard the changes collected by the last [recompose] instead of applying them, such as
+     * when the snapshot it ran in could not be applied. All the scopes of the composition are
+     * invalidated so that the next recomposition collects the discarded changes again from the
+     * current state.
+     */
+    @OptIn(ExperimentalComposeApi::class)
+    internal fun abandonRecomposition() {
+        changes.clear()
+        providerUpdates.clear()
+        // Groups inserted by the discarded changes were never moved into the slot table
+        if (!insertTable.isEmpty) {
+            insertTable.write { writer ->
+                while (!writer.isGroupEnd) writer.removeGroup()
+            }
+        }
+        RememberEventDispatcher(lifecycleObservers, abandonSet).dispatchAbandons()
+        invalidateAll()
+    }
+
     internal fun hasInvalidations() = invalidations.isNotEmpty()
 
+    /**
+     * `true` if this is a root composition, whose parent is a [Recomposer], as opposed to a
+     * subcomposition that depends on the state of its parent composition.
+     */
+    internal val isRoot: Boolean get() = parentReference is Recomposer
+
     @Suppress("UNCHECKED_CAST")
     private val SlotReader.node get() = node(parent) as N
 
@@ -37,6 +37,67 @@ interface CompositionData {
      * doesn't contain any child groups.
      */
     val isEmpty: Boolean
+
+    /**
+     * Statistics of the storage of the composition data, or null if it doesn't track them. The
+     * returned value is a copy and doesn't change as the composition data changes.
+     */
+    @ExperimentalComposeApi
+    val storageStats: CompositionStorageStats? get() = null
+}
+
+/**
+ * Statistics of the storage of a [CompositionData], which can be used to diagnose the memory
+ * retained by long running compositions and the cost of changing them.
+ */
+@ExperimentalComposeApi
+class CompositionStorageStats internal constructor(
+    /**
+     * The number of groups in the composition data.
+     */
+    val groupCount: Int,
+
+    /**
+     * The number of groups that can be stored before the storage must grow.
+     */
+    val groupCapacity: Int,
+
+    /**
+     * The number of slots in the composition data.
+     */
+    val slotCount: Int,
+
+    /**
+     * The number of slots that can be stored before the storage must grow.
+     */
+    val slotCapacity: Int,
+
+    /**
+     * The number of times the groups were moved to make room for groups to be inserted or
+     * removed at a different location than the previous ones.
+     */
+    val groupGapMoves: Long,
+
+    /**
+     * The number of times the slots were moved to make room for slots to be inserted or removed
+     * at a different location than the previous ones.
+     */
+    val slotGapMoves: Long,
+
+    /**
+     * The number of times the storage was shrunk to release unused capacity.
+     */
+    val compactions: Int,
+
+    /**
+     * An estimate of the number of bytes retained by the storage, not counting the objects
+     * stored in the slots.
+     */
+    val retainedBytes: Long
+) {
+    override fun toString() = "CompositionStorageStats(groups=$groupCount/$groupCapacity, " +
+        "slots=$slotCount/$slotCapacity, groupGapMoves=$groupGapMoves, " +
+        "slotGapMoves=$slotGapMoves, compactions=$compactions, retainedBytes=$retainedBytes)"
 }
 
 /**
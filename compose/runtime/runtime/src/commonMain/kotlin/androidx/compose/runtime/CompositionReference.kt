@@ -63,6 +63,7 @@ abstract class CompositionReference internal constructor() {
 
     internal open fun <T> getAmbient(key: Ambient<T>): T = key.defaultValueHolder.value
     internal open fun getAmbientScope(): AmbientMap = EmptyAmbientMap
+    internal open fun deferDispose(composer: Composer<*>): Boolean = false
     internal open fun startComposing() {}
     internal open fun doneComposing() {}
 }
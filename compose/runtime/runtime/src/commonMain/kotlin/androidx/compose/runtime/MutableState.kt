@@ -288,6 +288,21 @@ fun <T> mutableStateListOf() = SnapshotStateList<T>()
 fun <T> mutableStateListOf(vararg elements: T) =
     SnapshotStateList<T>().also { it.addAll(elements.toList()) }
 
+/**
+ * Create an instance of MutableList<T> that is observable and can be snapshot, and that keeps a
+ * hashed index of its elements so that [MutableList.indexOf] and [MutableList.contains] don't
+ * search the list. The index is built on the first search after the list is changed, so it is
+ * only worth it for large lists that are searched more often than they are changed.
+ *
+ * The elements must implement [Any.hashCode] consistently with [Any.equals] and must not be
+ * changed while they are in the list.
+ *
+ * @see mutableStateListOf
+ */
+@ExperimentalComposeApi
+fun <T> mutableIndexedStateListOf(vararg elements: T) =
+    SnapshotStateList<T>(indexed = true).also { it.addAll(elements.toList()) }
+
 /**
  * Create an instance of MutableList<T> from a collection that is observerable and can be snapshot.
  */
@@ -213,6 +213,13 @@ class Recomposer(
     private val knownComposers = mutableListOf<Composer<*>>()
     private val snapshotInvalidations = mutableListOf<Set<Any>>()
     private val composerInvalidations = mutableListOf<Composer<*>>()
+    // Number of compositions recomposed concurrently whose changes are not applied yet
+    private var concurrentRecompositionCount = 0
+    // Compositions recomposing concurrently right now, and those disposed in the meantime
+    private val concurrentlyRecomposing = mutableSetOf<Composer<*>>()
+    private val deferredDisposals = mutableListOf<Composer<*>>()
+    // Index in knownComposers of the next composer to compact when idle
+    private var nextComposerToCompact = 0
     private var frameContinuation: CancellableContinuation<Unit>? = null
 
     private val _state = MutableStateFlow(State.Inactive)
@@ -226,6 +233,7 @@ class Recomposer(
             knownComposers.clear()
             snapshotInvalidations.clear()
             composerInvalidations.clear()
+            concurrentRecompositionCount = 0
             frameContinuation?.cancel()
             frameContinuation = null
             return null
@@ -238,6 +246,7 @@ class Recomposer(
                 if (broadcastFrameClock.hasAwaiters) State.InactivePendingWork else State.Inactive
             }
             composerInvalidations.isNotEmpty() || snapshotInvalidations.isNotEmpty() ||
+                concurrentRecompositionCount > 0 ||
                 broadcastFrameClock.hasAwaiters -> State.PendingWork
             else -> State.Idle
         }
@@ -308,7 +317,48 @@ class Recomposer(
      * This method never returns. Cancel the calling [CoroutineScope] to stop.
      * Unhandled failure exceptions from child coroutines will be thrown by this method.
      */
-    suspend fun runRecomposeAndApplyChanges(): Nothing {
+    suspend fun runRecomposeAndApplyChanges(): Nothing = recompositionRunner(null)
+
+    /**
+     * Await the invalidation of any associated [Composer]s, recompose them, and apply their
+     * changes to their associated [Composition]s if recomposition is successful.
+     *
+     * Unlike [runRecomposeAndApplyChanges], invalidated root compositions, i.e. compositions
+     * whose parent is this [Recomposer], are recomposed concurrently in
+     * [recomposeCoroutineContext], each in its own [MutableSnapshot]. The snapshots are applied
+     * once all of these compositions are recomposed, and only then is the next frame awaited.
+     * Recomposition doesn't overlap the wait for the frame: it spreads the work of the frame over
+     * several threads. The changes of the compositions are then applied in the calling
+     * [CoroutineContext] during the frame, in the order the compositions were invalidated.
+     * Compositions that depend on
+     * another composition, such as subcompositions, are recomposed in the calling
+     * [CoroutineContext] after the root compositions are applied.
+     *
+     * Root compositions are recomposed after the pending snapshot changes are applied, so that
+     * they see the same state they would see when recomposed at the frame. A root composition
+     * that writes a state object which is also changed outside of it while it recomposes, such
+     * as from the main thread, has its recomposition discarded and is recomposed again at the
+     * frame. A root composition disposed while it recomposes is disposed once its recomposition
+     * is done.
+     *
+     * While [runRecomposeConcurrentlyAndApplyChanges] is running, [awaitIdle] will suspend until
+     * there are no more invalid composers awaiting recomposition.
+     *
+     * This method never returns. Cancel the calling [CoroutineScope] to stop.
+     * Unhandled failure exceptions from child coroutines will be thrown by this method.
+     */
+    @ExperimentalComposeApi
+    suspend fun runRecomposeConcurrentlyAndApplyChanges(
+        recomposeCoroutineContext: CoroutineContext
+    ): Nothing = recompositionRunner(recomposeCoroutineContext.minusKey(Job))
+
+    /**
+     * Runs the recomposition loop. Root compositions are recomposed concurrently in
+     * [recomposeCoroutineContext] if it is not `null`.
+     */
+    private suspend fun recompositionRunner(
+        recomposeCoroutineContext: CoroutineContext?
+    ): Nothing {
         val parentFrameClock = coroutineContext[MonotonicFrameClock] ?: DefaultMonotonicFrameClock
         withContext(broadcastFrameClock) {
             // Enforce mutual exclusion of callers; register self as current runner
@@ -329,6 +379,8 @@ class Recomposer(
 
             addRunning(recomposerInfo)
 
+            // Compositions recomposed concurrently, with changes to apply in the next frame
+            var prepared = emptyList<PreparedRecomposition>()
             try {
                 // Invalidate all registered composers when we start since we weren't observing
                 // snapshot changes on their behalf. Assume anything could have changed.
@@ -341,6 +393,8 @@ class Recomposer(
                 while (true) {
                     // Await something to do
                     if (_state.value < State.PendingWork) {
+                        // Use the idle time to release memory the compositions no longer use
+                        compactIdleComposer()
                         suspendCancellableCoroutine<Unit> { co ->
                             synchronized(stateLock) {
                                 if (_state.value == State.PendingWork) {
@@ -362,6 +416,13 @@ class Recomposer(
                         }
                     ) continue
 
+                    // Recompose the root compositions concurrently and apply their snapshots
+                    // before awaiting the frame. withFrameNanos can't suspend to wait for them,
+                    // so this is done first; only their changes are applied in the frame below.
+                    if (recomposeCoroutineContext != null) {
+                        prepared = recomposeConcurrently(recomposeCoroutineContext)
+                    }
+
                     // Align work with the next frame to coalesce changes.
                     // Note: it is possible to resume from the above with no recompositions pending,
                     // instead someone might be awaiting our frame clock dispatch below.
@@ -381,9 +442,15 @@ class Recomposer(
                                 Snapshot.sendApplyNotifications()
                             }
 
+                            // Apply the changes of concurrently recomposed compositions before
+                            // their modifications are recorded below
+                            var changes = applyPrepared(prepared)
+                            prepared = emptyList()
+
                             // Drain any composer invalidations from snapshot changes and record
                             // composers to work on
                             synchronized(stateLock) {
+                                concurrentRecompositionCount = 0
                                 recordComposerModificationsLocked()
 
                                 composerInvalidations.fastForEach { toRecompose += it }
@@ -392,7 +459,6 @@ class Recomposer(
 
                             // Perform recomposition for any invalidated composers
                             try {
-                                var changes = false
                                 toRecompose.fastForEach { composer ->
                                     changes = performRecompose(composer) || changes
                                 }
@@ -407,8 +473,11 @@ class Recomposer(
                     }
                 }
             } finally {
+                // Don't leave recomposed compositions with changes that were never applied
+                applyPrepared(prepared)
                 unregisterApplyObserver()
                 synchronized(stateLock) {
+                    concurrentRecompositionCount = 0
                     if (runnerJob === callingJob) {
                         runnerJob = null
                     }
@@ -419,6 +488,24 @@ class Recomposer(
         }
     }
 
+    /**
+     * Shrink the storage of one of the known composers that retains much more memory than it
+     * uses. Only one composer is compacted per call, and only part of its storage, so that the
+     * memory of long running compositions follows their live size without long pauses.
+     */
+    private fun compactIdleComposer() {
+        var remaining = synchronized(stateLock) { knownComposers.size }
+        while (remaining-- > 0) {
+            val composer = synchronized(stateLock) {
+                if (knownComposers.isEmpty()) return
+                val index = nextComposerToCompact % knownComposers.size
+                nextComposerToCompact = index + 1
+                knownComposers[index]
+            }
+            if (composer.compact()) return
+        }
+    }
+
     /**
      * Permanently shut down this [Recomposer] for future use. All ongoing recompositions will stop,
      * new composer invalidations with this [Recomposer] at the root will no longer occur,
@@ -476,6 +563,91 @@ class Recomposer(
         }
     }
 
+    /**
+     * Recomposes the invalidated root compositions in [recomposeCoroutineContext], each in its
+     * own snapshot, and applies the snapshots in order once all of them are recomposed. The
+     * changes of the compositions are not applied; see [applyPrepared].
+     */
+    private suspend fun recomposeConcurrently(
+        recomposeCoroutineContext: CoroutineContext
+    ): List<PreparedRecomposition> {
+        // Apply the pending snapshot changes first, so that the roots they invalidate are
+        // recomposed now with the current state rather than at the frame after the next one.
+        Snapshot.sendApplyNotifications()
+        val toRecompose = synchronized(stateLock) {
+            recordComposerModificationsLocked()
+            val roots = composerInvalidations.filter {
+                it.isRoot && !it.isComposing && !it.isDisposed
+            }
+            if (roots.isNotEmpty()) {
+                composerInvalidations -= roots
+                concurrentRecompositionCount = roots.size
+                concurrentlyRecomposing += roots
+            }
+            roots
+        }
+        if (toRecompose.isEmpty()) return emptyList()
+
+        val snapshots = arrayOfNulls<MutableSnapshot>(toRecompose.size)
+        val changed = BooleanArray(toRecompose.size)
+        try {
+            withContext(recomposeCoroutineContext) {
+                toRecompose.forEachIndexed { index, composer ->
+                    launch {
+                        val snapshot = takeMutableSnapshot(
+                            readObserverOf(composer), writeObserverOf(composer)
+                        )
+                        snapshots[index] = snapshot
+                        changed[index] = snapshot.enter { composer.recompose() }
+                    }
+                }
+            }
+        } catch (e: Throwable) {
+            snapshots.forEach { it?.dispose() }
+            throw e
+        } finally {
+            val disposals = synchronized(stateLock) {
+                concurrentlyRecomposing.clear()
+                deferredDisposals.toList().also { deferredDisposals.clear() }
+            }
+            disposals.fastForEach { it.dispose() }
+        }
+
+        // Apply in the order the compositions were invalidated, as if they were recomposed
+        // one after the other.
+        val prepared = ArrayList<PreparedRecomposition>(toRecompose.size)
+        toRecompose.forEachIndexed { index, composer ->
+            val snapshot = snapshots[index]!!
+            if (snapshot.apply().succeeded) {
+                prepared += PreparedRecomposition(composer, changed[index])
+            } else {
+                // A state object written by the composition was changed outside of it while it
+                // was recomposing. Discard the recomposition, which invalidates the composition
+                // again so that it is recomposed at the frame.
+                snapshot.dispose()
+                if (!composer.isDisposed) composer.abandonRecomposition()
+            }
+        }
+        return prepared
+    }
+
+    /**
+     * Applies the changes of compositions recomposed by [recomposeConcurrently], in order.
+     * Returns `true` if any composition had changes.
+     */
+    private fun applyPrepared(prepared: List<PreparedRecomposition>): Boolean {
+        var changes = false
+        prepared.fastForEach {
+            if (!it.composer.isDisposed) {
+                it.composer.applyChanges()
+                changes = it.changed || changes
+            }
+        }
+        return changes
+    }
+
+    private class PreparedRecomposition(val composer: Composer<*>, val changed: Boolean)
+
     private fun readObserverOf(composer: Composer<*>): SnapshotReadObserver {
         return { value -> composer.recordReadOf(value) }
     }
@@ -522,7 +694,8 @@ class Recomposer(
         }
 
     private val hasFrameWorkLocked: Boolean
-        get() = composerInvalidations.isNotEmpty() || broadcastFrameClock.hasAwaiters
+        get() = composerInvalidations.isNotEmpty() || concurrentRecompositionCount > 0 ||
+            broadcastFrameClock.hasAwaiters
 
     /**
      * Suspends until the currently pending recomposition frame is complete.
@@ -557,6 +730,16 @@ class Recomposer(
         // Do nothing.
     }
 
+    internal override fun deferDispose(composer: Composer<*>): Boolean {
+        synchronized(stateLock) {
+            if (composer in concurrentlyRecomposing) {
+                deferredDisposals += composer
+                return true
+            }
+            return false
+        }
+    }
+
     internal override fun unregisterComposerWithRoot(composer: Composer<*>) {
         synchronized(stateLock) {
             knownComposers -= composer
@@ -126,6 +126,21 @@ internal class SlotTable : CompositionData, Iterable<CompositionGroup> {
      */
     internal var anchors: ArrayList<Anchor> = arrayListOf()
 
+    /**
+     * The number of times a writer moved the gap in [groups].
+     */
+    internal var groupGapMoves = 0L
+
+    /**
+     * The number of times a writer moved the gap in [slots].
+     */
+    internal var slotsGapMoves = 0L
+
+    /**
+     * The number of times [groups] or [slots] was shrunk by [compact].
+     */
+    internal var compactions = 0
+
     /**
      * Returns true if the slot table is empty
      */
@@ -256,6 +271,48 @@ internal class SlotTable : CompositionData, Iterable<CompositionGroup> {
         this.anchors = anchors
     }
 
+    /**
+     * Shrink [groups] or [slots] if most of their capacity is unused, which happens when a large
+     * part of the composition is removed as the arrays otherwise never shrink. At most one of the
+     * arrays is copied per call to bound the time spent, so this should be called repeatedly,
+     * such as when the composition is idle, until it returns false.
+     *
+     * Returns true if an array was shrunk. The table is not compacted while it is being read or
+     * written.
+     */
+    internal fun compact(): Boolean {
+        if (writer || readers > 0) return false
+        val groupsCapacity = groups.size / Group_Fields_Size
+        if (shouldCompact(groupsCapacity, groupsSize, MinGroupGrowthSize)) {
+            groups = groups.copyOf(
+                compactedCapacity(groupsSize, MinGroupGrowthSize) * Group_Fields_Size
+            )
+            compactions++
+            return true
+        }
+        if (shouldCompact(slots.size, slotsSize, MinSlotsGrowthSize)) {
+            // The slots after slotsSize are always null as the gap is cleared by the writer.
+            slots = slots.copyOf(compactedCapacity(slotsSize, MinSlotsGrowthSize))
+            compactions++
+            return true
+        }
+        return false
+    }
+
+    @ExperimentalComposeApi
+    override val storageStats: CompositionStorageStats
+        get() = CompositionStorageStats(
+            groupCount = groupsSize,
+            groupCapacity = groups.size / Group_Fields_Size,
+            slotCount = slotsSize,
+            slotCapacity = slots.size,
+            groupGapMoves = groupGapMoves,
+            slotGapMoves = slotsGapMoves,
+            compactions = compactions,
+            retainedBytes = groups.size.toLong() * Int.SIZE_BYTES +
+                slots.size.toLong() * ReferenceSizeEstimate
+        )
+
     /**
      * A debugging aid to validate the internal structure of the slot table. Throws an exception
      * if the slot table is not in the expected shape.
@@ -1824,6 +1881,7 @@ internal class SlotWriter(
         val gapLen = groupGapLen
         val gapStart = groupGapStart
         if (gapStart != index) {
+            table.groupGapMoves++
             if (anchors.isNotEmpty()) updateAnchors(gapStart, index)
             if (gapLen > 0) {
                 val groups = groups
@@ -1877,6 +1935,7 @@ internal class SlotWriter(
         val gapStart = slotsGapStart
         val slotsGapOwner = slotsGapOwner
         if (gapStart != index) {
+            table.slotsGapMoves++
             val slots = slots
             if (index < gapStart) {
                 // move the gap down to index by shifting the data up.
@@ -2491,6 +2550,18 @@ private const val MinGroupGrowthSize = 32
 // The minimum number of data slots to allocate in the data slot table
 private const val MinSlotsGrowthSize = 32
 
+// The size of an object reference used to estimate the memory retained by the slots, which
+// assumes compressed references
+private const val ReferenceSizeEstimate = 4
+
+// A table is compacted when more than half of its capacity is unused
+private fun shouldCompact(capacity: Int, size: Int, minGrowthSize: Int) =
+    capacity - size > max(size, minGrowthSize)
+
+// Leave room to grow by a quarter, or at least minGrowthSize, before the arrays are grown again
+private fun compactedCapacity(size: Int, minGrowthSize: Int) =
+    size + max(size / 4, minGrowthSize)
+
 // The key to used for nodes
 private const val NodeKey = 125
 
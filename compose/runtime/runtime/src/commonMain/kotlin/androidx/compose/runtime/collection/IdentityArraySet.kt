@@ -23,11 +23,14 @@ import kotlin.contracts.contract
 /**
  * A set of values using an array as the backing store, ordered using [identityHashCode] for
  * both sorting and uniqueness.
+ *
+ * Unlike a [HashSet], adding a value doesn't allocate, so it is suited to sets that are built
+ * often, such as the state objects modified by a snapshot.
  */
 @OptIn(ExperimentalContracts::class)
-internal class IdentityArraySet<T : Any> {
-    @PublishedApi
-    internal var size = 0
+internal class IdentityArraySet<T : Any> : Set<T> {
+    override var size = 0
+        @PublishedApi internal set
 
     @PublishedApi
     internal var values: Array<Any?> = arrayOfNulls(16)
@@ -40,6 +43,47 @@ internal class IdentityArraySet<T : Any> {
         return values[index] as T
     }
 
+    /**
+     * Returns `true` if [element] is in the set, compared by identity.
+     */
+    override fun contains(element: T): Boolean = find(element) >= 0
+
+    override fun containsAll(elements: Collection<T>): Boolean {
+        elements.forEach { if (!contains(it)) return false }
+        return true
+    }
+
+    override fun isEmpty(): Boolean = size == 0
+
+    override fun iterator(): Iterator<T> = object : Iterator<T> {
+        var index = 0
+
+        override fun hasNext(): Boolean = index < size
+
+        override fun next(): T = this@IdentityArraySet[index++]
+    }
+
+    /**
+     * Returns `true` if [other] is a [Set] of the same size containing all values of this set, as
+     * [Set.equals] requires. Values are looked up in [other], so it doesn't matter which of the
+     * two sets compares by identity.
+     */
+    override fun equals(other: Any?): Boolean {
+        if (other === this) return true
+        if (other !is Set<*> || other.size != size) return false
+        forEach { if (it !in other) return false }
+        return true
+    }
+
+    /**
+     * The sum of the hash codes of the values, as [Set.hashCode] requires.
+     */
+    override fun hashCode(): Int {
+        var hashCode = 0
+        forEach { hashCode += it.hashCode() }
+        return hashCode
+    }
+
     /**
      * Add [value] to the set and return `true` if it was added or `false` if it already existed.
      */
@@ -83,6 +127,13 @@ internal class IdentityArraySet<T : Any> {
         return true
     }
 
+    /**
+     * Add all values of [set] to this set.
+     */
+    fun addAll(set: IdentityArraySet<T>) {
+        set.forEach { add(it) }
+    }
+
     /**
      * Remove all values from the set.
      */
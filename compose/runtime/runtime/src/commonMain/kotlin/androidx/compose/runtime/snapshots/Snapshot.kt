@@ -22,6 +22,7 @@ import androidx.compose.runtime.Composable
 import androidx.compose.runtime.ExperimentalComposeApi
 import androidx.compose.runtime.InternalComposeApi
 import androidx.compose.runtime.ThreadLocal
+import androidx.compose.runtime.collection.IdentityArraySet
 import androidx.compose.runtime.synchronized
 
 /**
@@ -270,7 +271,7 @@ sealed class Snapshot(
     /**
      * The set of state objects that have been modified in this snapshot.
      */
-    internal abstract val modified: MutableSet<StateObject>?
+    internal abstract val modified: IdentityArraySet<StateObject>?
 
     /**
      * Notify the snapshot that all objects created in this snapshot to this point should be
@@ -363,11 +364,11 @@ sealed class Snapshot(
             advanceGlobalSnapshot(emptyLambda)
 
             sync {
-                applyObservers.add(observer)
+                applyObservers = applyObservers + observer
             }
             return {
                 sync {
-                    applyObservers.remove(observer)
+                    applyObservers = applyObservers - observer
                 }
             }
         }
@@ -390,12 +391,12 @@ sealed class Snapshot(
          */
         fun registerGlobalWriteObserver(observer: SnapshotWriteObserver): () -> Unit {
             sync {
-                globalWriteObservers.add(observer)
+                globalWriteObservers = globalWriteObservers + observer
             }
             advanceGlobalSnapshot()
             return {
                 sync {
-                    globalWriteObservers.remove(observer)
+                    globalWriteObservers = globalWriteObservers - observer
                 }
                 advanceGlobalSnapshot()
             }
@@ -561,7 +562,7 @@ open class MutableSnapshot internal constructor(
                 takeNewGlobalSnapshot(previousGlobalSnapshot, emptyLambda)
                 val globalModified = previousGlobalSnapshot.modified
                 if (globalModified != null && globalModified.isNotEmpty())
-                    applyObservers.toList() to globalModified
+                    applyObservers to globalModified
                 else
                     emptyList<SnapshotApplyObserver>() to null
             } else {
@@ -582,7 +583,7 @@ open class MutableSnapshot internal constructor(
                 this.modified = null
                 previousGlobalSnapshot.modified = null
 
-                applyObservers.toList() to globalModified
+                applyObservers to globalModified
             }
         }
 
@@ -673,7 +674,7 @@ open class MutableSnapshot internal constructor(
             // id to be forgotten as no state records will refer to it.
             this.modified = null
             val id = id
-            for (state in modified) {
+            modified.forEach { state ->
                 var current: StateRecord? = state.firstStateRecord
                 while (current != null) {
                     if (current.snapshotId == id || current.snapshotId in previousIds) {
@@ -708,12 +709,12 @@ open class MutableSnapshot internal constructor(
         val start = this.invalid.set(id).or(this.previousIds)
         val modified = modified!!
         var statesToRemove: MutableList<StateObject>? = null
-        for (state in modified) {
+        modified.forEach { state ->
             val first = state.firstStateRecord
             // If either current or previous cannot be calculated the object was created
             // in a nested snapshot that was committed then changed.
-            val current = readable(first, snapshotId, invalidSnapshots) ?: continue
-            val previous = readable(first, id, start) ?: continue
+            val current = readable(first, snapshotId, invalidSnapshots) ?: return@forEach
+            val previous = readable(first, id, start) ?: return@forEach
             if (current != previous) {
                 val applied = readable(first, id, this.invalid) ?: readError()
                 val merged = optimisticMerges?.get(current) ?: run {
@@ -770,7 +771,7 @@ open class MutableSnapshot internal constructor(
 
         statesToRemove?.let {
             // Remove from modified any state objects that have reverted to the parent value.
-            modified.removeAll(it)
+            it.fastForEach { state -> modified.remove(state) }
         }
 
         return SnapshotApplyResult.Success
@@ -807,10 +808,10 @@ open class MutableSnapshot internal constructor(
     }
 
     override fun recordModified(state: StateObject) {
-        (modified ?: HashSet<StateObject>().also { modified = it }).add(state)
+        (modified ?: IdentityArraySet<StateObject>().also { modified = it }).add(state)
     }
 
-    override var modified: MutableSet<StateObject>? = null
+    override var modified: IdentityArraySet<StateObject>? = null
 
     /**
      * A set of the id's previously associated with this snapshot. When this snapshot closes
@@ -1019,7 +1020,7 @@ internal class ReadonlySnapshot internal constructor(
     override fun hasPendingChanges(): Boolean = false
     override val writeObserver: SnapshotWriteObserver? get() = null
 
-    override var modified: HashSet<StateObject>?
+    override var modified: IdentityArraySet<StateObject>?
         get() = null
         @Suppress("UNUSED_PARAMETER")
         set(value) = unsupported()
@@ -1091,7 +1092,7 @@ internal class NestedReadonlySnapshot(
         }
     }
 
-    override val modified: HashSet<StateObject>? get() = null
+    override val modified: IdentityArraySet<StateObject>? get() = null
     override val writeObserver: SnapshotWriteObserver? get() = null
     @OptIn(ExperimentalComposeApi::class)
     override fun recordModified(state: StateObject) = parent.recordModified(state)
@@ -1109,17 +1110,17 @@ internal class GlobalSnapshot(id: Int, invalid: SnapshotIdSet) :
     MutableSnapshot(
         id, invalid, null,
         sync {
-            // Take a defensive copy of the  globalWriteObservers list. This then avoids having to
-            // synchronized access to writerObserver in places it is called and allows the list to
-            // change while notifications are being dispatched. Changes to globalWriteObservers force
-            // a new global snapshot to be created.
+            // The globalWriteObservers list is copied on write, so it can be captured without a
+            // copy. This then avoids having to synchronized access to writerObserver in places it
+            // is called and allows the list to change while notifications are being dispatched.
+            // Changes to globalWriteObservers force a new global snapshot to be created.
             (
                 if (globalWriteObservers.isNotEmpty()) {
-                    globalWriteObservers.toMutableList()
+                    globalWriteObservers
                 } else null
                 )?.let {
                 it.firstOrNull() ?: { state: Any ->
-                    it.forEach { it(state) }
+                    it.fastForEach { observer -> observer(state) }
                 }
             }
         }
@@ -1216,7 +1217,7 @@ internal class NestedMutableSnapshot(
 
                 // Add all modified objects in this set to the parent
                 (
-                    parent.modified ?: HashSet<StateObject>().also {
+                    parent.modified ?: IdentityArraySet<StateObject>().also {
                         parent.modified = it
                     }
                     ).addAll(modified)
@@ -1279,7 +1280,7 @@ internal class TransparentObserverMutableSnapshot(
 
     override fun hasPendingChanges(): Boolean = currentSnapshot.hasPendingChanges()
 
-    override var modified: MutableSet<StateObject>?
+    override var modified: IdentityArraySet<StateObject>?
         get() = currentSnapshot.modified
         @Suppress("UNUSED_PARAMETER")
         set(value) = unsupported()
@@ -1373,11 +1374,12 @@ private var openSnapshots = SnapshotIdSet.EMPTY
 // The first snapshot created must be at least on more than the INVALID_SNAPSHOT
 private var nextSnapshotId = INVALID_SNAPSHOT + 1
 
-// A list of apply observers
-private val applyObservers = mutableListOf<SnapshotApplyObserver>()
+// A list of apply observers. The list is replaced instead of modified so that it can be notified
+// without a copy.
+private var applyObservers = emptyList<SnapshotApplyObserver>()
 
-// A list of observers of writes to the global state.
-private val globalWriteObservers = mutableListOf<SnapshotWriteObserver>()
+// A list of observers of writes to the global state. The list is replaced instead of modified.
+private var globalWriteObservers = emptyList<SnapshotWriteObserver>()
 
 private var currentGlobalSnapshot = GlobalSnapshot(
     id = nextSnapshotId++,
@@ -1426,8 +1428,8 @@ private fun <T> advanceGlobalSnapshot(block: (invalid: SnapshotIdSet) -> T): T {
     // observers.
     val modified = previousGlobalSnapshot.modified
     if (modified != null) {
-        val observers = sync { applyObservers.toList() }
-        for (observer in observers) {
+        val observers = sync { applyObservers }
+        observers.fastForEach { observer ->
             observer(modified, previousGlobalSnapshot)
         }
     }
@@ -1661,10 +1663,10 @@ private fun optimisticMerges(
     if (modified == null) return null
     val start = applyingSnapshot.invalid.set(applyingSnapshot.id).or(applyingSnapshot.previousIds)
     var result: MutableMap<StateRecord, StateRecord>? = null
-    for (state in modified) {
+    modified.forEach { state ->
         val first = state.firstStateRecord
-        val current = readable(first, id, invalidSnapshots) ?: continue
-        val previous = readable(first, id, start) ?: continue
+        val current = readable(first, id, invalidSnapshots) ?: return@forEach
+        val previous = readable(first, id, start) ?: return@forEach
         if (current != previous) {
             // Try to produce a merged state record
             val applied = readable(first, applyingSnapshot.id, applyingSnapshot.invalid)
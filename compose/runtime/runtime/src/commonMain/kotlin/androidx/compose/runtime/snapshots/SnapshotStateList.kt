@@ -22,6 +22,8 @@ import androidx.compose.runtime.ExperimentalComposeApi
 import androidx.compose.runtime.Stable
 import kotlinx.collections.immutable.PersistentList
 import kotlinx.collections.immutable.persistentListOf
+import kotlin.math.max
+import kotlin.math.min
 
 /**
  * An implementation of [MutableList] that can be observed and snapshot. This is the result type
@@ -29,10 +31,17 @@ import kotlinx.collections.immutable.persistentListOf
  *
  * This class closely implements the same semantics as [ArrayList].
  *
+ * Every write creates a new version of the list that shares its structure with the previous
+ * version. Use [mutate] to make several changes to the list in a single write.
+ *
  * @see androidx.compose.runtime.mutableStateListOf
  */
 @Stable
-class SnapshotStateList<T> : MutableList<T>, StateObject {
+class SnapshotStateList<T> internal constructor(
+    private val indexed: Boolean
+) : MutableList<T>, StateObject {
+    constructor() : this(false)
+
     override var firstStateRecord: StateListStateRecord<T> =
         StateListStateRecord<T>(persistentListOf())
         private set
@@ -56,20 +65,66 @@ class SnapshotStateList<T> : MutableList<T>, StateObject {
         internal var list: PersistentList<T>
     ) : StateRecord() {
         internal var modification = 0
+        internal var changes: ListChange? = null
+        internal var index: ListIndex<T>? = null
         override fun assign(value: StateRecord) {
             @Suppress("UNCHECKED_CAST")
-            list = (value as StateListStateRecord<T>).list
+            value as StateListStateRecord<T>
+            list = value.list
             modification = value.modification
+            changes = value.changes
+            index = value.index
         }
 
         override fun create(): StateRecord = StateListStateRecord(list)
     }
 
+    /**
+     * The number of writes made to the list. Pass it to [changedRangeSince] to find the indices
+     * changed by the writes made after it was read.
+     */
+    @ExperimentalComposeApi
+    val modificationCount: Int get() = readable.modification
+
+    /**
+     * Returns the range of indices whose element may have changed since the list had
+     * [modificationCount] writes, or null if the changes are no longer known and the caller must
+     * compare the elements itself. An empty range is returned if the list has not changed.
+     *
+     * The range extends to the end of the list when elements were inserted or removed, and it may
+     * extend beyond [size] when elements were removed.
+     */
+    @ExperimentalComposeApi
+    fun changedRangeSince(modificationCount: Int): IntRange? =
+        readable.changes.rangeSince(modificationCount)
+
+    /**
+     * Calls [block] with a [MutableList] to change the list in place and writes all the changes
+     * as a single new version of the list. This is much cheaper than calling the methods of the
+     * list one at a time when making many changes.
+     *
+     * The list passed to [block] must not be used after [block] returns.
+     */
+    @ExperimentalComposeApi
+    fun <R> mutate(block: (MutableList<T>) -> R): R = withCurrent {
+        val changes = ChangeTrackingList(list.builder())
+        val result = block(changes)
+        val newList = changes.build()
+        if (changes.changedFrom < changes.changedTo) {
+            if (newList !== list) commit(newList, changes.changedFrom, changes.changedTo)
+        } else {
+            update(newList)
+        }
+        result
+    }
+
     override val size: Int get() = readable.list.size
-    override fun contains(element: T) = readable.list.contains(element)
-    override fun containsAll(elements: Collection<T>) = readable.list.containsAll(elements)
+    override fun contains(element: T) = readable.find(element) >= 0
+    override fun containsAll(elements: Collection<T>) = with(readable) {
+        if (indexed) elements.all { find(it) >= 0 } else list.containsAll(elements)
+    }
     override fun get(index: Int) = readable.list[index]
-    override fun indexOf(element: T): Int = readable.list.indexOf(element)
+    override fun indexOf(element: T): Int = readable.find(element)
     override fun isEmpty() = readable.list.isEmpty()
     override fun iterator(): MutableIterator<T> = listIterator()
     override fun lastIndexOf(element: T) = readable.list.lastIndexOf(element)
@@ -79,24 +134,42 @@ class SnapshotStateList<T> : MutableList<T>, StateObject {
         require(fromIndex in 0..toIndex && toIndex <= size)
         return SubList(this, fromIndex, toIndex)
     }
-    override fun add(element: T) = conditionalUpdate { it.add(element) }
-    override fun add(index: Int, element: T) = update { it.add(index, element) }
-    override fun addAll(index: Int, elements: Collection<T>) = mutate {
-        it.addAll(index, elements)
-    }
-    override fun addAll(elements: Collection<T>) = conditionalUpdate { it.addAll(elements) }
-    override fun clear() = writable { list = persistentListOf() }
-    override fun remove(element: T) = conditionalUpdate { it.remove(element) }
-    override fun removeAll(elements: Collection<T>) = conditionalUpdate { it.removeAll(elements) }
-    override fun removeAt(index: Int): T = get(index).also { update { it.removeAt(index) } }
-    override fun retainAll(elements: Collection<T>) = mutate { it.retainAll(elements) }
+    override fun add(element: T) = withCurrent { update(list.add(element), list.size) }
+    override fun add(index: Int, element: T) {
+        withCurrent { update(list.add(index, element), index) }
+    }
+    override fun addAll(index: Int, elements: Collection<T>) = withCurrent {
+        update(list.addAll(index, elements), index)
+    }
+    override fun addAll(elements: Collection<T>) = withCurrent {
+        update(list.addAll(elements), list.size)
+    }
+    override fun clear() = withCurrent { commit(persistentListOf(), 0, list.size) }
+    override fun remove(element: T) = withCurrent {
+        val index = find(element)
+        index >= 0 && update(list.removeAt(index), index)
+    }
+    override fun removeAll(elements: Collection<T>) = withCurrent {
+        update(list.removeAll(elements))
+    }
+    override fun removeAt(index: Int): T = get(index).also {
+        withCurrent { update(list.removeAt(index), index) }
+    }
+    override fun retainAll(elements: Collection<T>) = withCurrent {
+        update(list.builder().also { it.retainAll(elements) }.build())
+    }
     override fun set(index: Int, element: T): T = get(index).also {
-        update { it.set(index, element) }
+        withCurrent {
+            val newList = list.set(index, element)
+            if (newList !== list) commit(newList, index, index + 1)
+        }
     }
 
     fun removeRange(fromIndex: Int, toIndex: Int) {
-        mutate {
-            it.subList(fromIndex, toIndex).clear()
+        withCurrent {
+            val builder = list.builder()
+            builder.subList(fromIndex, toIndex).clear()
+            update(builder.build(), fromIndex)
         }
     }
 
@@ -108,35 +181,170 @@ class SnapshotStateList<T> : MutableList<T>, StateObject {
         @Suppress("UNCHECKED_CAST")
         firstStateRecord.withCurrent(block)
 
-    private inline fun <R> mutate(block: (MutableList<T>) -> R): R =
-        withCurrent {
-            val builder = list.builder()
-            val result = block(builder)
-            val newList = builder.build()
-            if (newList !== list) writable {
-                list = newList
-                modification++
-            }
-            result
-        }
+    /**
+     * Returns the index of the first occurrence of [element] in the list of this record, using the
+     * hashed index of the list if the list is indexed.
+     */
+    private fun StateListStateRecord<T>.find(element: T): Int {
+        val list = list
+        if (!indexed || list.size < MinIndexedSize) return list.indexOf(element)
+        val index = index?.takeIf { it.list === list } ?: ListIndex(list).also { index = it }
+        return index.firstIndices[element] ?: -1
+    }
 
-    private inline fun update(block: (PersistentList<T>) -> PersistentList<T>) = withCurrent {
-        val newList = block(list)
-        if (newList !== list) writable {
+    /**
+     * Writes [newList] if it differs from the list of this record, recording the elements from
+     * [changedFrom] to the end of the list as changed. If [changedFrom] is not given the first
+     * element that differs between the lists is found.
+     */
+    private fun StateListStateRecord<T>.update(
+        newList: PersistentList<T>,
+        changedFrom: Int = -1
+    ): Boolean {
+        val oldList = list
+        if (newList === oldList) return false
+        commit(
+            newList,
+            if (changedFrom >= 0) changedFrom else firstDifference(oldList, newList),
+            max(oldList.size, newList.size)
+        )
+        return true
+    }
+
+    private fun commit(newList: PersistentList<T>, changedFrom: Int, changedTo: Int) {
+        writable {
             list = newList
             modification++
+            changes = ListChange.record(changes, modification, changedFrom, changedTo)
+            index = null
         }
     }
 
-    private inline fun conditionalUpdate(block: (PersistentList<T>) -> PersistentList<T>): Boolean =
-        withCurrent {
-            val newList = block(list)
-            if (newList !== list) writable {
-                list = newList
-                modification++
-                true
-            } else false
-        }
+    private companion object {
+        /**
+         * Lists smaller than this are searched linearly even if they are indexed.
+         */
+        const val MinIndexedSize = 16
+    }
+}
+
+/**
+ * A write made to a [SnapshotStateList] that changed the elements from [from] (inclusive) to
+ * [to] (exclusive). The writes are chained from the most recent one and the chain is shared by
+ * the state records of the list, so recording a write only allocates the new link.
+ */
+internal class ListChange private constructor(
+    val modification: Int,
+    val from: Int,
+    val to: Int,
+    val previous: ListChange?
+) {
+    private val depth: Int = if (previous == null) 1 else previous.depth + 1
+
+    companion object {
+        /**
+         * The number of writes that are remembered. Older writes are forgotten by starting a new
+         * chain.
+         */
+        private const val MaxRecordedChanges = 64
+
+        fun record(previous: ListChange?, modification: Int, from: Int, to: Int) = ListChange(
+            modification,
+            from,
+            to,
+            if (previous != null && previous.depth >= MaxRecordedChanges) null else previous
+        )
+    }
+}
+
+internal fun ListChange?.rangeSince(modification: Int): IntRange? {
+    var change = this
+    var from = Int.MAX_VALUE
+    var to = 0
+    while (change != null && change.modification > modification) {
+        from = min(from, change.from)
+        to = max(to, change.to)
+        // The writes made before the first one of the chain are not known.
+        if (change.previous == null && change.modification - 1 > modification) return null
+        change = change.previous
+    }
+    return if (from < to) from until to else IntRange.EMPTY
+}
+
+/**
+ * A hashed index of the first occurrence of each element of [list].
+ */
+internal class ListIndex<T>(val list: PersistentList<T>) {
+    val firstIndices: Map<T, Int> = HashMap<T, Int>(list.size).also { indices ->
+        list.forEachIndexed { index, element -> indices.getOrPut(element) { index } }
+    }
+}
+
+private fun <T> firstDifference(a: List<T>, b: List<T>): Int {
+    val size = min(a.size, b.size)
+    for (index in 0 until size) {
+        if (a[index] !== b[index]) return index
+    }
+    return size
+}
+
+/**
+ * The builder of a [PersistentList] that keeps track of the range of indices changed through it.
+ */
+private class ChangeTrackingList<T>(
+    private val builder: PersistentList.Builder<T>
+) : AbstractMutableList<T>() {
+    var changedFrom = Int.MAX_VALUE
+        private set
+    var changedTo = 0
+        private set
+
+    fun build(): PersistentList<T> = builder.build()
+
+    override val size: Int get() = builder.size
+    override fun get(index: Int): T = builder[index]
+
+    override fun set(index: Int, element: T): T =
+        builder.set(index, element).also { changed(index, index + 1) }
+
+    override fun add(index: Int, element: T) {
+        builder.add(index, element)
+        changed(index, builder.size)
+    }
+
+    override fun removeAt(index: Int): T {
+        val oldSize = builder.size
+        return builder.removeAt(index).also { changed(index, oldSize) }
+    }
+
+    override fun addAll(index: Int, elements: Collection<T>): Boolean =
+        builder.addAll(index, elements).also { if (it) changed(index, builder.size) }
+
+    override fun addAll(elements: Collection<T>): Boolean = addAll(builder.size, elements)
+
+    override fun clear() {
+        changed(0, builder.size)
+        builder.clear()
+    }
+
+    override fun removeAll(elements: Collection<T>): Boolean {
+        val from = builder.indexOfFirst { it in elements }
+        if (from < 0) return false
+        changed(from, builder.size)
+        return builder.removeAll(elements)
+    }
+
+    override fun retainAll(elements: Collection<T>): Boolean {
+        val from = builder.indexOfFirst { it !in elements }
+        if (from < 0) return false
+        changed(from, builder.size)
+        return builder.retainAll(elements)
+    }
+
+    private fun changed(from: Int, to: Int) {
+        changedFrom = min(changedFrom, from)
+        changedTo = max(changedTo, to)
+    }
 }
 
 private fun modificationError(): Nothing =
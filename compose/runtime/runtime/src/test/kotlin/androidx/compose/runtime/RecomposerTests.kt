@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.compose.runtime
+
+import androidx.compose.runtime.mock.Linear
+import androidx.compose.runtime.mock.TestMonotonicFrameClock
+import androidx.compose.runtime.mock.Text
+import androidx.compose.runtime.mock.View
+import androidx.compose.runtime.mock.ViewApplier
+import androidx.compose.runtime.snapshots.Snapshot
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.runBlockingTest
+import kotlinx.coroutines.withContext
+import kotlin.concurrent.thread
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+
+@OptIn(ExperimentalComposeApi::class, ExperimentalCoroutinesApi::class)
+class RecomposerTests {
+
+    @Test
+    fun concurrentRecompositionAppliesAllCompositions() = runBlockingTest {
+        withContext(TestMonotonicFrameClock(this)) {
+            val recomposer = Recomposer(coroutineContext)
+            launch { recomposer.runRecomposeConcurrentlyAndApplyChanges(coroutineContext) }
+
+            val states = List(3) { mutableStateOf("0") }
+            val roots = List(states.size) { View().apply { name = "root" } }
+            val compositions = states.mapIndexed { index, state ->
+                compositionFor(roots[index], ViewApplier(roots[index]), recomposer).apply {
+                    setContent {
+                        Linear {
+                            Text(state.value)
+                        }
+                    }
+                }
+            }
+
+            val changeCount = recomposer.changeCount
+            states.forEach { it.value = "1" }
+            Snapshot.sendApplyNotifications()
+            advanceTimeBy(5_000)
+
+            assertFalse(recomposer.hasPendingWork)
+            // All the compositions are applied in the same frame
+            assertEquals(changeCount + 1, recomposer.changeCount)
+            roots.forEach { root ->
+                assertEquals("1", root.children[0].children[0].text)
+            }
+
+            // Only the invalidated composition is recomposed
+            states[1].value = "2"
+            Snapshot.sendApplyNotifications()
+            advanceTimeBy(5_000)
+
+            assertEquals(
+                listOf("1", "2", "1"),
+                roots.map { it.children[0].children[0].text }
+            )
+
+            compositions.forEach { it.dispose() }
+            recomposer.shutDown()
+            recomposer.join()
+        }
+    }
+
+    @Test
+    fun concurrentRecompositionWithConflictIsRecomposedAgain() = runBlockingTest {
+        withContext(TestMonotonicFrameClock(this)) {
+            val recomposer = Recomposer(coroutineContext)
+            launch { recomposer.runRecomposeConcurrentlyAndApplyChanges(coroutineContext) }
+
+            val state = mutableStateOf("0")
+            val written = mutableStateOf("")
+            var changeOutside = false
+            val root = View().apply { name = "root" }
+            val composition = compositionFor(root, ViewApplier(root), recomposer).apply {
+                setContent {
+                    val value = state.value
+                    if (changeOutside) {
+                        changeOutside = false
+                        // Not in the snapshot of the composition, like a write on the main thread
+                        thread { written.value = "outside" }.join()
+                    }
+                    written.value = value
+                    Linear {
+                        Text(value)
+                    }
+                }
+            }
+
+            changeOutside = true
+            state.value = "1"
+            Snapshot.sendApplyNotifications()
+            advanceTimeBy(5_000)
+
+            assertFalse(recomposer.hasPendingWork)
+            assertEquals("1", written.value)
+            assertEquals("1", root.children[0].children[0].text)
+
+            composition.dispose()
+            recomposer.shutDown()
+            recomposer.join()
+        }
+    }
+
+    @Test
+    fun compositionDisposedWhileRecomposingConcurrently() = runBlockingTest {
+        withContext(TestMonotonicFrameClock(this)) {
+            val recomposer = Recomposer(coroutineContext)
+            launch { recomposer.runRecomposeConcurrentlyAndApplyChanges(coroutineContext) }
+
+            val state = mutableStateOf("0")
+            var disposeWhileRecomposing = false
+            val root = View().apply { name = "root" }
+            lateinit var composition: Composition
+            composition = compositionFor(root, ViewApplier(root), recomposer).apply {
+                setContent {
+                    val value = state.value
+                    if (disposeWhileRecomposing) {
+                        disposeWhileRecomposing = false
+                        composition.dispose()
+                    }
+                    Linear {
+                        Text(value)
+                    }
+                }
+            }
+
+            disposeWhileRecomposing = true
+            state.value = "1"
+            Snapshot.sendApplyNotifications()
+            advanceTimeBy(5_000)
+
+            // Disposed once its recomposition was done, without applying it
+            assertFalse(recomposer.hasPendingWork)
+            assertEquals(0, root.children.size)
+
+            recomposer.shutDown()
+            recomposer.join()
+        }
+    }
+}
@@ -3093,6 +3093,104 @@ class SlotTableTests {
         }
         slots.verifyWellFormed()
     }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun canCompactAfterRemovingGroups() {
+        val slots = SlotTable()
+        slots.write { writer ->
+            writer.insert {
+                writer.group(treeRoot) {
+                    repeat(1000) {
+                        writer.group(it) {
+                            writer.update(it)
+                        }
+                    }
+                }
+            }
+        }
+        assertFalse(slots.compact())
+
+        slots.write { writer ->
+            writer.group(treeRoot) {
+                repeat(10) { writer.skipGroup() }
+                repeat(990) { writer.removeGroup() }
+            }
+        }
+        val before = slots.storageStats
+        assertEquals(11, before.groupCount)
+        assertEquals(10, before.slotCount)
+        assertTrue(before.groupCapacity >= 1001)
+
+        assertTrue(slots.compact())
+        assertTrue(slots.compact())
+        assertFalse(slots.compact())
+        slots.verifyWellFormed()
+
+        val after = slots.storageStats
+        assertEquals(2, after.compactions)
+        assertTrue(after.groupCapacity < 100)
+        assertTrue(after.slotCapacity < 100)
+        assertTrue(after.retainedBytes < before.retainedBytes)
+        slots.read { reader ->
+            reader.group(treeRoot) {
+                repeat(10) {
+                    reader.group(it) {
+                        assertEquals(it, reader.next())
+                    }
+                }
+            }
+        }
+
+        // The compacted table can grow again
+        slots.write { writer ->
+            writer.group(treeRoot) {
+                repeat(10) { writer.skipGroup() }
+                writer.insert {
+                    repeat(100) {
+                        writer.group(10 + it) {
+                            writer.update(10 + it)
+                        }
+                    }
+                }
+            }
+        }
+        slots.verifyWellFormed()
+        assertEquals(111, slots.storageStats.groupCount)
+    }
+
+    @Test
+    fun cannotCompactWhileReading() {
+        val slots = testSlotsNumbered()
+        slots.write { writer ->
+            writer.group(treeRoot) {
+                repeat(100) { writer.removeGroup() }
+            }
+        }
+        slots.read {
+            assertFalse(slots.compact())
+        }
+        assertTrue(slots.compact())
+        slots.verifyWellFormed()
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun storageStatsCountsGapMoves() {
+        val slots = testSlotsNumbered()
+        val gapMoves = slots.storageStats.groupGapMoves
+
+        // Inserting at the start moves the gap away from the end
+        slots.write { writer ->
+            writer.group(treeRoot) {
+                writer.insert {
+                    writer.group(-100) { }
+                }
+                writer.skipToGroupEnd()
+            }
+        }
+        assertTrue(slots.storageStats.groupGapMoves > gapMoves)
+    }
 }
 
 @OptIn(InternalComposeApi::class)
@@ -19,6 +19,7 @@ package androidx.compose.runtime.collection
 import androidx.compose.runtime.identityHashCode
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 import kotlin.test.assertNotEquals
 import kotlin.test.assertNotSame
 import kotlin.test.assertNull
@@ -128,6 +129,58 @@ class IdentityArraySetTest {
         assertEquals(0, verifierSet.size)
     }
 
+    @Test
+    fun containsComparesIdentity() {
+        list.forEach { set.add(it) }
+
+        list.forEach { assertTrue(it in set) }
+        assertFalse(Stuff(10) in set)
+        assertTrue(set.containsAll(list))
+        assertFalse(set.containsAll(list + Stuff(1)))
+    }
+
+    @Test
+    fun iterator() {
+        list.forEach { set.add(it) }
+
+        val iterated = mutableListOf<Stuff>()
+        for (stuff in set) {
+            iterated += stuff
+        }
+        assertEquals(List(set.size) { set[it] }, iterated)
+        assertFalse(set.isEmpty())
+    }
+
+    @Test
+    fun addAll() {
+        val other = IdentityArraySet<Stuff>()
+        list.take(3).forEach { set.add(it) }
+        list.drop(2).forEach { other.add(it) }
+
+        set.addAll(other)
+
+        assertEquals(list.size, set.size)
+        assertTrue(set.containsAll(list))
+    }
+
+    @Test
+    fun equalsOtherSets() {
+        val distinct = list.take(4)
+        distinct.forEach { set.add(it) }
+
+        assertEquals<Set<Stuff>>(distinct.toSet(), set)
+        assertEquals<Set<Stuff>>(set, distinct.toSet())
+        assertEquals(distinct.toSet().hashCode(), set.hashCode())
+
+        val other = IdentityArraySet<Stuff>()
+        distinct.reversed().forEach { other.add(it) }
+        assertEquals(other, set)
+
+        assertNotEquals<Set<Stuff>>(distinct.take(3).toSet(), set)
+        assertNotEquals<Set<Stuff>>(set, distinct.take(3).toSet())
+        assertNotEquals<Set<Stuff>>(set, distinct.take(3).toSet() + Stuff(2))
+    }
+
     private fun testRemoveValueAtIndex(index: Int) {
         val value = set[index]
         val initialSize = set.size
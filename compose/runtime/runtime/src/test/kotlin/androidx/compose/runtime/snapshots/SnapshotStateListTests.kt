@@ -17,10 +17,12 @@
 package androidx.compose.runtime.snapshots
 
 import androidx.compose.runtime.ExperimentalComposeApi
+import androidx.compose.runtime.mutableIndexedStateListOf
 import androidx.compose.runtime.mutableStateListOf
 import kotlin.test.Test
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNull
 import kotlin.test.assertTrue
 
 class SnapshotStateListTests {
@@ -530,6 +532,119 @@ class SnapshotStateListTests {
         expected(mutableList, list)
     }
 
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun mutateWritesAllChangesOnce() {
+        val list = mutableStateListOf(0, 1, 2, 3, 4, 5, 6)
+        val normalList = mutableListOf(0, 1, 2, 3, 4, 5, 6)
+        val modificationCount = list.modificationCount
+        val block: (MutableList<Int>) -> Unit = {
+            it.removeAt(0)
+            it.add(7)
+            it.addAll(listOf(8, 9))
+            it[0] = 100
+            it.removeAll(listOf(3, 5))
+        }
+        list.mutate(block)
+        block(normalList)
+        expected(normalList, list)
+        assertEquals(modificationCount + 1, list.modificationCount)
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun mutateWithoutChangesDoesNotWrite() {
+        val list = mutableStateListOf(0, 1, 2)
+        val modificationCount = list.modificationCount
+        val size = list.mutate { it.size }
+        assertEquals(3, size)
+        assertEquals(modificationCount, list.modificationCount)
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun changedRangeSince() {
+        val list = mutableStateListOf(0, 1, 2, 3, 4, 5, 6)
+        val initial = list.modificationCount
+        assertEquals(IntRange.EMPTY, list.changedRangeSince(initial))
+
+        list[2] = 100
+        assertEquals(2..2, list.changedRangeSince(initial))
+
+        val afterSet = list.modificationCount
+        list.add(7)
+        assertEquals(7..7, list.changedRangeSince(afterSet))
+        assertEquals(2..7, list.changedRangeSince(initial))
+
+        val afterAdd = list.modificationCount
+        list.remove(4)
+        assertEquals(4..7, list.changedRangeSince(afterAdd))
+
+        val afterRemove = list.modificationCount
+        list.mutate {
+            it[5] = 50
+            it[6] = 60
+        }
+        assertEquals(5..6, list.changedRangeSince(afterRemove))
+
+        val afterMutate = list.modificationCount
+        list.retainAll(listOf(0, 1, 100, 3, 50, 60))
+        assertEquals(4..6, list.changedRangeSince(afterMutate))
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun changedRangeSinceForgetsOldChanges() {
+        val list = mutableStateListOf(0)
+        val initial = list.modificationCount
+        repeat(1000) { list[0] = it }
+        assertNull(list.changedRangeSince(initial))
+        assertEquals(0..0, list.changedRangeSince(list.modificationCount - 1))
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun changedRangeSinceInSnapshot() {
+        val list = mutableStateListOf(0, 1, 2, 3)
+        val initial = list.modificationCount
+        val snapshot = takeMutableSnapshot()
+        try {
+            snapshot.enter {
+                list[3] = 30
+                assertEquals(3..3, list.changedRangeSince(initial))
+            }
+            assertEquals(IntRange.EMPTY, list.changedRangeSince(initial))
+            snapshot.apply().check()
+        } finally {
+            snapshot.dispose()
+        }
+        assertEquals(3..3, list.changedRangeSince(initial))
+    }
+
+    @OptIn(ExperimentalComposeApi::class)
+    @Test
+    fun indexedListFindsElements() {
+        val list = mutableIndexedStateListOf(*Array(100) { it % 50 })
+        val normalList = MutableList(100) { it % 50 }
+        (0 until 60).forEach {
+            assertEquals(normalList.indexOf(it), list.indexOf(it))
+            assertEquals(normalList.contains(it), list.contains(it))
+        }
+
+        list.removeAt(0)
+        normalList.removeAt(0)
+        list[10] = 70
+        normalList[10] = 70
+        (0 until 80).forEach {
+            assertEquals(normalList.indexOf(it), list.indexOf(it))
+            assertEquals(normalList.contains(it), list.contains(it))
+        }
+        assertTrue(list.containsAll(listOf(0, 70, 49)))
+        assertFalse(list.containsAll(listOf(0, 55)))
+        assertTrue(list.remove(70))
+        assertFalse(list.contains(70))
+    }
+
     private fun <T> validate(list: MutableList<T>, block: (list: MutableList<T>) -> Unit) {
         val normalList = list.toMutableList()
         block(normalList)
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.emoji.text;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = 19)
+public class GlyphCacheTest {
+    private static final String FONT_FILE = "NotoColorEmojiCompat.ttf";
+
+    private Context mContext;
+    private File mFile;
+
+    @Before
+    public void setup() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mFile = new File(mContext.getCacheDir(), "emoji_glyph_cache_test");
+        mFile.delete();
+    }
+
+    @After
+    public void teardown() {
+        mFile.delete();
+    }
+
+    @Test
+    public void testRestore_withoutFile() throws IOException {
+        final MetadataRepo metadataRepo = createMetadataRepo();
+        final GlyphCache glyphCache = new GlyphCache(mFile, metadataRepo,
+                new EmojiProcessor.DefaultGlyphChecker());
+
+        assertEquals(0, glyphCache.restore());
+        assertEquals(EmojiMetadata.HAS_GLYPH_UNKNOWN,
+                metadataRepo.getMetadataAt(0).getHasGlyph());
+    }
+
+    @Test
+    public void testRestore_afterWrite() throws IOException {
+        final MetadataRepo metadataRepo = createMetadataRepo();
+        metadataRepo.getMetadataAt(0).setHasGlyph(true);
+        metadataRepo.getMetadataAt(1).setHasGlyph(false);
+        new GlyphCache(mFile, metadataRepo, new EmojiProcessor.DefaultGlyphChecker()).write();
+
+        final MetadataRepo newMetadataRepo = createMetadataRepo();
+        final GlyphCache glyphCache = new GlyphCache(mFile, newMetadataRepo,
+                new EmojiProcessor.DefaultGlyphChecker());
+
+        assertEquals(2, glyphCache.restore());
+        assertEquals(EmojiMetadata.HAS_GLYPH_EXISTS,
+                newMetadataRepo.getMetadataAt(0).getHasGlyph());
+        assertEquals(EmojiMetadata.HAS_GLYPH_ABSENT,
+                newMetadataRepo.getMetadataAt(1).getHasGlyph());
+        assertEquals(EmojiMetadata.HAS_GLYPH_UNKNOWN,
+                newMetadataRepo.getMetadataAt(2).getHasGlyph());
+    }
+
+    @Test
+    public void testRestore_withDifferentGlyphChecker() throws IOException {
+        final MetadataRepo metadataRepo = createMetadataRepo();
+        metadataRepo.getMetadataAt(0).setHasGlyph(true);
+        new GlyphCache(mFile, metadataRepo, new EmojiProcessor.DefaultGlyphChecker()).write();
+
+        final MetadataRepo newMetadataRepo = createMetadataRepo();
+        final GlyphCache glyphCache = new GlyphCache(mFile, newMetadataRepo,
+                new EmojiCompat.GlyphChecker() {
+                    @Override
+                    public boolean hasGlyph(@NonNull CharSequence charSequence, int start,
+                            int end, int sdkAdded) {
+                        return false;
+                    }
+                });
+
+        assertEquals(0, glyphCache.restore());
+        assertEquals(EmojiMetadata.HAS_GLYPH_UNKNOWN,
+                newMetadataRepo.getMetadataAt(0).getHasGlyph());
+    }
+
+    private MetadataRepo createMetadataRepo() throws IOException {
+        return MetadataRepo.create(mContext.getAssets(), FONT_FILE);
+    }
+}
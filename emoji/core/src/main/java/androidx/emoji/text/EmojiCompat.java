@@ -42,6 +42,7 @@ import androidx.annotation.VisibleForTesting;
 import androidx.collection.ArraySet;
 import androidx.core.util.Preconditions;
 
+import java.io.File;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
@@ -263,6 +264,13 @@ public class EmojiCompat {
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     private final GlyphChecker mGlyphChecker;
 
+    /**
+     * @see Config#setGlyphCacheFile(File)
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @Nullable
+    private final File mGlyphCacheFile;
+
     /**
      * Private constructor for singleton instance.
      *
@@ -279,6 +287,7 @@ public class EmojiCompat {
         mMetadataLoader = config.mMetadataLoader;
         mMetadataLoadStrategy = config.mMetadataLoadStrategy;
         mGlyphChecker = config.mGlyphChecker;
+        mGlyphCacheFile = config.mGlyphCacheFile;
         mMainHandler = new Handler(Looper.getMainLooper());
         mInitCallbacks = new ArraySet<>();
         if (config.mInitCallbacks != null && !config.mInitCallbacks.isEmpty()) {
@@ -958,6 +967,8 @@ public class EmojiCompat {
         @LoadStrategy int mMetadataLoadStrategy = LOAD_STRATEGY_DEFAULT;
         @SuppressWarnings("WeakerAccess") /* synthetic access */
         GlyphChecker mGlyphChecker = new EmojiProcessor.DefaultGlyphChecker();
+        @SuppressWarnings("WeakerAccess") /* synthetic access */
+        File mGlyphCacheFile;
 
         /**
          * Default constructor.
@@ -1144,6 +1155,28 @@ public class EmojiCompat {
             return this;
         }
 
+        /**
+         * Sets a file that is used to persist whether the system can render each emoji. Checking
+         * an emoji requires measuring it with the system fonts, which is done the first time an
+         * emoji is seen when {@link #setReplaceAll(boolean)} is {@code false}. When a file is
+         * set, the results are read from it once the metadata is loaded and are written back to
+         * it on a background thread, so that a new process does not need to check the emojis
+         * again.
+         * <p/>
+         * The results are only reused for the same emoji font, system build and
+         * {@link GlyphChecker}, otherwise the file is overwritten. The default value is
+         * {@code null}, which does not persist the results.
+         *
+         * @param glyphCacheFile the file to store the results in, e.g. a file in
+         *                       {@link android.content.Context#getNoBackupFilesDir()}, or
+         *                       {@code null}
+         */
+        @NonNull
+        public Config setGlyphCacheFile(@Nullable File glyphCacheFile) {
+            mGlyphCacheFile = glyphCacheFile;
+            return this;
+        }
+
         /**
          * Returns the {@link MetadataRepoLoader}.
          */
@@ -1289,10 +1322,17 @@ public class EmojiCompat {
             }
 
             mMetadataRepo = metadataRepo;
+            GlyphCache glyphCache = null;
+            if (mEmojiCompat.mGlyphCacheFile != null && metadataRepo.getMetadataList() != null) {
+                glyphCache = new GlyphCache(mEmojiCompat.mGlyphCacheFile, metadataRepo,
+                        mEmojiCompat.mGlyphChecker);
+                glyphCache.restore();
+            }
             mProcessor = new EmojiProcessor(
                     mMetadataRepo,
                     new SpanFactory(),
                     mEmojiCompat.mGlyphChecker,
+                    glyphCache,
                     mEmojiCompat.mUseEmojiAsDefaultStyle,
                     mEmojiCompat.mEmojiAsDefaultStyleExceptions);
 
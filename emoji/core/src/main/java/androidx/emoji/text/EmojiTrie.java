@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.emoji.text;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable trie that maps emoji codepoint sequences to {@link EmojiMetadata}.
+ * <p/>
+ * Nodes are identified by an int and laid out in breadth first order in parallel arrays, so that
+ * the children of a node are a contiguous, sorted range of node ids. A lookup is a binary search
+ * over that range and walking the trie does not allocate. The trie is built once when the
+ * metadata is loaded.
+ */
+@AnyThread
+@RequiresApi(19)
+final class EmojiTrie {
+    /**
+     * Id of the root node. The root node does not have any data.
+     */
+    static final int ROOT = 0;
+
+    /**
+     * Returned from {@link #getChild(int, int)} when there is no such child.
+     */
+    static final int NO_NODE = -1;
+
+    /**
+     * Codepoint on the edge from the parent to the node, indexed by node id.
+     */
+    private final int[] mKeys;
+
+    /**
+     * Id of the first child of the node, indexed by node id. The children of node {@code i} are
+     * the nodes in {@code [mChildStart[i], mChildStart[i + 1])}.
+     */
+    private final int[] mChildStart;
+
+    /**
+     * EmojiMetadata that ends at the node, indexed by node id. {@code null} for intermediate
+     * nodes.
+     */
+    private final EmojiMetadata[] mData;
+
+    private EmojiTrie(final int[] keys, final int[] childStart, final EmojiMetadata[] data) {
+        mKeys = keys;
+        mChildStart = childStart;
+        mData = data;
+    }
+
+    /**
+     * @param node id of the parent node
+     * @param codePoint codepoint to follow
+     *
+     * @return id of the child node for the codepoint, or {@link #NO_NODE}
+     */
+    int getChild(final int node, final int codePoint) {
+        final int index = Arrays.binarySearch(mKeys, mChildStart[node], mChildStart[node + 1],
+                codePoint);
+        return index < 0 ? NO_NODE : index;
+    }
+
+    /**
+     * @param node id of the node
+     *
+     * @return EmojiMetadata for the codepoint sequence that ends at the node, or {@code null}
+     */
+    @Nullable
+    EmojiMetadata getData(final int node) {
+        return mData[node];
+    }
+
+    /**
+     * @return number of nodes in the trie including the root
+     */
+    int getNodeCount() {
+        return mData.length;
+    }
+
+    /**
+     * Builds the trie. If more than one entry has the same codepoints the last one in the list is
+     * used.
+     *
+     * @param entries EmojiMetadata entries to index, each with at least one codepoint
+     */
+    @NonNull
+    static EmojiTrie create(@NonNull final List<EmojiMetadata> entries) {
+        final int size = entries.size();
+        final Entry[] sorted = new Entry[size];
+        int maxNodeCount = 1;
+        for (int i = 0; i < size; i++) {
+            sorted[i] = new Entry(entries.get(i), i);
+            maxNodeCount += sorted[i].mCodepoints.length;
+        }
+        Arrays.sort(sorted);
+
+        // The range of sorted entries that share the prefix ending at a node, and the depth of the
+        // node. Nodes are created in breadth first order, therefore a node id is also its position
+        // in the queue.
+        final int[] rangeStart = new int[maxNodeCount];
+        final int[] rangeEnd = new int[maxNodeCount];
+        final int[] depths = new int[maxNodeCount];
+        final int[] keys = new int[maxNodeCount];
+        final int[] childStart = new int[maxNodeCount + 1];
+        final EmojiMetadata[] data = new EmojiMetadata[maxNodeCount];
+
+        rangeEnd[ROOT] = size;
+        int nodeCount = 1;
+        for (int node = 0; node < nodeCount; node++) {
+            final int depth = depths[node];
+            final int end = rangeEnd[node];
+            int start = rangeStart[node];
+            // entries that end at this node are sorted before the longer ones
+            while (start < end && sorted[start].mCodepoints.length == depth) {
+                data[node] = sorted[start].mMetadata;
+                start++;
+            }
+
+            childStart[node] = nodeCount;
+            while (start < end) {
+                final int key = sorted[start].mCodepoints[depth];
+                int childEnd = start + 1;
+                while (childEnd < end && sorted[childEnd].mCodepoints[depth] == key) {
+                    childEnd++;
+                }
+                keys[nodeCount] = key;
+                rangeStart[nodeCount] = start;
+                rangeEnd[nodeCount] = childEnd;
+                depths[nodeCount] = depth + 1;
+                nodeCount++;
+                start = childEnd;
+            }
+        }
+        childStart[nodeCount] = nodeCount;
+
+        return new EmojiTrie(Arrays.copyOf(keys, nodeCount),
+                Arrays.copyOf(childStart, nodeCount + 1),
+                Arrays.copyOf(data, nodeCount));
+    }
+
+    /**
+     * EmojiMetadata with its codepoints read once for sorting.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final EmojiMetadata mMetadata;
+        final int[] mCodepoints;
+        final int mOrder;
+
+        Entry(final EmojiMetadata metadata, final int order) {
+            mMetadata = metadata;
+            mOrder = order;
+            mCodepoints = new int[metadata.getCodepointsLength()];
+            for (int i = 0; i < mCodepoints.length; i++) {
+                mCodepoints[i] = metadata.getCodepointAt(i);
+            }
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            final int length = Math.min(mCodepoints.length, other.mCodepoints.length);
+            for (int i = 0; i < length; i++) {
+                if (mCodepoints[i] != other.mCodepoints[i]) {
+                    return mCodepoints[i] < other.mCodepoints[i] ? -1 : 1;
+                }
+            }
+            if (mCodepoints.length != other.mCodepoints.length) {
+                return mCodepoints.length < other.mCodepoints.length ? -1 : 1;
+            }
+            return mOrder < other.mOrder ? -1 : (mOrder == other.mOrder ? 0 : 1);
+        }
+    }
+}
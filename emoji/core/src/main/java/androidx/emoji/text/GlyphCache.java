@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.emoji.text;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.core.util.AtomicFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Persists the {@link EmojiMetadata#getHasGlyph()} results so that the system fonts are not
+ * checked again for every emoji after the process restarts.
+ * <p/>
+ * The results depend on both the emoji font and the system fonts, therefore the file is keyed by
+ * the metadata version and source of the font, the system build fingerprint and the
+ * {@link EmojiCompat.GlyphChecker} in use. A file with a different key is ignored and overwritten
+ * on the next write.
+ */
+@AnyThread
+@RequiresApi(19)
+final class GlyphCache {
+    private static final String TAG = "EmojiCompat";
+
+    /**
+     * "EGC1", written at the beginning of the file.
+     */
+    private static final int MAGIC = 0x45474331;
+
+    /**
+     * Version of the file format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Delay before the results are written, so that the emojis checked while a screen of text is
+     * processed end up in a single write.
+     */
+    private static final long WRITE_DELAY_MS = 5000;
+
+    private final AtomicFile mFile;
+    private final MetadataRepo mMetadataRepo;
+    private final String mGlyphCheckerName;
+
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private HandlerThread mThread;
+    @GuardedBy("mLock")
+    private Handler mHandler;
+    @GuardedBy("mLock")
+    private boolean mWriteScheduled;
+
+    private final Runnable mWriteRunnable = new Runnable() {
+        @Override
+        public void run() {
+            writeAndStopThread();
+        }
+    };
+
+    GlyphCache(@NonNull final File file, @NonNull final MetadataRepo metadataRepo,
+            @NonNull final EmojiCompat.GlyphChecker glyphChecker) {
+        mFile = new AtomicFile(file);
+        mMetadataRepo = metadataRepo;
+        mGlyphCheckerName = glyphChecker.getClass().getName();
+    }
+
+    /**
+     * Reads the persisted results into the EmojiMetadata of the repo. Does nothing if the file
+     * does not exist or was written for a different font, system build or GlyphChecker.
+     *
+     * @return number of EmojiMetadata whose result was restored
+     */
+    @WorkerThread
+    int restore() {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(mFile.openRead()));
+            if (!readHeader(in)) {
+                return 0;
+            }
+            final int count = mMetadataRepo.getMetadataCount();
+            int restored = 0;
+            for (int i = 0; i < count; i++) {
+                final int hasGlyph = in.readByte();
+                final EmojiMetadata metadata = mMetadataRepo.getMetadataAt(i);
+                if (hasGlyph != EmojiMetadata.HAS_GLYPH_UNKNOWN
+                        && metadata.getHasGlyph() == EmojiMetadata.HAS_GLYPH_UNKNOWN) {
+                    metadata.setHasGlyph(hasGlyph == EmojiMetadata.HAS_GLYPH_EXISTS);
+                    restored++;
+                }
+            }
+            return restored;
+        } catch (FileNotFoundException e) {
+            return 0;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read emoji glyph cache", e);
+            return 0;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Called after a new result is set on an EmojiMetadata. Schedules a write of all the results
+     * on a background thread.
+     */
+    void onGlyphChecked() {
+        synchronized (mLock) {
+            if (mWriteScheduled) {
+                return;
+            }
+            mWriteScheduled = true;
+            if (mHandler == null) {
+                mThread = new HandlerThread("emojiCompatGlyphCache",
+                        Process.THREAD_PRIORITY_BACKGROUND);
+                mThread.start();
+                mHandler = new Handler(mThread.getLooper());
+            }
+            mHandler.postDelayed(mWriteRunnable, WRITE_DELAY_MS);
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void writeAndStopThread() {
+        synchronized (mLock) {
+            mWriteScheduled = false;
+        }
+        write();
+        synchronized (mLock) {
+            // a write requested while writing keeps the thread for the next run
+            if (!mWriteScheduled && mThread != null) {
+                mThread.quitSafely();
+                mThread = null;
+                mHandler = null;
+            }
+        }
+    }
+
+    /**
+     * Writes the current results of all EmojiMetadata in the repo.
+     */
+    @WorkerThread
+    @VisibleForTesting
+    void write() {
+        FileOutputStream stream = null;
+        try {
+            stream = mFile.startWrite();
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            writeHeader(out);
+            final int count = mMetadataRepo.getMetadataCount();
+            for (int i = 0; i < count; i++) {
+                out.writeByte(mMetadataRepo.getMetadataAt(i).getHasGlyph());
+            }
+            out.flush();
+            mFile.finishWrite(stream);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write emoji glyph cache", e);
+            if (stream != null) {
+                mFile.failWrite(stream);
+            }
+        }
+    }
+
+    private void writeHeader(final DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(mMetadataRepo.getMetadataVersion());
+        out.writeUTF(getSourceSha());
+        out.writeUTF(getBuildFingerprint());
+        out.writeUTF(mGlyphCheckerName);
+        out.writeInt(mMetadataRepo.getMetadataCount());
+    }
+
+    private boolean readHeader(final DataInputStream in) throws IOException {
+        return in.readInt() == MAGIC
+                && in.readInt() == FORMAT_VERSION
+                && in.readInt() == mMetadataRepo.getMetadataVersion()
+                && in.readUTF().equals(getSourceSha())
+                && in.readUTF().equals(getBuildFingerprint())
+                && in.readUTF().equals(mGlyphCheckerName)
+                && in.readInt() == mMetadataRepo.getMetadataCount();
+    }
+
+    private String getSourceSha() {
+        final String sha = mMetadataRepo.getMetadataList().sourceSha();
+        return sha == null ? "" : sha;
+    }
+
+    private static String getBuildFingerprint() {
+        return Build.FINGERPRINT == null ? "" : Build.FINGERPRINT;
+    }
+
+    private static void closeQuietly(final DataInputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
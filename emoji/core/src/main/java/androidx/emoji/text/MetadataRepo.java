@@ -19,7 +19,6 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 
 import android.content.res.AssetManager;
 import android.graphics.Typeface;
-import android.util.SparseArray;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
@@ -32,6 +31,7 @@ import androidx.text.emoji.flatbuffer.MetadataList;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 
 /**
  * Class to hold the emoji metadata required to process and draw emojis.
@@ -39,11 +39,6 @@ import java.nio.ByteBuffer;
 @AnyThread
 @RequiresApi(19)
 public final class MetadataRepo {
-    /**
-     * The default children size of the root node.
-     */
-    private static final int DEFAULT_ROOT_SIZE = 1024;
-
     /**
      * MetadataList that contains the emoji metadata.
      */
@@ -56,9 +51,15 @@ public final class MetadataRepo {
     private final char[] mEmojiCharArray;
 
     /**
-     * Empty root node of the trie.
+     * All EmojiMetadata in the repo. For the metadata read from a font the position in the list is
+     * the index of the EmojiMetadata in {@link #mMetadataList}.
+     */
+    private final ArrayList<EmojiMetadata> mEntries;
+
+    /**
+     * Trie built from {@link #mEntries}.
      */
-    private final Node mRootNode;
+    private volatile EmojiTrie mTrie;
 
     /**
      * Typeface to be used to render emojis.
@@ -74,7 +75,8 @@ public final class MetadataRepo {
     MetadataRepo() {
         mTypeface = null;
         mMetadataList = null;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
+        mEntries = new ArrayList<>();
+        mTrie = EmojiTrie.create(mEntries);
         mEmojiCharArray = new char[0];
     }
 
@@ -88,7 +90,7 @@ public final class MetadataRepo {
             @NonNull final MetadataList metadataList) {
         mTypeface = typeface;
         mMetadataList = metadataList;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
+        mEntries = new ArrayList<>(mMetadataList.listLength());
         mEmojiCharArray = new char[mMetadataList.listLength() * 2];
         constructIndex(mMetadataList);
     }
@@ -141,8 +143,9 @@ public final class MetadataRepo {
             //chars wide
             //noinspection ResultOfMethodCallIgnored
             Character.toChars(metadata.getId(), mEmojiCharArray, i * 2);
-            put(metadata);
+            mEntries.add(metadata);
         }
+        mTrie = EmojiTrie.create(mEntries);
     }
 
     /**
@@ -165,8 +168,28 @@ public final class MetadataRepo {
      * @hide
      */
     @RestrictTo(LIBRARY_GROUP_PREFIX)
-    Node getRootNode() {
-        return mRootNode;
+    EmojiTrie getTrie() {
+        return mTrie;
+    }
+
+    /**
+     * @return number of EmojiMetadata in the repo
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    int getMetadataCount() {
+        return mEntries.size();
+    }
+
+    /**
+     * @param index index of the EmojiMetadata in the {@link MetadataList}
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    EmojiMetadata getMetadataAt(int index) {
+        return mEntries.get(index);
     }
 
     /**
@@ -186,61 +209,19 @@ public final class MetadataRepo {
     }
 
     /**
-     * Add an EmojiMetadata to the index.
+     * Add an EmojiMetadata to the index. The trie is rebuilt on every call, therefore this is
+     * only meant to be used in tests.
      *
      * @hide
      */
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     @VisibleForTesting
-    void put(@NonNull final EmojiMetadata data) {
+    synchronized void put(@NonNull final EmojiMetadata data) {
         Preconditions.checkNotNull(data, "emoji metadata cannot be null");
         Preconditions.checkArgument(data.getCodepointsLength() > 0,
                 "invalid metadata codepoint length");
 
-        mRootNode.put(data, 0, data.getCodepointsLength() - 1);
-    }
-
-    /**
-     * Trie node that holds mapping from emoji codepoint(s) to EmojiMetadata. A single codepoint
-     * emoji is represented by a child of the root node.
-     *
-     * @hide
-     */
-    @RestrictTo(LIBRARY_GROUP_PREFIX)
-    static class Node {
-        private final SparseArray<Node> mChildren;
-        private EmojiMetadata mData;
-
-        private Node() {
-            this(1);
-        }
-
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        Node(final int defaultChildrenSize) {
-            mChildren = new SparseArray<>(defaultChildrenSize);
-        }
-
-        Node get(final int key) {
-            return mChildren == null ? null : mChildren.get(key);
-        }
-
-        final EmojiMetadata getData() {
-            return mData;
-        }
-
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        void put(@NonNull final EmojiMetadata data, final int start, final int end) {
-            Node node = get(data.getCodepointAt(start));
-            if (node == null) {
-                node = new Node();
-                mChildren.put(data.getCodepointAt(start), node);
-            }
-
-            if (end > start) {
-                node.put(data, start + 1, end);
-            } else {
-                node.mData = data;
-            }
-        }
+        mEntries.add(data);
+        mTrie = EmojiTrie.create(mEntries);
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.fragment.app
+
+import android.view.ViewGroup
+import androidx.fragment.app.test.FragmentTestActivity
+import androidx.fragment.test.R
+import androidx.lifecycle.Lifecycle
+import androidx.test.core.app.ActivityScenario
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.testutils.PollingCheck
+import androidx.testutils.withActivity
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@MediumTest
+@RunWith(AndroidJUnit4::class)
+class AsyncViewInflationTest {
+
+    @Test
+    fun viewAddedOnceInflated() {
+        with(ActivityScenario.launch(FragmentTestActivity::class.java)) {
+            val fm = withActivity {
+                supportFragmentManager.apply { isAsyncViewInflationEnabled = true }
+            }
+            val fragment1 = StrictViewFragment(R.layout.fragment_a)
+            val fragment2 = StrictViewFragment(R.layout.fragment_b)
+
+            withActivity {
+                fm.beginTransaction()
+                    .add(R.id.content, fragment1)
+                    .add(R.id.content, fragment2)
+                    .commitNow()
+
+                // The fragments wait for their views in CREATED
+                assertThat(fragment1.lifecycle.currentState).isEqualTo(Lifecycle.State.CREATED)
+                assertThat(fragment1.view).isNull()
+                assertThat(fragment2.lifecycle.currentState).isEqualTo(Lifecycle.State.CREATED)
+                assertThat(fragment2.view).isNull()
+            }
+
+            PollingCheck.waitFor {
+                withActivity {
+                    fragment1.isResumed && fragment2.isResumed
+                }
+            }
+            withActivity {
+                val container = findViewById<ViewGroup>(R.id.content)
+                assertThat(fragment1.requireView().findViewById<ViewGroup>(R.id.textA))
+                    .isNotNull()
+                assertThat(fragment1.requireView().parent).isSameInstanceAs(container)
+                assertThat(fragment2.requireView().parent).isSameInstanceAs(container)
+                assertThat(fragment1.onCreateViewCalled).isTrue()
+                assertThat(fragment2.onViewCreatedCalled).isTrue()
+            }
+        }
+    }
+
+    @Test
+    fun viewDroppedWhenReplacedWhileInflating() {
+        with(ActivityScenario.launch(FragmentTestActivity::class.java)) {
+            val fm = withActivity {
+                supportFragmentManager.apply { isAsyncViewInflationEnabled = true }
+            }
+            val fragment1 = StrictViewFragment(R.layout.fragment_a)
+            val fragment2 = StrictViewFragment(R.layout.fragment_b)
+
+            withActivity {
+                fm.beginTransaction().add(R.id.content, fragment1).commitNow()
+                fm.beginTransaction().replace(R.id.content, fragment2).commitNow()
+            }
+
+            // Views are inflated in order, so the view of fragment1 was delivered first
+            PollingCheck.waitFor {
+                withActivity {
+                    fragment2.isResumed
+                }
+            }
+            withActivity {
+                assertThat(fragment1.isAdded).isFalse()
+                assertThat(fragment1.view).isNull()
+                assertThat(fragment1.onCreateViewCalled).isFalse()
+                assertThat(fragment1.mAsyncInflatedView).isNull()
+                assertThat(findViewById<ViewGroup>(R.id.content).getChildAt(0))
+                    .isSameInstanceAs(fragment2.requireView())
+            }
+        }
+    }
+}
@@ -297,7 +297,12 @@ public class Fragment implements ComponentCallbacks, OnCreateContextMenuListener
     SavedStateRegistryController mSavedStateRegistryController;
 
     @LayoutRes
-    private int mContentLayoutId;
+    int mContentLayoutId;
+
+    // The view of mContentLayoutId when it was inflated off the main thread, returned by the
+    // default onCreateView() instead of inflating it again
+    @Nullable
+    View mAsyncInflatedView;
 
     private final AtomicInteger mNextLocalRequestCode = new AtomicInteger();
 
@@ -1919,6 +1924,11 @@ public class Fragment implements ComponentCallbacks, OnCreateContextMenuListener
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
             @Nullable Bundle savedInstanceState) {
         if (mContentLayoutId != 0) {
+            if (mAsyncInflatedView != null) {
+                View view = mAsyncInflatedView;
+                mAsyncInflatedView = null;
+                return view;
+            }
             return inflater.inflate(mContentLayoutId, container, false);
         }
         return null;
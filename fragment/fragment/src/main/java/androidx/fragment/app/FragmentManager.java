@@ -34,6 +34,7 @@ import android.os.Bundle;
 import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -62,6 +63,7 @@ import androidx.annotation.RestrictTo;
 import androidx.annotation.StringRes;
 import androidx.collection.ArraySet;
 import androidx.core.os.CancellationSignal;
+import androidx.core.os.TraceCompat;
 import androidx.fragment.R;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleEventObserver;
@@ -507,6 +509,7 @@ public abstract class FragmentManager implements FragmentResultOwner {
     private boolean mStopped;
     private boolean mDestroyed;
     private boolean mHavePendingDeferredStart;
+    private boolean mAsyncViewInflationEnabled;
 
     // Temporary vars for removing redundant operations in BackStackRecords:
     private ArrayList<BackStackRecord> mTmpRecords;
@@ -1292,6 +1295,21 @@ public abstract class FragmentManager implements FragmentResultOwner {
         }
     }
 
+    void onAsyncViewInflated(@NonNull Fragment f) {
+        FragmentStateManager fragmentStateManager = mFragmentStore.getFragmentStateManager(f.mWho);
+        if (fragmentStateManager == null) {
+            return;
+        }
+        fragmentStateManager.moveToExpectedState();
+        // Run the effects the fragment enqueued when its view was added
+        if (f.mContainer != null) {
+            SpecialEffectsController controller =
+                    SpecialEffectsController.getOrCreateController(f.mContainer, this);
+            controller.markPostponedState();
+            controller.executePendingOperations();
+        }
+    }
+
     boolean isStateAtLeast(int state) {
         return mCurState >= state;
     }
@@ -1852,6 +1870,50 @@ public abstract class FragmentManager implements FragmentResultOwner {
         return mStateSaved || mStopped;
     }
 
+    /**
+     * Control whether the views of the fragments added to this FragmentManager with a
+     * content layout, as given to {@link Fragment#Fragment(int)}, are inflated off the main
+     * thread by an {@link androidx.asynclayoutinflater.view.AsyncLayoutInflater}.
+     * <p>
+     * When enabled, such a fragment stays {@link Lifecycle.State#CREATED CREATED} until its
+     * view is inflated. Its view is then created, added to its container and moved to the
+     * state of the FragmentManager on the main thread. This spreads the inflation of
+     * transactions adding many fragments at once, e.g. the tabs of a screen, over several
+     * frames, but transactions complete before the views of their fragments are added: a
+     * replaced fragment may be removed before the view of its replacement is shown.
+     * <p>
+     * The layouts must support being inflated by an AsyncLayoutInflater. They can't contain
+     * fragments and their views are created without the factories of the fragment's
+     * {@link LayoutInflater}. Fragments overriding
+     * {@link Fragment#onCreateView(LayoutInflater, ViewGroup, Bundle)} without returning the
+     * view of the default implementation don't benefit from it.
+     * <p>
+     * This is disabled by default. It only takes effect with the new state manager: when it
+     * is disabled through {@link #enableNewStateManager(boolean)}, views are always inflated
+     * on the main thread and this flag does nothing.
+     *
+     * @param enabled Whether the views of fragments are inflated off the main thread.
+     * @see #enableNewStateManager(boolean)
+     */
+    @FragmentStateManagerControl
+    public void setAsyncViewInflationEnabled(boolean enabled) {
+        mAsyncViewInflationEnabled = enabled;
+    }
+
+    /**
+     * Returns whether the views of the fragments of this FragmentManager are inflated off the
+     * main thread. This is only the value given to
+     * {@link #setAsyncViewInflationEnabled(boolean)}, which does nothing without the new state
+     * manager.
+     *
+     * @see #setAsyncViewInflationEnabled(boolean)
+     * @see #enableNewStateManager(boolean)
+     */
+    @FragmentStateManagerControl
+    public boolean isAsyncViewInflationEnabled() {
+        return mAsyncViewInflationEnabled;
+    }
+
     /**
      * Adds an action to the queue of pending actions.
      *
@@ -2105,6 +2167,22 @@ public abstract class FragmentManager implements FragmentResultOwner {
      */
     private void executeOpsTogether(@NonNull ArrayList<BackStackRecord> records,
             @NonNull ArrayList<Boolean> isRecordPop, int startIndex, int endIndex) {
+        final boolean logTiming = isLoggingEnabled(Log.DEBUG);
+        final long startTime = logTiming ? SystemClock.uptimeMillis() : 0;
+        TraceCompat.beginSection("FragmentManager#executeOpsTogether");
+        try {
+            performExecuteOpsTogether(records, isRecordPop, startIndex, endIndex);
+        } finally {
+            TraceCompat.endSection();
+        }
+        if (logTiming) {
+            Log.d(TAG, "Executed " + records.subList(startIndex, endIndex) + " in "
+                    + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+    }
+
+    private void performExecuteOpsTogether(@NonNull ArrayList<BackStackRecord> records,
+            @NonNull ArrayList<Boolean> isRecordPop, int startIndex, int endIndex) {
         final boolean allowReordering = records.get(startIndex).mReorderingAllowed;
         boolean addToBackStack = false;
         if (mTmpAddedFragments == null) {
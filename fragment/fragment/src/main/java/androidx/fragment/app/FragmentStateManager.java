@@ -20,6 +20,7 @@ import android.app.Activity;
 import android.content.res.Resources;
 import android.os.Bundle;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
@@ -29,6 +30,8 @@ import android.view.ViewParent;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.experimental.UseExperimental;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
 import androidx.core.view.ViewCompat;
 import androidx.fragment.R;
 import androidx.lifecycle.Lifecycle;
@@ -50,6 +53,10 @@ class FragmentStateManager {
 
     private boolean mMovingToState = false;
     private int mFragmentManagerState = Fragment.INITIALIZING;
+    // The callback of the view being inflated off the main thread, holding the fragment at
+    // CREATED until it is called. Any other callback is from an inflation that is no longer needed.
+    @Nullable
+    private AsyncLayoutInflater.OnInflateFinishedListener mPendingViewInflation;
 
     /**
      * Create a FragmentStateManager from a brand new Fragment instance.
@@ -242,6 +249,10 @@ class FragmentStateManager {
                 maxState = Math.min(maxState, Fragment.INITIALIZING);
             }
         }
+        // Fragments whose view is inflated off the main thread wait for it in CREATED
+        if (mPendingViewInflation != null) {
+            maxState = Math.min(maxState, Fragment.CREATED);
+        }
         // Defer start if requested; don't allow it to move to STARTED or higher
         // if it's not already started.
         if (mFragment.mDeferStart && mFragment.mState < Fragment.STARTED) {
@@ -512,7 +523,13 @@ class FragmentStateManager {
             }
         }
         mFragment.mContainer = container;
+        if (shouldInflateViewAsync()) {
+            inflateViewAsync(layoutInflater, container);
+            return;
+        }
         mFragment.performCreateView(layoutInflater, container, mFragment.mSavedFragmentState);
+        // Only the default onCreateView() uses the view inflated off the main thread
+        mFragment.mAsyncInflatedView = null;
         if (mFragment.mView != null) {
             mFragment.mView.setSaveFromParentEnabled(false);
             mFragment.mView.setTag(R.id.fragment_container_view_tag, mFragment);
@@ -570,6 +587,49 @@ class FragmentStateManager {
         mFragment.mState = Fragment.VIEW_CREATED;
     }
 
+    @UseExperimental(markerClass = FragmentStateManagerControl.class)
+    private boolean shouldInflateViewAsync() {
+        return FragmentManager.USE_STATE_MANAGER
+                && mFragment.mContainer != null
+                && mFragment.mContentLayoutId != 0
+                && mFragment.mAsyncInflatedView == null
+                && mFragment.mFragmentManager.isAsyncViewInflationEnabled();
+    }
+
+    private void inflateViewAsync(@NonNull LayoutInflater layoutInflater,
+            @NonNull ViewGroup container) {
+        if (FragmentManager.isLoggingEnabled(Log.DEBUG)) {
+            Log.d(TAG, "Inflating view asynchronously: " + mFragment);
+        }
+        final FragmentManager fragmentManager = mFragment.mFragmentManager;
+        final long startTime = SystemClock.uptimeMillis();
+        mPendingViewInflation = new AsyncLayoutInflater.OnInflateFinishedListener() {
+            @Override
+            public void onInflateFinished(@NonNull View view, int resid,
+                    @Nullable ViewGroup parent) {
+                if (mPendingViewInflation != this) {
+                    return;
+                }
+                mPendingViewInflation = null;
+                if (FragmentManager.isLoggingEnabled(Log.DEBUG)) {
+                    Log.d(TAG, "Inflated view asynchronously in "
+                            + (SystemClock.uptimeMillis() - startTime) + "ms: " + mFragment);
+                }
+                // The view is dropped if the fragment no longer needs it, e.g. if it was
+                // removed or destroyed in the meantime
+                if (mFragment.mFragmentManager == fragmentManager
+                        && mFragment.mState == Fragment.CREATED
+                        && computeExpectedState() > Fragment.CREATED) {
+                    mFragment.mAsyncInflatedView = view;
+                    fragmentManager.onAsyncViewInflated(mFragment);
+                }
+            }
+        };
+        // The inflater must be created on the main thread, where it calls back
+        new AsyncLayoutInflater(layoutInflater.getContext()).inflate(mFragment.mContentLayoutId,
+                container, mPendingViewInflation);
+    }
+
     void activityCreated() {
         if (FragmentManager.isLoggingEnabled(Log.DEBUG)) {
             Log.d(TAG, "moveto ACTIVITY_CREATED: " + mFragment);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Index of the {@link GeneratedAdapter}s emitted by lifecycle-compiler for one package of a
+ * compilation unit.
+ * <p>
+ * Implementations are generated and registered as services in
+ * {@code META-INF/services/androidx.lifecycle.GeneratedAdapterIndex}. {@link Lifecycling} loads
+ * all of them once, so observers listed in an index never go through {@code Class.forName} or
+ * {@code getDeclaredMethods} lookups. Observers are listed by name, so loading an index doesn't
+ * load the observer classes.
+ * <p>
+ * Only observers with a generated adapter are indexed. Other observers, including subclasses of
+ * indexed observers that don't declare {@link OnLifecycleEvent} methods themselves, are still
+ * resolved through reflection.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public interface GeneratedAdapterIndex {
+
+    /**
+     * Returns the names of the observer classes that have a generated adapter in this index, as
+     * returned by {@link Class#getName()}. The position of a name in the returned array is the
+     * {@code index} passed to {@link #createAdapter}.
+     *
+     * @return the names of the indexed observer classes
+     */
+    @NonNull
+    String[] getObserverClassNames();
+
+    /**
+     * Creates the generated adapter for the given observer.
+     *
+     * @param index position of the observer class name in {@link #getObserverClassNames()}
+     * @param receiver the observer, an instance of the class at {@code index}
+     * @return a new adapter dispatching events to {@code receiver}
+     */
+    @NonNull
+    GeneratedAdapter createAdapter(int index, @NonNull Object receiver);
+}
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 /**
  * Internal class to handle lifecycle conversion etc.
@@ -40,8 +41,11 @@ public class Lifecycling {
     private static final int GENERATED_CALLBACK = 2;
 
     private static Map<Class<?>, Integer> sCallbackCache = new HashMap<>();
-    private static Map<Class<?>, List<Constructor<? extends GeneratedAdapter>>> sClassToAdapters =
-            new HashMap<>();
+    private static Map<Class<?>, List<AdapterFactory>> sClassToAdapters = new HashMap<>();
+
+    // Adapters registered by build-time GeneratedAdapterIndex classes, loaded once on first use.
+    // Keyed by class name, so that loading the indexes doesn't load every observer class.
+    private static Map<String, AdapterFactory> sIndexedAdapters;
 
     // Left for binary compatibility when lifecycle-common goes up 2.1 as transitive dep
     // but lifecycle-runtime stays 2.0
@@ -82,16 +86,14 @@ public class Lifecycling {
         final Class<?> klass = object.getClass();
         int type = getObserverConstructorType(klass);
         if (type == GENERATED_CALLBACK) {
-            List<Constructor<? extends GeneratedAdapter>> constructors =
-                    sClassToAdapters.get(klass);
-            if (constructors.size() == 1) {
-                GeneratedAdapter generatedAdapter = createGeneratedAdapter(
-                        constructors.get(0), object);
+            List<AdapterFactory> factories = sClassToAdapters.get(klass);
+            if (factories.size() == 1) {
+                GeneratedAdapter generatedAdapter = factories.get(0).create(object);
                 return new SingleGeneratedAdapterObserver(generatedAdapter);
             }
-            GeneratedAdapter[] adapters = new GeneratedAdapter[constructors.size()];
-            for (int i = 0; i < constructors.size(); i++) {
-                adapters[i] = createGeneratedAdapter(constructors.get(i), object);
+            GeneratedAdapter[] adapters = new GeneratedAdapter[factories.size()];
+            for (int i = 0; i < factories.size(); i++) {
+                adapters[i] = factories.get(i).create(object);
             }
             return new CompositeGeneratedAdaptersObserver(adapters);
         }
@@ -139,6 +141,32 @@ public class Lifecycling {
         }
     }
 
+    @NonNull
+    private static Map<String, AdapterFactory> getIndexedAdapters() {
+        if (sIndexedAdapters == null) {
+            sIndexedAdapters = new HashMap<>();
+            // Kept in this exact shape so that R8 can replace the ServiceLoader lookup with
+            // direct instantiation of the generated indexes.
+            for (GeneratedAdapterIndex index : ServiceLoader.load(GeneratedAdapterIndex.class,
+                    GeneratedAdapterIndex.class.getClassLoader())) {
+                registerGeneratedAdapterIndex(index);
+            }
+        }
+        return sIndexedAdapters;
+    }
+
+    /**
+     * Adds the adapters of the given index. Adapters of classes that were already resolved
+     * through reflection keep being used.
+     */
+    static void registerGeneratedAdapterIndex(@NonNull GeneratedAdapterIndex index) {
+        Map<String, AdapterFactory> indexedAdapters = getIndexedAdapters();
+        String[] observerClassNames = index.getObserverClassNames();
+        for (int i = 0; i < observerClassNames.length; i++) {
+            indexedAdapters.put(observerClassNames[i], new IndexedAdapterFactory(index, i));
+        }
+    }
+
     private static int getObserverConstructorType(Class<?> klass) {
         Integer callbackCache = sCallbackCache.get(klass);
         if (callbackCache != null) {
@@ -150,6 +178,14 @@ public class Lifecycling {
     }
 
     private static int resolveObserverCallbackType(Class<?> klass) {
+        // Only classes with their own generated adapter are indexed. Subclasses without one still
+        // go through the lookups below, as their own methods can only be found by reflection.
+        AdapterFactory indexedFactory = getIndexedAdapters().get(klass.getName());
+        if (indexedFactory != null) {
+            sClassToAdapters.put(klass, Collections.singletonList(indexedFactory));
+            return GENERATED_CALLBACK;
+        }
+
         // anonymous class bug:35073837
         if (klass.getCanonicalName() == null) {
             return REFLECTIVE_CALLBACK;
@@ -158,7 +194,7 @@ public class Lifecycling {
         Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
         if (constructor != null) {
             sClassToAdapters.put(klass, Collections
-                    .<Constructor<? extends GeneratedAdapter>>singletonList(constructor));
+                    .<AdapterFactory>singletonList(new ConstructorAdapterFactory(constructor)));
             return GENERATED_CALLBACK;
         }
 
@@ -168,12 +204,12 @@ public class Lifecycling {
         }
 
         Class<?> superclass = klass.getSuperclass();
-        List<Constructor<? extends GeneratedAdapter>> adapterConstructors = null;
+        List<AdapterFactory> adapterFactories = null;
         if (isLifecycleParent(superclass)) {
             if (getObserverConstructorType(superclass) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            adapterConstructors = new ArrayList<>(sClassToAdapters.get(superclass));
+            adapterFactories = new ArrayList<>(sClassToAdapters.get(superclass));
         }
 
         for (Class<?> intrface : klass.getInterfaces()) {
@@ -183,13 +219,13 @@ public class Lifecycling {
             if (getObserverConstructorType(intrface) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            if (adapterConstructors == null) {
-                adapterConstructors = new ArrayList<>();
+            if (adapterFactories == null) {
+                adapterFactories = new ArrayList<>();
             }
-            adapterConstructors.addAll(sClassToAdapters.get(intrface));
+            adapterFactories.addAll(sClassToAdapters.get(intrface));
         }
-        if (adapterConstructors != null) {
-            sClassToAdapters.put(klass, adapterConstructors);
+        if (adapterFactories != null) {
+            sClassToAdapters.put(klass, adapterFactories);
             return GENERATED_CALLBACK;
         }
 
@@ -209,4 +245,36 @@ public class Lifecycling {
 
     private Lifecycling() {
     }
+
+    private interface AdapterFactory {
+        GeneratedAdapter create(Object object);
+    }
+
+    private static final class ConstructorAdapterFactory implements AdapterFactory {
+        private final Constructor<? extends GeneratedAdapter> mConstructor;
+
+        ConstructorAdapterFactory(Constructor<? extends GeneratedAdapter> constructor) {
+            mConstructor = constructor;
+        }
+
+        @Override
+        public GeneratedAdapter create(Object object) {
+            return createGeneratedAdapter(mConstructor, object);
+        }
+    }
+
+    private static final class IndexedAdapterFactory implements AdapterFactory {
+        private final GeneratedAdapterIndex mIndex;
+        private final int mPosition;
+
+        IndexedAdapterFactory(GeneratedAdapterIndex index, int position) {
+            mIndex = index;
+            mPosition = position;
+        }
+
+        @Override
+        public GeneratedAdapter create(Object object) {
+            return mIndex.createAdapter(mPosition, object);
+        }
+    }
 }
@@ -78,6 +78,44 @@ public class LifecyclingTest {
         assertThat(callback, instanceOf(CompositeGeneratedAdaptersObserver.class));
     }
 
+    @Test
+    public void testIndexedAdapterWithoutAdapterClass() {
+        class IndexedObserver implements LifecycleObserver {
+            int mCalls;
+
+            @OnLifecycleEvent(ON_ANY)
+            public void onAny() {
+                throw new IllegalStateException("Reflective dispatch must not be used");
+            }
+        }
+        Lifecycling.registerGeneratedAdapterIndex(new GeneratedAdapterIndex() {
+            @NonNull
+            @Override
+            public String[] getObserverClassNames() {
+                return new String[]{IndexedObserver.class.getName()};
+            }
+
+            @NonNull
+            @Override
+            public GeneratedAdapter createAdapter(int index, @NonNull final Object receiver) {
+                return new GeneratedAdapter() {
+                    @Override
+                    public void callMethods(LifecycleOwner source, Lifecycle.Event event,
+                            boolean onAny, MethodCallsLogger logger) {
+                        if (onAny) {
+                            ((IndexedObserver) receiver).mCalls++;
+                        }
+                    }
+                };
+            }
+        });
+        IndexedObserver observer = new IndexedObserver();
+        LifecycleEventObserver callback = lifecycleEventObserver(observer);
+        assertThat(callback, instanceOf(SingleGeneratedAdapterObserver.class));
+        callback.onStateChanged(new DefaultLifecycleOwner(), Lifecycle.Event.ON_CREATE);
+        assertThat(observer.mCalls, is(1));
+    }
+
     @Test
     public void testDerivedSequence() {
         LifecycleEventObserver callback2 = lifecycleEventObserver(new DerivedSequence2());
@@ -22,17 +22,48 @@ import javax.annotation.processing.SupportedAnnotationTypes
 import javax.lang.model.SourceVersion
 import javax.lang.model.element.TypeElement
 
+/**
+ * Option that makes the processor emit a [GeneratedAdapterIndex] per package in addition to the
+ * adapters, so that `Lifecycling` can find them without any reflection.
+ */
+const val ADAPTER_INDEX_OPTION = "lifecycle.adapterIndex"
+
+private const val INCREMENTAL_ISOLATING = "org.gradle.annotation.processing.isolating"
+private const val INCREMENTAL_AGGREGATING = "org.gradle.annotation.processing.aggregating"
+
 @SupportedAnnotationTypes("androidx.lifecycle.OnLifecycleEvent")
 class LifecycleProcessor : AbstractProcessor() {
+    private val generatedIndexes = mutableListOf<String>()
+
     override fun process(
         annotations: MutableSet<out TypeElement>,
         roundEnv: RoundEnvironment
     ): Boolean {
         val input = collectAndVerifyInput(processingEnv, roundEnv)
-        writeModels(transformToOutput(processingEnv, input), processingEnv)
+        val adapters = transformToOutput(processingEnv, input)
+        writeModels(adapters, processingEnv)
+        if (isAdapterIndexEnabled()) {
+            generatedIndexes += writeAdapterIndexes(adapters, processingEnv)
+            if (roundEnv.processingOver()) {
+                writeAdapterIndexServices(generatedIndexes, processingEnv)
+            }
+        }
         return true
     }
 
+    private fun isAdapterIndexEnabled() = isInitialized &&
+        processingEnv.options[ADAPTER_INDEX_OPTION]?.toBoolean() == true
+
+    override fun getSupportedOptions(): Set<String> {
+        // An index aggregates all observers of a package, which an isolating processor can't do.
+        val incrementalType = if (isAdapterIndexEnabled()) {
+            INCREMENTAL_AGGREGATING
+        } else {
+            INCREMENTAL_ISOLATING
+        }
+        return setOf(ADAPTER_INDEX_OPTION, incrementalType)
+    }
+
     override fun getSupportedSourceVersion(): SourceVersion {
         return SourceVersion.latest()
     }
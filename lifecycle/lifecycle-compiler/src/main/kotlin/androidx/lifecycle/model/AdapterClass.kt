@@ -28,10 +28,17 @@ data class AdapterClass(
 )
 
 fun getAdapterName(type: TypeElement): String {
+    return Lifecycling.getAdapterName(getPartialName(type))
+}
+
+fun getAdapterIndexName(type: TypeElement): String {
+    return getPartialName(type).replace(".", "_") + "_LifecycleAdapterIndex"
+}
+
+private fun getPartialName(type: TypeElement): String {
     val packageElement = type.getPackage()
     val qName = type.qualifiedName.toString()
-    val partialName = if (packageElement.isUnnamed) qName else qName.substring(
+    return if (packageElement.isUnnamed) qName else qName.substring(
         packageElement.qualifiedName.toString().length + 1
     )
-    return Lifecycling.getAdapterName(partialName)
 }
@@ -18,8 +18,10 @@ package androidx.lifecycle
 
 import androidx.lifecycle.model.AdapterClass
 import androidx.lifecycle.model.EventMethodCall
+import androidx.lifecycle.model.getAdapterIndexName
 import androidx.lifecycle.model.getAdapterName
 import com.squareup.javapoet.AnnotationSpec
+import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.JavaFile
@@ -138,6 +140,104 @@ private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnviron
     generateKeepRule(adapter.type, processingEnv)
 }
 
+/**
+ * Writes one [GeneratedAdapterIndex] per package of the given adapters. The index lives in the
+ * package of the observers, so it can reference package private observers and adapter
+ * constructors, and is named after the first observer so that it is unique across modules.
+ *
+ * @return qualified names of the written indexes
+ */
+fun writeAdapterIndexes(
+    adapters: List<AdapterClass>,
+    processingEnv: ProcessingEnvironment
+): List<String> {
+    return adapters
+        .groupBy { it.type.getPackageQName() }
+        .map { (packageName, packageAdapters) ->
+            writeAdapterIndex(
+                packageName,
+                packageAdapters.sortedBy { it.type.qualifiedName.toString() },
+                processingEnv
+            )
+        }
+}
+
+private fun writeAdapterIndex(
+    packageName: String,
+    adapters: List<AdapterClass>,
+    processingEnv: ProcessingEnvironment
+): String {
+    // Observers are listed by name rather than by class literal, so that loading the index
+    // doesn't load every observer class of the package.
+    val stringArrayType = ArrayTypeName.of(String::class.java)
+    val getObserverClassNames = MethodSpec.methodBuilder("getObserverClassNames")
+        .addModifiers(Modifier.PUBLIC)
+        .addAnnotation(Override::class.java)
+        .returns(stringArrayType)
+        .addStatement(
+            "return new $T{${adapters.joinToString(", ") { "$S" }}}",
+            stringArrayType,
+            *adapters.map {
+                processingEnv.elementUtils.getBinaryName(it.type).toString()
+            }.toTypedArray()
+        )
+        .build()
+
+    val indexParam = ParameterSpec.builder(TypeName.INT, "index").build()
+    val receiverParam = ParameterSpec.builder(TypeName.OBJECT, "receiver").build()
+    val createAdapter = MethodSpec.methodBuilder("createAdapter")
+        .addModifiers(Modifier.PUBLIC)
+        .addAnnotation(Override::class.java)
+        .returns(ClassName.get(GeneratedAdapter::class.java))
+        .addParameter(indexParam)
+        .addParameter(receiverParam)
+        .apply {
+            beginControlFlow("switch ($N)", indexParam)
+            adapters.forEachIndexed { index, adapter ->
+                addStatement(
+                    "case $L: return new $T(($T) $N)", index,
+                    ClassName.get(packageName, getAdapterName(adapter.type)),
+                    ClassName.get(adapter.type), receiverParam
+                )
+            }
+            addStatement(
+                "default: throw new $T($S + $N)", IllegalArgumentException::class.java,
+                "Unknown observer index ", indexParam
+            )
+            endControlFlow()
+        }
+        .build()
+
+    val indexName = getAdapterIndexName(adapters.first().type)
+    val indexTypeSpecBuilder = TypeSpec.classBuilder(indexName)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(ClassName.get(GeneratedAdapterIndex::class.java))
+        .addMethod(getObserverClassNames)
+        .addMethod(createAdapter)
+    adapters.forEach { indexTypeSpecBuilder.addOriginatingElement(it.type) }
+
+    addGeneratedAnnotationIfAvailable(indexTypeSpecBuilder, processingEnv)
+
+    JavaFile.builder(packageName, indexTypeSpecBuilder.build())
+        .build().writeTo(processingEnv.filer)
+
+    return if (packageName.isEmpty()) indexName else "$packageName.$indexName"
+}
+
+/**
+ * Registers the written indexes as services, which is how `Lifecycling` discovers them.
+ */
+fun writeAdapterIndexServices(indexNames: List<String>, processingEnv: ProcessingEnvironment) {
+    if (indexNames.isEmpty()) {
+        return
+    }
+    val path = "META-INF/services/${GeneratedAdapterIndex::class.java.name}"
+    val out = processingEnv.filer.createResource(StandardLocation.CLASS_OUTPUT, "", path)
+    out.openWriter().use { writer ->
+        indexNames.forEach { writer.write("$it\n") }
+    }
+}
+
 private fun addGeneratedAnnotationIfAvailable(
     adapterTypeSpecBuilder: TypeSpec.Builder,
     processingEnv: ProcessingEnvironment
@@ -114,6 +114,29 @@ class ValidCasesTest {
             .and().generatesProGuardRule("bar.DifferentPackagesDerived2.pro")
     }
 
+    @Test
+    fun testAdapterIndex() {
+        JavaSourcesSubject.assertThat(load("foo.InheritanceOk2", ""))
+            .withCompilerOptions("-A$ADAPTER_INDEX_OPTION=true")
+            .processedWith(LifecycleProcessor())
+            .compilesWithoutError().and()
+            .generatesSources(
+                load("foo.InheritanceOk2Base_LifecycleAdapter", "expected"),
+                load("foo.InheritanceOk2Derived_LifecycleAdapter", "expected"),
+                load("foo.InheritanceOk2Base_LifecycleAdapterIndex", "expected")
+            )
+            .and().generatesFileNamed(
+                StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/androidx.lifecycle.GeneratedAdapterIndex"
+            )
+    }
+
+    @Test
+    fun testNoAdapterIndexByDefault() {
+        val compileTester = processClass("foo.InheritanceOk2").compilesWithoutError()
+        doesntGenerateClass(compileTester, "foo", "InheritanceOk2Base_LifecycleAdapterIndex")
+    }
+
     private fun <T> CompileTester.GeneratedPredicateClause<T>.generatesProGuardRule(name: String):
         CompileTester.SuccessfulFileClause<T> {
             return generatesFileNamed(StandardLocation.CLASS_OUTPUT, "", "META-INF/proguard/$name")
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foo;
+
+import androidx.lifecycle.GeneratedAdapter;
+import androidx.lifecycle.GeneratedAdapterIndex;
+import java.lang.IllegalArgumentException;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+import javax.annotation.Generated;
+
+@Generated("androidx.lifecycle.LifecycleProcessor")
+public final class InheritanceOk2Base_LifecycleAdapterIndex implements GeneratedAdapterIndex {
+  @Override
+  public String[] getObserverClassNames() {
+    return new String[]{"foo.InheritanceOk2Base", "foo.InheritanceOk2Derived"};
+  }
+
+  @Override
+  public GeneratedAdapter createAdapter(int index, Object receiver) {
+    switch (index) {
+      case 0: return new InheritanceOk2Base_LifecycleAdapter((InheritanceOk2Base) receiver);
+      case 1: return new InheritanceOk2Derived_LifecycleAdapter((InheritanceOk2Derived) receiver);
+      default: throw new IllegalArgumentException("Unknown observer index " + index);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static androidx.media2.session.LibraryPageCache.TYPE_CHILDREN;
+import static androidx.media2.session.LibraryPageCache.TYPE_SEARCH_RESULT;
+import static androidx.media2.session.LibraryResult.RESULT_ERROR_BAD_VALUE;
+import static androidx.media2.session.LibraryResult.RESULT_SUCCESS;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.concurrent.futures.ResolvableFuture;
+import androidx.media2.session.MediaLibraryService.LibraryParams;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests {@link LibraryPageCache}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class LibraryPageCacheTest extends MediaTestBase {
+    private static final String PARENT_ID = "parent_id";
+    private static final int PAGE_SIZE = 10;
+    private static final int ITEM_COUNT = 35;
+
+    private TestPageLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mLoader = new TestPageLoader();
+    }
+
+    @Test
+    public void getPage_cached() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0);
+
+        LibraryResult first = cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        LibraryResult second = cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+
+        assertSame(first, second);
+        assertEquals(1, mLoader.mLoadedPages.size());
+    }
+
+    @Test
+    public void getPage_prefetchesNextPages() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 2);
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        assertEquals(3, mLoader.mLoadedPages.size());
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 1, PAGE_SIZE, null).get();
+        // Page 3 is the last page, which is partial.
+        assertEquals(4, mLoader.mLoadedPages.size());
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 3, PAGE_SIZE, null).get();
+        assertEquals(4, mLoader.mLoadedPages.size());
+    }
+
+    @Test
+    public void getPage_failedResultIsNotCached() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0);
+        mLoader.mResultCode = RESULT_ERROR_BAD_VALUE;
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        mLoader.mResultCode = RESULT_SUCCESS;
+        LibraryResult result = cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertEquals(2, mLoader.mLoadedPages.size());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0);
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        cache.getPage(TYPE_SEARCH_RESULT, PARENT_ID, 0, PAGE_SIZE, null).get();
+
+        cache.invalidate(TYPE_CHILDREN, PARENT_ID);
+        assertEquals(1, cache.size());
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        assertEquals(3, mLoader.mLoadedPages.size());
+    }
+
+    @Test
+    public void getPage_evictsLeastRecentlyUsedPage() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 2, 0);
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 1, PAGE_SIZE, null).get();
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 2, PAGE_SIZE, null).get();
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        assertEquals(4, mLoader.mLoadedPages.size());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void getPage_cachedWithEqualParams() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0);
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, createParams("a", 1)).get();
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, createParams("a", 1)).get();
+        assertEquals(1, mLoader.mLoadedPages.size());
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, createParams("a", 2)).get();
+        assertEquals(2, mLoader.mLoadedPages.size());
+    }
+
+    @Test
+    public void getPage_notCachedWithExtrasNotComparableByContents() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0);
+        Bundle extras = new Bundle();
+        extras.putIntArray("array", new int[] {1, 2});
+        LibraryParams params = new LibraryParams.Builder().setExtras(extras).build();
+
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, params).get();
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, params).get();
+
+        assertEquals(2, mLoader.mLoadedPages.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidate_whileLoading() throws Exception {
+        final List<ResolvableFuture<LibraryResult>> loads = new ArrayList<>();
+        LibraryPageCache cache = new LibraryPageCache(new LibraryPageCache.PageLoader() {
+            @NonNull
+            @Override
+            public ListenableFuture<LibraryResult> loadPage(int type, @NonNull String id,
+                    int page, int pageSize, @Nullable LibraryParams params) {
+                ResolvableFuture<LibraryResult> future = ResolvableFuture.create();
+                loads.add(future);
+                return future;
+            }
+        }, 10, 0);
+
+        ListenableFuture<LibraryResult> stale =
+                cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null);
+        cache.invalidate(TYPE_CHILDREN, PARENT_ID);
+        loads.get(0).set(new LibraryResult(RESULT_SUCCESS, TestUtils.createMediaItems(1), null));
+        assertEquals(RESULT_SUCCESS, stale.get().getResultCode());
+
+        // The page loaded before the invalidation isn't cached
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    public void getPage_unsubscribedPageExpires() throws Exception {
+        LibraryPageCache cache = new LibraryPageCache(mLoader, 10, 0, 0);
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        SystemClock.sleep(10);
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        assertEquals(2, mLoader.mLoadedPages.size());
+
+        // Pages of subscribed parents are kept until a change is notified
+        cache.setSubscribed(PARENT_ID, true);
+        SystemClock.sleep(10);
+        cache.getPage(TYPE_CHILDREN, PARENT_ID, 0, PAGE_SIZE, null).get();
+        assertEquals(2, mLoader.mLoadedPages.size());
+
+        cache.setSubscribed(PARENT_ID, false);
+        assertEquals(0, cache.size());
+    }
+
+    private static LibraryParams createParams(String key, int value) {
+        Bundle extras = new Bundle();
+        extras.putInt(key, value);
+        return new LibraryParams.Builder().setRecent(true).setExtras(extras).build();
+    }
+
+    private static class TestPageLoader implements LibraryPageCache.PageLoader {
+        final List<Integer> mLoadedPages = new ArrayList<>();
+        int mResultCode = RESULT_SUCCESS;
+
+        @NonNull
+        @Override
+        public ListenableFuture<LibraryResult> loadPage(int type, @NonNull String id, int page,
+                int pageSize, @Nullable LibraryParams params) {
+            mLoadedPages.add(page);
+            ResolvableFuture<LibraryResult> future = ResolvableFuture.create();
+            if (mResultCode != RESULT_SUCCESS) {
+                future.set(new LibraryResult(mResultCode));
+                return future;
+            }
+            int fromIndex = page * pageSize;
+            int toIndex = Math.min(fromIndex + pageSize, ITEM_COUNT);
+            future.set(new LibraryResult(RESULT_SUCCESS, TestUtils.createMediaItems(
+                    Math.max(0, toIndex - fromIndex)), null));
+            return future;
+        }
+    }
+}
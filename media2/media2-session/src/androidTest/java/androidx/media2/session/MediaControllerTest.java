@@ -68,6 +68,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -363,6 +364,40 @@ public class MediaControllerTest extends MediaSessionTestBase {
         TestUtils.assertMetadataEquals(testMetadata, controller.getPlaylistMetadata());
     }
 
+    @Test
+    public void getPlaylist_afterChangeWithNullItem() throws InterruptedException {
+        final List<MediaItem> testList = TestUtils.createMediaItems(3);
+        testList.add(0, null);
+        final List<List<MediaItem>> listsFromCallback = new ArrayList<>();
+        final CountDownLatch firstLatch = new CountDownLatch(1);
+        final CountDownLatch secondLatch = new CountDownLatch(2);
+        final ControllerCallback callback = new ControllerCallback() {
+            @Override
+            public void onPlaylistChanged(@NonNull MediaController controller,
+                    List<MediaItem> playlist, MediaMetadata metadata) {
+                listsFromCallback.add(playlist);
+                firstLatch.countDown();
+                secondLatch.countDown();
+            }
+        };
+        MediaController controller = createController(mSession.getToken(), true, null, callback);
+        mPlayer.mPlaylist = testList;
+        mPlayer.notifyPlaylistChanged();
+        assertTrue(firstLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Insert an item after the null item, which the controller doesn't have
+        final List<MediaItem> newList = new ArrayList<>(testList);
+        newList.add(2, TestUtils.createMediaItem("inserted"));
+        mPlayer.mPlaylist = newList;
+        mPlayer.notifyPlaylistChanged();
+        assertTrue(secondLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        final List<MediaItem> expected = newList.subList(1, newList.size());
+        assertEquals(2, listsFromCallback.size());
+        TestUtils.assertMediaItemListEquals(expected, listsFromCallback.get(1));
+        TestUtils.assertMediaItemListEquals(expected, controller.getPlaylist());
+    }
+
     @Test
     public void updatePlaylistMetadata() throws Exception {
         final MediaMetadata testMetadata = TestUtils.createMetadata();
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.media2.common.MediaItem;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests {@link PlaylistDiff}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class PlaylistDiffTest extends MediaTestBase {
+    @Test
+    public void create_insert() {
+        List<MediaItem> oldList = TestUtils.createMediaItems(5);
+        List<MediaItem> newList = new ArrayList<>(oldList);
+        newList.add(2, TestUtils.createMediaItem("inserted"));
+
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, oldList, newList);
+        assertFalse(diff.isFull());
+        assertArrayEquals(new int[] {PlaylistDiff.OP_INSERT, 2, 1}, diff.getOps());
+        assertEquals(1, diff.getItems().size());
+        assertApplied(newList, diff, oldList);
+    }
+
+    @Test
+    public void create_remove() {
+        List<MediaItem> oldList = TestUtils.createMediaItems(5);
+        List<MediaItem> newList = new ArrayList<>(oldList);
+        newList.remove(4);
+
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, oldList, newList);
+        assertArrayEquals(new int[] {PlaylistDiff.OP_REMOVE, 4, 1}, diff.getOps());
+        assertTrue(diff.getItems().isEmpty());
+        assertApplied(newList, diff, oldList);
+    }
+
+    @Test
+    public void create_move() {
+        List<MediaItem> oldList = TestUtils.createMediaItems(5);
+        List<MediaItem> newList = new ArrayList<>(oldList);
+        newList.add(3, newList.remove(0));
+
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, oldList, newList);
+        assertArrayEquals(new int[] {PlaylistDiff.OP_MOVE, 0, 3}, diff.getOps());
+        assertTrue(diff.getItems().isEmpty());
+        assertApplied(newList, diff, oldList);
+
+        newList = new ArrayList<>(oldList);
+        newList.add(1, newList.remove(4));
+        diff = PlaylistDiff.create(0, 1, oldList, newList);
+        assertArrayEquals(new int[] {PlaylistDiff.OP_MOVE, 4, 1}, diff.getOps());
+        assertApplied(newList, diff, oldList);
+    }
+
+    @Test
+    public void create_withoutOldList_isFull() {
+        List<MediaItem> newList = TestUtils.createMediaItems(3);
+
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, null, newList);
+        assertTrue(diff.isFull());
+        assertEquals(newList, diff.getItems());
+        assertApplied(newList, diff, null);
+    }
+
+    @Test
+    public void create_withNullItem_isFull() {
+        List<MediaItem> oldList = TestUtils.createMediaItems(3);
+        oldList.add(0, null);
+        List<MediaItem> newList = new ArrayList<>(oldList);
+        newList.add(2, TestUtils.createMediaItem("inserted"));
+
+        // The null item is in the unchanged prefix, but still shifts the controllers' indices
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, oldList, newList);
+        assertTrue(diff.isFull());
+        assertEquals(newList.subList(1, newList.size()), diff.getItems());
+
+        diff = PlaylistDiff.create(0, 1, newList.subList(1, newList.size()), newList);
+        assertTrue(diff.isFull());
+    }
+
+    @Test
+    public void createReplace() {
+        List<MediaItem> list = TestUtils.createMediaItems(3);
+
+        PlaylistDiff diff = PlaylistDiff.createReplace(0, 1, list, 1);
+        assertArrayEquals(new int[] {PlaylistDiff.OP_REPLACE, 1, 1}, diff.getOps());
+        assertApplied(list, diff, list);
+    }
+
+    @Test
+    public void createReplace_withNullItem_isFull() {
+        List<MediaItem> list = TestUtils.createMediaItems(3);
+        list.add(0, null);
+
+        PlaylistDiff diff = PlaylistDiff.createReplace(0, 1, list, 2);
+        assertTrue(diff.isFull());
+        assertEquals(list.subList(1, list.size()), diff.getItems());
+    }
+
+    @Test
+    public void toFull() {
+        List<MediaItem> oldList = TestUtils.createMediaItems(5);
+        List<MediaItem> newList = new ArrayList<>(oldList);
+        newList.remove(0);
+
+        PlaylistDiff diff = PlaylistDiff.create(0, 1, oldList, newList).toFull();
+        assertTrue(diff.isFull());
+        assertEquals(1, diff.getVersion());
+        assertApplied(newList, diff, null);
+    }
+
+    @Test
+    public void apply_mismatchedOps_returnsNull() {
+        List<MediaItem> list = TestUtils.createMediaItems(2);
+
+        assertNull(PlaylistDiff.apply(0, list, new int[] {PlaylistDiff.OP_REMOVE, 1, 2}, null));
+        assertNull(PlaylistDiff.apply(0, list, new int[] {PlaylistDiff.OP_INSERT, 0, 1}, null));
+        assertNull(PlaylistDiff.apply(0, null, new int[0], null));
+    }
+
+    private static void assertApplied(List<MediaItem> expected, PlaylistDiff diff,
+            List<MediaItem> base) {
+        assertEquals(expected, PlaylistDiff.apply(diff.getBaseVersion(), base, diff.getOps(),
+                diff.getItems()));
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static androidx.media2.session.MediaUtils.DIRECT_EXECUTOR;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.concurrent.futures.ResolvableFuture;
+import androidx.core.util.ObjectsCompat;
+import androidx.media2.common.MediaItem;
+import androidx.media2.session.MediaLibraryService.LibraryParams;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cache of the pages of children and search results for {@link MediaBrowser}, so that scrolling
+ * back and forth over a large library doesn't need an IPC for every page.
+ * <p>
+ * Pages are kept in an LRU cache by their parent id or query, page number, page size and the
+ * contents of their {@link LibraryParams}. Pages with params whose extras can't be compared by
+ * contents aren't cached. A page that is being loaded is shared by all callers. After a requested
+ * page is loaded, the following pages are prefetched unless the page was the last one.
+ * <p>
+ * Pages of a parent id or a query are dropped when the library service notifies a change. The
+ * library service only notifies changes of subscribed parents, so the pages of other parents and
+ * of search results expire after a while instead. Unsuccessful results are never kept.
+ * <p>
+ * This class is thread safe.
+ */
+final class LibraryPageCache {
+    static final int TYPE_CHILDREN = 0;
+    static final int TYPE_SEARCH_RESULT = 1;
+
+    /**
+     * How long the pages of parents that aren't subscribed and of search results are kept.
+     */
+    static final long UNSUBSCRIBED_PAGE_TTL_MS = 30_000;
+
+    // Key of params whose pages aren't cached
+    private static final Object NOT_CACHEABLE = new Object();
+
+    /**
+     * Loads a page from the library service.
+     */
+    interface PageLoader {
+        @NonNull
+        ListenableFuture<LibraryResult> loadPage(int type, @NonNull String id, int page,
+                int pageSize, @Nullable LibraryParams params);
+    }
+
+    private final Object mLock = new Object();
+    private final PageLoader mLoader;
+    private final int mPrefetchPageCount;
+    private final long mUnsubscribedPageTtlMs;
+
+    @GuardedBy("mLock")
+    private final LruCache<Key, Entry> mPages;
+
+    @GuardedBy("mLock")
+    private final Set<String> mSubscribedParentIds = new HashSet<>();
+
+    LibraryPageCache(@NonNull PageLoader loader, int maxPageCount, int prefetchPageCount) {
+        this(loader, maxPageCount, prefetchPageCount, UNSUBSCRIBED_PAGE_TTL_MS);
+    }
+
+    LibraryPageCache(@NonNull PageLoader loader, int maxPageCount, int prefetchPageCount,
+            long unsubscribedPageTtlMs) {
+        mLoader = loader;
+        mPrefetchPageCount = prefetchPageCount;
+        mUnsubscribedPageTtlMs = unsubscribedPageTtlMs;
+        mPages = new LruCache<>(maxPageCount);
+    }
+
+    /**
+     * Gets a page from the cache, or loads it if it isn't cached.
+     */
+    @NonNull
+    ListenableFuture<LibraryResult> getPage(int type, @NonNull String id, int page,
+            final int pageSize, @Nullable LibraryParams params) {
+        Object paramsKey = paramsKey(params);
+        if (paramsKey == NOT_CACHEABLE) {
+            return mLoader.loadPage(type, id, page, pageSize, params);
+        }
+        final Key key = new Key(type, id, page, pageSize, params, paramsKey);
+        final ListenableFuture<LibraryResult> future = getOrLoad(key);
+        final ResolvableFuture<LibraryResult> result = ResolvableFuture.create();
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                LibraryResult libraryResult = getDone(future);
+                if (libraryResult == null) {
+                    result.set(new LibraryResult(LibraryResult.RESULT_ERROR_UNKNOWN));
+                    return;
+                }
+                result.set(libraryResult);
+                if (isFullPage(libraryResult, pageSize)) {
+                    prefetch(key);
+                }
+            }
+        }, DIRECT_EXECUTOR);
+        // Callers get their own future, so that cancelling it doesn't affect the other callers.
+        return result;
+    }
+
+    /**
+     * Drops the cached pages of a parent id or a query.
+     */
+    void invalidate(int type, @NonNull String id) {
+        synchronized (mLock) {
+            List<Key> keys = new ArrayList<>();
+            for (Key key : mPages.snapshot().keySet()) {
+                if (key.mType == type && key.mId.equals(id)) {
+                    keys.add(key);
+                }
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                mPages.remove(keys.get(i));
+            }
+        }
+    }
+
+    /**
+     * Sets whether the parent is subscribed, in which case its pages are kept until the library
+     * service notifies a change instead of expiring. Unsubscribing drops the pages of the parent,
+     * as changes are no longer notified.
+     */
+    void setSubscribed(@NonNull String parentId, boolean subscribed) {
+        synchronized (mLock) {
+            if (subscribed) {
+                mSubscribedParentIds.add(parentId);
+                return;
+            }
+            mSubscribedParentIds.remove(parentId);
+        }
+        invalidate(TYPE_CHILDREN, parentId);
+    }
+
+    /**
+     * Drops all the cached pages.
+     */
+    void clear() {
+        synchronized (mLock) {
+            mPages.evictAll();
+            mSubscribedParentIds.clear();
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void prefetch(@NonNull Key key) {
+        for (int i = 1; i <= mPrefetchPageCount; i++) {
+            Key nextKey = new Key(key.mType, key.mId, key.mPage + i, key.mPageSize, key.mParams,
+                    key.mParamsKey);
+            synchronized (mLock) {
+                if (getLocked(nextKey) != null) {
+                    continue;
+                }
+            }
+            getOrLoad(nextKey);
+        }
+    }
+
+    private ListenableFuture<LibraryResult> getOrLoad(@NonNull final Key key) {
+        final ResolvableFuture<LibraryResult> newFuture;
+        synchronized (mLock) {
+            ListenableFuture<LibraryResult> future = getLocked(key);
+            if (future != null) {
+                return future;
+            }
+            // Cache the future before loading, so that an invalidation during the load drops it
+            // rather than the page being cached afterwards with the old contents.
+            newFuture = ResolvableFuture.create();
+            mPages.put(key, new Entry(newFuture, SystemClock.elapsedRealtime()));
+        }
+        newFuture.addListener(new Runnable() {
+            @Override
+            public void run() {
+                LibraryResult result = getDone(newFuture);
+                if (result == null || result.getResultCode() != LibraryResult.RESULT_SUCCESS) {
+                    removeIfSame(key, newFuture);
+                }
+            }
+        }, DIRECT_EXECUTOR);
+        // Load outside of the lock, because the loader may complete the future immediately.
+        newFuture.setFuture(mLoader.loadPage(key.mType, key.mId, key.mPage, key.mPageSize,
+                key.mParams));
+        return newFuture;
+    }
+
+    @GuardedBy("mLock")
+    @Nullable
+    private ListenableFuture<LibraryResult> getLocked(@NonNull Key key) {
+        Entry entry = mPages.get(key);
+        if (entry == null) {
+            return null;
+        }
+        boolean subscribed = key.mType == TYPE_CHILDREN && mSubscribedParentIds.contains(key.mId);
+        if (!subscribed
+                && SystemClock.elapsedRealtime() - entry.mCreatedTimeMs > mUnsubscribedPageTtlMs) {
+            mPages.remove(key);
+            return null;
+        }
+        return entry.mFuture;
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void removeIfSame(@NonNull Key key, @NonNull ListenableFuture<LibraryResult> future) {
+        synchronized (mLock) {
+            Entry entry = mPages.get(key);
+            if (entry != null && entry.mFuture == future) {
+                mPages.remove(key);
+            }
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static boolean isFullPage(@NonNull LibraryResult result, int pageSize) {
+        if (result.getResultCode() != LibraryResult.RESULT_SUCCESS) {
+            return false;
+        }
+        List<MediaItem> items = result.getMediaItems();
+        return items != null && items.size() >= pageSize;
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @Nullable
+    static LibraryResult getDone(@NonNull ListenableFuture<LibraryResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of cached pages, including the ones being loaded.
+     */
+    int size() {
+        synchronized (mLock) {
+            return mPages.size();
+        }
+    }
+
+    /**
+     * Returns the contents of the params to key pages by, as {@link LibraryParams} doesn't
+     * implement {@link Object#equals(Object)}, or {@link #NOT_CACHEABLE} if the extras contain
+     * values that can't be compared by contents.
+     */
+    @Nullable
+    static Object paramsKey(@Nullable LibraryParams params) {
+        if (params == null) {
+            return null;
+        }
+        Object extras = bundleKey(params.getExtras());
+        if (extras == NOT_CACHEABLE) {
+            return NOT_CACHEABLE;
+        }
+        return Arrays.asList(params.isRecent(), params.isOffline(), params.isSuggested(), extras);
+    }
+
+    @Nullable
+    private static Object bundleKey(@Nullable Bundle bundle) {
+        if (bundle == null) {
+            return null;
+        }
+        Map<String, Object> contents = new HashMap<>();
+        try {
+            for (String key : bundle.keySet()) {
+                Object value = bundle.get(key);
+                if (value instanceof Bundle) {
+                    value = bundleKey((Bundle) value);
+                } else if (value instanceof CharSequence) {
+                    value = value.toString();
+                } else if (value != null && !(value instanceof Number)
+                        && !(value instanceof Boolean) && !(value instanceof Character)) {
+                    // Arrays and Parcelables don't implement equals() by contents
+                    return NOT_CACHEABLE;
+                }
+                if (value == NOT_CACHEABLE) {
+                    return NOT_CACHEABLE;
+                }
+                contents.put(key, value);
+            }
+        } catch (RuntimeException e) {
+            // Values of classes that can't be unparceled
+            return NOT_CACHEABLE;
+        }
+        return contents;
+    }
+
+    private static final class Entry {
+        final ListenableFuture<LibraryResult> mFuture;
+        final long mCreatedTimeMs;
+
+        Entry(ListenableFuture<LibraryResult> future, long createdTimeMs) {
+            mFuture = future;
+            mCreatedTimeMs = createdTimeMs;
+        }
+    }
+
+    static final class Key {
+        final int mType;
+        final String mId;
+        final int mPage;
+        final int mPageSize;
+        final LibraryParams mParams;
+        // The contents of mParams, which the key is compared by
+        final Object mParamsKey;
+
+        Key(int type, @NonNull String id, int page, int pageSize,
+                @Nullable LibraryParams params, @Nullable Object paramsKey) {
+            mType = type;
+            mId = id;
+            mPage = page;
+            mPageSize = pageSize;
+            mParams = params;
+            mParamsKey = paramsKey;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return mType == other.mType && mPage == other.mPage && mPageSize == other.mPageSize
+                    && mId.equals(other.mId) && ObjectsCompat.equals(mParamsKey, other.mParamsKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return ObjectsCompat.hash(mType, mId, mPage, mPageSize, mParamsKey);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package androidx.media2.session;
 
+import static androidx.media2.session.MediaUtils.DIRECT_EXECUTOR;
+
 import android.content.Context;
 import android.os.Bundle;
 import android.support.v4.media.session.MediaSessionCompat;
@@ -38,6 +40,9 @@ public class MediaBrowser extends MediaController {
     static final String TAG = "MediaBrowser";
     static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
 
+    @Nullable
+    private final LibraryPageCache mPageCache;
+
     /**
      * Callback to listen events from {@link MediaLibraryService}.
      */
@@ -81,17 +86,21 @@ public class MediaBrowser extends MediaController {
      * @param token token to connect to
      * @param executor executor to run callbacks on
      * @param callback controller callback to receive changes in
+     * @param pageCacheSize maximum number of pages to cache, or {@code 0} to disable the cache
+     * @param prefetchPageCount number of pages to prefetch
      */
     MediaBrowser(@NonNull Context context, @NonNull SessionToken token,
             @Nullable Bundle connectionHints, @Nullable Executor executor,
-            @Nullable BrowserCallback callback) {
+            @Nullable BrowserCallback callback, int pageCacheSize, int prefetchPageCount) {
         super(context, token, connectionHints, executor, callback);
+        mPageCache = createPageCache(pageCacheSize, prefetchPageCount);
     }
 
     MediaBrowser(@NonNull Context context, @NonNull MediaSessionCompat.Token token,
             @Nullable Bundle connectionHints, @Nullable Executor executor,
-            @Nullable BrowserCallback callback) {
+            @Nullable BrowserCallback callback, int pageCacheSize, int prefetchPageCount) {
         super(context, token, connectionHints, executor, callback);
+        mPageCache = createPageCache(pageCacheSize, prefetchPageCount);
     }
 
     @Override
@@ -143,7 +152,11 @@ public class MediaBrowser extends MediaController {
             throw new IllegalArgumentException("parentId shouldn't be empty");
         }
         if (isConnected()) {
-            return getImpl().subscribe(parentId, params);
+            ListenableFuture<LibraryResult> future = getImpl().subscribe(parentId, params);
+            if (mPageCache != null) {
+                trackSubscription(parentId, future);
+            }
+            return future;
         }
         return createDisconnectedFuture();
     }
@@ -162,6 +175,9 @@ public class MediaBrowser extends MediaController {
         if (TextUtils.isEmpty(parentId)) {
             throw new IllegalArgumentException("parentId shouldn't be empty");
         }
+        if (mPageCache != null) {
+            mPageCache.setSubscribed(parentId, false);
+        }
         if (isConnected()) {
             return getImpl().unsubscribe(parentId);
         }
@@ -193,10 +209,11 @@ public class MediaBrowser extends MediaController {
         if (pageSize < 1) {
             throw new IllegalArgumentException("pageSize shouldn't be less than 1");
         }
-        if (isConnected()) {
-            return getImpl().getChildren(parentId, page, pageSize, params);
+        if (mPageCache != null) {
+            return mPageCache.getPage(LibraryPageCache.TYPE_CHILDREN, parentId, page, pageSize,
+                    params);
         }
-        return createDisconnectedFuture();
+        return getChildrenInternal(parentId, page, pageSize, params);
     }
 
     /**
@@ -271,12 +288,90 @@ public class MediaBrowser extends MediaController {
         if (pageSize < 1) {
             throw new IllegalArgumentException("pageSize shouldn't be less than 1");
         }
+        if (mPageCache != null) {
+            return mPageCache.getPage(LibraryPageCache.TYPE_SEARCH_RESULT, query, page, pageSize,
+                    params);
+        }
+        return getSearchResultInternal(query, page, pageSize, params);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (mPageCache != null) {
+            mPageCache.clear();
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    ListenableFuture<LibraryResult> getChildrenInternal(@NonNull String parentId, int page,
+            int pageSize, @Nullable LibraryParams params) {
+        if (isConnected()) {
+            return getImpl().getChildren(parentId, page, pageSize, params);
+        }
+        return createDisconnectedFuture();
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    ListenableFuture<LibraryResult> getSearchResultInternal(@NonNull String query, int page,
+            int pageSize, @Nullable LibraryParams params) {
         if (isConnected()) {
             return getImpl().getSearchResult(query, page, pageSize, params);
         }
         return createDisconnectedFuture();
     }
 
+    /**
+     * Drops the cached pages of the children of the parent. Called before the
+     * {@link BrowserCallback#onChildrenChanged} is notified.
+     */
+    void invalidateChildren(@NonNull String parentId) {
+        if (mPageCache != null) {
+            mPageCache.invalidate(LibraryPageCache.TYPE_CHILDREN, parentId);
+        }
+    }
+
+    /**
+     * Drops the cached pages of the search result. Called before the
+     * {@link BrowserCallback#onSearchResultChanged} is notified.
+     */
+    void invalidateSearchResult(@NonNull String query) {
+        if (mPageCache != null) {
+            mPageCache.invalidate(LibraryPageCache.TYPE_SEARCH_RESULT, query);
+        }
+    }
+
+    private void trackSubscription(@NonNull final String parentId,
+            @NonNull final ListenableFuture<LibraryResult> future) {
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                LibraryResult result = LibraryPageCache.getDone(future);
+                if (result != null && result.getResultCode() == LibraryResult.RESULT_SUCCESS) {
+                    mPageCache.setSubscribed(parentId, true);
+                }
+            }
+        }, DIRECT_EXECUTOR);
+    }
+
+    @Nullable
+    private LibraryPageCache createPageCache(int pageCacheSize, int prefetchPageCount) {
+        if (pageCacheSize <= 0) {
+            return null;
+        }
+        return new LibraryPageCache(new LibraryPageCache.PageLoader() {
+            @NonNull
+            @Override
+            public ListenableFuture<LibraryResult> loadPage(int type, @NonNull String id,
+                    int page, int pageSize, @Nullable LibraryParams params) {
+                if (type == LibraryPageCache.TYPE_SEARCH_RESULT) {
+                    return getSearchResultInternal(id, page, pageSize, params);
+                }
+                return getChildrenInternal(id, page, pageSize, params);
+            }
+        }, pageCacheSize, prefetchPageCount);
+    }
+
     void notifyBrowserCallback(final BrowserCallbackRunnable callbackRunnable) {
         if (mPrimaryCallback != null && mPrimaryCallbackExecutor != null) {
             mPrimaryCallbackExecutor.execute(new Runnable() {
@@ -305,6 +400,9 @@ public class MediaBrowser extends MediaController {
      */
     public static final class Builder extends
             BuilderBase<MediaBrowser, MediaBrowser.Builder, BrowserCallback> {
+        private int mPageCacheSize;
+        private int mPrefetchPageCount;
+
         public Builder(@NonNull Context context) {
             super(context);
         }
@@ -334,6 +432,48 @@ public class MediaBrowser extends MediaController {
             return super.setConnectionHints(connectionHints);
         }
 
+        /**
+         * Sets the maximum number of pages of {@link #getChildren} and {@link #getSearchResult}
+         * results to keep in memory. The default is {@code 0}, which doesn't cache any page.
+         * <p>
+         * Cached pages are returned without asking the library service again, until the
+         * {@link BrowserCallback#onChildrenChanged} or {@link BrowserCallback#onSearchResultChanged}
+         * is notified for the parent or query. As changes are only notified for subscribed
+         * parents, pages of other parents and of search results are only kept for 30 seconds.
+         * Unsuccessful results and results of params with extras other than primitives, strings
+         * and bundles of them aren't cached.
+         *
+         * @param pageCacheSize maximum number of pages to cache
+         * @see #setPrefetchPageCount(int)
+         */
+        @NonNull
+        public Builder setPageCacheSize(@IntRange(from = 0) int pageCacheSize) {
+            if (pageCacheSize < 0) {
+                throw new IllegalArgumentException("pageCacheSize shouldn't be negative");
+            }
+            mPageCacheSize = pageCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of pages to load ahead after a page of {@link #getChildren} or
+         * {@link #getSearchResult} is returned, so that they are cached when requested. Pages
+         * aren't prefetched after the last page. The default is {@code 0}.
+         * <p>
+         * Only used when the page cache is enabled with {@link #setPageCacheSize(int)}, which
+         * should be bigger than the prefetch page count.
+         *
+         * @param prefetchPageCount number of pages to prefetch
+         */
+        @NonNull
+        public Builder setPrefetchPageCount(@IntRange(from = 0) int prefetchPageCount) {
+            if (prefetchPageCount < 0) {
+                throw new IllegalArgumentException("prefetchPageCount shouldn't be negative");
+            }
+            mPrefetchPageCount = prefetchPageCount;
+            return this;
+        }
+
         /**
          * Builds a {@link MediaBrowser}.
          *
@@ -350,10 +490,12 @@ public class MediaBrowser extends MediaController {
             }
             if (mToken != null) {
                 return new MediaBrowser(mContext, mToken, mConnectionHints,
-                        mCallbackExecutor, (BrowserCallback) mCallback);
+                        mCallbackExecutor, (BrowserCallback) mCallback, mPageCacheSize,
+                        mPrefetchPageCount);
             } else {
                 return new MediaBrowser(mContext, mCompatToken, mConnectionHints,
-                        mCallbackExecutor, (BrowserCallback) mCallback);
+                        mCallbackExecutor, (BrowserCallback) mCallback, mPageCacheSize,
+                        mPrefetchPageCount);
             }
         }
     }
@@ -148,6 +148,7 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
 
     void notifySearchResultChanged(final String query, final int itemCount,
             final LibraryParams libraryParams) {
+        getMediaBrowser().invalidateSearchResult(query);
         getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
             @Override
             public void run(@NonNull BrowserCallback callback) {
@@ -158,6 +159,7 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
 
     void notifyChildrenChanged(final String parentId, final int itemCount,
             final LibraryParams libraryParams) {
+        getMediaBrowser().invalidateChildren(parentId);
         getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
             @Override
             public void run(@NonNull BrowserCallback callback) {
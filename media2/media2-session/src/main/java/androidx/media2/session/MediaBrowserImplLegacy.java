@@ -216,6 +216,7 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements
             @Override
             public void onSearchResult(@NonNull final String query, final Bundle extras,
                     @NonNull final List<MediaBrowserCompat.MediaItem> items) {
+                getMediaBrowser().invalidateSearchResult(query);
                 getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
                     @Override
                     public void run(@NonNull BrowserCallback callback) {
@@ -232,6 +233,7 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements
 
             @Override
             public void onError(@NonNull final String query, final Bundle extras) {
+                getMediaBrowser().invalidateSearchResult(query);
                 getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
                     @Override
                     public void run(@NonNull BrowserCallback callback) {
@@ -416,6 +418,7 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements
 
             final LibraryParams params = MediaUtils.convertToLibraryParams(mContext,
                     browserCompat.getNotifyChildrenChangedOptions());
+            getMediaBrowser().invalidateChildren(parentId);
             getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
                 @Override
                 public void run(@NonNull BrowserCallback callback) {
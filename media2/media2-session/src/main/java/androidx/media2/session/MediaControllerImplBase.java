@@ -124,6 +124,8 @@ class MediaControllerImplBase implements MediaControllerImpl {
     @GuardedBy("mLock")
     private List<MediaItem> mPlaylist;
     @GuardedBy("mLock")
+    private int mPlaylistVersion = PlaylistDiff.VERSION_NONE;
+    @GuardedBy("mLock")
     private MediaMetadata mPlaylistMetadata;
     @GuardedBy("mLock")
     private @RepeatMode int mRepeatMode;
@@ -988,6 +990,45 @@ class MediaControllerImplBase implements MediaControllerImpl {
         });
     }
 
+    void notifyPlaylistDiff(int baseVersion, int version, int[] ops, List<MediaItem> items,
+            MediaMetadata metadata, int currentMediaItemIndex, int previousMediaItemIndex,
+            int nextMediaItemIndex) {
+        final List<MediaItem> playlist;
+        synchronized (mLock) {
+            if (baseVersion == PlaylistDiff.VERSION_NONE || baseVersion == mPlaylistVersion) {
+                playlist = PlaylistDiff.apply(baseVersion, mPlaylist, ops, items);
+            } else {
+                playlist = null;
+            }
+            mPlaylistVersion = playlist == null ? PlaylistDiff.VERSION_NONE : version;
+        }
+        if (playlist == null) {
+            // Missed a change, e.g. one that was sent before the connection is completed.
+            Log.w(TAG, "Playlist diff doesn't match, baseVersion=" + baseVersion
+                    + ". Requesting the whole playlist");
+            requestPlaylistResync();
+            return;
+        }
+        notifyPlaylistChanges(playlist, metadata, currentMediaItemIndex, previousMediaItemIndex,
+                nextMediaItemIndex);
+    }
+
+    private void requestPlaylistResync() {
+        final IMediaSession iSession;
+        synchronized (mLock) {
+            iSession = mISession;
+        }
+        if (iSession == null) {
+            return;
+        }
+        try {
+            iSession.requestPlaylistResync(mControllerStub,
+                    mSequencedFutureManager.obtainNextSequenceNumber());
+        } catch (RemoteException e) {
+            Log.w(TAG, "Cannot connect to the service or the session is gone", e);
+        }
+    }
+
     void notifyPlaylistMetadataChanges(final MediaMetadata metadata) {
         synchronized (mLock) {
             mPlaylistMetadata = metadata;
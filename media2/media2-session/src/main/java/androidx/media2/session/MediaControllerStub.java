@@ -160,6 +160,25 @@ class MediaControllerStub extends IMediaController.Stub {
         });
     }
 
+    @Override
+    public void onPlaylistDiff(int seq, final int baseVersion, final int version,
+            final int[] ops, final ParcelImplListSlice items, final ParcelImpl metadata,
+            final int currentIdx, final int previousIdx, final int nextIdx) {
+        if (metadata == null) {
+            return;
+        }
+        dispatchControllerTask(new ControllerTask() {
+            @Override
+            public void run(MediaControllerImplBase controller) {
+                List<MediaItem> itemList =
+                        MediaUtils.convertParcelImplListSliceToMediaItemList(items);
+                controller.notifyPlaylistDiff(baseVersion, version, ops, itemList,
+                        (MediaMetadata) MediaParcelUtils.fromParcelable(metadata), currentIdx,
+                        previousIdx, nextIdx);
+            }
+        });
+    }
+
     @Override
     public void onPlaylistMetadataChanged(int seq, final ParcelImpl metadata)
             throws RuntimeException {
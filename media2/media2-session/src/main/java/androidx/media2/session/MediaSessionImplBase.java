@@ -83,6 +83,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -147,6 +148,13 @@ class MediaSessionImplBase implements MediaSession.MediaSessionImpl {
     @GuardedBy("mLock")
     private MediaBrowserServiceCompat mBrowserServiceLegacyStub;
 
+    // Last playlist notified to the controllers and its version, which is the base of the next
+    // PlaylistDiff.
+    @GuardedBy("mLock")
+    private List<MediaItem> mPlaylistSnapshot;
+    @GuardedBy("mLock")
+    private int mPlaylistVersion;
+
     MediaSessionImplBase(MediaSession instance, Context context, String id, SessionPlayer player,
             PendingIntent sessionActivity, Executor callbackExecutor, SessionCallback callback,
             Bundle tokenExtras) {
@@ -1124,11 +1132,12 @@ class MediaSessionImplBase implements MediaSession.MediaSessionImpl {
         List<MediaItem> oldPlaylist = oldPlayer.getPlaylist();
         final List<MediaItem> newPlaylist = getPlaylistOrNull();
         if (!ObjectsCompat.equals(oldPlaylist, newPlaylist)) {
+            final PlaylistDiff diff = updatePlaylistSnapshot(newPlaylist);
             dispatchRemoteControllerTaskWithoutReturn(new RemoteControllerTask() {
                 @Override
                 public void run(ControllerCb callback, int seq) throws RemoteException {
                     callback.onPlaylistChanged(seq,
-                            newPlaylist, getPlaylistMetadata(), getCurrentMediaItemIndex(),
+                            diff, getPlaylistMetadata(), getCurrentMediaItemIndex(),
                             getPreviousMediaItemIndex(), getNextMediaItemIndex());
                 }
             });
@@ -1222,6 +1231,59 @@ class MediaSessionImplBase implements MediaSession.MediaSessionImpl {
         });
     }
 
+    /**
+     * Records the playlist as the last one notified to the controllers.
+     *
+     * @return the diff from the previously notified playlist
+     */
+    @NonNull
+    PlaylistDiff updatePlaylistSnapshot(@Nullable List<MediaItem> playlist) {
+        final List<MediaItem> snapshot = playlist == null ? null
+                : Collections.unmodifiableList(new ArrayList<>(playlist));
+        synchronized (mLock) {
+            final int baseVersion = mPlaylistVersion++;
+            final PlaylistDiff diff = PlaylistDiff.create(baseVersion, mPlaylistVersion,
+                    mPlaylistSnapshot, snapshot);
+            mPlaylistSnapshot = snapshot;
+            return diff;
+        }
+    }
+
+    /**
+     * Records that an item of the last notified playlist is changed, e.g. its metadata.
+     *
+     * @return the diff that replaces the item, or {@code null} if the item isn't in the last
+     *         notified playlist
+     */
+    @Nullable
+    PlaylistDiff updatePlaylistSnapshotItem(@NonNull MediaItem item) {
+        synchronized (mLock) {
+            final int index = mPlaylistSnapshot == null ? -1 : mPlaylistSnapshot.indexOf(item);
+            if (index < 0) {
+                return null;
+            }
+            final int baseVersion = mPlaylistVersion++;
+            return PlaylistDiff.createReplace(baseVersion, mPlaylistVersion, mPlaylistSnapshot,
+                    index);
+        }
+    }
+
+    @Override
+    public void resendPlaylist(@NonNull ControllerInfo controller) {
+        final PlaylistDiff diff;
+        synchronized (mLock) {
+            diff = PlaylistDiff.createFull(mPlaylistVersion, mPlaylistSnapshot);
+        }
+        dispatchRemoteControllerTaskWithoutReturn(controller, new RemoteControllerTask() {
+            @Override
+            public void run(ControllerCb callback, int seq) throws RemoteException {
+                callback.onPlaylistChanged(seq, diff, getPlaylistMetadata(),
+                        getCurrentMediaItemIndex(), getPreviousMediaItemIndex(),
+                        getNextMediaItemIndex());
+            }
+        });
+    }
+
     void dispatchRemoteControllerTaskWithoutReturn(@NonNull RemoteControllerTask task) {
         List<ControllerInfo> controllers =
                 mSessionStub.getConnectedControllersManager().getConnectedControllers();
@@ -1474,10 +1536,11 @@ class MediaSessionImplBase implements MediaSession.MediaSessionImpl {
             }
             mPlaylist = list;
 
+            final PlaylistDiff diff = session.updatePlaylistSnapshot(list);
             dispatchRemoteControllerTask(player, new RemoteControllerTask() {
                 @Override
                 public void run(ControllerCb callback, int seq) throws RemoteException {
-                    callback.onPlaylistChanged(seq, list, metadata,
+                    callback.onPlaylistChanged(seq, diff, metadata,
                             session.getCurrentMediaItemIndex(), session.getPreviousMediaItemIndex(),
                             session.getNextMediaItemIndex());
                 }
@@ -1799,10 +1862,13 @@ class MediaSessionImplBase implements MediaSession.MediaSessionImpl {
             }
             for (int i = 0; i < list.size(); i++) {
                 if (item.equals(list.get(i))) {
+                    PlaylistDiff replaceDiff = session.updatePlaylistSnapshotItem(item);
+                    final PlaylistDiff diff = replaceDiff != null ? replaceDiff
+                            : session.updatePlaylistSnapshot(list);
                     session.dispatchRemoteControllerTaskWithoutReturn(new RemoteControllerTask() {
                         @Override
                         public void run(ControllerCb callback, int seq) throws RemoteException {
-                            callback.onPlaylistChanged(seq, list,
+                            callback.onPlaylistChanged(seq, diff,
                                     session.getPlaylistMetadata(),
                                     session.getCurrentMediaItemIndex(),
                                     session.getPreviousMediaItemIndex(),
@@ -36,6 +36,7 @@ import android.util.Log;
 import android.util.SparseArray;
 import android.view.Surface;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.ObjectsCompat;
@@ -477,6 +478,36 @@ class MediaSessionStub extends IMediaSession.Stub {
         }
     }
 
+    @Override
+    public void requestPlaylistResync(final IMediaController caller, int seq) {
+        if (caller == null) {
+            return;
+        }
+        final long token = Binder.clearCallingIdentity();
+        try {
+            final ControllerInfo controller = mConnectedControllersManager.getController(
+                    caller.asBinder());
+            if (controller == null) {
+                return;
+            }
+            final ControllerCb cb = controller.getControllerCb();
+            if (cb instanceof Controller2Cb) {
+                ((Controller2Cb) cb).resetPlaylistVersion();
+            }
+            mSessionImpl.getCallbackExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mSessionImpl.isClosed()) {
+                        return;
+                    }
+                    mSessionImpl.resendPlaylist(controller);
+                }
+            });
+        } finally {
+            Binder.restoreCallingIdentity(token);
+        }
+    }
+
     @Override
     public void setVolumeTo(final IMediaController caller, int seq, final int value,
             final int flags) throws RuntimeException {
@@ -1178,6 +1209,11 @@ class MediaSessionStub extends IMediaSession.Stub {
         // TODO: Drop 'Callback' from the name.
         private final IMediaController mIControllerCallback;
 
+        private final Object mPlaylistLock = new Object();
+        // Version of the playlist that the controller has.
+        @GuardedBy("mPlaylistLock")
+        private int mPlaylistVersion = PlaylistDiff.VERSION_NONE;
+
         Controller2Cb(@NonNull IMediaController callback) {
             mIControllerCallback = callback;
         }
@@ -1187,6 +1223,16 @@ class MediaSessionStub extends IMediaSession.Stub {
             return mIControllerCallback.asBinder();
         }
 
+        /**
+         * Forgets the playlist version of the controller, so that the whole playlist is sent
+         * with the next change.
+         */
+        void resetPlaylistVersion() {
+            synchronized (mPlaylistLock) {
+                mPlaylistVersion = PlaylistDiff.VERSION_NONE;
+            }
+        }
+
         @Override
         void onPlayerResult(int seq, @Nullable PlayerResult result) throws RemoteException {
             onSessionResult(seq, SessionResult.from(result));
@@ -1281,6 +1327,35 @@ class MediaSessionStub extends IMediaSession.Stub {
             }
         }
 
+        @Override
+        void onPlaylistChanged(int seq, @NonNull PlaylistDiff diff, MediaMetadata metadata,
+                int currentIdx, int previousIdx, int nextIdx) throws RemoteException {
+            ControllerInfo controller = mConnectedControllersManager.getController(
+                    getCallbackBinder());
+            if (controller == null || diff.getPlaylist() == null
+                    || controller.getControllerVersion() < MediaUtils.VERSION_1
+                    || !mConnectedControllersManager.isAllowedCommand(controller,
+                            SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST)) {
+                synchronized (mPlaylistLock) {
+                    mPlaylistVersion = PlaylistDiff.VERSION_NONE;
+                }
+                onPlaylistChanged(seq, diff.getPlaylist(), metadata, currentIdx, previousIdx,
+                        nextIdx);
+                return;
+            }
+            synchronized (mPlaylistLock) {
+                if (diff.getBaseVersion() != mPlaylistVersion) {
+                    diff = diff.toFull();
+                }
+                mIControllerCallback.onPlaylistDiff(seq, diff.getBaseVersion(),
+                        diff.getVersion(), diff.getOps(),
+                        MediaUtils.convertMediaItemListToParcelImplListSlice(diff.getItems()),
+                        MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx,
+                        nextIdx);
+                mPlaylistVersion = diff.getVersion();
+            }
+        }
+
         @Override
         void onPlaylistMetadataChanged(int seq, MediaMetadata metadata) throws RemoteException {
             ControllerInfo controller = mConnectedControllersManager.getController(
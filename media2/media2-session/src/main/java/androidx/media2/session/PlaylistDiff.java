@@ -0,0 +1,302 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media2.common.MediaItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes between two versions of a playlist, sent from the session to the controllers instead of
+ * the whole playlist so that the cost of an edit is proportional to the size of the change.
+ * <p>
+ * The operations are encoded as triples of ints, {@code (op, index, arg)}, and applied in order:
+ * <ul>
+ * <li>{@link #OP_INSERT}: inserts the next {@code arg} items at {@code index}.</li>
+ * <li>{@link #OP_REMOVE}: removes {@code arg} items starting at {@code index}.</li>
+ * <li>{@link #OP_MOVE}: moves the item at {@code index} to {@code arg}.</li>
+ * <li>{@link #OP_REPLACE}: replaces {@code arg} items starting at {@code index} with the next
+ *     {@code arg} items.</li>
+ * </ul>
+ * A diff whose base version is {@link #VERSION_NONE} is applied to an empty playlist, which is
+ * used for a full resync.
+ * <p>
+ * A diff also keeps the whole new playlist, so that it can be sent to the controllers that don't
+ * have the base version or don't support diffs.
+ */
+final class PlaylistDiff {
+    /**
+     * Version of a playlist that isn't known to the other side.
+     */
+    static final int VERSION_NONE = -1;
+
+    static final int OP_INSERT = 0;
+    static final int OP_REMOVE = 1;
+    static final int OP_MOVE = 2;
+    static final int OP_REPLACE = 3;
+
+    private static final int OP_SIZE = 3;
+
+    private final int mBaseVersion;
+    private final int mVersion;
+    private final List<MediaItem> mPlaylist;
+    private final int[] mOps;
+    private final List<MediaItem> mItems;
+
+    private PlaylistDiff(int baseVersion, int version, @Nullable List<MediaItem> playlist,
+            @NonNull int[] ops, @NonNull List<MediaItem> items) {
+        mBaseVersion = baseVersion;
+        mVersion = version;
+        mPlaylist = playlist;
+        mOps = ops;
+        mItems = items;
+    }
+
+    /**
+     * Gets the version of the playlist this diff applies to.
+     */
+    int getBaseVersion() {
+        return mBaseVersion;
+    }
+
+    /**
+     * Gets the version of the playlist after this diff is applied.
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Gets the playlist after this diff is applied.
+     */
+    @Nullable
+    List<MediaItem> getPlaylist() {
+        return mPlaylist;
+    }
+
+    /**
+     * Returns whether this diff is applied to an empty playlist, i.e. has all the items.
+     */
+    boolean isFull() {
+        return mBaseVersion == VERSION_NONE;
+    }
+
+    @NonNull
+    int[] getOps() {
+        return mOps;
+    }
+
+    /**
+     * Gets the items consumed by the {@link #OP_INSERT} and {@link #OP_REPLACE} operations, in
+     * order.
+     */
+    @NonNull
+    List<MediaItem> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Computes the diff between two playlists. Items are compared with
+     * {@link Object#equals(Object)}.
+     * <p>
+     * Changes are found by trimming the common prefix and suffix of the playlists. The remaining
+     * range is sent as a single move if one item was moved, or as a removal and an insertion
+     * otherwise.
+     *
+     * @return the diff, which is a full diff if either playlist is {@code null} or has a
+     *         {@code null} item
+     */
+    @NonNull
+    static PlaylistDiff create(int baseVersion, int version, @Nullable List<MediaItem> oldList,
+            @Nullable List<MediaItem> newList) {
+        if (oldList == null || newList == null || oldList.contains(null)
+                || newList.contains(null)) {
+            // null items aren't sent to the controllers, so indices in the session's playlist
+            // don't match the controllers' ones.
+            return createFull(version, newList);
+        }
+        final int oldSize = oldList.size();
+        final int newSize = newList.size();
+        int start = 0;
+        while (start < oldSize && start < newSize
+                && equals(oldList.get(start), newList.get(start))) {
+            start++;
+        }
+        int oldEnd = oldSize;
+        int newEnd = newSize;
+        while (oldEnd > start && newEnd > start
+                && equals(oldList.get(oldEnd - 1), newList.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+        final int removed = oldEnd - start;
+        final int inserted = newEnd - start;
+
+        if (removed == inserted && removed >= 2) {
+            if (equals(oldList.get(start), newList.get(newEnd - 1))
+                    && rangeEquals(oldList, start + 1, newList, start, removed - 1)) {
+                return new PlaylistDiff(baseVersion, version, newList,
+                        new int[] {OP_MOVE, start, newEnd - 1},
+                        Collections.<MediaItem>emptyList());
+            }
+            if (equals(oldList.get(oldEnd - 1), newList.get(start))
+                    && rangeEquals(oldList, start, newList, start + 1, removed - 1)) {
+                return new PlaylistDiff(baseVersion, version, newList,
+                        new int[] {OP_MOVE, oldEnd - 1, start},
+                        Collections.<MediaItem>emptyList());
+            }
+        }
+
+        final List<MediaItem> items = new ArrayList<>(inserted);
+        for (int i = start; i < newEnd; i++) {
+            items.add(newList.get(i));
+        }
+        final int[] ops;
+        if (removed > 0 && inserted > 0) {
+            ops = new int[] {OP_REMOVE, start, removed, OP_INSERT, start, inserted};
+        } else if (removed > 0) {
+            ops = new int[] {OP_REMOVE, start, removed};
+        } else if (inserted > 0) {
+            ops = new int[] {OP_INSERT, start, inserted};
+        } else {
+            ops = new int[0];
+        }
+        return new PlaylistDiff(baseVersion, version, newList, ops, items);
+    }
+
+    /**
+     * Creates a diff that replaces a single item of the playlist, e.g. after its metadata is
+     * changed.
+     *
+     * @return the diff, which is a full diff if the playlist has a {@code null} item
+     */
+    @NonNull
+    static PlaylistDiff createReplace(int baseVersion, int version,
+            @NonNull List<MediaItem> playlist, int index) {
+        if (playlist.contains(null)) {
+            return createFull(version, playlist);
+        }
+        return new PlaylistDiff(baseVersion, version, playlist, new int[] {OP_REPLACE, index, 1},
+                Collections.singletonList(playlist.get(index)));
+    }
+
+    /**
+     * Creates a diff that inserts all the items of the playlist into an empty playlist. A
+     * {@code null} playlist results in a diff without any operation. {@code null} items are
+     * skipped, as they aren't sent to the controllers.
+     */
+    @NonNull
+    static PlaylistDiff createFull(int version, @Nullable List<MediaItem> playlist) {
+        if (playlist == null) {
+            return new PlaylistDiff(VERSION_NONE, version, null, new int[0],
+                    Collections.<MediaItem>emptyList());
+        }
+        final List<MediaItem> items = new ArrayList<>(playlist.size());
+        for (int i = 0; i < playlist.size(); i++) {
+            MediaItem item = playlist.get(i);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return new PlaylistDiff(VERSION_NONE, version, playlist,
+                new int[] {OP_INSERT, 0, items.size()}, items);
+    }
+
+    /**
+     * Returns the full diff with the same version as this diff.
+     */
+    @NonNull
+    PlaylistDiff toFull() {
+        return isFull() ? this : createFull(mVersion, mPlaylist);
+    }
+
+    /**
+     * Applies the operations to a copy of the playlist.
+     *
+     * @param playlist playlist of the base version. Ignored if {@code baseVersion} is
+     *                 {@link #VERSION_NONE}.
+     * @return the new playlist, or {@code null} if the operations don't match the playlist
+     */
+    @Nullable
+    static List<MediaItem> apply(int baseVersion, @Nullable List<MediaItem> playlist,
+            @Nullable int[] ops, @Nullable List<MediaItem> items) {
+        if ((baseVersion != VERSION_NONE && playlist == null)
+                || ops == null || ops.length % OP_SIZE != 0) {
+            return null;
+        }
+        final List<MediaItem> result = baseVersion == VERSION_NONE
+                ? new ArrayList<MediaItem>() : new ArrayList<>(playlist);
+        final int itemCount = items == null ? 0 : items.size();
+        int nextItem = 0;
+        for (int i = 0; i < ops.length; i += OP_SIZE) {
+            final int index = ops[i + 1];
+            final int arg = ops[i + 2];
+            switch (ops[i]) {
+                case OP_INSERT:
+                    if (index < 0 || index > result.size() || arg < 0
+                            || nextItem + arg > itemCount) {
+                        return null;
+                    }
+                    result.addAll(index, items.subList(nextItem, nextItem + arg));
+                    nextItem += arg;
+                    break;
+                case OP_REMOVE:
+                    if (index < 0 || arg < 0 || index + arg > result.size()) {
+                        return null;
+                    }
+                    result.subList(index, index + arg).clear();
+                    break;
+                case OP_MOVE:
+                    if (index < 0 || index >= result.size() || arg < 0 || arg >= result.size()) {
+                        return null;
+                    }
+                    result.add(arg, result.remove(index));
+                    break;
+                case OP_REPLACE:
+                    if (index < 0 || arg < 0 || index + arg > result.size()
+                            || nextItem + arg > itemCount) {
+                        return null;
+                    }
+                    for (int j = 0; j < arg; j++) {
+                        result.set(index + j, items.get(nextItem++));
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return nextItem == itemCount ? result : null;
+    }
+
+    private static boolean rangeEquals(List<MediaItem> a, int aStart, List<MediaItem> b,
+            int bStart, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!equals(a.get(aStart + i), b.get(bStart + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(@Nullable MediaItem a, @Nullable MediaItem b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
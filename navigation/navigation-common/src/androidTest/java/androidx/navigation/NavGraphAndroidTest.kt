@@ -230,6 +230,72 @@ class NavGraphAndroidTest {
             .isEqualTo(99)
     }
 
+    @Test
+    fun matchDeepLinkNestedGraph() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = GRAPH_ID
+        graph.addDestination(nestedGraph)
+
+        val userDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        userDestination.id = DESTINATION_ID
+        userDestination.addDeepLink("example://users/{id}")
+        nestedGraph.addDestination(userDestination)
+
+        assertWithMessage("Deep link with another scheme should not match")
+            .that(graph.matchDeepLink(Uri.parse("https://users/43")))
+            .isNull()
+
+        val match = graph.matchDeepLink(Uri.parse("example://users/43"))
+
+        assertWithMessage("Deep link of nested destination should match")
+            .that(match?.destination)
+            .isSameInstanceAs(userDestination)
+        assertWithMessage("Deep link should extract id argument correctly")
+            .that(match?.matchingArgs?.getString("id"))
+            .isEqualTo("43")
+    }
+
+    @Test
+    fun matchDeepLinkAfterGraphChanged() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = GRAPH_ID
+        graph.addDestination(nestedGraph)
+
+        assertThat(graph.matchDeepLink(Uri.parse("https://www.example.com/users/43")))
+            .isNull()
+
+        val userDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        userDestination.id = DESTINATION_ID
+        nestedGraph.addDestination(userDestination)
+        userDestination.addDeepLink("www.example.com/users/{id}")
+
+        assertWithMessage("Deep link added to nested destination should match")
+            .that(graph.matchDeepLink(Uri.parse("https://www.example.com/users/43"))?.destination)
+            .isSameInstanceAs(userDestination)
+
+        nestedGraph.remove(userDestination)
+
+        assertWithMessage("Deep link of removed destination should not match")
+            .that(graph.matchDeepLink(Uri.parse("https://www.example.com/users/43")))
+            .isNull()
+    }
+
     @Test
     fun toStringStartDestIdOnly() {
         val navigatorProvider = NavigatorProvider().apply {
@@ -203,6 +203,32 @@ public final class NavDeepLink {
         return mExactDeepLink;
     }
 
+    /**
+     * Returns the literal strings that the uri of a request must start with to match this deep
+     * link: the uri pattern up to its first argument, wildcard or query, preceded by the http and
+     * https schemes if the pattern has no scheme.
+     *
+     * @return the prefixes of the uris matching this deep link, or null if it has no uri.
+     */
+    @Nullable
+    String[] getUriPrefixes() {
+        if (mUri == null) {
+            return null;
+        }
+        int end = mUri.length();
+        for (String delimiter : new String[]{"{", ".*", "?"}) {
+            int index = mUri.indexOf(delimiter);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        String literalPrefix = mUri.substring(0, end);
+        if (SCHEME_PATTERN.matcher(mUri).find()) {
+            return new String[]{literalPrefix};
+        }
+        return new String[]{"http://" + literalPrefix, "https://" + literalPrefix};
+    }
+
     /**
      * Get the uri pattern from the NavDeepLink.
      *
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An index of all the deep links of a {@link NavGraph} and of its nested destinations, so that a
+ * {@link NavDeepLinkRequest} is only matched against the deep links that can match it.
+ * <p>
+ * Deep links with a uri are found through a trie of the literal prefixes of their uri patterns,
+ * split on '/' so that the scheme, the host and each literal path segment is a level of the trie.
+ * Only the deep links whose prefix the uri starts with run their regular expression. Deep links
+ * with an action are found by their action, and deep links with a mimeType are always candidates
+ * of requests with a mimeType.
+ * <p>
+ * Candidates are matched in the order {@link NavGraph} used to walk its destinations, so that the
+ * same match is returned when several are equally good.
+ */
+final class NavDeepLinkIndex {
+    private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.mOrder - e2.mOrder;
+        }
+    };
+
+    private final Node mRoot = new Node();
+    private final HashMap<String, List<Entry>> mEntriesByAction = new HashMap<>();
+    private final ArrayList<Entry> mEntriesWithMimeType = new ArrayList<>();
+    private int mSize;
+
+    /**
+     * Builds the index of the deep links of the given graph and of all its nested destinations.
+     */
+    @NonNull
+    static NavDeepLinkIndex build(@NonNull NavGraph graph) {
+        NavDeepLinkIndex index = new NavDeepLinkIndex();
+        index.addAll(graph);
+        return index;
+    }
+
+    private void addAll(@NonNull NavDestination destination) {
+        List<NavDeepLink> deepLinks = destination.getDeepLinks();
+        if (deepLinks != null) {
+            for (NavDeepLink deepLink : deepLinks) {
+                add(destination, deepLink);
+            }
+        }
+        if (destination instanceof NavGraph) {
+            for (NavDestination child : (NavGraph) destination) {
+                addAll(child);
+            }
+        }
+    }
+
+    private void add(@NonNull NavDestination destination, @NonNull NavDeepLink deepLink) {
+        Entry entry = new Entry(destination, deepLink, mSize++);
+        String[] uriPrefixes = deepLink.getUriPrefixes();
+        if (uriPrefixes != null) {
+            for (String uriPrefix : uriPrefixes) {
+                String[] segments = uriPrefix.split("/", -1);
+                Node node = mRoot;
+                // All segments but the last one are followed by a '/' and are complete
+                for (int i = 0; i < segments.length - 1; i++) {
+                    node = node.getOrCreateChild(segments[i]);
+                }
+                node.addEntry(segments[segments.length - 1], entry);
+            }
+        }
+        String action = deepLink.getAction();
+        if (action != null) {
+            List<Entry> entries = mEntriesByAction.get(action);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                mEntriesByAction.put(action, entries);
+            }
+            entries.add(entry);
+        }
+        if (deepLink.getMimeType() != null) {
+            mEntriesWithMimeType.add(entry);
+        }
+    }
+
+    /**
+     * Returns the best match of the given request among the indexed deep links, as
+     * {@link NavGraph#matchDeepLink(NavDeepLinkRequest)} would find by matching all of them.
+     */
+    @Nullable
+    NavDestination.DeepLinkMatch match(@NonNull NavDeepLinkRequest request) {
+        ArrayList<Entry> candidates = new ArrayList<>();
+        Uri uri = request.getUri();
+        if (uri != null) {
+            collectUriCandidates(uri.toString(), candidates);
+        }
+        String action = request.getAction();
+        if (action != null) {
+            List<Entry> entries = mEntriesByAction.get(action);
+            if (entries != null) {
+                candidates.addAll(entries);
+            }
+        }
+        if (request.getMimeType() != null) {
+            candidates.addAll(mEntriesWithMimeType);
+        }
+        Collections.sort(candidates, ORDER);
+
+        NavDestination.DeepLinkMatch bestMatch = null;
+        Entry previous = null;
+        for (Entry candidate : candidates) {
+            if (candidate == previous) {
+                // Found through both its uri and its action or mimeType
+                continue;
+            }
+            previous = candidate;
+            NavDestination.DeepLinkMatch match = candidate.mDestination.matchDeepLink(
+                    candidate.mDeepLink, request);
+            if (match != null && (bestMatch == null || match.compareTo(bestMatch) > 0)) {
+                bestMatch = match;
+            }
+        }
+        return bestMatch;
+    }
+
+    private void collectUriCandidates(@NonNull String uri, @NonNull List<Entry> candidates) {
+        String[] segments = uri.split("/", -1);
+        Node node = mRoot;
+        for (int i = 0; i < segments.length && node != null; i++) {
+            node.collectEntries(segments[i], candidates);
+            // Only segments followed by a '/' can lead to the next level
+            node = i < segments.length - 1 ? node.getChild(segments[i]) : null;
+        }
+    }
+
+    private static final class Entry {
+        final NavDestination mDestination;
+        final NavDeepLink mDeepLink;
+        final int mOrder;
+
+        Entry(NavDestination destination, NavDeepLink deepLink, int order) {
+            mDestination = destination;
+            mDeepLink = deepLink;
+            mOrder = order;
+        }
+    }
+
+    private static final class Node {
+        @Nullable
+        private HashMap<String, Node> mChildren;
+        // The rest of the prefix of each entry, which the next segment of the uri must start with
+        @Nullable
+        private ArrayList<String> mTails;
+        @Nullable
+        private ArrayList<Entry> mEntries;
+
+        @Nullable
+        Node getChild(@NonNull String segment) {
+            return mChildren != null ? mChildren.get(segment) : null;
+        }
+
+        @NonNull
+        Node getOrCreateChild(@NonNull String segment) {
+            if (mChildren == null) {
+                mChildren = new HashMap<>();
+            }
+            Node child = mChildren.get(segment);
+            if (child == null) {
+                child = new Node();
+                mChildren.put(segment, child);
+            }
+            return child;
+        }
+
+        void addEntry(@NonNull String tail, @NonNull Entry entry) {
+            if (mEntries == null) {
+                mTails = new ArrayList<>();
+                mEntries = new ArrayList<>();
+            }
+            mTails.add(tail);
+            mEntries.add(entry);
+        }
+
+        void collectEntries(@NonNull String segment, @NonNull List<Entry> candidates) {
+            if (mEntries == null) {
+                return;
+            }
+            for (int i = 0; i < mEntries.size(); i++) {
+                if (segment.startsWith(mTails.get(i))) {
+                    candidates.add(mEntries.get(i));
+                }
+            }
+        }
+    }
+}
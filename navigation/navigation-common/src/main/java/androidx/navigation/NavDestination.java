@@ -41,6 +41,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -453,6 +454,25 @@ public class NavDestination {
             mDeepLinks = new ArrayList<>();
         }
         mDeepLinks.add(navDeepLink);
+        invalidateDeepLinkIndex();
+    }
+
+    /**
+     * Returns the deep links added to this destination, or null if there are none.
+     */
+    @Nullable
+    final List<NavDeepLink> getDeepLinks() {
+        return mDeepLinks;
+    }
+
+    /**
+     * Called when the deep links of this destination or of its nested destinations change, so
+     * that the graphs containing it don't use a stale {@link NavDeepLinkIndex}.
+     */
+    void invalidateDeepLinkIndex() {
+        if (mParent != null) {
+            mParent.invalidateDeepLinkIndex();
+        }
     }
 
     /**
@@ -469,28 +489,41 @@ public class NavDestination {
         }
         DeepLinkMatch bestMatch = null;
         for (NavDeepLink deepLink : mDeepLinks) {
-            Uri uri = navDeepLinkRequest.getUri();
-            Bundle matchingArguments = uri != null
-                    ? deepLink.getMatchingArguments(uri, getArguments()) : null;
-
-            String requestAction = navDeepLinkRequest.getAction();
-            boolean matchingAction = requestAction != null && requestAction.equals(
-                    deepLink.getAction());
-
-            String mimeType = navDeepLinkRequest.getMimeType();
-            int mimeTypeMatchLevel = mimeType != null
-                    ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
-            if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
-                DeepLinkMatch newMatch = new DeepLinkMatch(this, matchingArguments,
-                        deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
-                if (bestMatch == null || newMatch.compareTo(bestMatch) > 0) {
-                    bestMatch = newMatch;
-                }
+            DeepLinkMatch newMatch = matchDeepLink(deepLink, navDeepLinkRequest);
+            if (newMatch != null && (bestMatch == null || newMatch.compareTo(bestMatch) > 0)) {
+                bestMatch = newMatch;
             }
         }
         return bestMatch;
     }
 
+    /**
+     * Determines if the given deep link of this NavDestination matches the given request.
+     * @param deepLink One of the deep links added in {@link #addDeepLink(NavDeepLink)}
+     * @param navDeepLinkRequest The request to match against the deep link
+     * @return The match of the deep link, or null if it does not match the request.
+     */
+    @Nullable
+    final DeepLinkMatch matchDeepLink(@NonNull NavDeepLink deepLink,
+            @NonNull NavDeepLinkRequest navDeepLinkRequest) {
+        Uri uri = navDeepLinkRequest.getUri();
+        Bundle matchingArguments = uri != null
+                ? deepLink.getMatchingArguments(uri, getArguments()) : null;
+
+        String requestAction = navDeepLinkRequest.getAction();
+        boolean matchingAction = requestAction != null && requestAction.equals(
+                deepLink.getAction());
+
+        String mimeType = navDeepLinkRequest.getMimeType();
+        int mimeTypeMatchLevel = mimeType != null
+                ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
+        if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
+            return new DeepLinkMatch(this, matchingArguments,
+                    deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
+        }
+        return null;
+    }
+
     /**
      * Build an array containing the hierarchy from the root down to this destination.
      *
@@ -43,6 +43,10 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     final SparseArrayCompat<NavDestination> mNodes = new SparseArrayCompat<>();
     private int mStartDestId;
     private String mStartDestIdName;
+    @Nullable
+    private NavDeepLinkIndex mDeepLinkIndex;
+    @Nullable
+    private Runnable mDeferredDestinations;
 
     /**
      * Construct a new NavGraph. This NavGraph is not valid until you
@@ -72,17 +76,18 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @Override
     @Nullable
     DeepLinkMatch matchDeepLink(@NonNull NavDeepLinkRequest request) {
-        // First search through any deep links directly added to this NavGraph
-        DeepLinkMatch bestMatch = super.matchDeepLink(request);
-        // Then search through all child destinations for a matching deep link
-        for (NavDestination child : this) {
-            DeepLinkMatch childBestMatch = child.matchDeepLink(request);
-            if (childBestMatch != null && (bestMatch == null
-                    || childBestMatch.compareTo(bestMatch) > 0)) {
-                bestMatch = childBestMatch;
-            }
+        // Search through the deep links of this NavGraph and of all its child destinations,
+        // indexed the first time deep links are matched after the graph changed
+        if (mDeepLinkIndex == null) {
+            mDeepLinkIndex = NavDeepLinkIndex.build(this);
         }
-        return bestMatch;
+        return mDeepLinkIndex.match(request);
+    }
+
+    @Override
+    void invalidateDeepLinkIndex() {
+        mDeepLinkIndex = null;
+        super.invalidateDeepLinkIndex();
     }
 
     /**
@@ -96,6 +101,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
      * @param node destination to add
      */
     public final void addDestination(@NonNull NavDestination node) {
+        addDeferredDestinations();
         int id = node.getId();
         if (id == 0) {
             throw new IllegalArgumentException("Destinations must have an id."
@@ -118,6 +124,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         }
         node.setParent(this);
         mNodes.put(node.getId(), node);
+        invalidateDeepLinkIndex();
     }
 
     /**
@@ -173,6 +180,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
 
     @Nullable
     final NavDestination findNode(@IdRes int resid, boolean searchParents) {
+        addDeferredDestinations();
         NavDestination destination = mNodes.get(resid);
         // Search the parent for the NavDestination if it is not a child of this navigation graph
         // and searchParents is true
@@ -184,6 +192,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @NonNull
     @Override
     public final Iterator<NavDestination> iterator() {
+        addDeferredDestinations();
         return new Iterator<NavDestination>() {
             private int mIndex = -1;
             private boolean mWentToNext = false;
@@ -210,6 +219,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
                 }
                 mNodes.valueAt(mIndex).setParent(null);
                 mNodes.removeAt(mIndex);
+                invalidateDeepLinkIndex();
                 mIndex--;
                 mWentToNext = false;
             }
@@ -238,10 +248,12 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
      * @param node the destination to remove.
      */
     public final void remove(@NonNull NavDestination node) {
+        addDeferredDestinations();
         int index = mNodes.indexOfKey(node.getId());
         if (index >= 0) {
             mNodes.valueAt(index).setParent(null);
             mNodes.removeAt(index);
+            invalidateDeepLinkIndex();
         }
     }
 
@@ -266,6 +278,30 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         return getId() != 0 ? super.getDisplayName() : "the root navigation";
     }
 
+    /**
+     * Sets a callback that adds the destinations of this graph the first time they are needed,
+     * i.e. when one of them is looked up, iterated over or deep linked to, or when the
+     * destinations of this graph are changed. This allows inflating a nested graph only when it is
+     * first navigated to.
+     *
+     * @param addDestinations callback adding the destinations of this graph, or null if they are
+     *                        all added already.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public final void setDeferredDestinations(@Nullable Runnable addDestinations) {
+        mDeferredDestinations = addDestinations;
+    }
+
+    private void addDeferredDestinations() {
+        Runnable addDestinations = mDeferredDestinations;
+        if (addDestinations != null) {
+            // Cleared first as adding the destinations goes through addDestination()
+            mDeferredDestinations = null;
+            addDestinations.run();
+        }
+    }
+
     /**
      * Returns the starting destination for this NavGraph. When navigating to the NavGraph, this
      * destination is the one the user will initially see.
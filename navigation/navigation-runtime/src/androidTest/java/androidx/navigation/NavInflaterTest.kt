@@ -52,6 +52,21 @@ class NavInflaterTest {
             .isEqualTo(R.id.start_test)
     }
 
+    @Test
+    fun testInflateDeferred() {
+        val context = ApplicationProvider.getApplicationContext() as Context
+        val navInflater = NavInflater(context, TestNavigatorProvider())
+        val graph = navInflater.inflateDeferred(R.navigation.nav_simple)
+
+        assertThat(graph.id).isEqualTo(R.id.nav_root)
+        assertThat(graph.startDestination)
+            .isEqualTo(R.id.start_test)
+        assertThat(graph.mNodes.size()).isEqualTo(0)
+
+        assertThat(graph.findNode(R.id.second_test)?.id).isEqualTo(R.id.second_test)
+        assertThat(graph.mNodes.size()).isEqualTo(3)
+    }
+
     @Test
     fun testEmptyLabel() {
         val context = ApplicationProvider.getApplicationContext() as Context
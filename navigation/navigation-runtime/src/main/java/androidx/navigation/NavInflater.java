@@ -68,9 +68,37 @@ public final class NavInflater {
      * @param graphResId
      * @return
      */
-    @SuppressLint("ResourceType")
     @NonNull
     public NavGraph inflate(@NavigationRes int graphResId) {
+        return inflate(graphResId, false);
+    }
+
+    /**
+     * Inflate a NavGraph from the given XML resource id, deferring the inflation of its
+     * destinations until they are first needed, e.g. when the graph is first navigated to.
+     * <p>
+     * The id, label, start destination, arguments, deep links and actions of the graph itself are
+     * inflated right away, so that the returned graph can be added to another graph and navigated
+     * to as if it was fully inflated.
+     *
+     * @param graphResId the navigation resource to inflate
+     * @return the graph, which will inflate its destinations when they are first needed
+     */
+    @NonNull
+    public NavGraph inflateDeferred(@NavigationRes final int graphResId) {
+        final NavGraph graph = inflate(graphResId, true);
+        graph.setDeferredDestinations(new Runnable() {
+            @Override
+            public void run() {
+                graph.addAll(inflate(graphResId));
+            }
+        });
+        return graph;
+    }
+
+    @SuppressLint("ResourceType")
+    @NonNull
+    private NavGraph inflate(@NavigationRes int graphResId, boolean deferDestinations) {
         Resources res = mContext.getResources();
         XmlResourceParser parser = res.getXml(graphResId);
         final AttributeSet attrs = Xml.asAttributeSet(parser);
@@ -85,7 +113,8 @@ public final class NavInflater {
             }
 
             String rootElement = parser.getName();
-            NavDestination destination = inflate(res, parser, attrs, graphResId);
+            NavDestination destination = inflate(res, parser, attrs, graphResId,
+                    deferDestinations);
             if (!(destination instanceof NavGraph)) {
                 throw new IllegalArgumentException("Root element <" + rootElement + ">"
                         + " did not inflate into a NavGraph");
@@ -102,7 +131,7 @@ public final class NavInflater {
 
     @NonNull
     private NavDestination inflate(@NonNull Resources res, @NonNull XmlResourceParser parser,
-            @NonNull AttributeSet attrs, int graphResId)
+            @NonNull AttributeSet attrs, int graphResId, boolean deferDestinations)
             throws XmlPullParserException, IOException {
         Navigator<?> navigator = mNavigatorProvider.getNavigator(parser.getName());
         final NavDestination dest = navigator.createDestination();
@@ -130,6 +159,9 @@ public final class NavInflater {
                 inflateDeepLink(res, dest, attrs);
             } else if (TAG_ACTION.equals(name)) {
                 inflateAction(res, dest, attrs, parser, graphResId);
+            } else if (deferDestinations) {
+                // Nested destinations are skipped along with their own arguments and actions
+                continue;
             } else if (TAG_INCLUDE.equals(name) && dest instanceof NavGraph) {
                 final TypedArray a = res.obtainAttributes(
                         attrs, androidx.navigation.R.styleable.NavInclude);
@@ -138,7 +170,7 @@ public final class NavInflater {
                 ((NavGraph) dest).addDestination(inflate(id));
                 a.recycle();
             } else if (dest instanceof NavGraph) {
-                ((NavGraph) dest).addDestination(inflate(res, parser, attrs, graphResId));
+                ((NavGraph) dest).addDestination(inflate(res, parser, attrs, graphResId, false));
             }
         }
 
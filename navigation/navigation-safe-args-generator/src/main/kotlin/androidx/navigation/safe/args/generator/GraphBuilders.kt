@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation.safe.args.generator
+
+import androidx.navigation.safe.args.generator.ext.toCamelCase
+import androidx.navigation.safe.args.generator.models.Argument
+import androidx.navigation.safe.args.generator.models.Destination
+
+internal const val TYPE_NAVIGATION = "navigation"
+internal const val TYPE_FRAGMENT = "fragment"
+internal const val TYPE_DIALOG = "dialog"
+internal const val TYPE_ACTIVITY = "activity"
+
+internal const val APPLICATION_ID_PLACEHOLDER = "\${applicationId}"
+
+// Destinations of other navigators are created from their XML attributes by the navigators
+// themselves, so a graph builder can only create the destinations of the androidx navigators.
+private val BUILDABLE_TYPES = setOf(TYPE_NAVIGATION, TYPE_FRAGMENT, TYPE_DIALOG, TYPE_ACTIVITY)
+
+/**
+ * Returns true if a graph builder can create the graph the same way NavInflater inflates it from
+ * its XML. Otherwise no graph builder is generated and the graph must still be inflated.
+ */
+internal fun Destination.canBuildGraph() = type == TYPE_NAVIGATION && canBuild(isRoot = true)
+
+private fun Destination.canBuild(isRoot: Boolean): Boolean =
+    type in BUILDABLE_TYPES &&
+        (isRoot || id != null) &&
+        // e.g. app:moduleName, without which the dynamic feature navigators never install the
+        // module of the destination
+        !hasUnmodeledAttributes &&
+        // NavInflater fails to inflate these, the generated code should not hide it
+        args.none { it.type == ReferenceArrayType } &&
+        deepLinks.all { it.uri != null || !it.action.isNullOrEmpty() || it.mimeType != null } &&
+        nested.all { it.canBuild(isRoot = false) }
+
+/**
+ * The type NavInflater gives to the argument, which is the reference type for all resources.
+ */
+internal fun Argument.runtimeType(): NavType =
+    if (defaultValue is ReferenceValue) ReferenceType else type
+
+/**
+ * The default value NavInflater gives to the argument, which has none for `@null`.
+ */
+internal fun Argument.runtimeDefaultValue(): WritableValue? =
+    defaultValue?.takeIf { it != NullValue }
+
+/**
+ * The Bundle method NavInflater uses to put the default value of the argument of an action.
+ */
+internal fun Argument.runtimeBundlePutMethod(): String =
+    if (type is ObjectType) "putSerializable" else runtimeType().bundlePutMethod()
+
+/**
+ * The name of the androidx.navigation.NavType field of the type, or null if the type of objects
+ * is found by its argType.
+ */
+internal fun NavType.runtimeField(): String? = when (this) {
+    IntType -> "IntType"
+    IntArrayType -> "IntArrayType"
+    LongType -> "LongType"
+    LongArrayType -> "LongArrayType"
+    FloatType -> "FloatType"
+    FloatArrayType -> "FloatArrayType"
+    StringType -> "StringType"
+    StringArrayType -> "StringArrayType"
+    BoolType -> "BoolType"
+    BoolArrayType -> "BoolArrayType"
+    ReferenceType -> "ReferenceType"
+    else -> null
+}
+
+/**
+ * The argType of an object type, as NavType.fromArgType() expects it.
+ */
+internal fun NavType.runtimeArgType(): String = when (this) {
+    is ObjectType -> canonicalName
+    is ObjectArrayType -> "$canonicalName[]"
+    else -> toString()
+}
+
+/**
+ * Returns the name of the method creating the given destination, unique among [usedNames].
+ */
+internal fun graphBuilderMethodName(destination: Destination, usedNames: MutableSet<String>) =
+    "create${destination.id!!.javaIdentifier.toCamelCase()}".let { name ->
+        var uniqueName = name
+        var index = 2
+        while (!usedNames.add(uniqueName)) {
+            uniqueName = "$name${index++}"
+        }
+        uniqueName
+    }
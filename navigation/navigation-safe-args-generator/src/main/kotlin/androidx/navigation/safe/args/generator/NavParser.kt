@@ -20,9 +20,12 @@ import androidx.navigation.safe.args.generator.NavParserErrors.sameSanitizedName
 import androidx.navigation.safe.args.generator.NavParserErrors.sameSanitizedNameArguments
 import androidx.navigation.safe.args.generator.ext.toCamelCase
 import androidx.navigation.safe.args.generator.models.Action
+import androidx.navigation.safe.args.generator.models.ActivityAttributes
 import androidx.navigation.safe.args.generator.models.Argument
+import androidx.navigation.safe.args.generator.models.DeepLink
 import androidx.navigation.safe.args.generator.models.Destination
 import androidx.navigation.safe.args.generator.models.IncludedDestination
+import androidx.navigation.safe.args.generator.models.NavOptions
 import androidx.navigation.safe.args.generator.models.ResReference
 import java.io.File
 import java.io.FileReader
@@ -31,6 +34,8 @@ private const val TAG_NAVIGATION = "navigation"
 private const val TAG_ACTION = "action"
 private const val TAG_ARGUMENT = "argument"
 private const val TAG_INCLUDE = "include"
+private const val TAG_DEEP_LINK = "deepLink"
+private const val TAG_ACTIVITY = "activity"
 
 private const val ATTRIBUTE_ID = "id"
 private const val ATTRIBUTE_DESTINATION = "destination"
@@ -40,6 +45,21 @@ private const val ATTRIBUTE_TYPE = "argType"
 private const val ATTRIBUTE_TYPE_DEPRECATED = "type"
 private const val ATTRIBUTE_NULLABLE = "nullable"
 private const val ATTRIBUTE_GRAPH = "graph"
+private const val ATTRIBUTE_LABEL = "label"
+private const val ATTRIBUTE_START_DESTINATION = "startDestination"
+private const val ATTRIBUTE_URI = "uri"
+private const val ATTRIBUTE_ACTION = "action"
+private const val ATTRIBUTE_MIME_TYPE = "mimeType"
+private const val ATTRIBUTE_TARGET_PACKAGE = "targetPackage"
+private const val ATTRIBUTE_DATA = "data"
+private const val ATTRIBUTE_DATA_PATTERN = "dataPattern"
+private const val ATTRIBUTE_LAUNCH_SINGLE_TOP = "launchSingleTop"
+private const val ATTRIBUTE_POP_UP_TO = "popUpTo"
+private const val ATTRIBUTE_POP_UP_TO_INCLUSIVE = "popUpToInclusive"
+private const val ATTRIBUTE_ENTER_ANIM = "enterAnim"
+private const val ATTRIBUTE_EXIT_ANIM = "exitAnim"
+private const val ATTRIBUTE_POP_ENTER_ANIM = "popEnterAnim"
+private const val ATTRIBUTE_POP_EXIT_ANIM = "popExitAnim"
 
 const val VALUE_NULL = "@null"
 private const val VALUE_TRUE = "true"
@@ -47,6 +67,21 @@ private const val VALUE_FALSE = "false"
 
 private const val NAMESPACE_RES_AUTO = "http://schemas.android.com/apk/res-auto"
 private const val NAMESPACE_ANDROID = "http://schemas.android.com/apk/res/android"
+private const val NAMESPACE_TOOLS = "http://schemas.android.com/tools"
+
+// The attributes of a destination a graph builder creates it from. Navigators are given all the
+// attributes of their destinations, e.g. the dynamic feature navigators read app:moduleName, so
+// no graph builder is generated for destinations with any other attribute.
+private val GRAPH_BUILDER_ATTRIBUTES = mapOf(
+    NAMESPACE_ANDROID to setOf(ATTRIBUTE_ID, ATTRIBUTE_NAME, ATTRIBUTE_LABEL),
+    NAMESPACE_RES_AUTO to setOf(
+        ATTRIBUTE_START_DESTINATION,
+        ATTRIBUTE_TARGET_PACKAGE,
+        ATTRIBUTE_ACTION,
+        ATTRIBUTE_DATA,
+        ATTRIBUTE_DATA_PATTERN
+    )
+)
 
 internal class NavParser(
     private val parser: XmlPositionParser,
@@ -75,15 +110,38 @@ internal class NavParser(
         val type = parser.name()
         val name = parser.attrValue(NAMESPACE_ANDROID, ATTRIBUTE_NAME) ?: ""
         val idValue = parser.attrValue(NAMESPACE_ANDROID, ATTRIBUTE_ID)
+        val label = parser.attrValue(NAMESPACE_ANDROID, ATTRIBUTE_LABEL)?.let { label ->
+            parseReference(label, rFilePackage)?.let { ReferenceValue(it) } ?: StringValue(label)
+        }
+        // Only used to build the graph in code, so it is not an error if it isn't a valid id
+        val startDestination = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_START_DESTINATION)
+            ?.let { parseReference(it, rFilePackage) }?.takeIf { it.isId() }
+        val activity = if (type == TAG_ACTIVITY) {
+            ActivityAttributes(
+                targetPackage = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_TARGET_PACKAGE),
+                action = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_ACTION),
+                data = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_DATA),
+                dataPattern = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_DATA_PATTERN)
+            )
+        } else {
+            null
+        }
+        // tools attributes are removed from the compiled XML
+        val hasUnmodeledAttributes = parser.attrNames().any { (namespace, name) ->
+            namespace != NAMESPACE_TOOLS &&
+                name !in GRAPH_BUILDER_ATTRIBUTES[namespace].orEmpty()
+        }
         val args = mutableListOf<Argument>()
         val actions = mutableListOf<Action>()
         val nested = mutableListOf<Destination>()
         val included = mutableListOf<IncludedDestination>()
+        val deepLinks = mutableListOf<DeepLink>()
         parser.traverseInnerStartTags {
             when {
                 parser.name() == TAG_ACTION -> actions.add(parseAction())
                 parser.name() == TAG_ARGUMENT -> args.add(parseArgument())
                 parser.name() == TAG_INCLUDE -> included.add(parseIncludeDestination())
+                parser.name() == TAG_DEEP_LINK -> deepLinks.add(parseDeepLink())
                 type == TAG_NAVIGATION -> nested.add(parseDestination())
             }
         }
@@ -107,9 +165,23 @@ internal class NavParser(
             return context.createStubDestination()
         }
 
-        return Destination(id, className, type, args, actions, nested, included)
+        return Destination(
+            id, className, type, args, actions, nested, included,
+            className = name.takeIf { it.isNotEmpty() },
+            label = label,
+            startDestination = startDestination,
+            deepLinks = deepLinks,
+            activity = activity,
+            hasUnmodeledAttributes = hasUnmodeledAttributes
+        )
     }
 
+    private fun parseDeepLink() = DeepLink(
+        uri = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_URI),
+        action = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_ACTION),
+        mimeType = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_MIME_TYPE)
+    )
+
     private fun parseIncludeDestination(): IncludedDestination {
         val xmlPosition = parser.xmlPosition()
 
@@ -227,6 +299,7 @@ internal class NavParser(
     private fun parseAction(): Action {
         val idValue = parser.attrValueOrError(NAMESPACE_ANDROID, ATTRIBUTE_ID)
         val destValue = parser.attrValue(NAMESPACE_RES_AUTO, ATTRIBUTE_DESTINATION)
+        val navOptions = parseNavOptions()
         val args = mutableListOf<Argument>()
         val position = parser.xmlPosition()
         parser.traverseInnerStartTags {
@@ -247,7 +320,24 @@ internal class NavParser(
             context.createStubId()
         }
         val destination = destValue?.let { parseId(destValue, rFilePackage, position) }
-        return Action(id, destination, args)
+        return Action(id, destination, args, navOptions)
+    }
+
+    // Only used to build the graph in code, so invalid references are ignored instead of reported
+    private fun parseNavOptions(): NavOptions {
+        fun reference(attrName: String) = parser.attrValue(NAMESPACE_RES_AUTO, attrName)
+            ?.let { parseReference(it, rFilePackage) }
+        fun boolean(attrName: String) =
+            parser.attrValue(NAMESPACE_RES_AUTO, attrName) == VALUE_TRUE
+        return NavOptions(
+            launchSingleTop = boolean(ATTRIBUTE_LAUNCH_SINGLE_TOP),
+            popUpTo = reference(ATTRIBUTE_POP_UP_TO)?.takeIf { it.isId() },
+            popUpToInclusive = boolean(ATTRIBUTE_POP_UP_TO_INCLUSIVE),
+            enterAnim = reference(ATTRIBUTE_ENTER_ANIM),
+            exitAnim = reference(ATTRIBUTE_EXIT_ANIM),
+            popEnterAnim = reference(ATTRIBUTE_POP_ENTER_ANIM),
+            popExitAnim = reference(ATTRIBUTE_POP_EXIT_ANIM)
+        )
     }
 
     private fun parseId(
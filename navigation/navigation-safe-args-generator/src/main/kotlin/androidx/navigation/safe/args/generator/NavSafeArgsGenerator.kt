@@ -16,9 +16,11 @@
 
 package androidx.navigation.safe.args.generator
 
+import androidx.navigation.safe.args.generator.ext.toCamelCase
 import androidx.navigation.safe.args.generator.java.JavaNavWriter
 import androidx.navigation.safe.args.generator.kotlin.KotlinNavWriter
 import androidx.navigation.safe.args.generator.models.Destination
+import com.squareup.javapoet.ClassName
 import java.io.File
 
 fun SafeArgsGenerator(
@@ -27,7 +29,8 @@ fun SafeArgsGenerator(
     navigationXml: File,
     outputDir: File,
     useAndroidX: Boolean = true,
-    generateKotlin: Boolean
+    generateKotlin: Boolean,
+    generateGraphBuilder: Boolean = false
 ) = NavSafeArgsGenerator(
     rFilePackage,
     applicationId,
@@ -37,7 +40,8 @@ fun SafeArgsGenerator(
         KotlinNavWriter(useAndroidX)
     } else {
         JavaNavWriter(useAndroidX)
-    }
+    },
+    generateGraphBuilder
 )
 
 class NavSafeArgsGenerator<T : CodeFile> internal constructor(
@@ -45,7 +49,8 @@ class NavSafeArgsGenerator<T : CodeFile> internal constructor(
     private val applicationId: String,
     private val navigationXml: File,
     private val outputDir: File,
-    private val writer: NavWriter<T>
+    private val writer: NavWriter<T>,
+    private val generateGraphBuilder: Boolean = false
 ) {
     fun generate(): GeneratorOutput {
         val context = Context()
@@ -80,6 +85,15 @@ class NavSafeArgsGenerator<T : CodeFile> internal constructor(
             }
         }
         writeCodeFiles(resolvedDestination, emptyList())
+        // The graph is built as NavInflater inflates it, without the arguments that actions
+        // inherit from their destination for the generated directions
+        if (generateGraphBuilder && rawDestination.canBuildGraph()) {
+            val className = ClassName.get(
+                rFilePackage,
+                "${navigationXml.nameWithoutExtension.toCamelCase()}GraphBuilder"
+            )
+            codeFiles.add(writer.generateGraphBuilderCodeFile(rawDestination, className))
+        }
         codeFiles.forEach { it.writeTo(outputDir) }
         return GeneratorOutput(codeFiles.toList(), context.logger.allMessages())
     }
@@ -17,6 +17,7 @@
 package androidx.navigation.safe.args.generator
 
 import androidx.navigation.safe.args.generator.models.Destination
+import com.squareup.javapoet.ClassName
 
 interface NavWriter<T : CodeFile> {
     fun generateDirectionsCodeFile(
@@ -25,4 +26,10 @@ interface NavWriter<T : CodeFile> {
     ): T
 
     fun generateArgsCodeFile(destination: Destination): T
+
+    /**
+     * Generates the class building the given graph in code, which must be buildable as checked
+     * by [canBuildGraph].
+     */
+    fun generateGraphBuilderCodeFile(graph: Destination, className: ClassName): T
 }
\ No newline at end of file
@@ -71,6 +71,14 @@ internal class XmlPositionParser(private val name: String, reader: Reader, val l
             parser.getAttributeNamespace(it) == namespace && name == parser.getAttributeName(it)
         }?.let { parser.getAttributeValue(it) }
 
+    /**
+     * Returns the namespace and name of each attribute of the current tag.
+     */
+    fun attrNames(): List<Pair<String, String>> =
+        (0 until parser.attributeCount).map {
+            parser.getAttributeNamespace(it) to parser.getAttributeName(it)
+        }
+
     fun attrValueOrError(namespace: String, attrName: String): String? {
         val value = attrValue(namespace, attrName)
         if (value == null) {
@@ -16,6 +16,7 @@
 
 package androidx.navigation.safe.args.generator.java
 
+import androidx.navigation.safe.args.generator.APPLICATION_ID_PLACEHOLDER
 import androidx.navigation.safe.args.generator.BoolArrayType
 import androidx.navigation.safe.args.generator.BoolType
 import androidx.navigation.safe.args.generator.FloatArrayType
@@ -24,18 +25,31 @@ import androidx.navigation.safe.args.generator.IntArrayType
 import androidx.navigation.safe.args.generator.IntType
 import androidx.navigation.safe.args.generator.LongArrayType
 import androidx.navigation.safe.args.generator.LongType
+import androidx.navigation.safe.args.generator.NavType
 import androidx.navigation.safe.args.generator.NavWriter
 import androidx.navigation.safe.args.generator.ObjectArrayType
 import androidx.navigation.safe.args.generator.ObjectType
 import androidx.navigation.safe.args.generator.ReferenceArrayType
 import androidx.navigation.safe.args.generator.ReferenceType
+import androidx.navigation.safe.args.generator.ReferenceValue
 import androidx.navigation.safe.args.generator.StringArrayType
 import androidx.navigation.safe.args.generator.StringType
+import androidx.navigation.safe.args.generator.TYPE_ACTIVITY
+import androidx.navigation.safe.args.generator.TYPE_DIALOG
+import androidx.navigation.safe.args.generator.TYPE_FRAGMENT
+import androidx.navigation.safe.args.generator.TYPE_NAVIGATION
 import androidx.navigation.safe.args.generator.ext.toCamelCase
 import androidx.navigation.safe.args.generator.ext.toCamelCaseAsVar
+import androidx.navigation.safe.args.generator.graphBuilderMethodName
 import androidx.navigation.safe.args.generator.models.Action
 import androidx.navigation.safe.args.generator.models.Argument
 import androidx.navigation.safe.args.generator.models.Destination
+import androidx.navigation.safe.args.generator.models.NavOptions
+import androidx.navigation.safe.args.generator.runtimeArgType
+import androidx.navigation.safe.args.generator.runtimeBundlePutMethod
+import androidx.navigation.safe.args.generator.runtimeDefaultValue
+import androidx.navigation.safe.args.generator.runtimeField
+import androidx.navigation.safe.args.generator.runtimeType
 import com.squareup.javapoet.AnnotationSpec
 import com.squareup.javapoet.ClassName
 import com.squareup.javapoet.CodeBlock
@@ -308,6 +322,171 @@ class JavaNavWriter(private val useAndroidX: Boolean = true) : NavWriter<JavaCod
 
         return JavaFile.builder(className.packageName(), typeSpec).build().toCodeFile()
     }
+
+    override fun generateGraphBuilderCodeFile(
+        graph: Destination,
+        className: ClassName
+    ): JavaCodeFile {
+        val createMethods = mutableListOf<MethodSpec>()
+        val buildMethod = generateCreateMethod(
+            "build", graph, mutableSetOf("build"), createMethods
+        ).addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(NAV_GRAPH_CLASSNAME)
+            .build()
+
+        val constructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build()
+
+        val typeSpec = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addMethod(constructor)
+            .addMethod(buildMethod)
+            .addMethods(createMethods)
+            .build()
+
+        return JavaFile.builder(className.packageName(), typeSpec).build().toCodeFile()
+    }
+
+    private fun generateCreateMethod(
+        methodName: String,
+        destination: Destination,
+        usedNames: MutableSet<String>,
+        createMethods: MutableList<MethodSpec>
+    ): MethodSpec.Builder = MethodSpec.methodBuilder(methodName).apply {
+        val annotations = Annotations.getInstance(useAndroidX)
+        addAnnotation(annotations.NONNULL_CLASSNAME)
+        addParameter(
+            ParameterSpec.builder(CONTEXT_CLASSNAME, "context")
+                .addAnnotation(annotations.NONNULL_CLASSNAME)
+                .build()
+        )
+        addParameter(
+            ParameterSpec.builder(NAVIGATOR_PROVIDER_CLASSNAME, "navigatorProvider")
+                .addAnnotation(annotations.NONNULL_CLASSNAME)
+                .build()
+        )
+        val destinationClassName = when (destination.type) {
+            TYPE_NAVIGATION -> NAV_GRAPH_CLASSNAME
+            TYPE_FRAGMENT -> FRAGMENT_DESTINATION_CLASSNAME
+            TYPE_DIALOG -> DIALOG_DESTINATION_CLASSNAME
+            else -> ACTIVITY_DESTINATION_CLASSNAME
+        }
+        addStatement(
+            "$T destination = ($T) navigatorProvider.getNavigator($S).createDestination()",
+            destinationClassName, destinationClassName, destination.type
+        )
+        destination.id?.let { id -> addStatement("destination.setId($L)", id.accessor()) }
+        destination.label?.let { label ->
+            if (label is ReferenceValue) {
+                addStatement("destination.setLabel(context.getText($L))", label.write())
+            } else {
+                addStatement("destination.setLabel($L)", label.write())
+            }
+        }
+        when (destination.type) {
+            TYPE_NAVIGATION -> destination.startDestination?.let { startDestination ->
+                addStatement("destination.setStartDestination($L)", startDestination.accessor())
+            }
+            TYPE_FRAGMENT, TYPE_DIALOG -> destination.className?.let { name ->
+                addStatement("destination.setClassName($S)", name)
+            }
+            TYPE_ACTIVITY -> addActivityStatements(destination)
+        }
+        destination.args.forEach { arg ->
+            val argument = CodeBlock.builder().apply {
+                add("new $T.Builder()", NAV_ARGUMENT_CLASSNAME)
+                add(".setType($L)", arg.runtimeType().runtimeCode())
+                if (arg.isNullable) {
+                    add(".setIsNullable(true)")
+                }
+                arg.runtimeDefaultValue()?.let { add(".setDefaultValue($L)", it.write()) }
+                add(".build()")
+            }.build()
+            addStatement("destination.addArgument($S, $L)", arg.name, argument)
+        }
+        destination.deepLinks.forEach { deepLink ->
+            val navDeepLink = CodeBlock.builder().apply {
+                add("new $T.Builder()", NAV_DEEP_LINK_CLASSNAME)
+                deepLink.uri?.let { add(".setUriPattern($L)", it.withPackageName()) }
+                deepLink.action?.takeIf { it.isNotEmpty() }?.let {
+                    add(".setAction($L)", it.withPackageName())
+                }
+                deepLink.mimeType?.let { add(".setMimeType($L)", it.withPackageName()) }
+                add(".build()")
+            }.build()
+            addStatement("destination.addDeepLink($L)", navDeepLink)
+        }
+        destination.actions.forEach { action ->
+            val defaultArgs = action.args.filter { it.runtimeDefaultValue() != null }
+            val navOptions = action.navOptions.runtimeCode()
+            if (defaultArgs.isEmpty()) {
+                addStatement(
+                    "destination.putAction($L, new $T($L, $L))", action.id.accessor(),
+                    NAV_ACTION_CLASSNAME, action.destination.accessor(), navOptions
+                )
+            } else {
+                val bundle = "${action.id.javaIdentifier.toCamelCaseAsVar()}Arguments"
+                addStatement("$T $N = new $T()", BUNDLE_CLASSNAME, bundle, BUNDLE_CLASSNAME)
+                defaultArgs.forEach { arg ->
+                    addStatement(
+                        "$N.$N($S, $L)", bundle, arg.runtimeBundlePutMethod(), arg.name,
+                        arg.runtimeDefaultValue()!!.write()
+                    )
+                }
+                addStatement(
+                    "destination.putAction($L, new $T($L, $L, $N))", action.id.accessor(),
+                    NAV_ACTION_CLASSNAME, action.destination.accessor(), navOptions, bundle
+                )
+            }
+        }
+        destination.nested.forEach { nestedDestination ->
+            val nestedMethodName = graphBuilderMethodName(nestedDestination, usedNames)
+            // Keeps the methods in the order of the XML, before the ones of nested destinations
+            val index = createMethods.size
+            val nestedMethod = generateCreateMethod(
+                nestedMethodName, nestedDestination, usedNames, createMethods
+            ).addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(NAV_DESTINATION_CLASSNAME)
+                .build()
+            createMethods.add(index, nestedMethod)
+            addStatement("destination.addDestination($N(context, navigatorProvider))", nestedMethod)
+        }
+        destination.included.forEach { included ->
+            addStatement(
+                "destination.addDestination(new $T(context, navigatorProvider)" +
+                    ".inflateDeferred($L))",
+                NAV_INFLATER_CLASSNAME, included.id.accessor()
+            )
+        }
+        addStatement("return destination")
+    }
+
+    private fun MethodSpec.Builder.addActivityStatements(destination: Destination) {
+        destination.activity?.targetPackage?.let { targetPackage ->
+            addStatement("destination.setTargetPackage($L)", targetPackage.withPackageName())
+        }
+        destination.className?.let { name ->
+            if (name.startsWith(".")) {
+                addStatement(
+                    "destination.setComponentName(new $T(context, context.getPackageName() + $S))",
+                    COMPONENT_NAME_CLASSNAME, name
+                )
+            } else {
+                addStatement(
+                    "destination.setComponentName(new $T(context, $S))",
+                    COMPONENT_NAME_CLASSNAME, name
+                )
+            }
+        }
+        destination.activity?.action?.let { action ->
+            addStatement("destination.setAction($S)", action)
+        }
+        destination.activity?.data?.let { data ->
+            addStatement("destination.setData($T.parse($S))", URI_CLASSNAME, data)
+        }
+        destination.activity?.dataPattern?.let { dataPattern ->
+            addStatement("destination.setDataPattern($S)", dataPattern)
+        }
+    }
 }
 
 private class ClassWithArgsSpecs(
@@ -564,4 +743,28 @@ internal fun MethodSpec.Builder.addNullCheck(
 internal fun Destination.toClassName(): ClassName {
     val destName = name ?: throw IllegalStateException("Destination with actions must have name")
     return ClassName.get(destName.packageName(), "${destName.simpleName()}Directions")
-}
\ No newline at end of file
+}
+private fun NavType.runtimeCode(): CodeBlock = runtimeField()?.let { field ->
+    CodeBlock.of("$T.$N", NAV_TYPE_CLASSNAME, field)
+} ?: CodeBlock.of("$T.fromArgType($S, null)", NAV_TYPE_CLASSNAME, runtimeArgType())
+
+private fun NavOptions.runtimeCode(): CodeBlock = CodeBlock.builder().apply {
+    add("new $T.Builder()", NAV_OPTIONS_CLASSNAME)
+    if (launchSingleTop) {
+        add(".setLaunchSingleTop(true)")
+    }
+    popUpTo?.let { add(".setPopUpTo($L, $L)", it.accessor(), popUpToInclusive) }
+    enterAnim?.let { add(".setEnterAnim($L)", it.accessor()) }
+    exitAnim?.let { add(".setExitAnim($L)", it.accessor()) }
+    popEnterAnim?.let { add(".setPopEnterAnim($L)", it.accessor()) }
+    popExitAnim?.let { add(".setPopExitAnim($L)", it.accessor()) }
+    add(".build()")
+}.build()
+
+private fun String.withPackageName(): CodeBlock = when {
+    this == APPLICATION_ID_PLACEHOLDER -> CodeBlock.of("context.getPackageName()")
+    contains(APPLICATION_ID_PLACEHOLDER) -> CodeBlock.of(
+        "$S.replace($S, context.getPackageName())", this, APPLICATION_ID_PLACEHOLDER
+    )
+    else -> CodeBlock.of(S, this)
+}
@@ -59,6 +59,30 @@ internal val BUNDLE_CLASSNAME: ClassName = ClassName.get("android.os", "Bundle")
 internal val PARCELABLE_CLASSNAME = ClassName.get("android.os", "Parcelable")
 internal val SERIALIZABLE_CLASSNAME = ClassName.get("java.io", "Serializable")
 internal val SYSTEM_CLASSNAME = ClassName.get("java.lang", "System")
+internal val CONTEXT_CLASSNAME: ClassName = ClassName.get("android.content", "Context")
+internal val COMPONENT_NAME_CLASSNAME: ClassName =
+    ClassName.get("android.content", "ComponentName")
+internal val URI_CLASSNAME: ClassName = ClassName.get("android.net", "Uri")
+internal val NAV_GRAPH_CLASSNAME: ClassName = ClassName.get("androidx.navigation", "NavGraph")
+internal val NAV_DESTINATION_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "NavDestination")
+internal val NAVIGATOR_PROVIDER_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "NavigatorProvider")
+internal val NAV_INFLATER_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "NavInflater")
+internal val NAV_ARGUMENT_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "NavArgument")
+internal val NAV_TYPE_CLASSNAME: ClassName = ClassName.get("androidx.navigation", "NavType")
+internal val NAV_DEEP_LINK_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "NavDeepLink")
+internal val NAV_ACTION_CLASSNAME: ClassName = ClassName.get("androidx.navigation", "NavAction")
+internal val NAV_OPTIONS_CLASSNAME: ClassName = ClassName.get("androidx.navigation", "NavOptions")
+internal val ACTIVITY_DESTINATION_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation", "ActivityNavigator", "Destination")
+internal val FRAGMENT_DESTINATION_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation.fragment", "FragmentNavigator", "Destination")
+internal val DIALOG_DESTINATION_CLASSNAME: ClassName =
+    ClassName.get("androidx.navigation.fragment", "DialogFragmentNavigator", "Destination")
 
 internal abstract class Annotations {
     abstract val NULLABLE_CLASSNAME: ClassName
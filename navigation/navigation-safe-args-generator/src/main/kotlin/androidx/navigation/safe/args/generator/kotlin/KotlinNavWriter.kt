@@ -16,20 +16,37 @@
 
 package androidx.navigation.safe.args.generator.kotlin
 
+import androidx.navigation.safe.args.generator.APPLICATION_ID_PLACEHOLDER
+import androidx.navigation.safe.args.generator.NavType
 import androidx.navigation.safe.args.generator.NavWriter
 import androidx.navigation.safe.args.generator.ObjectArrayType
 import androidx.navigation.safe.args.generator.ObjectType
+import androidx.navigation.safe.args.generator.ReferenceValue
+import androidx.navigation.safe.args.generator.TYPE_ACTIVITY
+import androidx.navigation.safe.args.generator.TYPE_DIALOG
+import androidx.navigation.safe.args.generator.TYPE_FRAGMENT
+import androidx.navigation.safe.args.generator.TYPE_NAVIGATION
 import androidx.navigation.safe.args.generator.ext.toCamelCase
 import androidx.navigation.safe.args.generator.ext.toCamelCaseAsVar
+import androidx.navigation.safe.args.generator.graphBuilderMethodName
 import androidx.navigation.safe.args.generator.models.Action
 import androidx.navigation.safe.args.generator.models.Destination
+import androidx.navigation.safe.args.generator.models.NavOptions
+import androidx.navigation.safe.args.generator.runtimeArgType
+import androidx.navigation.safe.args.generator.runtimeBundlePutMethod
+import androidx.navigation.safe.args.generator.runtimeDefaultValue
+import androidx.navigation.safe.args.generator.runtimeField
+import androidx.navigation.safe.args.generator.runtimeType
 import com.squareup.kotlinpoet.AnnotationSpec
 import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.CodeBlock
 import com.squareup.kotlinpoet.FileSpec
 import com.squareup.kotlinpoet.FunSpec
 import com.squareup.kotlinpoet.KModifier
 import com.squareup.kotlinpoet.ParameterSpec
+import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
 import com.squareup.kotlinpoet.PropertySpec
+import com.squareup.kotlinpoet.STAR
 import com.squareup.kotlinpoet.TypeSpec
 import com.squareup.kotlinpoet.asTypeName
 
@@ -293,6 +310,163 @@ class KotlinNavWriter(private val useAndroidX: Boolean = true) : NavWriter<Kotli
             .toCodeFile()
     }
 
+    override fun generateGraphBuilderCodeFile(
+        graph: Destination,
+        className: com.squareup.javapoet.ClassName
+    ): KotlinCodeFile {
+        val builderClassName = ClassName(className.packageName(), className.simpleName())
+        val createFunSpecs = mutableListOf<FunSpec>()
+        val buildFunSpec = generateCreateFunSpec(
+            "build", graph, mutableSetOf("build"), createFunSpecs
+        ).addAnnotation(JvmStatic::class)
+            .returns(NAV_GRAPH_CLASSNAME)
+            .build()
+
+        val typeSpec = TypeSpec.objectBuilder(builderClassName)
+            .addFunction(buildFunSpec)
+            .addFunctions(createFunSpecs)
+            .build()
+
+        return FileSpec.builder(builderClassName.packageName, builderClassName.simpleName)
+            .addType(typeSpec)
+            .build()
+            .toCodeFile()
+    }
+
+    private fun generateCreateFunSpec(
+        functionName: String,
+        destination: Destination,
+        usedNames: MutableSet<String>,
+        createFunSpecs: MutableList<FunSpec>
+    ): FunSpec.Builder = FunSpec.builder(functionName).apply {
+        addParameter("context", CONTEXT_CLASSNAME)
+        addParameter("navigatorProvider", NAVIGATOR_PROVIDER_CLASSNAME)
+        val destinationClassName = when (destination.type) {
+            TYPE_NAVIGATION -> NAV_GRAPH_CLASSNAME
+            TYPE_FRAGMENT -> FRAGMENT_DESTINATION_CLASSNAME
+            TYPE_DIALOG -> DIALOG_DESTINATION_CLASSNAME
+            else -> ACTIVITY_DESTINATION_CLASSNAME
+        }
+        addStatement(
+            "val navigator = navigatorProvider.getNavigator<%T>(%S)",
+            NAVIGATOR_CLASSNAME.parameterizedBy(STAR), destination.type
+        )
+        addStatement("val destination = navigator.createDestination()·as·%T", destinationClassName)
+        destination.id?.let { id -> addStatement("destination.id = %L", id.accessor()) }
+        destination.label?.let { label ->
+            if (label is ReferenceValue) {
+                addStatement("destination.label = context.getText(%L)", label.write())
+            } else {
+                addStatement("destination.label = %L", label.write())
+            }
+        }
+        when (destination.type) {
+            TYPE_NAVIGATION -> destination.startDestination?.let { startDestination ->
+                addStatement("destination.startDestination = %L", startDestination.accessor())
+            }
+            TYPE_FRAGMENT, TYPE_DIALOG -> destination.className?.let { name ->
+                addStatement("destination.setClassName(%S)", name)
+            }
+            TYPE_ACTIVITY -> addActivityStatements(destination)
+        }
+        destination.args.forEach { arg ->
+            val argument = CodeBlock.builder().apply {
+                add("%T.Builder()", NAV_ARGUMENT_CLASSNAME)
+                add(".setType(%L)", arg.runtimeType().runtimeCode())
+                if (arg.isNullable) {
+                    add(".setIsNullable(true)")
+                }
+                arg.runtimeDefaultValue()?.let { add(".setDefaultValue(%L)", it.write()) }
+                add(".build()")
+            }.build()
+            addStatement("destination.addArgument(%S,·%L)", arg.name, argument)
+        }
+        destination.deepLinks.forEach { deepLink ->
+            val navDeepLink = CodeBlock.builder().apply {
+                add("%T.Builder()", NAV_DEEP_LINK_CLASSNAME)
+                deepLink.uri?.let { add(".setUriPattern(%L)", it.withPackageName()) }
+                deepLink.action?.takeIf { it.isNotEmpty() }?.let {
+                    add(".setAction(%L)", it.withPackageName())
+                }
+                deepLink.mimeType?.let { add(".setMimeType(%L)", it.withPackageName()) }
+                add(".build()")
+            }.build()
+            addStatement("destination.addDeepLink(%L)", navDeepLink)
+        }
+        destination.actions.forEach { action ->
+            val defaultArgs = action.args.filter { it.runtimeDefaultValue() != null }
+            val navOptions = action.navOptions.runtimeCode()
+            if (defaultArgs.isEmpty()) {
+                addStatement(
+                    "destination.putAction(%L,·%T(%L,·%L))", action.id.accessor(),
+                    NAV_ACTION_CLASSNAME, action.destination.accessor(), navOptions
+                )
+            } else {
+                val bundle = "${action.id.javaIdentifier.toCamelCaseAsVar()}Arguments"
+                addStatement("val %N = %T()", bundle, BUNDLE_CLASSNAME)
+                defaultArgs.forEach { arg ->
+                    addStatement(
+                        "%N.%N(%S,·%L)", bundle, arg.runtimeBundlePutMethod(), arg.name,
+                        arg.runtimeDefaultValue()!!.write()
+                    )
+                }
+                addStatement(
+                    "destination.putAction(%L,·%T(%L,·%L,·%N))", action.id.accessor(),
+                    NAV_ACTION_CLASSNAME, action.destination.accessor(), navOptions, bundle
+                )
+            }
+        }
+        destination.nested.forEach { nestedDestination ->
+            val nestedFunctionName = graphBuilderMethodName(nestedDestination, usedNames)
+            // Keeps the functions in the order of the XML, before the ones of nested destinations
+            val index = createFunSpecs.size
+            val nestedFunSpec = generateCreateFunSpec(
+                nestedFunctionName, nestedDestination, usedNames, createFunSpecs
+            ).addModifiers(KModifier.PRIVATE)
+                .returns(NAV_DESTINATION_CLASSNAME)
+                .build()
+            createFunSpecs.add(index, nestedFunSpec)
+            addStatement(
+                "destination.addDestination(%N(context,·navigatorProvider))", nestedFunSpec
+            )
+        }
+        destination.included.forEach { included ->
+            addStatement(
+                "destination.addDestination(%T(context,·navigatorProvider).inflateDeferred(%L))",
+                NAV_INFLATER_CLASSNAME, included.id.accessor()
+            )
+        }
+        addStatement("return destination")
+    }
+
+    private fun FunSpec.Builder.addActivityStatements(destination: Destination) {
+        destination.activity?.targetPackage?.let { targetPackage ->
+            addStatement("destination.setTargetPackage(%L)", targetPackage.withPackageName())
+        }
+        destination.className?.let { name ->
+            if (name.startsWith(".")) {
+                addStatement(
+                    "destination.setComponentName(%T(context,·context.packageName·+·%S))",
+                    COMPONENT_NAME_CLASSNAME, name
+                )
+            } else {
+                addStatement(
+                    "destination.setComponentName(%T(context,·%S))",
+                    COMPONENT_NAME_CLASSNAME, name
+                )
+            }
+        }
+        destination.activity?.action?.let { action ->
+            addStatement("destination.setAction(%S)", action)
+        }
+        destination.activity?.data?.let { data ->
+            addStatement("destination.setData(%T.parse(%S))", URI_CLASSNAME, data)
+        }
+        destination.activity?.dataPattern?.let { dataPattern ->
+            addStatement("destination.setDataPattern(%S)", dataPattern)
+        }
+    }
+
     companion object {
         /**
          * Annotation to suppress casts that never succeed. This is necessary since the generated
@@ -304,4 +478,28 @@ class KotlinNavWriter(private val useAndroidX: Boolean = true) : NavWriter<Kotli
             .addMember("%S", "CAST_NEVER_SUCCEEDS")
             .build()
     }
-}
\ No newline at end of file
+}
+private fun NavType.runtimeCode(): CodeBlock = runtimeField()?.let { field ->
+    CodeBlock.of("%T.%N", NAV_TYPE_CLASSNAME, field)
+} ?: CodeBlock.of("%T.fromArgType(%S, null)", NAV_TYPE_CLASSNAME, runtimeArgType())
+
+private fun NavOptions.runtimeCode(): CodeBlock = CodeBlock.builder().apply {
+    add("%T.Builder()", NAV_OPTIONS_CLASSNAME)
+    if (launchSingleTop) {
+        add(".setLaunchSingleTop(true)")
+    }
+    popUpTo?.let { add(".setPopUpTo(%L,·%L)", it.accessor(), popUpToInclusive) }
+    enterAnim?.let { add(".setEnterAnim(%L)", it.accessor()) }
+    exitAnim?.let { add(".setExitAnim(%L)", it.accessor()) }
+    popEnterAnim?.let { add(".setPopEnterAnim(%L)", it.accessor()) }
+    popExitAnim?.let { add(".setPopExitAnim(%L)", it.accessor()) }
+    add(".build()")
+}.build()
+
+private fun String.withPackageName(): CodeBlock = when {
+    this == APPLICATION_ID_PLACEHOLDER -> CodeBlock.of("context.packageName")
+    contains(APPLICATION_ID_PLACEHOLDER) -> CodeBlock.of(
+        "%S.replace(%S,·context.packageName)", this, APPLICATION_ID_PLACEHOLDER
+    )
+    else -> CodeBlock.of("%S", this)
+}
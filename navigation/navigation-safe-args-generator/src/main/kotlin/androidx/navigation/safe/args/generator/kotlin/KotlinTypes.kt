@@ -65,6 +65,27 @@ internal val BUNDLE_CLASSNAME: ClassName = ClassName("android.os", "Bundle")
 
 internal val PARCELABLE_CLASSNAME = ClassName("android.os", "Parcelable")
 internal val SERIALIZABLE_CLASSNAME = ClassName("java.io", "Serializable")
+internal val CONTEXT_CLASSNAME: ClassName = ClassName("android.content", "Context")
+internal val COMPONENT_NAME_CLASSNAME: ClassName = ClassName("android.content", "ComponentName")
+internal val URI_CLASSNAME: ClassName = ClassName("android.net", "Uri")
+internal val NAV_GRAPH_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavGraph")
+internal val NAV_DESTINATION_CLASSNAME: ClassName =
+    ClassName("androidx.navigation", "NavDestination")
+internal val NAVIGATOR_CLASSNAME: ClassName = ClassName("androidx.navigation", "Navigator")
+internal val NAVIGATOR_PROVIDER_CLASSNAME: ClassName =
+    ClassName("androidx.navigation", "NavigatorProvider")
+internal val NAV_INFLATER_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavInflater")
+internal val NAV_ARGUMENT_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavArgument")
+internal val NAV_TYPE_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavType")
+internal val NAV_DEEP_LINK_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavDeepLink")
+internal val NAV_ACTION_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavAction")
+internal val NAV_OPTIONS_CLASSNAME: ClassName = ClassName("androidx.navigation", "NavOptions")
+internal val ACTIVITY_DESTINATION_CLASSNAME: ClassName =
+    ClassName("androidx.navigation", "ActivityNavigator", "Destination")
+internal val FRAGMENT_DESTINATION_CLASSNAME: ClassName =
+    ClassName("androidx.navigation.fragment", "FragmentNavigator", "Destination")
+internal val DIALOG_DESTINATION_CLASSNAME: ClassName =
+    ClassName("androidx.navigation.fragment", "DialogFragmentNavigator", "Destination")
 
 internal fun NavType.addBundleGetStatement(
     builder: FunSpec.Builder,
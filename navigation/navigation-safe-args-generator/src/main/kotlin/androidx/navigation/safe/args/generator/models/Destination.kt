@@ -16,6 +16,7 @@
 
 package androidx.navigation.safe.args.generator.models
 
+import androidx.navigation.safe.args.generator.WritableValue
 import androidx.navigation.safe.args.generator.ext.toCamelCase
 import com.squareup.javapoet.ClassName
 
@@ -26,7 +27,15 @@ data class Destination(
     val args: List<Argument>,
     val actions: List<Action>,
     val nested: List<Destination> = emptyList(),
-    val included: List<IncludedDestination> = emptyList()
+    val included: List<IncludedDestination> = emptyList(),
+    // The android:name attribute as written, unlike name which is resolved or derived from the id
+    val className: String? = null,
+    val label: WritableValue? = null,
+    val startDestination: ResReference? = null,
+    val deepLinks: List<DeepLink> = emptyList(),
+    val activity: ActivityAttributes? = null,
+    // Whether the destination has attributes a graph builder doesn't create it from
+    val hasUnmodeledAttributes: Boolean = false
 ) {
 
     companion object {
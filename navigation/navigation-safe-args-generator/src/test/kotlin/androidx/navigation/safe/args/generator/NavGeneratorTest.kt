@@ -43,14 +43,16 @@ class NavGeneratorTest(private val generateKotlin: Boolean) {
         rFilePackage: String,
         applicationId: String,
         navigationXml: File,
-        outputDir: File
+        outputDir: File,
+        generateGraphBuilder: Boolean = false
     ) = SafeArgsGenerator(
         rFilePackage = rFilePackage,
         applicationId = applicationId,
         navigationXml = navigationXml,
         outputDir = outputDir,
         useAndroidX = true,
-        generateKotlin = generateKotlin
+        generateKotlin = generateKotlin,
+        generateGraphBuilder = generateGraphBuilder
     ).generate()
 
     private fun CodeFile.assertParsesAs(fullClassName: String, folder: String) {
@@ -182,6 +184,48 @@ class NavGeneratorTest(private val generateKotlin: Boolean) {
         }
     }
 
+    @Test
+    fun graph_builder_test() {
+        val output = generateSafeArgs(
+            "foo", "foo.flavor",
+            testData("graph_builder_test.xml"), workingDir.root,
+            generateGraphBuilder = true
+        )
+        val fileNames = output.fileNames
+        val expectedSet = setOf(
+            "foo.flavor.HomeFragmentDirections",
+            "foo.flavor.HomeFragmentArgs",
+            "foo.flavor.UserFragmentDirections",
+            "foo.GraphBuilderTestGraphBuilder"
+        )
+        assertThat(output.errors.isEmpty(), `is`(true))
+        assertThat(fileNames.toSet(), `is`(expectedSet))
+
+        val name = "foo.GraphBuilderTestGraphBuilder"
+        output.files[fileNames.indexOf(name)].assertParsesAs(name, "graph_builder")
+    }
+
+    @Test
+    fun graph_builder_not_generated_by_default() {
+        val output = generateSafeArgs(
+            "foo", "foo.flavor",
+            testData("graph_builder_test.xml"), workingDir.root
+        )
+        assertThat(output.errors.isEmpty(), `is`(true))
+        assertThat(output.fileNames.contains("foo.GraphBuilderTestGraphBuilder"), `is`(false))
+    }
+
+    @Test
+    fun graph_builder_not_generated_for_dynamic_features() {
+        val output = generateSafeArgs(
+            "foo", "foo.flavor",
+            testData("graph_builder_dynamic_feature_test.xml"), workingDir.root,
+            generateGraphBuilder = true
+        )
+        assertThat(output.errors.isEmpty(), `is`(true))
+        assertThat(output.fileNames.toSet(), `is`(setOf("foo.flavor.HomeFragmentDirections")))
+    }
+
     companion object {
         @JvmStatic
         @Parameterized.Parameters(name = "generateKotlin={0}")
@@ -20,6 +20,7 @@ import androidx.navigation.safe.args.generator.models.Action
 import androidx.navigation.safe.args.generator.models.Argument
 import androidx.navigation.safe.args.generator.models.Destination
 import androidx.navigation.safe.args.generator.models.IncludedDestination
+import androidx.navigation.safe.args.generator.models.NavOptions
 import androidx.navigation.safe.args.generator.models.ResReference
 import com.squareup.javapoet.ClassName
 import org.hamcrest.CoreMatchers.`is`
@@ -94,7 +95,8 @@ class NavParserTest {
                         Argument("explicitNullString", StringType, NullValue, true)
                     )
                 )
-            )
+            ),
+            className = "androidx.navigation.testapp.MainFragment"
         )
 
         val expectedNext = Destination(
@@ -102,13 +104,18 @@ class NavParserTest {
             listOf(Argument("myarg2", StringType)),
             listOf(
                 Action(id("next"), id("first_screen")),
-                Action(id("finish"), null)
-            )
+                Action(
+                    id("finish"), null,
+                    navOptions = NavOptions(popUpTo = id("first_screen"))
+                )
+            ),
+            className = ".NextFragment"
         )
 
         val expectedGraph = Destination(
             null, null, "navigation", emptyList(), emptyList(),
-            listOf(expectedFirst, expectedNext)
+            listOf(expectedFirst, expectedNext),
+            startDestination = id("first_screen")
         )
         assertThat(navGraph, `is`(expectedGraph))
     }
@@ -126,7 +133,8 @@ class NavParserTest {
             name = ClassName.get("foo.app", "MainFragment"),
             type = "fragment",
             args = emptyList(),
-            actions = listOf(Action(id("start_login"), id("login")))
+            actions = listOf(Action(id("start_login"), id("login"))),
+            className = ".MainFragment"
         )
 
         val expectedNestedFragment1 = Destination(
@@ -134,7 +142,8 @@ class NavParserTest {
             name = ClassName.get("foo.app.account", "LoginFragment"),
             type = "fragment",
             args = emptyList(),
-            actions = listOf(Action(id("register"), id("register_fragment")))
+            actions = listOf(Action(id("register"), id("register_fragment"))),
+            className = ".account.LoginFragment"
         )
 
         val expectedNestedFragment2 = Destination(
@@ -142,7 +151,8 @@ class NavParserTest {
             name = ClassName.get("foo.app.account", "RegisterFragment"),
             type = "fragment",
             args = emptyList(),
-            actions = emptyList()
+            actions = emptyList(),
+            className = ".account.RegisterFragment"
         )
 
         val expectedNestedGraph = Destination(
@@ -150,13 +160,20 @@ class NavParserTest {
             name = ClassName.get("a.b", "Login"),
             type = "navigation",
             args = emptyList(),
-            actions = listOf(Action(id("action_done"), null)),
-            nested = listOf(expectedNestedFragment1, expectedNestedFragment2)
+            actions = listOf(
+                Action(
+                    id("action_done"), null,
+                    navOptions = NavOptions(popUpTo = id("main_fragment"))
+                )
+            ),
+            nested = listOf(expectedNestedFragment1, expectedNestedFragment2),
+            startDestination = id("login_fragment")
         )
 
         val expectedGraph = Destination(
             null, null, "navigation", emptyList(), emptyList(),
-            listOf(expectedMainFragment, expectedNestedGraph)
+            listOf(expectedMainFragment, expectedNestedGraph),
+            startDestination = id("main_fragment")
         )
 
         assertThat(navGraph, `is`(expectedGraph))
@@ -174,7 +191,8 @@ class NavParserTest {
             name = ClassName.get("foo.app", "MainFragment"),
             type = "fragment",
             args = emptyList(),
-            actions = listOf(Action(id("start_login"), id("login")))
+            actions = listOf(Action(id("start_login"), id("login"))),
+            className = ".MainFragment"
         )
 
         val expectedIncluded = IncludedDestination(
@@ -186,7 +204,8 @@ class NavParserTest {
 
         val expectedGraph = Destination(
             null, null, "navigation", emptyList(), emptyList(),
-            listOf(expectedMainFragment), listOf(expectedIncluded)
+            listOf(expectedMainFragment), listOf(expectedIncluded),
+            startDestination = id("main_fragment")
         )
 
         assertThat(nestedIncludeNavGraph, `is`(expectedGraph))
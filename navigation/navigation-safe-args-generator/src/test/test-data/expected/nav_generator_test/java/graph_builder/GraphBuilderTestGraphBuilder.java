@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foo;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.navigation.ActivityNavigator;
+import androidx.navigation.NavAction;
+import androidx.navigation.NavArgument;
+import androidx.navigation.NavDeepLink;
+import androidx.navigation.NavDestination;
+import androidx.navigation.NavGraph;
+import androidx.navigation.NavInflater;
+import androidx.navigation.NavOptions;
+import androidx.navigation.NavType;
+import androidx.navigation.NavigatorProvider;
+import androidx.navigation.fragment.DialogFragmentNavigator;
+import androidx.navigation.fragment.FragmentNavigator;
+
+public final class GraphBuilderTestGraphBuilder {
+    private GraphBuilderTestGraphBuilder() {
+    }
+
+    @NonNull
+    public static NavGraph build(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        NavGraph destination = (NavGraph) navigatorProvider.getNavigator("navigation").createDestination();
+        destination.setStartDestination(R.id.home);
+        destination.addDestination(createHome(context, navigatorProvider));
+        destination.addDestination(createAbout(context, navigatorProvider));
+        destination.addDestination(createWeb(context, navigatorProvider));
+        destination.addDestination(createPrefs(context, navigatorProvider));
+        destination.addDestination(new NavInflater(context, navigatorProvider).inflateDeferred(R.navigation.more));
+        return destination;
+    }
+
+    @NonNull
+    private static NavDestination createHome(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        FragmentNavigator.Destination destination = (FragmentNavigator.Destination) navigatorProvider.getNavigator("fragment").createDestination();
+        destination.setId(R.id.home);
+        destination.setLabel("Home");
+        destination.setClassName(".HomeFragment");
+        destination.addArgument("count", new NavArgument.Builder().setType(NavType.IntType).setDefaultValue(1).build());
+        destination.addDeepLink(new NavDeepLink.Builder().setUriPattern("www.example.com/home/{count}").build());
+        destination.putAction(R.id.show_about, new NavAction(R.id.about, new NavOptions.Builder().setLaunchSingleTop(true).build()));
+        return destination;
+    }
+
+    @NonNull
+    private static NavDestination createAbout(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        DialogFragmentNavigator.Destination destination = (DialogFragmentNavigator.Destination) navigatorProvider.getNavigator("dialog").createDestination();
+        destination.setId(R.id.about);
+        destination.setLabel(context.getText(R.string.about));
+        destination.setClassName("foo.AboutDialog");
+        return destination;
+    }
+
+    @NonNull
+    private static NavDestination createWeb(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        ActivityNavigator.Destination destination = (ActivityNavigator.Destination) navigatorProvider.getNavigator("activity").createDestination();
+        destination.setId(R.id.web);
+        destination.setTargetPackage(context.getPackageName());
+        destination.setComponentName(new ComponentName(context, context.getPackageName() + ".WebActivity"));
+        destination.setAction("android.intent.action.VIEW");
+        destination.setData(Uri.parse("https://www.example.com"));
+        return destination;
+    }
+
+    @NonNull
+    private static NavDestination createPrefs(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        NavGraph destination = (NavGraph) navigatorProvider.getNavigator("navigation").createDestination();
+        destination.setId(R.id.prefs);
+        destination.setStartDestination(R.id.user);
+        destination.addDestination(createUser(context, navigatorProvider));
+        return destination;
+    }
+
+    @NonNull
+    private static NavDestination createUser(@NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider) {
+        FragmentNavigator.Destination destination = (FragmentNavigator.Destination) navigatorProvider.getNavigator("fragment").createDestination();
+        destination.setId(R.id.user);
+        destination.setClassName(".UserFragment");
+        Bundle doneArguments = new Bundle();
+        doneArguments.putBoolean("saved", true);
+        destination.putAction(R.id.done, new NavAction(0, new NavOptions.Builder().setPopUpTo(R.id.home, true).build(), doneArguments));
+        return destination;
+    }
+}
@@ -0,0 +1,87 @@
+package foo
+
+import android.content.ComponentName
+import android.content.Context
+import android.net.Uri
+import android.os.Bundle
+import androidx.navigation.ActivityNavigator
+import androidx.navigation.NavAction
+import androidx.navigation.NavArgument
+import androidx.navigation.NavDeepLink
+import androidx.navigation.NavDestination
+import androidx.navigation.NavGraph
+import androidx.navigation.NavInflater
+import androidx.navigation.NavOptions
+import androidx.navigation.NavType
+import androidx.navigation.Navigator
+import androidx.navigation.NavigatorProvider
+import androidx.navigation.fragment.DialogFragmentNavigator
+import androidx.navigation.fragment.FragmentNavigator
+import kotlin.jvm.JvmStatic
+
+public object GraphBuilderTestGraphBuilder {
+  @JvmStatic
+  public fun build(context: Context, navigatorProvider: NavigatorProvider): NavGraph {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("navigation")
+    val destination = navigator.createDestination() as NavGraph
+    destination.startDestination = R.id.home
+    destination.addDestination(createHome(context, navigatorProvider))
+    destination.addDestination(createAbout(context, navigatorProvider))
+    destination.addDestination(createWeb(context, navigatorProvider))
+    destination.addDestination(createPrefs(context, navigatorProvider))
+    destination.addDestination(NavInflater(context, navigatorProvider).inflateDeferred(R.navigation.more))
+    return destination
+  }
+
+  private fun createHome(context: Context, navigatorProvider: NavigatorProvider): NavDestination {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("fragment")
+    val destination = navigator.createDestination() as FragmentNavigator.Destination
+    destination.id = R.id.home
+    destination.label = "Home"
+    destination.setClassName(".HomeFragment")
+    destination.addArgument("count", NavArgument.Builder().setType(NavType.IntType).setDefaultValue(1).build())
+    destination.addDeepLink(NavDeepLink.Builder().setUriPattern("www.example.com/home/{count}").build())
+    destination.putAction(R.id.show_about, NavAction(R.id.about, NavOptions.Builder().setLaunchSingleTop(true).build()))
+    return destination
+  }
+
+  private fun createAbout(context: Context, navigatorProvider: NavigatorProvider): NavDestination {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("dialog")
+    val destination = navigator.createDestination() as DialogFragmentNavigator.Destination
+    destination.id = R.id.about
+    destination.label = context.getText(R.string.about)
+    destination.setClassName("foo.AboutDialog")
+    return destination
+  }
+
+  private fun createWeb(context: Context, navigatorProvider: NavigatorProvider): NavDestination {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("activity")
+    val destination = navigator.createDestination() as ActivityNavigator.Destination
+    destination.id = R.id.web
+    destination.setTargetPackage(context.packageName)
+    destination.setComponentName(ComponentName(context, context.packageName + ".WebActivity"))
+    destination.setAction("android.intent.action.VIEW")
+    destination.setData(Uri.parse("https://www.example.com"))
+    return destination
+  }
+
+  private fun createPrefs(context: Context, navigatorProvider: NavigatorProvider): NavDestination {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("navigation")
+    val destination = navigator.createDestination() as NavGraph
+    destination.id = R.id.prefs
+    destination.startDestination = R.id.user
+    destination.addDestination(createUser(context, navigatorProvider))
+    return destination
+  }
+
+  private fun createUser(context: Context, navigatorProvider: NavigatorProvider): NavDestination {
+    val navigator = navigatorProvider.getNavigator<Navigator<*>>("fragment")
+    val destination = navigator.createDestination() as FragmentNavigator.Destination
+    destination.id = R.id.user
+    destination.setClassName(".UserFragment")
+    val doneArguments = Bundle()
+    doneArguments.putBoolean("saved", true)
+    destination.putAction(R.id.done, NavAction(0, NavOptions.Builder().setPopUpTo(R.id.home, true).build(), doneArguments))
+    return destination
+  }
+}
@@ -56,6 +56,9 @@ open class ArgumentsGenerationTask @Inject constructor(private val projectLayout
     @get:Input
     var generateKotlin: Boolean = false
 
+    @get:Input
+    var generateGraphBuilders: Boolean = false
+
     @get:OutputDirectory
     lateinit var outputDir: File
 
@@ -81,7 +84,8 @@ open class ArgumentsGenerationTask @Inject constructor(private val projectLayout
             navigationXml = file,
             outputDir = out,
             useAndroidX = useAndroidX,
-            generateKotlin = generateKotlin
+            generateKotlin = generateKotlin,
+            generateGraphBuilder = generateGraphBuilders
         ).generate()
         Mapping(
             file.relativeTo(
@@ -34,6 +34,10 @@ private const val PLUGIN_DIRNAME = "navigation-args"
 internal const val GENERATED_PATH = "generated/source/$PLUGIN_DIRNAME"
 internal const val INCREMENTAL_PATH = "intermediates/incremental"
 
+// Opts into generating a class per navigation graph that builds it without inflating its XML
+internal const val GENERATE_GRAPH_BUILDERS_PROPERTY =
+    "androidx.navigation.safeargs.generateGraphBuilders"
+
 abstract class SafeArgsPlugin protected constructor(
     val providerFactory: ProviderFactory
 ) : Plugin<Project> {
@@ -81,6 +85,8 @@ abstract class SafeArgsPlugin protected constructor(
                     }
                 }
                 task.generateKotlin = generateKotlin
+                task.generateGraphBuilders =
+                    project.findProperty(GENERATE_GRAPH_BUILDERS_PROPERTY) == "true"
             }
             task.applicationIdResource?.let { task.dependsOn(it) }
             variant.registerJavaGeneratingTask(task, task.outputDir)
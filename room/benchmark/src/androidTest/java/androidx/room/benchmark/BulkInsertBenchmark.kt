@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.EntityInsertionAdapter
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteStatement
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares inserting a list of entities, which uses multi-row statements, with inserting them
+ * with one single-row statement execution per entity, as lists were inserted before.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class BulkInsertBenchmark(private val sampleSize: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+    private lateinit var dao: ItemDao
+    private lateinit var singleRowAdapter: SingleRowItemInsertionAdapter
+    private lateinit var items: List<Item>
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-wal", "-shm")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                Assert.assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+        dao = db.getItemDao()
+        singleRowAdapter = SingleRowItemInsertionAdapter(db)
+        items = List(sampleSize) { i ->
+            Item(0, "name$i", if (i % 2 == 0) "description$i" else null, i)
+        }
+    }
+
+    @After
+    fun teardown() {
+        db.close()
+    }
+
+    @Test
+    fun insertList() {
+        benchmarkRule.measureRepeated {
+            dao.insertItems(items)
+            runWithTimingDisabled {
+                assertEquals(sampleSize, dao.deleteAll())
+            }
+        }
+    }
+
+    @Test
+    fun insertListOneRowPerStatement() {
+        benchmarkRule.measureRepeated {
+            // Same as the generated insertItems(), with an adapter that has no multi-row
+            // statements
+            db.runInTransaction {
+                singleRowAdapter.insert(items)
+            }
+            runWithTimingDisabled {
+                assertEquals(sampleSize, dao.deleteAll())
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "sampleSize={0}")
+        fun data() = arrayOf(10, 100, 1000, 10000)
+
+        private const val DB_NAME = "bulk-insert-benchmark-test"
+    }
+
+    @Database(entities = [Item::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getItemDao(): ItemDao
+    }
+
+    @Entity
+    data class Item(
+        @PrimaryKey(autoGenerate = true) val id: Long,
+        val name: String,
+        val description: String?,
+        val position: Int
+    )
+
+    @Dao
+    interface ItemDao {
+        @Insert
+        fun insertItems(items: List<Item>)
+
+        @Query("DELETE FROM Item")
+        fun deleteAll(): Int
+    }
+
+    /**
+     * The insertion adapter generated for [Item], without [createRowValuesQuery] so that it
+     * executes the single-row statement once per entity.
+     */
+    class SingleRowItemInsertionAdapter(db: RoomDatabase) : EntityInsertionAdapter<Item>(db) {
+        override fun createQuery() =
+            "INSERT OR ABORT INTO `Item` (`id`,`name`,`description`,`position`) " +
+                "VALUES (nullif(?, 0),?,?,?)"
+
+        override fun bind(statement: SupportSQLiteStatement, entity: Item) {
+            statement.bindLong(1, entity.id)
+            statement.bindString(2, entity.name)
+            if (entity.description == null) {
+                statement.bindNull(3)
+            } else {
+                statement.bindString(3, entity.description)
+            }
+            statement.bindLong(4, entity.position.toLong())
+        }
+    }
+}
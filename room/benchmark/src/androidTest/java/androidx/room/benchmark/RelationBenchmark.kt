@@ -29,9 +29,11 @@ import androidx.room.Query
 import androidx.room.Relation
 import androidx.room.Room
 import androidx.room.RoomDatabase
+import androidx.room.util.RelationUtil
 import androidx.test.core.app.ApplicationProvider
 import androidx.test.filters.LargeTest
 import androidx.test.filters.SdkSuppress
+import org.junit.After
 import org.junit.Assert
 import org.junit.Assert.assertEquals
 import org.junit.Before
@@ -43,7 +45,11 @@ import org.junit.runners.Parameterized
 @LargeTest
 @RunWith(Parameterized::class)
 @SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
-class RelationBenchmark(private val parentSampleSize: Int, private val childSampleSize: Int) {
+class RelationBenchmark(
+    private val parentSampleSize: Int,
+    private val childSampleSize: Int,
+    private val useKeyTable: Boolean
+) {
 
     @get:Rule
     val benchmarkRule = BenchmarkRule()
@@ -58,6 +64,13 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
                 Assert.assertTrue(dbFile.delete())
             }
         }
+        // Force fetching the relations either with the key table or with chunks of bound keys
+        RelationUtil.setKeyTableMinSize(if (useKeyTable) 1 else Int.MAX_VALUE)
+    }
+
+    @After
+    fun teardown() {
+        RelationUtil.setKeyTableMinSize(RoomDatabase.MAX_BIND_PARAMETER_CNT + 1)
     }
 
     @Test
@@ -88,10 +101,14 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
 
     companion object {
         @JvmStatic
-        @Parameterized.Parameters(name = "parentSampleSize={0}, childSampleSize={1}")
-        fun data() = arrayOf(100, 500, 1000).flatMap { parentSampleSize ->
-            arrayOf(10).map { childSampleSize ->
-                arrayOf(parentSampleSize, childSampleSize)
+        @Parameterized.Parameters(
+            name = "parentSampleSize={0}, childSampleSize={1}, useKeyTable={2}"
+        )
+        fun data() = arrayOf(100, 500, 1000, 10000).flatMap { parentSampleSize ->
+            arrayOf(10).flatMap { childSampleSize ->
+                arrayOf(false, true).map { useKeyTable ->
+                    arrayOf(parentSampleSize, childSampleSize, useKeyTable)
+                }
             }
         }
 
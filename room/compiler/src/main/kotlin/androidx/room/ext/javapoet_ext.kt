@@ -92,6 +92,8 @@ object RoomTypeNames {
         ClassName.get("$ROOM_PACKAGE.util", "DBUtil")
     val CURSOR_UTIL: ClassName =
         ClassName.get("$ROOM_PACKAGE.util", "CursorUtil")
+    val RELATION_UTIL: ClassName =
+        ClassName.get("$ROOM_PACKAGE.util", "RelationUtil")
 }
 
 object PagingTypeNames {
@@ -20,6 +20,7 @@ import androidx.room.ColumnInfo
 import androidx.room.compiler.processing.XProcessingEnv
 import androidx.room.compiler.processing.XType
 import androidx.room.ext.CommonTypeNames
+import androidx.room.util.LruCache
 import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.TypeName
 import org.antlr.v4.runtime.tree.ParseTree
@@ -192,7 +193,24 @@ class SqlParser {
     companion object {
         private val INVALID_IDENTIFIER_CHARS = arrayOf('`', '\"')
 
-        fun parse(input: String) = SingleQuerySqlParser.parse(
+        private const val PARSED_QUERY_CACHE_SIZE = 4096
+
+        /**
+         * Parsed queries, by their SQL. Parsing does not depend on the schema, so they are shared
+         * by all databases.
+         */
+        private val parsedQueries = LruCache<String, ParsedQuery>(PARSED_QUERY_CACHE_SIZE)
+
+        /**
+         * Parses the given query, or returns a copy of the result of a previous parse of the
+         * same SQL. This may be called from multiple threads.
+         */
+        fun parse(input: String): ParsedQuery {
+            // copy so that the result info assigned to the returned query is not shared.
+            return parsedQueries.getOrPut(input) { parseUncached(input) }.copy()
+        }
+
+        private fun parseUncached(input: String) = SingleQuerySqlParser.parse(
             input = input,
             visit = { statement, syntaxErrors ->
                 QueryVisitor(
@@ -16,9 +16,11 @@
 
 package androidx.room.processor
 
+import androidx.room.Query
 import androidx.room.SkipQueryVerification
 import androidx.room.compiler.processing.XAnnotationBox
 import androidx.room.compiler.processing.XElement
+import androidx.room.compiler.processing.XMethodElement
 import androidx.room.compiler.processing.XType
 import androidx.room.compiler.processing.XTypeElement
 import androidx.room.ext.RoomTypeNames
@@ -77,12 +79,14 @@ class DatabaseProcessor(baseContext: Context, val element: XTypeElement) {
         validateUniqueTableAndViewNames(element, entities, views)
 
         val declaredType = element.type
-        val daoMethods = element.getAllMethods().filter {
+        val daoMethodElements = element.getAllMethods().filter {
             it.isAbstract()
         }.filterNot {
             // remove methods that belong to room
             it.enclosingTypeElement.className == RoomTypeNames.ROOM_DB
-        }.mapNotNull { executable ->
+        }
+        dbVerifier?.prefetch(collectDaoQueries(daoMethodElements))
+        val daoMethods = daoMethodElements.mapNotNull { executable ->
             // TODO when we add support for non Dao return types (e.g. database), this code needs
             // to change
             val daoType = executable.returnType
@@ -118,6 +122,20 @@ class DatabaseProcessor(baseContext: Context, val element: XTypeElement) {
         return database
     }
 
+    /**
+     * Returns the SQL of the queries of the DAOs, so that they can be verified in parallel before
+     * the DAOs are processed.
+     */
+    private fun collectDaoQueries(daoMethodElements: List<XMethodElement>): List<String> {
+        return daoMethodElements.mapNotNull {
+            it.returnType.typeElement
+        }.flatMap {
+            it.getAllMethods()
+        }.mapNotNull {
+            it.toAnnotationBox(Query::class)?.value?.value
+        }
+    }
+
     private fun validateForeignKeys(element: XTypeElement, entities: List<Entity>) {
         val byTableName = entities.associateBy { it.tableName }
         entities.forEach { entity ->
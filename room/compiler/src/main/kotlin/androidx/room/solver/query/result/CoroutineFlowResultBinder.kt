@@ -60,12 +60,13 @@ class CoroutineFlowResultBinder(
         scope.builder().apply {
             val tableNamesList = tableNames.joinToString(",") { "\"$it\"" }
             addStatement(
-                "return $T.createFlow($N, $L, new $T{$L}, $L)",
+                "return $T.createFlow($N, $L, new $T{$L}, $L, $L)",
                 RoomCoroutinesTypeNames.COROUTINES_ROOM,
                 dbField,
                 if (inTransaction) "true" else "false",
                 String::class.arrayTypeName,
                 tableNamesList,
+                roomSQLiteQueryVar,
                 callableImpl
             )
         }
@@ -21,8 +21,11 @@ import androidx.room.ext.N
 import androidx.room.ext.RoomTypeNames
 import androidx.room.ext.T
 import androidx.room.solver.CodeGenScope
+import androidx.room.solver.types.PrimitiveColumnTypeAdapter
+import androidx.room.solver.types.StringColumnTypeAdapter
 import androidx.room.writer.DaoWriter
 import com.squareup.javapoet.FieldSpec
+import com.squareup.javapoet.TypeName
 
 /**
  * Instantly runs and returns the query.
@@ -44,6 +47,34 @@ class InstantQueryResultBinder(adapter: QueryResultAdapter?) : QueryResultBinder
             null
         }
         transactionWrapper?.beginTransactionWithControlFlow()
+        val simpleQuery = simpleQueryMethod()
+        if (simpleQuery != null) {
+            scope.builder().apply {
+                val outVar = scope.getTmpVar("_result")
+                if (canReleaseQuery) {
+                    beginControlFlow("try")
+                }
+                addStatement(
+                    "final $T $L = $L$T.$L($N, $L)",
+                    adapter!!.rowAdapter!!.out.typeName,
+                    outVar,
+                    simpleQuery.second,
+                    RoomTypeNames.DB_UTIL,
+                    simpleQuery.first,
+                    dbField,
+                    roomSQLiteQueryVar
+                )
+                transactionWrapper?.commitTransaction()
+                addStatement("return $L", outVar)
+                if (canReleaseQuery) {
+                    nextControlFlow("finally")
+                    addStatement("$L.release()", roomSQLiteQueryVar)
+                    endControlFlow()
+                }
+            }
+            transactionWrapper?.endTransactionWithControlFlow()
+            return
+        }
         scope.builder().apply {
             val shouldCopyCursor = adapter?.shouldCopyCursor() == true
             val outVar = scope.getTmpVar("_result")
@@ -73,4 +104,29 @@ class InstantQueryResultBinder(adapter: QueryResultAdapter?) : QueryResultBinder
         }
         transactionWrapper?.endTransactionWithControlFlow()
     }
+
+    /**
+     * Returns the DBUtil method and the cast reading the result without a cursor when the query
+     * returns a single integer or string, so that it can run on a cached statement.
+     *
+     * Other types are read through a cursor, as the statement cannot tell a NULL column from 0.
+     */
+    private fun simpleQueryMethod(): Pair<String, String>? {
+        val rowAdapter = adapter?.rowAdapter
+        if (adapter !is SingleEntityQueryResultAdapter || rowAdapter !is SingleColumnRowAdapter) {
+            return null
+        }
+        val reader = rowAdapter.reader
+        return when {
+            reader is StringColumnTypeAdapter -> "queryForString" to ""
+            reader::class == PrimitiveColumnTypeAdapter::class -> {
+                when (val typeName = reader.typeMirror().typeName) {
+                    TypeName.LONG -> "queryForLong" to ""
+                    TypeName.INT, TypeName.SHORT, TypeName.BYTE -> "queryForLong" to "($typeName) "
+                    else -> null
+                }
+            }
+            else -> null
+        }
+    }
 }
@@ -59,11 +59,12 @@ class LiveDataQueryResultBinder(
         scope.builder().apply {
             val tableNamesList = tableNames.joinToString(",") { "\"$it\"" }
             addStatement(
-                "return $N.getInvalidationTracker().createLiveData(new $T{$L}, $L, $L)",
+                "return $N.getInvalidationTracker().createLiveData(new $T{$L}, $L, $L, $L)",
                 dbField,
                 String::class.arrayTypeName,
                 tableNamesList,
                 if (inTransaction) "true" else "false",
+                roomSQLiteQueryVar,
                 callableImpl
             )
         }
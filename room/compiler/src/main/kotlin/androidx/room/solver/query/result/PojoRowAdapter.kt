@@ -51,6 +51,12 @@ class PojoRowAdapter(
     val mapping: Mapping
     val relationCollectors: List<RelationCollector>
 
+    /**
+     * The index of the column of each matched field in the result of the query, as found by the
+     * verifier, or null if it is not known at compile time.
+     */
+    private val columnIndices: List<Int?>
+
     init {
 
         // toMutableList documentation is not clear if it copies so lets be safe.
@@ -58,7 +64,8 @@ class PojoRowAdapter(
         val unusedColumns = arrayListOf<String>()
         val matchedFields: List<Field>
         if (info != null) {
-            matchedFields = info.columns.mapNotNull { column ->
+            val matchedIndices = mutableListOf<Int?>()
+            matchedFields = info.columns.mapIndexedNotNull { index, column ->
                 // first check remaining, otherwise check any. maybe developer wants to map the same
                 // column into 2 fields. (if they want to post process etc)
                 val field = remainingFields.firstOrNull { it.columnName == column.name }
@@ -68,9 +75,13 @@ class PojoRowAdapter(
                     null
                 } else {
                     remainingFields.remove(field)
+                    // the cursor resolves duplicate names by itself, don't guess which one wins.
+                    val isUnique = info.columns.count { it.name == column.name } == 1
+                    matchedIndices.add(if (isUnique) index else null)
                     field
                 }
             }
+            columnIndices = matchedIndices
             if (unusedColumns.isNotEmpty() || remainingFields.isNotEmpty()) {
                 val warningMsg = ProcessorErrors.cursorPojoMismatch(
                     pojoTypeName = pojo.typeName,
@@ -97,6 +108,7 @@ class PojoRowAdapter(
         } else {
             matchedFields = remainingFields.map { it }
             remainingFields.clear()
+            columnIndices = matchedFields.map { null }
         }
         relationCollectors = RelationCollector.createCollectors(context, pojo.relations)
 
@@ -119,21 +131,33 @@ class PojoRowAdapter(
     }
 
     override fun onCursorReady(cursorVarName: String, scope: CodeGenScope) {
-        mapping.fieldsWithIndices = mapping.matchedFields.map {
+        mapping.fieldsWithIndices = mapping.matchedFields.mapIndexed { index, field ->
             val indexVar = scope.getTmpVar(
-                "_cursorIndexOf${it.name.stripNonJava().capitalize(Locale.US)}"
+                "_cursorIndexOf${field.name.stripNonJava().capitalize(Locale.US)}"
             )
-            val indexMethod = if (info == null) {
-                "getColumnIndex"
+            val columnIndex = columnIndices[index]
+            if (info == null) {
+                scope.builder().addStatement(
+                    "final $T $L = $T.getColumnIndex($L, $S)",
+                    TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, cursorVarName,
+                    field.columnName
+                )
+            } else if (columnIndex == null) {
+                scope.builder().addStatement(
+                    "final $T $L = $T.getColumnIndexOrThrow($L, $S)",
+                    TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, cursorVarName,
+                    field.columnName
+                )
             } else {
-                "getColumnIndexOrThrow"
+                // the index is checked against the cursor as the schema of the database may not
+                // have the same column order as the one the query was verified with.
+                scope.builder().addStatement(
+                    "final $T $L = $T.getColumnIndexOrThrow($L, $S, $L)",
+                    TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, cursorVarName,
+                    field.columnName, columnIndex
+                )
             }
-            scope.builder().addStatement(
-                "final $T $L = $T.$L($L, $S)",
-                TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, indexMethod, cursorVarName,
-                it.columnName
-            )
-            FieldWithIndex(field = it, indexVar = indexVar, alwaysExists = info != null)
+            FieldWithIndex(field = field, indexVar = indexVar, alwaysExists = info != null)
         }
         if (relationCollectors.isNotEmpty()) {
             relationCollectors.forEach { it.writeInitCode(scope) }
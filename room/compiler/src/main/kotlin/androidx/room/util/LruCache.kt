@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util
+
+/**
+ * A thread safe, size bounded map that drops its least recently used entries.
+ *
+ * Used to keep the results of parsing and verifying queries in the processor's class loader, so
+ * that they are reused by the next rounds and, when the build daemon keeps the class loader, by
+ * the next builds. Keys must contain everything the value depends on and values must not hold
+ * onto the processing environment.
+ */
+class LruCache<K : Any, V : Any>(private val maxSize: Int) {
+    private val map = object : LinkedHashMap<K, V>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<K, V>?): Boolean {
+            return size > maxSize
+        }
+    }
+
+    operator fun get(key: K): V? = synchronized(map) {
+        map[key]
+    }
+
+    operator fun set(key: K, value: V) {
+        synchronized(map) {
+            map[key] = value
+        }
+    }
+
+    /**
+     * Returns the value of the given key, computing it outside of the lock if it is not cached.
+     */
+    inline fun getOrPut(key: K, compute: () -> V): V {
+        return get(key) ?: compute().also { set(key, it) }
+    }
+
+    fun clear() {
+        synchronized(map) {
+            map.clear()
+        }
+    }
+}
@@ -17,19 +17,25 @@
 package androidx.room.verifier
 
 import androidx.room.compiler.processing.XElement
+import androidx.room.parser.SqlParser
 import androidx.room.processor.Context
 import androidx.room.vo.DatabaseView
 import androidx.room.vo.Entity
 import androidx.room.vo.EntityOrView
 import androidx.room.vo.FtsEntity
 import androidx.room.vo.FtsOptions
+import androidx.room.util.LruCache
 import androidx.room.vo.Warning
 import columnInfo
 import org.sqlite.JDBC
 import org.sqlite.SQLiteJDBCLoader
 import java.io.File
+import java.security.MessageDigest
 import java.sql.Connection
 import java.sql.SQLException
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.regex.Pattern
 
 /**
@@ -44,9 +50,54 @@ class DatabaseVerifier private constructor(
 ) {
     val entitiesAndViews: List<EntityOrView> = entities + views
 
+    /**
+     * The statements that created the schema, replayed on the connections verifying queries in
+     * parallel.
+     */
+    private val schemaStatements = mutableListOf<String>()
+
+    /**
+     * Whether any statement of the schema failed, in which case queries are not verified ahead
+     * of time on other connections.
+     */
+    private var schemaHasErrors = false
+
+    /**
+     * Identifies the schema in [verifiedQueries], so that results are only shared by databases
+     * with the same tables and views.
+     */
+    private val schemaKey: String by lazy {
+        val digest = MessageDigest.getInstance("SHA-256")
+        schemaStatements.forEach {
+            digest.update(it.toByteArray(Charsets.UTF_8))
+            digest.update(0)
+        }
+        digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
     companion object {
         private const val CONNECTION_URL = "jdbc:sqlite::memory:"
 
+        private const val VERIFIED_QUERY_CACHE_SIZE = 4096
+
+        /**
+         * The maximum number of connections verifying queries in parallel.
+         */
+        private const val MAX_PARALLEL_CONNECTIONS = 4
+
+        /**
+         * The minimum number of queries verified by each parallel connection, below which
+         * creating the schema on another connection is not worth it.
+         */
+        private const val MIN_QUERIES_PER_CONNECTION = 16
+
+        /**
+         * Verification results by schema and SQL, kept between rounds and, as long as the class
+         * loader of the processor is, between builds.
+         */
+        private val verifiedQueries =
+            LruCache<Pair<String, String>, QueryResultInfo>(VERIFIED_QUERY_CACHE_SIZE)
+
         /**
          * Taken from:
          * https://github.com/robolectric/robolectric/blob/master/shadows/framework/
@@ -131,10 +182,13 @@ class DatabaseVerifier private constructor(
             try {
                 stmt.executeUpdate(stripLocalizeCollations(createTableQuery))
             } catch (e: SQLException) {
+                schemaHasErrors = true
                 context.logger.e(entity.element, "${e.message}")
             }
+            schemaStatements.add(stripLocalizeCollations(createTableQuery))
             entity.indices.forEach {
                 stmt.executeUpdate(it.createQuery(entity.tableName))
+                schemaStatements.add(it.createQuery(entity.tableName))
             }
         }
         views.forEach { view ->
@@ -142,12 +196,90 @@ class DatabaseVerifier private constructor(
             try {
                 stmt.executeUpdate(stripLocalizeCollations(view.createViewQuery))
             } catch (e: SQLException) {
+                schemaHasErrors = true
                 context.logger.e(view.element, "${e.message}")
             }
+            schemaStatements.add(stripLocalizeCollations(view.createViewQuery))
         }
     }
 
     fun analyze(sql: String): QueryResultInfo {
+        return verifiedQueries.getOrPut(schemaKey to sql) {
+            analyze(connection, sql)
+        }
+    }
+
+    /**
+     * Parses and verifies the given queries ahead of their processing, spreading them across a
+     * pool of connections with the same schema, so that the following calls to [SqlParser.parse]
+     * and [analyze] for them are cache hits.
+     *
+     * Nothing is reported from here: a query that could not be verified ahead of time is verified
+     * again when it is processed, which reports its errors. Connections whose schema could not be
+     * fully created don't verify anything, as their results would be cached for the schema.
+     */
+    fun prefetch(queries: Collection<String>) {
+        if (schemaHasErrors) {
+            return
+        }
+        val pending = queries.distinct().filter { verifiedQueries[schemaKey to it] == null }
+        val connectionCount = minOf(
+            MAX_PARALLEL_CONNECTIONS,
+            Runtime.getRuntime().availableProcessors(),
+            pending.size / MIN_QUERIES_PER_CONNECTION
+        )
+        if (connectionCount < 2) {
+            return
+        }
+        val next = AtomicInteger()
+        val executor = Executors.newFixedThreadPool(connectionCount)
+        try {
+            executor.invokeAll(
+                List(connectionCount) {
+                    Callable {
+                        val connection = createSchemaConnection() ?: return@Callable
+                        try {
+                            while (true) {
+                                val sql = pending.getOrNull(next.getAndIncrement()) ?: break
+                                SqlParser.parse(sql)
+                                verifiedQueries[schemaKey to sql] = analyze(connection, sql)
+                            }
+                        } finally {
+                            connection.close()
+                        }
+                    }
+                }
+            )
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    /**
+     * Creates a connection with the schema of the main connection, or returns null if any of the
+     * schema statements fails on it.
+     */
+    private fun createSchemaConnection(): Connection? {
+        val connection = JDBC.createConnection(CONNECTION_URL, java.util.Properties())
+        val stmt = connection.createStatement()
+        val failed = try {
+            schemaStatements.forEach { stmt.executeUpdate(it) }
+            false
+        } catch (e: SQLException) {
+            true
+        } finally {
+            stmt.close()
+        }
+        if (failed) {
+            // A partial schema would give wrong results, the queries are verified on the main
+            // connection instead.
+            connection.close()
+            return null
+        }
+        return connection
+    }
+
+    private fun analyze(connection: Connection, sql: String): QueryResultInfo {
         return try {
             val stmt = connection.prepareStatement(stripLocalizeCollations(sql))
             QueryResultInfo(stmt.columnInfo())
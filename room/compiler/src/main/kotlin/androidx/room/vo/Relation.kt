@@ -37,14 +37,28 @@ class Relation(
     // the projection for the query
     val projection: List<String>
 ) {
+    companion object {
+        // Same as RelationUtil.KEY_TABLE_NAME in the runtime.
+        const val KEY_TABLE_NAME = "room_relation_keys"
+    }
+
     val pojoTypeName by lazy { pojoType.typeName }
 
     fun createLoadAllSql(): String {
         val resultFields = projection.toSet()
-        return createSelect(resultFields)
+        return createSelect(resultFields, "(:args)")
+    }
+
+    /**
+     * Creates the query loading the relations of the parents whose keys are in the temp table
+     * filled by RelationUtil, for when there are too many keys to bind them.
+     */
+    fun createLoadAllFromKeyTableSql(): String {
+        val resultFields = projection.toSet()
+        return createSelect(resultFields, "(SELECT `key` FROM temp.`$KEY_TABLE_NAME`)")
     }
 
-    private fun createSelect(resultFields: Set<String>) = buildString {
+    private fun createSelect(resultFields: Set<String>, keys: String) = buildString {
         if (junction != null) {
             val resultColumns = resultFields.map { "`${entity.tableName}`.`$it` AS `$it`" } +
                 "_junction.`${junction.parentField.columnName}`"
@@ -55,12 +69,12 @@ class Relation(
                     " (_junction.`${junction.entityField.columnName}`" +
                     " = `${entity.tableName}`.`${entityField.columnName}`)"
             )
-            append(" WHERE _junction.`${junction.parentField.columnName}` IN (:args)")
+            append(" WHERE _junction.`${junction.parentField.columnName}` IN $keys")
         } else {
             val resultColumns = resultFields.map { "`$it`" }.toSet() + "`${entityField.columnName}`"
             append("SELECT ${resultColumns.joinToString(",")}")
             append(" FROM `${entity.tableName}`")
-            append(" WHERE `${entityField.columnName}` IN (:args)")
+            append(" WHERE `${entityField.columnName}` IN $keys")
         }
     }
 }
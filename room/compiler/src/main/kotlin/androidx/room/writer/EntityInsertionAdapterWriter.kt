@@ -70,6 +70,13 @@ class EntityInsertionAdapterWriter private constructor(
         @Suppress("RemoveSingleExpressionStringTemplate")
         return TypeSpec.anonymousClassBuilder("$L", dbParam).apply {
             superclass(ParameterizedTypeName.get(RoomTypeNames.INSERTION_ADAPTER, pojo.typeName))
+            val rowValues = pojo.fields.joinToString(",", prefix = "(", postfix = ")") {
+                if (it.columnName == primitiveAutoGenerateColumn) {
+                    "nullif(?, 0)"
+                } else {
+                    "?"
+                }
+            }
             addMethod(
                 MethodSpec.methodBuilder("createQuery").apply {
                     addAnnotation(Override::class.java)
@@ -78,21 +85,20 @@ class EntityInsertionAdapterWriter private constructor(
                     val query = buildString {
                         append("INSERT OR $onConflict INTO `$tableName`")
                         append(" (${pojo.columnNames.joinToString(",") { "`$it`" }})")
-                        append(" VALUES (")
-                        append(
-                            pojo.fields.joinToString(",") {
-                                if (it.columnName == primitiveAutoGenerateColumn) {
-                                    "nullif(?, 0)"
-                                } else {
-                                    "?"
-                                }
-                            }
-                        )
-                        append(")")
+                        append(" VALUES ")
+                        append(rowValues)
                     }
                     addStatement("return $S", query)
                 }.build()
             )
+            addMethod(
+                MethodSpec.methodBuilder("createRowValuesQuery").apply {
+                    addAnnotation(Override::class.java)
+                    addModifiers(PUBLIC)
+                    returns(ClassName.get("java.lang", "String"))
+                    addStatement("return $S", rowValues)
+                }.build()
+            )
             addMethod(
                 MethodSpec.methodBuilder("bind").apply {
                     val bindScope = CodeGenScope(classWriter)
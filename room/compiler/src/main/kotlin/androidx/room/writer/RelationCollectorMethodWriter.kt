@@ -27,6 +27,7 @@ import androidx.room.ext.T
 import androidx.room.solver.CodeGenScope
 import androidx.room.solver.query.result.PojoRowAdapter
 import androidx.room.vo.RelationCollector
+import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
 import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.MethodSpec
@@ -70,6 +71,7 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
         val cursorVar = "_cursor"
         val itemKeyIndexVar = "_itemKeyIndex"
         val stmtVar = scope.getTmpVar("_stmt")
+        val useKeyTableVar = scope.getTmpVar("_useKeyTable")
         scope.builder().apply {
             val usingLongSparseArray =
                 collector.mapTypeName.rawType == CollectionTypeNames.LONG_SPARSE_ARRAY
@@ -105,10 +107,14 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                 addStatement("return")
             }
             endControlFlow()
+            addStatement(
+                "final $T $L = $T.shouldUseKeyTable($N.size())",
+                TypeName.BOOLEAN, useKeyTableVar, RoomTypeNames.RELATION_UTIL, param
+            )
             addStatement("// check if the size is too big, if so divide")
             beginControlFlow(
-                "if($N.size() > $T.MAX_BIND_PARAMETER_CNT)",
-                param, RoomTypeNames.ROOM_DB
+                "if(!$L && $N.size() > $T.MAX_BIND_PARAMETER_CNT)",
+                useKeyTableVar, param, RoomTypeNames.ROOM_DB
             ).apply {
                 // divide it into chunks
                 val tmpMapVar = scope.getTmpVar("_tmpInnerMap")
@@ -184,11 +190,53 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                 }.endControlFlow()
                 addStatement("return")
             }.endControlFlow()
-            collector.queryWriter.prepareReadAndBind(sqlQueryVar, stmtVar, scope)
+            addStatement("final $T $L", RoomTypeNames.ROOM_SQL_QUERY, stmtVar)
+            beginControlFlow("if ($L)", useKeyTableVar).apply {
+                // select the relations of the keys inserted into the key table, in a single query
+                if (usingLongSparseArray) {
+                    val keysVar = scope.getTmpVar("_keys")
+                    val keyIndexVar = scope.getTmpVar("_keyIndex")
+                    addStatement(
+                        "final $T $L = new $T[$N.size()]",
+                        ArrayTypeName.of(TypeName.LONG), keysVar, TypeName.LONG, param
+                    )
+                    beginControlFlow(
+                        "for (int $L = 0; $L < $L.length; $L++)",
+                        keyIndexVar, keyIndexVar, keysVar, keyIndexVar
+                    ).apply {
+                        addStatement(
+                            "$L[$L] = $N.keyAt($L)",
+                            keysVar, keyIndexVar, param, keyIndexVar
+                        )
+                    }
+                    endControlFlow()
+                    addStatement(
+                        "$T.beginKeyTable($N, $L)",
+                        RoomTypeNames.RELATION_UTIL, DaoWriter.dbField, keysVar
+                    )
+                } else {
+                    addStatement(
+                        "$T.beginKeyTable($N, $L)",
+                        RoomTypeNames.RELATION_UTIL, DaoWriter.dbField, KEY_SET_VARIABLE
+                    )
+                }
+                addStatement(
+                    "$L = $T.acquire($S, 0)",
+                    stmtVar, RoomTypeNames.ROOM_SQL_QUERY,
+                    relation.createLoadAllFromKeyTableSql()
+                )
+            }
+            nextControlFlow("else").apply {
+                val bindStmtVar = scope.getTmpVar("_bindStmt")
+                collector.queryWriter.prepareReadAndBind(sqlQueryVar, bindStmtVar, scope)
+                addStatement("$L = $L", stmtVar, bindStmtVar)
+            }
+            endControlFlow()
 
             val shouldCopyCursor = collector.rowAdapter.let {
                 it is PojoRowAdapter && it.relationCollectors.isNotEmpty()
             }
+            beginControlFlow("try")
             addStatement(
                 "final $T $L = $T.query($N, $L, $L, $L)",
                 AndroidTypeNames.CURSOR,
@@ -221,6 +269,7 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                 }
 
                 beginControlFlow("if ($L == -1)", itemKeyIndexVar).apply {
+                    addKeyTableSuccessful(useKeyTableVar)
                     addStatement("return")
                 }
                 endControlFlow()
@@ -261,6 +310,17 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                 addStatement("$L.close()", cursorVar)
             }
             endControlFlow()
+            addKeyTableSuccessful(useKeyTableVar)
+            nextControlFlow("finally").apply {
+                beginControlFlow("if ($L)", useKeyTableVar).apply {
+                    addStatement(
+                        "$T.endKeyTable($N)",
+                        RoomTypeNames.RELATION_UTIL, DaoWriter.dbField
+                    )
+                }
+                endControlFlow()
+            }
+            endControlFlow()
         }
         builder.apply {
             addModifiers(Modifier.PRIVATE)
@@ -269,4 +329,18 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
             addCode(scope.builder().build())
         }
     }
+
+    /**
+     * Marks the fetch through the key table successful, only on the paths where the relations
+     * were fetched without errors, so that the transaction is rolled back otherwise.
+     */
+    private fun CodeBlock.Builder.addKeyTableSuccessful(useKeyTableVar: String) {
+        beginControlFlow("if ($L)", useKeyTableVar).apply {
+            addStatement(
+                "$T.setKeyTableSuccessful($N)",
+                RoomTypeNames.RELATION_UTIL, DaoWriter.dbField
+            )
+        }
+        endControlFlow()
+    }
 }
@@ -54,8 +54,8 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfFullName = CursorUtil.getColumnIndexOrThrow(_cursor, "fullName");
-            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id");
+            final int _cursorIndexOfFullName = CursorUtil.getColumnIndexOrThrow(_cursor, "fullName", 0);
+            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id", 1);
             final List<ComplexDao.FullName> _result = new ArrayList<ComplexDao.FullName>(_cursor.getCount());
             while(_cursor.moveToNext()) {
                 final ComplexDao.FullName _item;
@@ -84,10 +84,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid");
-            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName");
-            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn");
+            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid", 0);
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName", 2);
+            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn", 3);
             final User _result;
             if(_cursor.moveToFirst()) {
                 _result = new User();
@@ -134,10 +134,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid");
-            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName");
-            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn");
+            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid", 0);
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName", 2);
+            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn", 3);
             final User _result;
             if(_cursor.moveToFirst()) {
                 _result = new User();
@@ -183,10 +183,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid");
-            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName");
-            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn");
+            final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid", 0);
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+            final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName", 2);
+            final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn", 3);
             final List<User> _result = new ArrayList<User>(_cursor.getCount());
             while(_cursor.moveToNext()) {
                 final User _item_1;
@@ -221,17 +221,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         int _argIndex = 1;
         _statement.bindLong(_argIndex, id);
         __db.assertNotSuspendingTransaction();
-        final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _result;
-            if(_cursor.moveToFirst()) {
-                _result = _cursor.getInt(0);
-            } else {
-                _result = 0;
-            }
+            final int _result = (int) DBUtil.queryForLong(__db, _statement);
             return _result;
         } finally {
-            _cursor.close();
             _statement.release();
         }
     }
@@ -314,15 +307,15 @@ public final class ComplexDao_Impl extends ComplexDao {
         final RoomSQLiteQuery _statement = RoomSQLiteQuery.acquire(_sql, 1);
         int _argIndex = 1;
         _statement.bindLong(_argIndex, id);
-        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, new Callable<User>() {
+        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, _statement, new Callable<User>() {
             @Override
             public User call() throws Exception {
                 final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
                 try {
-                    final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid");
-                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-                    final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName");
-                    final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn");
+                    final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid", 0);
+                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+                    final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName", 2);
+                    final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn", 3);
                     final User _result;
                     if(_cursor.moveToFirst()) {
                         _result = new User();
@@ -371,15 +364,15 @@ public final class ComplexDao_Impl extends ComplexDao {
             _statement.bindLong(_argIndex, _item);
             _argIndex ++;
         }
-        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, new Callable<List<User>>() {
+        return __db.getInvalidationTracker().createLiveData(new String[]{"user"}, false, _statement, new Callable<List<User>>() {
             @Override
             public List<User> call() throws Exception {
                 final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
                 try {
-                    final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid");
-                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-                    final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName");
-                    final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn");
+                    final int _cursorIndexOfUid = CursorUtil.getColumnIndexOrThrow(_cursor, "uid", 0);
+                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+                    final int _cursorIndexOfLastName = CursorUtil.getColumnIndexOrThrow(_cursor, "lastName", 2);
+                    final int _cursorIndexOfAge = CursorUtil.getColumnIndexOrThrow(_cursor, "ageColumn", 3);
                     final List<User> _result = new ArrayList<User>(_cursor.getCount());
                     while(_cursor.moveToNext()) {
                         final User _item_1;
@@ -476,10 +469,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id");
-            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-            final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial");
-            final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code");
+            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id", 0);
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+            final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial", 2);
+            final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code", 3);
             final List<Child1> _result = new ArrayList<Child1>(_cursor.getCount());
             while(_cursor.moveToNext()) {
                 final Child1 _item;
@@ -520,10 +513,10 @@ public final class ComplexDao_Impl extends ComplexDao {
         __db.assertNotSuspendingTransaction();
         final Cursor _cursor = DBUtil.query(__db, _statement, false, null);
         try {
-            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id");
-            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-            final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial");
-            final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code");
+            final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id", 0);
+            final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+            final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial", 2);
+            final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code", 3);
             final List<Child2> _result = new ArrayList<Child2>(_cursor.getCount());
             while(_cursor.moveToNext()) {
                 final Child2 _item;
@@ -567,10 +560,10 @@ public final class ComplexDao_Impl extends ComplexDao {
             public List<Child1> call() throws Exception {
                 final Cursor _cursor = DBUtil.query(__db, _statement, false, _cancellationSignal);
                 try {
-                    final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id");
-                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name");
-                    final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial");
-                    final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code");
+                    final int _cursorIndexOfId = CursorUtil.getColumnIndexOrThrow(_cursor, "id", 0);
+                    final int _cursorIndexOfName = CursorUtil.getColumnIndexOrThrow(_cursor, "name", 1);
+                    final int _cursorIndexOfSerial = CursorUtil.getColumnIndexOrThrow(_cursor, "serial", 2);
+                    final int _cursorIndexOfCode = CursorUtil.getColumnIndexOrThrow(_cursor, "code", 3);
                     final List<Child1> _result = new ArrayList<Child1>(_cursor.getCount());
                     while(_cursor.moveToNext()) {
                         final Child1 _item;
@@ -46,6 +46,11 @@ public final class WriterDao_Impl implements WriterDao {
                 return "INSERT OR ABORT INTO `User` (`uid`,`name`,`lastName`,`ageColumn`) VALUES (?,?,?,?)";
             }
 
+            @Override
+            public String createRowValuesQuery() {
+                return "(?,?,?,?)";
+            }
+
             @Override
             public void bind(SupportSQLiteStatement stmt, User value) {
                 stmt.bindLong(1, value.uid);
@@ -68,6 +73,11 @@ public final class WriterDao_Impl implements WriterDao {
                 return "INSERT OR REPLACE INTO `User` (`uid`,`name`,`lastName`,`ageColumn`) VALUES (?,?,?,?)";
             }
 
+            @Override
+            public String createRowValuesQuery() {
+                return "(?,?,?,?)";
+            }
+
             @Override
             public void bind(SupportSQLiteStatement stmt, User value) {
                 stmt.bindLong(1, value.uid);
@@ -90,6 +100,11 @@ public final class WriterDao_Impl implements WriterDao {
                 return "INSERT OR ABORT INTO `Book` (`bookId`,`uid`) VALUES (?,?)";
             }
 
+            @Override
+            public String createRowValuesQuery() {
+                return "(?,?)";
+            }
+
             @Override
             public void bind(SupportSQLiteStatement stmt, Book value) {
                 stmt.bindLong(1, value.bookId);
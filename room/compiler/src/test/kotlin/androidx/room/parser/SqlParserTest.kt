@@ -15,8 +15,10 @@
  */
 package androidx.room.parser
 
+import androidx.room.verifier.QueryResultInfo
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.CoreMatchers.not
+import org.hamcrest.CoreMatchers.nullValue
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -37,6 +39,15 @@ class SqlParserTest {
         assertErrors("", ParserErrors.NOT_ONE_QUERY)
     }
 
+    @Test
+    fun reparsedQueryDoesNotShareResultInfo() {
+        val first = SqlParser.parse("SELECT * FROM users WHERE id = :id")
+        first.resultInfo = QueryResultInfo(emptyList())
+        val second = SqlParser.parse("SELECT * FROM users WHERE id = :id")
+        assertThat(second, `is`(first))
+        assertThat(second.resultInfo, nullValue())
+    }
+
     @Test
     fun deleteQuery() {
         val parsed = SqlParser.parse("DELETE FROM users where id > 3")
@@ -43,6 +43,7 @@ import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.CoreMatchers.containsString
 import org.hamcrest.CoreMatchers.hasItem
 import org.hamcrest.CoreMatchers.notNullValue
+import org.hamcrest.CoreMatchers.sameInstance
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -292,6 +293,29 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
         }.failsToCompile().withErrorContaining("default value of column [name]")
     }
 
+    @Test
+    fun analyzeReusesResult() {
+        simpleRun { invocation ->
+            val verifier = createVerifier(invocation)
+            val info = verifier.analyze("select id from User")
+            assertThat(verifier.analyze("select id from User"), sameInstance(info))
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun prefetch() {
+        simpleRun { invocation ->
+            val verifier = createVerifier(invocation)
+            val queries = (0 until 100).map { "select id, name, $it from User" } +
+                "select * from NoSuchTable"
+            verifier.prefetch(queries)
+            queries.dropLast(1).forEach {
+                assertThat(verifier.analyze(it).columns.size, `is`(3))
+            }
+            assertThat(verifier.analyze(queries.last()).error, notNullValue())
+        }.compilesWithoutError()
+    }
+
     private fun validQueryTest(sql: String, cb: (QueryResultInfo) -> Unit) {
         simpleRun { invocation ->
             val verifier = createVerifier(invocation)
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import androidx.room.RoomDatabase;
 import androidx.room.integration.testapp.vo.Cluster;
 import androidx.room.integration.testapp.vo.EmbeddedUserAndAllPets;
 import androidx.room.integration.testapp.vo.Hivemind;
@@ -37,6 +38,7 @@ import androidx.room.integration.testapp.vo.UserAndPetAdoptionDates;
 import androidx.room.integration.testapp.vo.UserAndPetsAndHouses;
 import androidx.room.integration.testapp.vo.UserIdAndPetNames;
 import androidx.room.integration.testapp.vo.UserWithPetsAndToys;
+import androidx.room.util.RelationUtil;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
 
@@ -217,6 +219,21 @@ public class PojoWithRelationTest extends TestDatabaseTest {
 
     @Test
     public void largeRelation_parent() {
+        // Fetched with the key table as there are too many keys to bind
+        checkLargeRelationParent();
+    }
+
+    @Test
+    public void largeRelation_parent_withoutKeyTable() {
+        RelationUtil.setKeyTableMinSize(Integer.MAX_VALUE);
+        try {
+            checkLargeRelationParent();
+        } finally {
+            RelationUtil.setKeyTableMinSize(RoomDatabase.MAX_BIND_PARAMETER_CNT + 1);
+        }
+    }
+
+    private void checkLargeRelationParent() {
         final List<User> users = new ArrayList<>();
         final List<Pet> pets = new ArrayList<>();
         for (int i = 0; i < 2000; i++) {
@@ -262,6 +262,23 @@ public class SimpleEntityReadWriteTest {
         }
     }
 
+    @Test
+    public void insertManyUsers() {
+        // More users than fit in a single multi-row insert statement, and not a power of two
+        int[] ids = new int[1003];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        User[] users = TestUtil.createUsersArray(ids);
+        users[7].setName(null);
+        users[1002].setBirthday(null);
+        mUserDao.insertAll(users);
+        assertThat(mUserDao.count(), is(ids.length));
+        for (User user : users) {
+            assertThat(mUserDao.load(user.getId()), is(user));
+        }
+    }
+
     @Test
     public void delete() {
         User user = TestUtil.createUser(3);
@@ -19,6 +19,7 @@ package androidx.room
 import android.os.Build
 import android.os.CancellationSignal
 import androidx.annotation.RestrictTo
+import androidx.sqlite.db.SupportSQLiteQuery
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.asCoroutineDispatcher
@@ -126,6 +127,24 @@ public class CoroutinesRoom private constructor() {
                 }
             }
         }
+
+        /**
+         * Creates a Flow of the results of the given query that shares them with other
+         * observers of the same query if the query result cache of the database is enabled.
+         */
+        @JvmStatic
+        public fun <R> createFlow(
+            db: RoomDatabase,
+            inTransaction: Boolean,
+            tableNames: Array<String>,
+            query: SupportSQLiteQuery,
+            callable: Callable<R>
+        ): Flow<@JvmSuppressWildcards R> = createFlow(
+            db,
+            inTransaction,
+            tableNames,
+            db.invalidationTracker.createCachedComputeFunction(tableNames, query, callable)
+        )
     }
 }
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A size-bounded cache of the statements compiled for the queries of the generated DAOs, so that
+ * running the same query again does not compile its SQL again.
+ * <p>
+ * A statement is removed from the cache while it is used, so that it is never shared by two
+ * queries, and put back once the query released it. Statements are compiled by a given
+ * {@link SupportSQLiteDatabase}, so the cache is cleared when the database it is used with
+ * changes, e.g. after it was closed and opened again.
+ */
+class CompiledStatementCache {
+    private final int mMaxSize;
+
+    // Guarded by this, in access order so that the first entry is the least recently used.
+    private final LinkedHashMap<String, SupportSQLiteStatement> mStatements =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    // Guarded by this.
+    private SupportSQLiteDatabase mDatabase;
+
+    private int mHitCount;
+    private int mMissCount;
+
+    CompiledStatementCache(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Returns a statement for the given SQL, compiling it if it is not cached. The statement must
+     * be given back to {@link #release(SupportSQLiteDatabase, String, SupportSQLiteStatement)}
+     * once used.
+     *
+     * @param db  The database to compile the statement in.
+     * @param sql The SQL of the statement.
+     * @return A statement that is not used by any other query.
+     */
+    @NonNull
+    SupportSQLiteStatement acquire(@NonNull SupportSQLiteDatabase db, @NonNull String sql) {
+        List<SupportSQLiteStatement> stale = null;
+        SupportSQLiteStatement statement;
+        synchronized (this) {
+            if (mDatabase != db) {
+                stale = new ArrayList<>(mStatements.values());
+                mStatements.clear();
+                mDatabase = db;
+            }
+            statement = mStatements.remove(sql);
+            if (statement != null) {
+                mHitCount++;
+            } else {
+                mMissCount++;
+            }
+        }
+        closeAll(stale);
+        if (statement == null) {
+            statement = db.compileStatement(sql);
+        }
+        return statement;
+    }
+
+    /**
+     * Puts back a statement returned by {@link #acquire(SupportSQLiteDatabase, String)}, closing
+     * it if it cannot be cached.
+     *
+     * @param db        The database the statement was acquired with.
+     * @param sql       The SQL of the statement.
+     * @param statement The statement that is not used anymore.
+     */
+    void release(@NonNull SupportSQLiteDatabase db, @NonNull String sql,
+            @NonNull SupportSQLiteStatement statement) {
+        statement.clearBindings();
+        final List<SupportSQLiteStatement> evicted = new ArrayList<>();
+        synchronized (this) {
+            // The database may have been closed and opened again while the statement was used,
+            // in which case it belongs to a closed database. The same query may also have run
+            // concurrently, in which case there is nothing to add.
+            if (mDatabase == db && db.isOpen() && !mStatements.containsKey(sql)) {
+                mStatements.put(sql, statement);
+                final Iterator<Map.Entry<String, SupportSQLiteStatement>> iterator =
+                        mStatements.entrySet().iterator();
+                while (mStatements.size() > mMaxSize && iterator.hasNext()) {
+                    evicted.add(iterator.next().getValue());
+                    iterator.remove();
+                }
+            } else {
+                evicted.add(statement);
+            }
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Closes all the cached statements, called when the database is closed.
+     */
+    void clear() {
+        final List<SupportSQLiteStatement> statements;
+        synchronized (this) {
+            statements = new ArrayList<>(mStatements.values());
+            mStatements.clear();
+            mDatabase = null;
+        }
+        closeAll(statements);
+    }
+
+    synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return mStatements.size();
+    }
+
+    private static void closeAll(List<SupportSQLiteStatement> statements) {
+        if (statements == null) {
+            return;
+        }
+        for (SupportSQLiteStatement statement : statements) {
+            try {
+                statement.close();
+            } catch (IOException ignored) {
+                // Closing a statement only releases its bind arguments.
+            }
+        }
+    }
+}
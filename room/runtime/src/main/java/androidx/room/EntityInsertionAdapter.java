@@ -16,11 +16,17 @@
 
 package androidx.room;
 
+import android.os.Build;
+
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,6 +40,21 @@ import java.util.List;
 @SuppressWarnings({"WeakerAccess", "unused"})
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
+    /**
+     * The maximum number of rows inserted by a single statement. SQLite versions before 3.8.8
+     * treat multi-row VALUES as a compound SELECT, which is limited to 500 terms.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private final RoomDatabase mDatabase;
+
+    /**
+     * The statements inserting 2^i rows at index i, created as needed. Index 0 is unused as this
+     * adapter is the statement inserting a single row.
+     */
+    @Nullable
+    private volatile SharedSQLiteStatement[] mMultiRowStatements;
+
     /**
      * Creates an InsertionAdapter that can insert the entity type T into the given database.
      *
@@ -41,6 +62,19 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      */
     public EntityInsertionAdapter(RoomDatabase database) {
         super(database);
+        mDatabase = database;
+    }
+
+    /**
+     * Create the values of a single row of the query returned by {@link #createQuery()}, e.g.
+     * {@code (?,?)}, which must end with it. Entities are inserted by multi-row statements when
+     * this returns a non-null value.
+     *
+     * @return The values of a row, or null if entities must be inserted one by one.
+     */
+    @Nullable
+    protected String createRowValuesQuery() {
+        return null;
     }
 
     /**
@@ -73,10 +107,48 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      * @param entities Entities to insert
      */
     public final void insert(T[] entities) {
+        insert(Arrays.asList(entities));
+    }
+
+    /**
+     * Inserts the given entities into the database.
+     *
+     * @param entities Entities to insert
+     */
+    public final void insert(Iterable<? extends T> entities) {
+        final String rowValues = Build.VERSION.SDK_INT >= 16 ? createRowValuesQuery() : null;
+        if (rowValues == null || !(entities instanceof Collection)) {
+            insertEach(entities.iterator(), Integer.MAX_VALUE);
+            return;
+        }
+        final Collection<? extends T> collection = (Collection<? extends T>) entities;
+        final int argsPerRow = countBindArgs(rowValues);
+        final int maxRows = Math.min(MAX_ROWS_PER_STATEMENT,
+                RoomDatabase.MAX_BIND_PARAMETER_CNT / Math.max(argsPerRow, 1));
+        // Only use statements inserting a power of two number of rows so that few of them are
+        // compiled, and insert the remaining rows with the largest ones that fit.
+        final int maxRowsLog2 = 31 - Integer.numberOfLeadingZeros(Math.max(maxRows, 1));
+        final Iterator<? extends T> iterator = collection.iterator();
+        int remaining = collection.size();
+        for (int log2 = maxRowsLog2; log2 > 0 && remaining > 1; log2--) {
+            final int rows = 1 << log2;
+            if (remaining >= rows) {
+                final int statementCount = remaining >> log2;
+                insertMultiRow(iterator, log2, statementCount, argsPerRow, rowValues);
+                remaining -= statementCount << log2;
+            }
+        }
+        insertEach(iterator, remaining);
+    }
+
+    private void insertEach(Iterator<? extends T> entities, int count) {
+        if (count <= 0 || !entities.hasNext()) {
+            return;
+        }
         final SupportSQLiteStatement stmt = acquire();
         try {
-            for (T entity : entities) {
-                bind(stmt, entity);
+            for (int i = 0; i < count && entities.hasNext(); i++) {
+                bind(stmt, entities.next());
                 stmt.executeInsert();
             }
         } finally {
@@ -85,22 +157,67 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
     }
 
     /**
-     * Inserts the given entities into the database.
-     *
-     * @param entities Entities to insert
+     * Inserts {@code statementCount * 2^rowsLog2} entities, {@code 2^rowsLog2} at a time.
      */
-    public final void insert(Iterable<? extends T> entities) {
-        final SupportSQLiteStatement stmt = acquire();
+    private void insertMultiRow(Iterator<? extends T> entities, int rowsLog2, int statementCount,
+            int argsPerRow, String rowValues) {
+        final SharedSQLiteStatement shared = getMultiRowStatement(rowsLog2, rowValues);
+        final SupportSQLiteStatement stmt = shared.acquire();
         try {
-            for (T entity : entities) {
-                bind(stmt, entity);
+            final OffsetBindingStatement offsetStmt = new OffsetBindingStatement(stmt);
+            final int rows = 1 << rowsLog2;
+            for (int i = 0; i < statementCount; i++) {
+                for (int row = 0; row < rows; row++) {
+                    offsetStmt.mOffset = row * argsPerRow;
+                    bind(offsetStmt, entities.next());
+                }
                 stmt.executeInsert();
             }
         } finally {
-            release(stmt);
+            shared.release(stmt);
         }
     }
 
+    private SharedSQLiteStatement getMultiRowStatement(final int rowsLog2,
+            final String rowValues) {
+        SharedSQLiteStatement[] statements = mMultiRowStatements;
+        if (statements == null) {
+            // Large enough for the largest power of two not above MAX_ROWS_PER_STATEMENT
+            statements = new SharedSQLiteStatement[
+                    32 - Integer.numberOfLeadingZeros(MAX_ROWS_PER_STATEMENT)];
+            mMultiRowStatements = statements;
+        }
+        SharedSQLiteStatement statement = statements[rowsLog2];
+        if (statement == null) {
+            statement = new SharedSQLiteStatement(mDatabase) {
+                @Override
+                protected String createQuery() {
+                    final String query = EntityInsertionAdapter.this.createQuery();
+                    final int rows = 1 << rowsLog2;
+                    final StringBuilder builder = new StringBuilder(
+                            query.length() + (rowValues.length() + 1) * (rows - 1));
+                    builder.append(query);
+                    for (int i = 1; i < rows; i++) {
+                        builder.append(',').append(rowValues);
+                    }
+                    return builder.toString();
+                }
+            };
+            statements[rowsLog2] = statement;
+        }
+        return statement;
+    }
+
+    private static int countBindArgs(String rowValues) {
+        int count = 0;
+        for (int i = 0; i < rowValues.length(); i++) {
+            if (rowValues.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Inserts the given entity into the database and returns the row id.
      *
@@ -248,4 +365,77 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
             release(stmt);
         }
     }
+
+    /**
+     * Binds the arguments of a row of a multi-row statement, so that {@link #bind} can bind each
+     * row from index 1. Everything but binding is passed through to the multi-row statement.
+     */
+    private static class OffsetBindingStatement implements SupportSQLiteStatement {
+        private final SupportSQLiteStatement mDelegate;
+        int mOffset;
+
+        OffsetBindingStatement(SupportSQLiteStatement delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            mDelegate.bindNull(index + mOffset);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            mDelegate.bindLong(index + mOffset, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            mDelegate.bindDouble(index + mOffset, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            mDelegate.bindString(index + mOffset, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            mDelegate.bindBlob(index + mOffset, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            mDelegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mDelegate.close();
+        }
+
+        @Override
+        public void execute() {
+            mDelegate.execute();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            return mDelegate.executeUpdateDelete();
+        }
+
+        @Override
+        public long executeInsert() {
+            return mDelegate.executeInsert();
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            return mDelegate.simpleQueryForLong();
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            return mDelegate.simpleQueryForString();
+        }
+    }
 }
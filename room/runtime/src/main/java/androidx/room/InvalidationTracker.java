@@ -32,6 +32,7 @@ import androidx.arch.core.internal.SafeIterableMap;
 import androidx.lifecycle.LiveData;
 import androidx.sqlite.db.SimpleSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.lang.ref.WeakReference;
@@ -114,6 +115,9 @@ public class InvalidationTracker {
 
     private MultiInstanceInvalidationClient mMultiInstanceInvalidationClient;
 
+    @Nullable
+    private volatile QueryResultCache mQueryResultCache;
+
     /**
      * Used by the generated code.
      *
@@ -208,6 +212,22 @@ public class InvalidationTracker {
             mInitialized = false;
             mObservedTableTracker.resetTriggerState();
         }
+        final QueryResultCache queryResultCache = mQueryResultCache;
+        if (queryResultCache != null) {
+            queryResultCache.onAllTablesInvalidated();
+        }
+    }
+
+    /**
+     * Enables caching the results of observable queries, see
+     * {@link RoomDatabase.Builder#setQueryResultCacheSize(int)}.
+     * <p>
+     * This must be called before the database is used.
+     *
+     * @param maxSize The maximum number of cached results.
+     */
+    void enableQueryResultCache(int maxSize) {
+        mQueryResultCache = new QueryResultCache(maxSize, mTableNames.length);
     }
 
     void startMultiInstanceInvalidation(Context context, String name) {
@@ -448,6 +468,11 @@ public class InvalidationTracker {
                 }
             }
             if (invalidatedTableIds != null && !invalidatedTableIds.isEmpty()) {
+                // Drop the cached results before observers run their queries again.
+                final QueryResultCache queryResultCache = mQueryResultCache;
+                if (queryResultCache != null) {
+                    queryResultCache.onTablesInvalidated(invalidatedTableIds);
+                }
                 synchronized (mObserverMap) {
                     for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
                         entry.getValue().notifyByTableInvalidStatus(invalidatedTableIds);
@@ -525,6 +550,17 @@ public class InvalidationTracker {
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
     public void notifyObserversByTableNames(String... tables) {
+        final QueryResultCache queryResultCache = mQueryResultCache;
+        if (queryResultCache != null) {
+            final Set<Integer> tableIds = new HashSet<>();
+            for (String table : tables) {
+                final Integer tableId = mTableIdLookup.get(table.toLowerCase(Locale.US));
+                if (tableId != null) {
+                    tableIds.add(tableId);
+                }
+            }
+            queryResultCache.onTablesInvalidated(tableIds);
+        }
         synchronized (mObserverMap) {
             for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
                 if (!entry.getKey().isRemote()) {
@@ -562,6 +598,13 @@ public class InvalidationTracker {
                                     break;
                                 case ObservedTableTracker.REMOVE:
                                     stopTrackingTable(database, tableId);
+                                    // Changes of the table are not tracked anymore so its
+                                    // cached results can't be invalidated.
+                                    final QueryResultCache queryResultCache = mQueryResultCache;
+                                    if (queryResultCache != null) {
+                                        queryResultCache.onTablesInvalidated(
+                                                Collections.singleton(tableId));
+                                    }
                                     break;
                             }
                         }
@@ -639,6 +682,64 @@ public class InvalidationTracker {
                 validateAndResolveTableNames(tableNames), inTransaction, computeFunction);
     }
 
+    /**
+     * Creates a LiveData that computes the given function once and for every other invalidation
+     * of the database, sharing the result with other observers of the same query if the query
+     * result cache is enabled.
+     * <p>
+     * Holds a strong reference to the created LiveData as long as it is active.
+     *
+     * @param tableNames      The list of tables to observe
+     * @param inTransaction   True if the computeFunction will be done in a transaction, false
+     *                        otherwise.
+     * @param query           The query run by the computeFunction, with its arguments bound.
+     * @param computeFunction The function that calculates the value
+     * @param <T>             The return type
+     * @return A new LiveData that computes the given function when the given list of tables
+     * invalidates.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public <T> LiveData<T> createLiveData(String[] tableNames, boolean inTransaction,
+            SupportSQLiteQuery query, Callable<T> computeFunction) {
+        final String[] resolvedTableNames = validateAndResolveTableNames(tableNames);
+        return mInvalidationLiveDataContainer.create(resolvedTableNames, inTransaction,
+                createCachedComputeFunction(resolvedTableNames, query, computeFunction));
+    }
+
+    /**
+     * Returns a function that computes the result of the given query through the query result
+     * cache, or the given function if the cache is not enabled.
+     *
+     * @param tableNames      The list of tables read by the query
+     * @param query           The query run by the computeFunction, with its arguments bound.
+     * @param computeFunction The function that calculates the value
+     * @param <T>             The return type
+     * @return The function to compute the result of the query with.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    @NonNull
+    public <T> Callable<T> createCachedComputeFunction(@NonNull String[] tableNames,
+            @NonNull SupportSQLiteQuery query, @NonNull Callable<T> computeFunction) {
+        final QueryResultCache queryResultCache = mQueryResultCache;
+        if (queryResultCache == null) {
+            return computeFunction;
+        }
+        final String[] resolvedTableNames = validateAndResolveTableNames(tableNames);
+        final int[] tableIds = new int[resolvedTableNames.length];
+        for (int i = 0; i < resolvedTableNames.length; i++) {
+            tableIds[i] = mTableIdLookup.get(resolvedTableNames[i].toLowerCase(Locale.US));
+        }
+        return queryResultCache.wrap(tableIds, query, computeFunction);
+    }
+
+    @VisibleForTesting
+    @Nullable
+    QueryResultCache getQueryResultCache() {
+        return mQueryResultCache;
+    }
+
     /**
      * Wraps an observer and keeps the table information.
      * <p>
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.sqlite.db.SupportSQLiteProgram;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A size-bounded cache of the results of observable queries, shared by the LiveData and Flow
+ * observers of the same query.
+ * <p>
+ * Results are keyed by the SQL, the bound arguments and the class of the function computing the
+ * result, and are tagged with the tables the query reads. Each table has a version that the
+ * {@link InvalidationTracker} increments when it invalidates the table, and a result is only
+ * reused while the versions of its tables are the same as when it started to be computed. A
+ * result computed while one of its tables is invalidated is never cached.
+ * <p>
+ * Observers asking for a result that is being computed wait for it rather than running the same
+ * query again.
+ */
+class QueryResultCache {
+    private final int mMaxSize;
+
+    // Guarded by this.
+    private final long[] mTableVersions;
+
+    // Guarded by this, in access order so that the first entry is the least recently used.
+    private final LinkedHashMap<Key, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int mHitCount;
+    private int mMissCount;
+
+    QueryResultCache(int maxSize, int tableCount) {
+        mMaxSize = maxSize;
+        mTableVersions = new long[tableCount];
+    }
+
+    /**
+     * Creates a function returning the cached result of the given one for the given query.
+     *
+     * @param tableIds        The ids of the tables read by the query.
+     * @param query           The query run by {@code computeFunction}. Its arguments must be bound.
+     * @param computeFunction The function that calculates the result.
+     * @param <T>             The type of the result.
+     * @return A function that computes the result through this cache.
+     */
+    @NonNull
+    <T> Callable<T> wrap(@NonNull final int[] tableIds, @NonNull SupportSQLiteQuery query,
+            @NonNull final Callable<T> computeFunction) {
+        final Key key = new Key(query, computeFunction.getClass());
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return get(key, tableIds, computeFunction);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    @VisibleForTesting
+    <T> T get(Key key, int[] tableIds, Callable<T> computeFunction) throws Exception {
+        final Entry entry;
+        final boolean computing;
+        synchronized (this) {
+            final long version = getVersion(tableIds);
+            final Entry cached = mEntries.get(key);
+            if (cached != null && cached.mVersion == version) {
+                entry = cached;
+                computing = false;
+                mHitCount++;
+            } else {
+                entry = new Entry(tableIds, version, computeFunction);
+                computing = true;
+                mMissCount++;
+                mEntries.put(key, entry);
+                trimToSize();
+            }
+        }
+        if (computing) {
+            entry.mTask.run();
+            synchronized (this) {
+                if (getVersion(tableIds) != entry.mVersion) {
+                    // A table was invalidated while the query ran, the result may be stale.
+                    removeEntry(key, entry);
+                }
+            }
+        }
+        try {
+            return (T) entry.mTask.get();
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                removeEntry(key, entry);
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Called by the {@link InvalidationTracker} when the given tables are invalidated, before its
+     * observers are notified.
+     */
+    synchronized void onTablesInvalidated(@NonNull Set<Integer> tableIds) {
+        for (Integer tableId : tableIds) {
+            mTableVersions[tableId]++;
+        }
+        final Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            for (int tableId : entry.mTableIds) {
+                if (tableIds.contains(tableId)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by the {@link InvalidationTracker} when it may have missed changes of any table, e.g.
+     * when the database is closed.
+     */
+    synchronized void onAllTablesInvalidated() {
+        for (int i = 0; i < mTableVersions.length; i++) {
+            mTableVersions[i]++;
+        }
+        mEntries.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return mEntries.size();
+    }
+
+    @VisibleForTesting
+    synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    @VisibleForTesting
+    synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    private long getVersion(int[] tableIds) {
+        // Versions only increase, so the sum changes whenever any of them does.
+        long version = 0;
+        for (int tableId : tableIds) {
+            version += mTableVersions[tableId];
+        }
+        return version;
+    }
+
+    private void removeEntry(Key key, Entry entry) {
+        if (mEntries.get(key) == entry) {
+            mEntries.remove(key);
+        }
+    }
+
+    private void trimToSize() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = mEntries.entrySet().iterator();
+        while (mEntries.size() > mMaxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+        final int[] mTableIds;
+        final long mVersion;
+        final FutureTask<Object> mTask;
+
+        @SuppressWarnings("unchecked")
+        Entry(int[] tableIds, long version, Callable<?> computeFunction) {
+            mTableIds = tableIds;
+            mVersion = version;
+            mTask = new FutureTask<>((Callable<Object>) computeFunction);
+        }
+    }
+
+    /**
+     * The key of a cached result, copying the arguments bound to the query as queries are reused
+     * once released.
+     */
+    @VisibleForTesting
+    static final class Key {
+        private final String mSql;
+        private final Object[] mArgs;
+        private final Class<?> mComputeFunctionClass;
+        private final int mHashCode;
+
+        Key(SupportSQLiteQuery query, Class<?> computeFunctionClass) {
+            mSql = query.getSql();
+            final ArgumentCapture capture = new ArgumentCapture(query.getArgCount());
+            query.bindTo(capture);
+            mArgs = capture.mArgs;
+            mComputeFunctionClass = computeFunctionClass;
+            mHashCode = 31 * (31 * mSql.hashCode() + Arrays.deepHashCode(mArgs))
+                    + computeFunctionClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return mHashCode == key.mHashCode
+                    && mComputeFunctionClass == key.mComputeFunctionClass
+                    && mSql.equals(key.mSql)
+                    && Arrays.deepEquals(mArgs, key.mArgs);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    private static class ArgumentCapture implements SupportSQLiteProgram {
+        Object[] mArgs;
+
+        ArgumentCapture(int argCount) {
+            mArgs = new Object[argCount];
+        }
+
+        private void set(int index, Object value) {
+            // Arguments are bound from index 1, and there may be more than reported
+            if (index > mArgs.length) {
+                mArgs = Arrays.copyOf(mArgs, index);
+            }
+            mArgs[index - 1] = value;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            set(index, null);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            set(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            set(index, value.clone());
+        }
+
+        @Override
+        public void clearBindings() {
+            Arrays.fill(mArgs, null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -43,6 +43,7 @@ import androidx.sqlite.db.SupportSQLiteStatement;
 import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -104,6 +105,9 @@ public abstract class RoomDatabase {
     @Nullable
     private AutoCloser mAutoCloser;
 
+    @Nullable
+    private CompiledStatementCache mStatementCache;
+
     /**
      * {@link InvalidationTracker} uses this lock to prevent the database from closing while it is
      * querying database updates.
@@ -362,6 +366,9 @@ public abstract class RoomDatabase {
             closeLock.lock();
             try {
                 mInvalidationTracker.stopMultiInstanceInvalidation();
+                if (mStatementCache != null) {
+                    mStatementCache.clear();
+                }
                 mOpenHelper.close();
             } finally {
                 closeLock.unlock();
@@ -459,6 +466,77 @@ public abstract class RoomDatabase {
         return mOpenHelper.getWritableDatabase().compileStatement(sql);
     }
 
+    /**
+     * Returns a statement for the given SQL, reusing a statement compiled by a previous call when
+     * the statement cache is enabled. The statement must be given back to
+     * {@link #releaseStatement(SupportSQLiteDatabase, String, SupportSQLiteStatement)} once used,
+     * with the same database.
+     *
+     * @param db  The database of {@link #getOpenHelper()} to compile the query in.
+     * @param sql The query to compile.
+     * @return The compiled query, not used by any other thread.
+     *
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public SupportSQLiteStatement acquireStatement(@NonNull SupportSQLiteDatabase db,
+            @NonNull String sql) {
+        if (mStatementCache == null) {
+            return db.compileStatement(sql);
+        }
+        return mStatementCache.acquire(db, sql);
+    }
+
+    /**
+     * Gives back a statement returned by
+     * {@link #acquireStatement(SupportSQLiteDatabase, String)}, so that it can be reused by the
+     * next query with the same SQL. The statement is closed instead if the database was closed
+     * since it was acquired.
+     *
+     * @param db        The database the statement was acquired with.
+     * @param sql       The query of the statement.
+     * @param statement The statement that is not used anymore.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public void releaseStatement(@NonNull SupportSQLiteDatabase db, @NonNull String sql,
+            @NonNull SupportSQLiteStatement statement) {
+        if (mStatementCache == null) {
+            try {
+                statement.close();
+            } catch (IOException ignored) {
+                // Closing a statement only releases its bind arguments.
+            }
+        } else {
+            mStatementCache.release(db, sql, statement);
+        }
+    }
+
+    /**
+     * Returns the number of times a query reused a statement of the statement cache.
+     *
+     * @return The number of cache hits, or 0 if the cache is disabled.
+     * @see Builder#setStatementCacheSize(int)
+     */
+    @ExperimentalRoomApi
+    public int getStatementCacheHitCount() {
+        return mStatementCache == null ? 0 : mStatementCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of times a query compiled a statement that was not in the statement
+     * cache.
+     *
+     * @return The number of cache misses, or 0 if the cache is disabled.
+     * @see Builder#setStatementCacheSize(int)
+     */
+    @ExperimentalRoomApi
+    public int getStatementCacheMissCount() {
+        return mStatementCache == null ? 0 : mStatementCache.getMissCount();
+    }
+
     /**
      * Wrapper for {@link SupportSQLiteDatabase#beginTransaction()}.
      *
@@ -705,6 +783,10 @@ public abstract class RoomDatabase {
         private long mAutoCloseTimeout = -1L;
         private TimeUnit mAutoCloseTimeUnit;
 
+        private int mQueryResultCacheSize;
+
+        private int mStatementCacheSize;
+
         /**
          * Migrations, mapped by from-to pairs.
          */
@@ -1245,6 +1327,60 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Enables sharing the results of observable queries, i.e. queries returning
+         * {@link androidx.lifecycle.LiveData} or Kotlin {@code Flow}, between their observers.
+         * <p>
+         * Results are cached by the SQL of the query, its arguments and the DAO method, up to
+         * {@code maxSize} results, and are dropped as soon as the {@link InvalidationTracker}
+         * finds that one of the tables they were read from changed. Observers of the same query
+         * get the same result object, or wait for the query that is already running for another
+         * observer, instead of running the query again. The results must not be modified by
+         * their observers.
+         * <p>
+         * This is only worth it when many observers of the same queries are active at once.
+         *
+         * @param maxSize The maximum number of cached results, or 0 to disable the cache.
+         * @return This {@link Builder} instance
+         */
+        @NonNull
+        @SuppressWarnings("MissingGetterMatchingBuilder")
+        @ExperimentalRoomApi // When experimental is removed, add this parameter to
+        // DatabaseConfiguration
+        public Builder<T> setQueryResultCacheSize(@IntRange(from = 0) int maxSize) {
+            if (maxSize < 0) {
+                throw new IllegalArgumentException("maxSize must be >= 0");
+            }
+            mQueryResultCacheSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of statements compiled for the queries of the DAOs that are
+         * kept to be reused by the next run of the same queries.
+         * <p>
+         * By default, each run of a query compiles its SQL into a new statement. When the
+         * statement cache is enabled, the queries of the DAOs that return a single integer or
+         * string value reuse the statement compiled by a previous run of the same query, as long
+         * as the database stays open. The number of statements reused and compiled is returned
+         * by {@link RoomDatabase#getStatementCacheHitCount()} and
+         * {@link RoomDatabase#getStatementCacheMissCount()}.
+         *
+         * @param maxSize The maximum number of cached statements, or 0 to disable the cache.
+         * @return This {@link Builder} instance
+         */
+        @NonNull
+        @SuppressWarnings("MissingGetterMatchingBuilder")
+        @ExperimentalRoomApi // When experimental is removed, add this parameter to
+        // DatabaseConfiguration
+        public Builder<T> setStatementCacheSize(@IntRange(from = 0) int maxSize) {
+            if (maxSize < 0) {
+                throw new IllegalArgumentException("maxSize must be >= 0");
+            }
+            mStatementCacheSize = maxSize;
+            return this;
+        }
+
         /**
          * Creates the databases and initializes it.
          * <p>
@@ -1357,6 +1493,12 @@ public abstract class RoomDatabase {
                             mTypeConverters);
             T db = Room.getGeneratedImplementation(mDatabaseClass, DB_IMPL_SUFFIX);
             db.init(configuration);
+            if (mQueryResultCacheSize > 0) {
+                db.getInvalidationTracker().enableQueryResultCache(mQueryResultCacheSize);
+            }
+            if (mStatementCacheSize > 0) {
+                db.mStatementCache = new CompiledStatementCache(mStatementCacheSize);
+            }
             return db;
         }
     }
@@ -124,6 +124,29 @@ public class CursorUtil {
                 + "' does not exist. Available columns: " + availableColumns);
     }
 
+    /**
+     * Returns the index of the column with the given name, checking first if it is at the index
+     * the query was verified to return it at compile time, which avoids looking up the name in
+     * the columns of the cursor.
+     * <p>
+     * If the column is not found at that index, e.g. because the columns of the table are not in
+     * the same order in the database, it falls back to {@link #getColumnIndexOrThrow(Cursor,
+     * String)}.
+     *
+     * @param c             The cursor.
+     * @param name          The name of the target column.
+     * @param expectedIndex The index of the column in the result of the query at compile time.
+     * @return The index of the column.
+     * @throws IllegalArgumentException if the column does not exist.
+     */
+    public static int getColumnIndexOrThrow(@NonNull Cursor c, @NonNull String name,
+            int expectedIndex) {
+        if (expectedIndex < c.getColumnCount() && name.equals(c.getColumnName(expectedIndex))) {
+            return expectedIndex;
+        }
+        return getColumnIndexOrThrow(c, name);
+    }
+
     /**
      * Finds a column by name by appending `.` in front of it and checking by suffix match.
      * Also checks for the version wrapped with `` (backticks).
@@ -18,6 +18,7 @@ package androidx.room.util;
 
 import android.database.AbstractWindowedCursor;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDoneException;
 import android.os.Build;
 import android.os.CancellationSignal;
 
@@ -27,6 +28,7 @@ import androidx.annotation.RestrictTo;
 import androidx.room.RoomDatabase;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -98,6 +100,69 @@ public class DBUtil {
         return cursor;
     }
 
+    /**
+     * Performs the SQLiteQuery on the given database and returns the first column of its first
+     * row as a long, without creating a cursor.
+     * <p>
+     * The query is run by a statement of
+     * {@link RoomDatabase#acquireStatement(SupportSQLiteDatabase, String)}, so it is not compiled
+     * again if the statement cache of the database is enabled.
+     *
+     * @param db          The database to perform the query on.
+     * @param sqLiteQuery The query to perform.
+     * @return The value of the first column of the first row, or 0 if there are no rows.
+     */
+    public static long queryForLong(@NonNull RoomDatabase db,
+            @NonNull SupportSQLiteQuery sqLiteQuery) {
+        db.assertNotMainThread();
+        db.assertNotSuspendingTransaction();
+        final String sql = sqLiteQuery.getSql();
+        // The statement is given back with the database that compiled it, which may be closed and
+        // opened again while the query runs.
+        final SupportSQLiteDatabase database = db.getOpenHelper().getWritableDatabase();
+        final SupportSQLiteStatement stmt = db.acquireStatement(database, sql);
+        try {
+            sqLiteQuery.bindTo(stmt);
+            return stmt.simpleQueryForLong();
+        } catch (SQLiteDoneException noRows) {
+            return 0;
+        } finally {
+            db.releaseStatement(database, sql, stmt);
+        }
+    }
+
+    /**
+     * Performs the SQLiteQuery on the given database and returns the first column of its first
+     * row as a string, without creating a cursor.
+     * <p>
+     * The query is run by a statement of
+     * {@link RoomDatabase#acquireStatement(SupportSQLiteDatabase, String)}, so it is not compiled
+     * again if the statement cache of the database is enabled.
+     *
+     * @param db          The database to perform the query on.
+     * @param sqLiteQuery The query to perform.
+     * @return The value of the first column of the first row, or null if there are no rows.
+     */
+    @Nullable
+    public static String queryForString(@NonNull RoomDatabase db,
+            @NonNull SupportSQLiteQuery sqLiteQuery) {
+        db.assertNotMainThread();
+        db.assertNotSuspendingTransaction();
+        final String sql = sqLiteQuery.getSql();
+        // The statement is given back with the database that compiled it, which may be closed and
+        // opened again while the query runs.
+        final SupportSQLiteDatabase database = db.getOpenHelper().getWritableDatabase();
+        final SupportSQLiteStatement stmt = db.acquireStatement(database, sql);
+        try {
+            sqLiteQuery.bindTo(stmt);
+            return stmt.simpleQueryForString();
+        } catch (SQLiteDoneException noRows) {
+            return null;
+        } finally {
+            db.releaseStatement(database, sql, stmt);
+        }
+    }
+
     /**
      * Drops all FTS content sync triggers created by Room.
      * <p>
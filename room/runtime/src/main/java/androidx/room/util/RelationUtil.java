@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * @hide
+ *
+ * Relation utilities for Room.
+ * <p>
+ * The generated code fetching the entities of a {@code @Relation} binds the keys of the parents
+ * to an {@code IN (?,?,...)} clause, which needs one query per
+ * {@link RoomDatabase#MAX_BIND_PARAMETER_CNT} keys. When there are more keys than that, they are
+ * inserted into the {@link #KEY_TABLE_NAME} temp table instead, and the entities are fetched by a
+ * single query selecting the keys from it.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+@SuppressWarnings("deprecation") // Uses RoomDatabase transactions like the generated code
+public class RelationUtil {
+
+    /**
+     * The name of the temp table holding the keys of the parents, with a single {@code key}
+     * column.
+     */
+    public static final String KEY_TABLE_NAME = "room_relation_keys";
+
+    private static final String CREATE_KEY_TABLE_SQL = "CREATE TEMP TABLE IF NOT EXISTS "
+            + KEY_TABLE_NAME + "(`key`)";
+
+    private static final String INSERT_KEY_SQL = "INSERT INTO temp." + KEY_TABLE_NAME
+            + " VALUES (?)";
+
+    private static final String CLEAR_KEY_TABLE_SQL = "DELETE FROM temp." + KEY_TABLE_NAME;
+
+    private static volatile int sKeyTableMinSize = RoomDatabase.MAX_BIND_PARAMETER_CNT + 1;
+
+    /**
+     * Returns whether the relations of the given number of parents should be fetched with the key
+     * table.
+     *
+     * @param keyCount The number of keys of the parents.
+     * @return True if the keys should be inserted into the key table.
+     */
+    public static boolean shouldUseKeyTable(int keyCount) {
+        return keyCount >= sKeyTableMinSize;
+    }
+
+    /**
+     * Sets the minimum number of keys fetched with the key table, so that both strategies can be
+     * tested and benchmarked.
+     *
+     * @param minSize The minimum number of keys, greater than 0.
+     */
+    @VisibleForTesting
+    public static void setKeyTableMinSize(int minSize) {
+        if (minSize <= 0) {
+            throw new IllegalArgumentException("minSize must be > 0");
+        }
+        sKeyTableMinSize = minSize;
+    }
+
+    /**
+     * Begins a transaction and inserts the given keys into the key table. Once the relations are
+     * fetched, {@link #setKeyTableSuccessful(RoomDatabase)} must be called, and the transaction
+     * must be ended by {@link #endKeyTable(RoomDatabase)} in any case.
+     *
+     * @param db   The database.
+     * @param keys The keys of the parents.
+     */
+    public static void beginKeyTable(@NonNull RoomDatabase db, @NonNull Collection<?> keys) {
+        final SupportSQLiteStatement stmt = beginKeyTable(db);
+        try {
+            for (Object key : keys) {
+                if (key == null) {
+                    stmt.bindNull(1);
+                } else if (key instanceof Long) {
+                    stmt.bindLong(1, (Long) key);
+                } else if (key instanceof Double) {
+                    stmt.bindDouble(1, (Double) key);
+                } else if (key instanceof String) {
+                    stmt.bindString(1, (String) key);
+                } else if (key instanceof ByteBuffer) {
+                    stmt.bindBlob(1, ((ByteBuffer) key).array());
+                } else if (key instanceof byte[]) {
+                    stmt.bindBlob(1, (byte[]) key);
+                } else {
+                    throw new IllegalArgumentException("Cannot bind relation key " + key);
+                }
+                stmt.executeInsert();
+            }
+        } catch (RuntimeException e) {
+            db.endTransaction();
+            throw e;
+        } finally {
+            close(stmt);
+        }
+    }
+
+    /**
+     * Begins a transaction and inserts the given keys into the key table. Once the relations are
+     * fetched, {@link #setKeyTableSuccessful(RoomDatabase)} must be called, and the transaction
+     * must be ended by {@link #endKeyTable(RoomDatabase)} in any case.
+     *
+     * @param db   The database.
+     * @param keys The keys of the parents.
+     */
+    public static void beginKeyTable(@NonNull RoomDatabase db, @NonNull long[] keys) {
+        final SupportSQLiteStatement stmt = beginKeyTable(db);
+        try {
+            for (long key : keys) {
+                stmt.bindLong(1, key);
+                stmt.executeInsert();
+            }
+        } catch (RuntimeException e) {
+            db.endTransaction();
+            throw e;
+        } finally {
+            close(stmt);
+        }
+    }
+
+    /**
+     * Clears the key table and marks the transaction begun by
+     * {@link #beginKeyTable(RoomDatabase, Collection)} successful. Must only be called once the
+     * relations are fetched without errors, before {@link #endKeyTable(RoomDatabase)}.
+     *
+     * @param db The database.
+     */
+    public static void setKeyTableSuccessful(@NonNull RoomDatabase db) {
+        db.getOpenHelper().getWritableDatabase().execSQL(CLEAR_KEY_TABLE_SQL);
+        db.setTransactionSuccessful();
+    }
+
+    /**
+     * Ends the transaction begun by {@link #beginKeyTable(RoomDatabase, Collection)}. Unless
+     * {@link #setKeyTableSuccessful(RoomDatabase)} was called, the transaction is rolled back,
+     * which also removes the keys from the key table.
+     *
+     * @param db The database.
+     */
+    public static void endKeyTable(@NonNull RoomDatabase db) {
+        db.endTransaction();
+    }
+
+    private static SupportSQLiteStatement beginKeyTable(RoomDatabase db) {
+        // The temp table only exists in the connection of the transaction.
+        db.beginTransaction();
+        try {
+            db.getOpenHelper().getWritableDatabase().execSQL(CREATE_KEY_TABLE_SQL);
+            // Fetching nested relations reuses the table once the parents are read.
+            db.getOpenHelper().getWritableDatabase().execSQL(CLEAR_KEY_TABLE_SQL);
+            return db.compileStatement(INSERT_KEY_SQL);
+        } catch (RuntimeException e) {
+            db.endTransaction();
+            throw e;
+        }
+    }
+
+    private static void close(SupportSQLiteStatement stmt) {
+        try {
+            stmt.close();
+        } catch (IOException ignored) {
+            // Closing a statement only releases its bind arguments.
+        }
+    }
+
+    private RelationUtil() {
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+@RunWith(JUnit4.class)
+public class CompiledStatementCacheTest {
+    private CompiledStatementCache mCache;
+    private SupportSQLiteDatabase mDb;
+
+    @Before
+    public void setup() {
+        mCache = new CompiledStatementCache(2);
+        mDb = mockDatabase();
+    }
+
+    @Test
+    public void releasedStatementIsReused() throws Exception {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "SELECT 1");
+        mCache.release(mDb, "SELECT 1", stmt);
+        assertThat(mCache.acquire(mDb, "SELECT 1"), sameInstance(stmt));
+        verify(mDb).compileStatement("SELECT 1");
+        verify(stmt).clearBindings();
+        verify(stmt, never()).close();
+        assertThat(mCache.getHitCount(), is(1));
+        assertThat(mCache.getMissCount(), is(1));
+    }
+
+    @Test
+    public void acquiredStatementIsNotShared() throws Exception {
+        SupportSQLiteStatement first = mCache.acquire(mDb, "SELECT 1");
+        SupportSQLiteStatement second = mCache.acquire(mDb, "SELECT 1");
+        assertThat(first, is(not(second)));
+        mCache.release(mDb, "SELECT 1", first);
+        mCache.release(mDb, "SELECT 1", second);
+        assertThat(mCache.size(), is(1));
+        verify(second).close();
+    }
+
+    @Test
+    public void leastRecentlyUsedStatementIsEvicted() throws Exception {
+        SupportSQLiteStatement first = mCache.acquire(mDb, "SELECT 1");
+        mCache.release(mDb, "SELECT 1", first);
+        SupportSQLiteStatement second = mCache.acquire(mDb, "SELECT 2");
+        mCache.release(mDb, "SELECT 2", second);
+        mCache.release(mDb, "SELECT 1", mCache.acquire(mDb, "SELECT 1"));
+        SupportSQLiteStatement third = mCache.acquire(mDb, "SELECT 3");
+        mCache.release(mDb, "SELECT 3", third);
+        assertThat(mCache.size(), is(2));
+        verify(second).close();
+        verify(first, never()).close();
+    }
+
+    @Test
+    public void otherDatabaseClearsCache() throws Exception {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "SELECT 1");
+        mCache.release(mDb, "SELECT 1", stmt);
+        SupportSQLiteDatabase other = mockDatabase();
+        assertThat(mCache.acquire(other, "SELECT 1"), is(not(stmt)));
+        verify(stmt).close();
+        assertThat(mCache.getMissCount(), is(2));
+    }
+
+    @Test
+    public void statementOfPreviousDatabaseIsNotCached() throws Exception {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "SELECT 1");
+        SupportSQLiteDatabase other = mockDatabase();
+        mCache.release(other, "SELECT 2", mCache.acquire(other, "SELECT 2"));
+        mCache.release(mDb, "SELECT 1", stmt);
+        verify(stmt).close();
+        assertThat(mCache.size(), is(1));
+        assertThat(mCache.acquire(other, "SELECT 1"), is(not(stmt)));
+    }
+
+    @Test
+    public void clearClosesStatements() throws Exception {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "SELECT 1");
+        SupportSQLiteStatement inUse = mCache.acquire(mDb, "SELECT 2");
+        mCache.release(mDb, "SELECT 1", stmt);
+        mCache.clear();
+        verify(stmt).close();
+        mCache.release(mDb, "SELECT 2", inUse);
+        verify(inUse).close();
+        assertThat(mCache.size(), is(0));
+    }
+
+    private static SupportSQLiteDatabase mockDatabase() {
+        SupportSQLiteDatabase db = mock(SupportSQLiteDatabase.class);
+        when(db.isOpen()).thenReturn(true);
+        when(db.compileStatement(anyString())).thenAnswer(
+                new Answer<SupportSQLiteStatement>() {
+                    @Override
+                    public SupportSQLiteStatement answer(InvocationOnMock invocation) {
+                        return mock(SupportSQLiteStatement.class);
+                    }
+                });
+        return db;
+    }
+}
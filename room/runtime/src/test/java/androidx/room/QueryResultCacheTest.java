@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class QueryResultCacheTest {
+    private static final int[] USER_TABLE = new int[]{0};
+    private static final int[] PET_TABLE = new int[]{1};
+
+    private QueryResultCache mCache;
+
+    @Before
+    public void setup() {
+        mCache = new QueryResultCache(2, 2);
+    }
+
+    @Test
+    public void sameQueryIsComputedOnce() throws Exception {
+        CountingFunction first = new CountingFunction();
+        CountingFunction second = new CountingFunction();
+        Object result = mCache.wrap(USER_TABLE, query("SELECT * FROM User WHERE id = ?", 1), first)
+                .call();
+        assertThat(mCache.wrap(USER_TABLE, query("SELECT * FROM User WHERE id = ?", 1), second)
+                .call(), sameInstance(result));
+        assertThat(first.mCount.get(), is(1));
+        assertThat(second.mCount.get(), is(0));
+        assertThat(mCache.getHitCount(), is(1));
+        assertThat(mCache.getMissCount(), is(1));
+    }
+
+    @Test
+    public void differentArgumentsAreNotShared() throws Exception {
+        CountingFunction function = new CountingFunction();
+        mCache.wrap(USER_TABLE, query("SELECT * FROM User WHERE id = ?", 1), function).call();
+        mCache.wrap(USER_TABLE, query("SELECT * FROM User WHERE id = ?", 2), function).call();
+        mCache.wrap(USER_TABLE, query("SELECT * FROM User WHERE id = ?", new byte[]{1}), function)
+                .call();
+        assertThat(function.mCount.get(), is(3));
+        assertThat(mCache.getHitCount(), is(0));
+    }
+
+    @Test
+    public void differentFunctionsAreNotShared() throws Exception {
+        mCache.wrap(USER_TABLE, query("SELECT * FROM User"), new CountingFunction()).call();
+        mCache.wrap(USER_TABLE, query("SELECT * FROM User"), new Callable<Object>() {
+            @Override
+            public Object call() {
+                return new Object();
+            }
+        }).call();
+        assertThat(mCache.getHitCount(), is(0));
+        assertThat(mCache.size(), is(2));
+    }
+
+    @Test
+    public void invalidatedTableDropsResult() throws Exception {
+        CountingFunction function = new CountingFunction();
+        Callable<Object> cached = mCache.wrap(USER_TABLE, query("SELECT * FROM User"), function);
+        Object result = cached.call();
+
+        mCache.onTablesInvalidated(Collections.singleton(PET_TABLE[0]));
+        assertThat(cached.call(), sameInstance(result));
+
+        mCache.onTablesInvalidated(Collections.singleton(USER_TABLE[0]));
+        assertThat(mCache.size(), is(0));
+        assertThat(cached.call(), is(not(result)));
+        assertThat(function.mCount.get(), is(2));
+    }
+
+    @Test
+    public void resultInvalidatedWhileComputingIsNotCached() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        Callable<Object> cached = mCache.wrap(USER_TABLE, query("SELECT * FROM User"),
+                new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        count.incrementAndGet();
+                        mCache.onTablesInvalidated(Collections.singleton(USER_TABLE[0]));
+                        return new Object();
+                    }
+                });
+        cached.call();
+        assertThat(mCache.size(), is(0));
+        cached.call();
+        assertThat(count.get(), is(2));
+    }
+
+    @Test
+    public void leastRecentlyUsedResultIsEvicted() throws Exception {
+        CountingFunction function = new CountingFunction();
+        Callable<Object> user = mCache.wrap(USER_TABLE, query("SELECT * FROM User"), function);
+        Callable<Object> pet = mCache.wrap(PET_TABLE, query("SELECT * FROM Pet"), function);
+        Callable<Object> both = mCache.wrap(new int[]{0, 1},
+                query("SELECT * FROM User, Pet"), function);
+        user.call();
+        pet.call();
+        user.call();
+        both.call();
+        assertThat(mCache.size(), is(2));
+        assertThat(function.mCount.get(), is(3));
+        user.call();
+        assertThat(function.mCount.get(), is(3));
+        pet.call();
+        assertThat(function.mCount.get(), is(4));
+    }
+
+    @Test
+    public void failedComputationIsNotCached() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        Callable<Object> cached = mCache.wrap(USER_TABLE, query("SELECT * FROM User"),
+                new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        if (count.incrementAndGet() == 1) {
+                            throw new IllegalStateException("first");
+                        }
+                        return new Object();
+                    }
+                });
+        try {
+            cached.call();
+            fail("expected the exception of the computation");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("first"));
+        }
+        assertThat(mCache.size(), is(0));
+        cached.call();
+        assertThat(count.get(), is(2));
+    }
+
+    @Test
+    public void concurrentObserversShareComputation() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final Callable<Object> cached = mCache.wrap(USER_TABLE, query("SELECT * FROM User"),
+                new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        count.incrementAndGet();
+                        started.countDown();
+                        release.await(10, TimeUnit.SECONDS);
+                        return new Object();
+                    }
+                });
+        FutureTask<Object> first = new FutureTask<>(cached);
+        FutureTask<Object> second = new FutureTask<>(cached);
+        new Thread(first).start();
+        started.await(10, TimeUnit.SECONDS);
+        new Thread(second).start();
+        release.countDown();
+        assertThat(second.get(10, TimeUnit.SECONDS),
+                sameInstance(first.get(10, TimeUnit.SECONDS)));
+        assertThat(count.get(), is(1));
+    }
+
+    private static SimpleSQLiteQuery query(String sql, Object... args) {
+        return new SimpleSQLiteQuery(sql, args);
+    }
+
+    private static class CountingFunction implements Callable<Object> {
+        final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Object call() {
+            mCount.incrementAndGet();
+            return new Object();
+        }
+    }
+}
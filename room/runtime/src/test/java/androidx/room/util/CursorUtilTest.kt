@@ -15,9 +15,15 @@
  */
 package androidx.room.util
 
+import android.database.Cursor
 import androidx.room.util.CursorUtil.findColumnIndexBySuffix
 import com.google.common.truth.Truth.assertThat
 import org.junit.Test
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
 
 class CursorUtilTest {
     @Test
@@ -69,4 +75,36 @@ class CursorUtilTest {
             )
         ).isEqualTo(-1)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun getColumnIndexOrThrow_expectedIndex() {
+        val cursor = mockCursor("a", "b")
+        assertThat(CursorUtil.getColumnIndexOrThrow(cursor, "b", 1)).isEqualTo(1)
+        verify(cursor, never()).getColumnIndex("b")
+    }
+
+    @Test
+    fun getColumnIndexOrThrow_movedColumn() {
+        val cursor = mockCursor("b", "a")
+        `when`(cursor.getColumnIndex("b")).thenReturn(0)
+        assertThat(CursorUtil.getColumnIndexOrThrow(cursor, "b", 1)).isEqualTo(0)
+    }
+
+    @Test
+    fun getColumnIndexOrThrow_expectedIndexOutOfBounds() {
+        val cursor = mockCursor("b")
+        `when`(cursor.getColumnIndex("b")).thenReturn(0)
+        assertThat(CursorUtil.getColumnIndexOrThrow(cursor, "b", 2)).isEqualTo(0)
+    }
+
+    private fun mockCursor(vararg columnNames: String): Cursor {
+        val cursor = mock(Cursor::class.java)
+        `when`(cursor.columnCount).thenReturn(columnNames.size)
+        `when`(cursor.columnNames).thenReturn(arrayOf(*columnNames))
+        columnNames.forEachIndexed { index, name ->
+            `when`(cursor.getColumnName(index)).thenReturn(name)
+        }
+        `when`(cursor.getColumnIndex(anyString())).thenReturn(-1)
+        return cursor
+    }
+}
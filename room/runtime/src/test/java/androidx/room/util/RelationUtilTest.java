@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util;
+
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+@RunWith(JUnit4.class)
+@SuppressWarnings("deprecation")
+public class RelationUtilTest {
+    private RoomDatabase mDb;
+    private SupportSQLiteDatabase mSqliteDb;
+    private SupportSQLiteStatement mStmt;
+
+    @Before
+    public void init() {
+        mDb = mock(RoomDatabase.class);
+        mSqliteDb = mock(SupportSQLiteDatabase.class);
+        mStmt = mock(SupportSQLiteStatement.class);
+        SupportSQLiteOpenHelper openHelper = mock(SupportSQLiteOpenHelper.class);
+        when(mDb.getOpenHelper()).thenReturn(openHelper);
+        when(openHelper.getWritableDatabase()).thenReturn(mSqliteDb);
+        when(mDb.compileStatement(anyString())).thenReturn(mStmt);
+    }
+
+    @Test
+    public void beginKeyTable_closesStatement() throws IOException {
+        RelationUtil.beginKeyTable(mDb, Arrays.asList(1L, "a"));
+
+        verify(mDb).beginTransaction();
+        verify(mStmt).bindLong(1, 1L);
+        verify(mStmt).bindString(1, "a");
+        verify(mStmt, times(2)).executeInsert();
+        verify(mStmt).close();
+        verify(mDb, never()).endTransaction();
+    }
+
+    @Test
+    public void beginKeyTable_failedInsertEndsTransaction() throws IOException {
+        when(mStmt.executeInsert()).thenThrow(new IllegalStateException());
+
+        try {
+            RelationUtil.beginKeyTable(mDb, new long[]{1L});
+            fail("The insert failure should be thrown");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+
+        verify(mStmt).close();
+        verify(mDb).endTransaction();
+        verify(mDb, never()).setTransactionSuccessful();
+    }
+
+    @Test
+    public void setKeyTableSuccessful_clearsKeyTable() {
+        RelationUtil.setKeyTableSuccessful(mDb);
+
+        InOrder inOrder = inOrder(mSqliteDb, mDb);
+        inOrder.verify(mSqliteDb).execSQL("DELETE FROM temp." + RelationUtil.KEY_TABLE_NAME);
+        inOrder.verify(mDb).setTransactionSuccessful();
+        verify(mDb, never()).endTransaction();
+    }
+
+    @Test
+    public void endKeyTable_doesNotMarkTransactionSuccessful() {
+        RelationUtil.endKeyTable(mDb);
+
+        verify(mDb).endTransaction();
+        verify(mDb, never()).setTransactionSuccessful();
+        verify(mSqliteDb, never()).execSQL(anyString());
+    }
+}
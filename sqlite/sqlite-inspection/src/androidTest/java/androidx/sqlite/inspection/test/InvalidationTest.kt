@@ -48,13 +48,120 @@ class InvalidationTest {
     val temporaryFolder = TemporaryFolder(getInstrumentation().context.cacheDir)
 
     @Test
-    fun test_exec_hook_methods() = test_simple_hook_methods(
+    fun test_exec_hook_methods(): Unit = runBlocking {
+        // Starting to track databases makes the inspector register hooks
+        testEnvironment.sendCommand(MessageFactory.createTrackDatabasesCommand())
+
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        val db = Database("db1", Table("t1", Column("c1", "int")), Table("t2", Column("c1", "int")))
+            .createInstance(temporaryFolder)
         listOf(
             "execute()V",
             "executeInsert()J",
             "executeUpdateDelete()I"
-        ).map { it to SQLiteStatement::class.java }
-    )
+        ).forEachIndexed { ix, method ->
+            val methodHooks = hooks.filter {
+                it.originMethod == method && it.originClass == SQLiteStatement::class.java
+            }
+            assertThat(methodHooks).hasSize(2)
+
+            // The table changed by the statement is reported in the event
+            val table = if (ix % 2 == 0) "t1" else "t2"
+            val statement = hooks.compileStatement(db, "insert into $table values (1)")
+            testEnvironment.assertNoQueuedEvents()
+            hooks.entryHookFor(method).onEntry(statement, emptyList())
+            hooks.exitHookFor(method).onExit(null)
+            testEnvironment.receiveEvent().let { event ->
+                assertThat(event.oneOfCase).isEqualTo(DATABASE_POSSIBLY_CHANGED)
+                assertThat(event.databasePossiblyChanged.tableName).isEqualTo(table)
+            }
+            testEnvironment.assertNoQueuedEvents()
+        }
+    }
+
+    @Test
+    fun test_exec_hook_methods_throttled_per_table(): Unit = runBlocking {
+        // Starting to track databases makes the inspector register hooks
+        testEnvironment.sendCommand(MessageFactory.createTrackDatabasesCommand())
+
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        val db = Database("db1", Table("t1", Column("c1", "int")), Table("t2", Column("c1", "int")))
+            .createInstance(temporaryFolder)
+        testEnvironment.assertNoQueuedEvents()
+
+        // Changes of a table don't hold back the changes of another table
+        listOf("t1", "t2", "t1").forEach { table ->
+            hooks.entryHookFor("executeInsert()J").onEntry(
+                hooks.compileStatement(db, "insert into $table values (1)"),
+                emptyList()
+            )
+            hooks.exitHookFor("executeInsert()J").onExit(null)
+        }
+        val tables = listOf(testEnvironment.receiveEvent(), testEnvironment.receiveEvent())
+            .map { it.databasePossiblyChanged.tableName }
+        assertThat(tables).containsExactly("t1", "t2")
+    }
+
+    @Test
+    fun test_exec_hook_methods_tables_changed_through_triggers_and_foreign_keys(): Unit =
+        runBlocking {
+            // Starting to track databases makes the inspector register hooks
+            testEnvironment.sendCommand(MessageFactory.createTrackDatabasesCommand())
+
+            val hooks = testEnvironment.consumeRegisteredHooks()
+            val db = Database("db1", Table("t1", Column("c1", "int")))
+                .createInstance(temporaryFolder)
+            db.execSQL("create table t2 (c1 int primary key)")
+            db.execSQL("create table t3 (c1 int references t2 (c1) on delete cascade)")
+            db.execSQL(
+                "create trigger copy_t1 after insert on t1 begin " +
+                    "insert into t2 values (new.c1); end"
+            )
+            testEnvironment.assertNoQueuedEvents()
+
+            // Only t3 can't change other tables, the others are reported as unknown tables
+            listOf(
+                "insert into t3 values (1)",
+                "insert into t1 values (1)",
+                "delete from t2"
+            ).forEach { sql ->
+                hooks.entryHookFor("executeUpdateDelete()I").onEntry(
+                    hooks.compileStatement(db, sql),
+                    emptyList()
+                )
+                hooks.exitHookFor("executeUpdateDelete()I").onExit(null)
+            }
+            val tables = List(3) { testEnvironment.receiveEvent() }
+                .map { it.databasePossiblyChanged.tableName }
+            assertThat(tables).containsExactly("t3", "", "")
+        }
+
+    @Test
+    fun test_exec_hook_methods_trigger_created_after_compiling(): Unit = runBlocking {
+        // Starting to track databases makes the inspector register hooks
+        testEnvironment.sendCommand(MessageFactory.createTrackDatabasesCommand())
+
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        val db = Database("db1", Table("t1", Column("c1", "int")))
+            .createInstance(temporaryFolder)
+        db.execSQL("create table t2 (c1 int)")
+        val statement = hooks.compileStatement(db, "insert into t1 values (1)")
+
+        hooks.entryHookFor("executeInsert()J").onEntry(statement, emptyList())
+        hooks.exitHookFor("executeInsert()J").onExit(null)
+        assertThat(testEnvironment.receiveEvent().databasePossiblyChanged.tableName)
+            .isEqualTo("t1")
+
+        // The trigger is taken into account although the statement was compiled before it
+        db.execSQL(
+            "create trigger copy_t1 after insert on t1 begin " +
+                "insert into t2 values (new.c1); end"
+        )
+        hooks.entryHookFor("executeInsert()J").onEntry(statement, emptyList())
+        hooks.exitHookFor("executeInsert()J").onExit(null)
+        assertThat(testEnvironment.receiveEvent().databasePossiblyChanged.tableName)
+            .isEqualTo("")
+    }
 
     @Test
     fun test_end_transaction_hook_method() =
@@ -96,7 +203,7 @@ class InvalidationTest {
 
         // Any hook that triggers invalidation
         val hook = testEnvironment.consumeRegisteredHooks()
-            .first { it.originMethod == "executeInsert()J" }
+            .first { it.originMethod == "endTransaction()V" }
             .asExitHook
 
         testEnvironment.assertNoQueuedEvents()
@@ -198,6 +305,18 @@ class InvalidationTest {
         return cursor as SQLiteCursor
     }
 
+    /**
+     * Compiles the statement and calls the compileStatement hooks, like ART would.
+     */
+    private fun List<Hook>.compileStatement(db: SQLiteDatabase, sql: String): SQLiteStatement {
+        val method = "compileStatement(Ljava/lang/String;)" +
+            "Landroid/database/sqlite/SQLiteStatement;"
+        val statement = db.compileStatement(sql)
+        entryHookFor(method).onEntry(db, listOf(sql))
+        exitHookFor(method).onExit(statement)
+        return statement
+    }
+
     private fun List<Hook>.entryHookFor(m: String): ArtTooling.EntryHook =
         this.first { it.originMethod == m && it is Hook.EntryHook }.asEntryHook
 
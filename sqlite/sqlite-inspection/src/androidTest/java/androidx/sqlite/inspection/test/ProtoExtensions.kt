@@ -69,12 +69,18 @@ object MessageFactory {
     fun createQueryCommand(
         databaseId: Int,
         query: String,
-        queryParams: List<String?>? = null
+        queryParams: List<String?>? = null,
+        responseSizeLimitHint: Long? = null
     ): Command =
         Command.newBuilder().setQuery(
             QueryCommand.newBuilder()
                 .setDatabaseId(databaseId)
                 .setQuery(query)
+                .also { queryCommandBuilder ->
+                    if (responseSizeLimitHint != null) {
+                        queryCommandBuilder.responseSizeLimitHint = responseSizeLimitHint
+                    }
+                }
                 .also { queryCommandBuilder ->
                     if (queryParams != null) queryCommandBuilder.addAllQueryParameterValues(
                         queryParams.map { param ->
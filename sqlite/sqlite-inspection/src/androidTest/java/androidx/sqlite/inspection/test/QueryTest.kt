@@ -547,6 +547,41 @@ class QueryTest {
         assertThat(queryTotalChanges(databaseId)).isEqualTo(expectedTotalChanges)
     }
 
+    @Test
+    fun test_response_size_limit_hint() = runBlocking {
+        // given
+        val table = table2
+        val databaseId = inspectDatabase(Database("db", table).createInstance(temporaryFolder))
+        val rowCount = 100
+        repeat(rowCount) { ix ->
+            issueQuery(databaseId, "insert into ${table.name} values ($ix, 'a')")
+        }
+        val query = "select * from ${table.name} where id > ? order by id"
+
+        // when (no limit)
+        issueQuery(databaseId, query, listOf("-1")).let { response ->
+            // then
+            assertThat(response.rowsList).hasSize(rowCount)
+            assertThat(response.hasMore).isFalse()
+        }
+
+        // when (paging by keyset with a limit)
+        val ids = mutableListOf<Long>()
+        var lastId = -1L
+        var pageCount = 0
+        do {
+            val response = issueQuery(databaseId, query, listOf(lastId.toString()), 100)
+            assertThat(response.rowsList).isNotEmpty()
+            response.rowsList.forEach { ids.add(it.valuesList[0].longValue) }
+            lastId = ids.last()
+            pageCount++
+        } while (response.hasMore)
+
+        // then
+        assertThat(ids).isEqualTo((0 until rowCount).map { it.toLong() })
+        assertThat(pageCount).isGreaterThan(1)
+    }
+
     @Test
     fun test_int64() {
         test_value64(Long.MAX_VALUE, { s -> s.getLong(0) }, { c -> c.longValue })
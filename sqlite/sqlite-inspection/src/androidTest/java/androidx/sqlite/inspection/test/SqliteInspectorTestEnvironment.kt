@@ -109,13 +109,15 @@ class SqliteInspectorTestEnvironment(
 suspend fun SqliteInspectorTestEnvironment.issueQuery(
     databaseId: Int,
     command: String,
-    queryParams: List<String?>? = null
+    queryParams: List<String?>? = null,
+    responseSizeLimitHint: Long? = null
 ): SqliteInspectorProtocol.QueryResponse =
     sendCommand(
         MessageFactory.createQueryCommand(
             databaseId,
             command,
-            queryParams
+            queryParams,
+            responseSizeLimitHint
         )
     ).query
 
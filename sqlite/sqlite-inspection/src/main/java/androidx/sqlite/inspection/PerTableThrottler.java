@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a {@link RequestCollapsingThrottler} per table, so that a burst of writes to one table
+ * doesn't hold back the change events of the other tables. Requests for an unknown table share
+ * a single throttler.
+ *
+ * Thread safe.
+ */
+final class PerTableThrottler {
+    private static final String UNKNOWN_TABLE = "";
+
+    private final long mMinIntervalMs;
+    private final Action mAction;
+    private final RequestCollapsingThrottler.DeferredExecutor mExecutor;
+    private final ConcurrentMap<String, RequestCollapsingThrottler> mThrottlers =
+            new ConcurrentHashMap<>();
+
+    PerTableThrottler(long minIntervalMs, Action action,
+            RequestCollapsingThrottler.DeferredExecutor executor) {
+        mMinIntervalMs = minIntervalMs;
+        mAction = action;
+        mExecutor = executor;
+    }
+
+    /**
+     * @param tableName table that was possibly changed, or null if not known
+     */
+    void submitRequest(@Nullable String tableName) {
+        throttlerFor(tableName == null ? UNKNOWN_TABLE : tableName).submitRequest();
+    }
+
+    private @NonNull RequestCollapsingThrottler throttlerFor(@NonNull final String key) {
+        RequestCollapsingThrottler throttler = mThrottlers.get(key);
+        if (throttler != null) {
+            return throttler;
+        }
+        throttler = new RequestCollapsingThrottler(mMinIntervalMs, new Runnable() {
+            @Override
+            public void run() {
+                mAction.run(key.equals(UNKNOWN_TABLE) ? null : key);
+            }
+        }, mExecutor);
+        RequestCollapsingThrottler existing = mThrottlers.putIfAbsent(key, throttler);
+        return existing != null ? existing : throttler;
+    }
+
+    interface Action {
+        /**
+         * @param tableName table that was possibly changed, or null if not known
+         */
+        void run(@Nullable String tableName);
+    }
+}
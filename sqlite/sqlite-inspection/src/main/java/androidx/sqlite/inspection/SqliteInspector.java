@@ -42,6 +42,7 @@ import android.os.Build;
 import android.os.CancellationSignal;
 import android.util.Log;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.inspection.ArtTooling.EntryHook;
@@ -78,9 +79,9 @@ import com.google.protobuf.ByteString;
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -88,6 +89,8 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Inspector to work with SQLite databases
@@ -129,6 +132,43 @@ final class SqliteInspector extends Inspector {
 
     private static final int INVALIDATION_MIN_INTERVAL_MS = 1000;
 
+    private static final String COMPILE_STATEMENT_METHOD_SIGNATURE = "compileStatement("
+            + "Ljava/lang/String;"
+            + ")Landroid/database/sqlite/SQLiteStatement;";
+
+    // Matches the table changed by an INSERT, REPLACE, UPDATE or DELETE statement (group 1 is the
+    // schema, if any, the others are the table name, depending on how it's quoted)
+    private static final Pattern sChangedTablePattern = Pattern.compile(
+            "\\s*(?:insert(?:\\s+or\\s+\\w+)?\\s+into|replace\\s+into"
+                    + "|update(?:\\s+or\\s+\\w+)?|delete\\s+from)\\s+"
+                    + "(?:(\\w+)\\s*\\.\\s*)?"
+                    + "(?:\"([^\"]+)\"|`([^`]+)`|\\[([^\\]]+)]|(\\w+))(?!\\s*\\.)",
+            Pattern.CASE_INSENSITIVE);
+
+    // Finds the triggers and foreign keys through which a change of table ?1 can change other
+    // tables.
+    // Note: this only works on API26+ because of pragma_* functions
+    // language=SQLite
+    // language=SQLite
+    private static final String sQueryTableChangesOtherTables = "select 1\n"
+            + "from (select type, name, tbl_name from sqlite_master\n"
+            + "      union all\n"
+            + "      select type, name, tbl_name from sqlite_temp_master) as m\n"
+            + "where (m.type = 'trigger' and m.tbl_name = ?1 collate nocase)\n"
+            + "   or (m.type = 'table' and exists (\n"
+            + "       select 1 from pragma_foreign_key_list(m.name) as fk\n"
+            + "       where fk.\"table\" = ?1 collate nocase))\n"
+            + "limit 1";
+
+    // Changes whenever the schema of the main or the temp database changes, so that cached
+    // results of sQueryTableChangesOtherTables can be dropped.
+    // Note: this only works on API26+ because of pragma_* functions
+    // language=SQLite
+    private static final String sQuerySchemaVersion = "select\n"
+            + "  (select schema_version from pragma_schema_version),\n"
+            + "  (select group_concat(type || ' ' || name || ' ' || tbl_name, ' ')\n"
+            + "   from sqlite_temp_master)";
+
     // Note: this only works on API26+ because of pragma_* functions
     // TODO: replace with a resource file
     // language=SQLite
@@ -179,6 +219,20 @@ final class SqliteInspector extends Inspector {
     @NonNull
     private final SqlDelightInvalidation mSqlDelightInvalidation;
 
+    /**
+     * Tables changed since their last {@link DatabasePossiblyChangedEvent}, mapped to the
+     * databases they were changed in.
+     */
+    @GuardedBy("mPendingTableChanges")
+    private final Map<String, Set<SQLiteDatabase>> mPendingTableChanges = new HashMap<>();
+
+    /**
+     * Whether changing a table can change other tables, per database. Only accessed on
+     * {@link #mIOExecutor}.
+     */
+    private final Map<SQLiteDatabase, TablesChangingOtherTables> mTablesChangingOtherTables =
+            new WeakHashMap<>();
+
     SqliteInspector(@NonNull Connection connection, @NonNull InspectorEnvironment environment) {
         super(connection);
         mEnvironment = environment;
@@ -355,16 +409,19 @@ final class SqliteInspector extends Inspector {
                         }, delayMs);
                     }
                 };
-        final RequestCollapsingThrottler throttler = new RequestCollapsingThrottler(
+        final PerTableThrottler throttler = new PerTableThrottler(
                 INVALIDATION_MIN_INTERVAL_MS,
-                new Runnable() {
+                new PerTableThrottler.Action() {
                     @Override
-                    public void run() {
-                        dispatchDatabasePossiblyChangedEvent();
+                    public void run(@Nullable String tableName) {
+                        if (tableName != null && pendingChangesOtherTables(tableName)) {
+                            tableName = null;
+                        }
+                        dispatchDatabasePossiblyChangedEvent(tableName);
                     }
                 }, deferredExecutor);
 
-        registerInvalidationHooksSqliteStatement(throttler);
+        registerInvalidationHooksSqliteStatement(throttler, hookRegistry);
         registerInvalidationHooksTransaction(throttler);
         registerInvalidationHooksSQLiteCursor(throttler, hookRegistry);
     }
@@ -376,12 +433,12 @@ final class SqliteInspector extends Inspector {
      * TODO: track if transaction committed or rolled back by observing if
      * {@link SQLiteDatabase#setTransactionSuccessful} was called
      */
-    private void registerInvalidationHooksTransaction(final RequestCollapsingThrottler throttler) {
+    private void registerInvalidationHooksTransaction(final PerTableThrottler throttler) {
         mEnvironment.artTooling().registerExitHook(SQLiteDatabase.class, "endTransaction()V",
                 new ExitHook<Object>() {
                     @Override
                     public Object onExit(Object result) {
-                        throttler.submitRequest();
+                        throttler.submitRequest(null);
                         return result;
                     }
                 });
@@ -394,21 +451,152 @@ final class SqliteInspector extends Inspector {
      *     <li>{@link SQLiteStatement#executeInsert}</li>
      *     <li>{@link SQLiteStatement#executeUpdateDelete}</li>
      * </ul>
+     * The changed table is taken from the SQL the statement was compiled from with
+     * {@link SQLiteDatabase#compileStatement}, so that the events are throttled per table.
+     * Statements created otherwise, e.g. by {@link SQLiteDatabase#execSQL}, change an unknown
+     * table.
      */
-    private void registerInvalidationHooksSqliteStatement(
-            final RequestCollapsingThrottler throttler) {
+    private void registerInvalidationHooksSqliteStatement(final PerTableThrottler throttler,
+            EntryExitMatchingHookRegistry hookRegistry) {
+        // Compiled statements mapped to the tables they change (null if not known)
+        final Map<SQLiteStatement, TableChange> compiledStatements = Collections.synchronizedMap(
+                new WeakHashMap<SQLiteStatement, TableChange>());
+
+        hookRegistry.registerHook(SQLiteDatabase.class, COMPILE_STATEMENT_METHOD_SIGNATURE,
+                new EntryExitMatchingHookRegistry.OnExitCallback() {
+                    @Override
+                    public void onExit(EntryExitMatchingHookRegistry.Frame exitFrame) {
+                        if (exitFrame.mResult instanceof SQLiteStatement
+                                && exitFrame.mThisObject instanceof SQLiteDatabase) {
+                            compiledStatements.put((SQLiteStatement) exitFrame.mResult,
+                                    tableChange((SQLiteDatabase) exitFrame.mThisObject,
+                                            stringParam(exitFrame.mArgs.get(0))));
+                        }
+                    }
+                });
+
         for (String method : SQLITE_STATEMENT_EXECUTE_METHODS_SIGNATURES) {
-            mEnvironment.artTooling().registerExitHook(SQLiteStatement.class, method,
-                    new ExitHook<Object>() {
+            hookRegistry.registerHook(SQLiteStatement.class, method,
+                    new EntryExitMatchingHookRegistry.OnExitCallback() {
                         @Override
-                        public Object onExit(Object result) {
-                            throttler.submitRequest();
-                            return result;
+                        public void onExit(EntryExitMatchingHookRegistry.Frame exitFrame) {
+                            submitTableChange(throttler,
+                                    compiledStatements.get(exitFrame.mThisObject));
                         }
                     });
         }
     }
 
+    /**
+     * Gets the table changed by an INSERT, REPLACE, UPDATE or DELETE query, or null if it isn't
+     * known. Only parses the query, as this runs on the thread of the app.
+     */
+    private static @Nullable TableChange tableChange(@NonNull SQLiteDatabase database,
+            @Nullable String query) {
+        if (query == null) {
+            return null;
+        }
+        Matcher matcher = sChangedTablePattern.matcher(query);
+        if (!matcher.lookingAt()) {
+            return null;
+        }
+        String schema = matcher.group(1);
+        if (schema != null && !schema.equalsIgnoreCase("main")) {
+            // sqlite_master only describes the main database
+            return null;
+        }
+        String tableName = null;
+        for (int i = 2; i <= matcher.groupCount() && tableName == null; i++) {
+            tableName = matcher.group(i);
+        }
+        return tableName == null ? null : new TableChange(database, tableName);
+    }
+
+    /**
+     * Records the change, so that whether it changes other tables is checked once the event for
+     * its table is dispatched, and submits the event.
+     */
+    private void submitTableChange(@NonNull PerTableThrottler throttler,
+            @Nullable TableChange change) {
+        if (change == null) {
+            throttler.submitRequest(null);
+            return;
+        }
+        synchronized (mPendingTableChanges) {
+            Set<SQLiteDatabase> databases = mPendingTableChanges.get(change.mTableName);
+            if (databases == null) {
+                databases = Collections.newSetFromMap(new WeakHashMap<SQLiteDatabase, Boolean>());
+                mPendingTableChanges.put(change.mTableName, databases);
+            }
+            databases.add(change.mDatabase);
+        }
+        throttler.submitRequest(change.mTableName);
+    }
+
+    /**
+     * Whether the changes of the table recorded since its last event can have changed other
+     * tables through triggers or foreign key actions. Runs on {@link #mIOExecutor}.
+     */
+    private boolean pendingChangesOtherTables(@NonNull String tableName) {
+        Set<SQLiteDatabase> databases;
+        synchronized (mPendingTableChanges) {
+            databases = mPendingTableChanges.remove(tableName);
+        }
+        if (databases == null) {
+            return false;
+        }
+        for (SQLiteDatabase database : databases.toArray(new SQLiteDatabase[0])) {
+            if (database != null && changesOtherTables(database, tableName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether changing the table can change other tables (assumed if it can't be checked).
+    // Cached per database until its schema changes.
+    private boolean changesOtherTables(@NonNull SQLiteDatabase database,
+            @NonNull String tableName) {
+        try {
+            String schemaVersion = querySchemaVersion(database);
+            TablesChangingOtherTables cache = mTablesChangingOtherTables.get(database);
+            if (cache == null || !cache.mSchemaVersion.equals(schemaVersion)) {
+                cache = new TablesChangingOtherTables(schemaVersion);
+                mTablesChangingOtherTables.put(database, cache);
+            }
+            Boolean result = cache.mResults.get(tableName);
+            if (result == null) {
+                result = queryChangesOtherTables(database, tableName);
+                cache.mResults.put(tableName, result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // e.g. the database was closed since the change
+            return true;
+        }
+    }
+
+    private static @NonNull String querySchemaVersion(@NonNull SQLiteDatabase database) {
+        Cursor cursor = rawQuery(database, sQuerySchemaVersion, new String[0], null);
+        try {
+            cursor.moveToFirst();
+            return cursor.getLong(0) + " " + cursor.getString(1);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static boolean queryChangesOtherTables(@NonNull SQLiteDatabase database,
+            @NonNull String tableName) {
+        Cursor cursor = rawQuery(database, sQueryTableChangesOtherTables,
+                new String[]{tableName}, null);
+        try {
+            return cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+
     /**
      * Invalidation hooks triggered by {@link SQLiteCursor#getCount} and
      * {@link SQLiteCursor#onMove} both of which lead to cursor's query being executed.
@@ -416,12 +604,13 @@ final class SqliteInspector extends Inspector {
      * In order to access cursor's query, we also use {@link SQLiteDatabase#rawQueryWithFactory}
      * which takes a query String and constructs a cursor based on it.
      */
-    private void registerInvalidationHooksSQLiteCursor(final RequestCollapsingThrottler throttler,
+    private void registerInvalidationHooksSQLiteCursor(final PerTableThrottler throttler,
             EntryExitMatchingHookRegistry hookRegistry) {
 
+        // Tracked cursors mapped to the tables they change (null if not known)
         // TODO: add active pruning via Cursor#close listener
-        final Map<SQLiteCursor, Void> trackedCursors = Collections.synchronizedMap(
-                new WeakHashMap<SQLiteCursor, Void>());
+        final Map<SQLiteCursor, TableChange> trackedCursors = Collections.synchronizedMap(
+                new WeakHashMap<SQLiteCursor, TableChange>());
 
         final String rawQueryMethodSignature = "rawQueryWithFactory("
                 + "Landroid/database/sqlite/SQLiteDatabase$CursorFactory;"
@@ -441,7 +630,8 @@ final class SqliteInspector extends Inspector {
                         // TODO: handle PRAGMA select queries, e.g. PRAGMA_TABLE_INFO
                         if (cursor != null && query != null && getSqlStatementType(query)
                                 != DatabaseUtils.STATEMENT_SELECT) {
-                            trackedCursors.put(cursor, null);
+                            trackedCursors.put(cursor, tableChange(
+                                    (SQLiteDatabase) exitFrame.mThisObject, query));
                         }
                     }
                 });
@@ -452,9 +642,14 @@ final class SqliteInspector extends Inspector {
                         @Override
                         public void onExit(EntryExitMatchingHookRegistry.Frame exitFrame) {
                             SQLiteCursor cursor = (SQLiteCursor) exitFrame.mThisObject;
-                            if (trackedCursors.containsKey(cursor)) {
-                                throttler.submitRequest();
+                            TableChange change;
+                            synchronized (trackedCursors) {
+                                if (!trackedCursors.containsKey(cursor)) {
+                                    return;
+                                }
+                                change = trackedCursors.get(cursor);
                             }
+                            submitTableChange(throttler, change);
                         }
                     });
         }
@@ -494,10 +689,13 @@ final class SqliteInspector extends Inspector {
         ).build().toByteArray());
     }
 
-    private void dispatchDatabasePossiblyChangedEvent() {
-        getConnection().sendEvent(Event.newBuilder().setDatabasePossiblyChanged(
-                DatabasePossiblyChangedEvent.getDefaultInstance()
-        ).build().toByteArray());
+    private void dispatchDatabasePossiblyChangedEvent(@Nullable String tableName) {
+        DatabasePossiblyChangedEvent.Builder builder = DatabasePossiblyChangedEvent.newBuilder();
+        if (tableName != null) {
+            builder.setTableName(tableName);
+        }
+        getConnection().sendEvent(Event.newBuilder().setDatabasePossiblyChanged(builder)
+                .build().toByteArray());
     }
 
     private void handleGetSchema(GetSchemaCommand command, CommandCallback callback) {
@@ -520,12 +718,12 @@ final class SqliteInspector extends Inspector {
                 try {
                     cursor = rawQuery(reference, command.getQuery(), params,
                             cancellationSignal);
-                    List<String> columnNames = Arrays.asList(cursor.getColumnNames());
+                    QueryResponse.Builder responseBuilder = QueryResponse.newBuilder()
+                            .addAllColumnNames(Arrays.asList(cursor.getColumnNames()));
+                    readRows(cursor, command.getResponseSizeLimitHint(), cancellationSignal,
+                            responseBuilder);
                     callback.reply(Response.newBuilder()
-                            .setQuery(QueryResponse.newBuilder()
-                                    .addAllRows(convert(cursor))
-                                    .addAllColumnNames(columnNames)
-                                    .build())
+                            .setQuery(responseBuilder)
                             .build()
                             .toByteArray()
                     );
@@ -639,18 +837,33 @@ final class SqliteInspector extends Inspector {
         return database;
     }
 
-    private static List<Row> convert(Cursor cursor) {
-        List<Row> result = new ArrayList<>();
+    /**
+     * Adds the rows of the cursor to the response until their size reaches
+     * {@code responseSizeLimitHint} bytes (no limit if not positive), in which case the rest of
+     * the rows isn't read and {@link QueryResponse#getHasMore()} is set.
+     * <p>
+     * Cancellation is checked after each row, so that a cancelled query over a large table stops
+     * without reading all of it.
+     */
+    private static void readRows(Cursor cursor, long responseSizeLimitHint,
+            CancellationSignal cancellationSignal, QueryResponse.Builder responseBuilder) {
+        long responseSize = 0;
         int columnCount = cursor.getColumnCount();
         while (cursor.moveToNext()) {
+            if (responseSizeLimitHint > 0 && responseSize >= responseSizeLimitHint) {
+                responseBuilder.setHasMore(true);
+                return;
+            }
             Row.Builder rowBuilder = Row.newBuilder();
             for (int i = 0; i < columnCount; i++) {
                 CellValue value = readValue(cursor, i);
                 rowBuilder.addValues(value);
             }
-            result.add(rowBuilder.build());
+            Row row = rowBuilder.build();
+            responseSize += row.getSerializedSize();
+            responseBuilder.addRows(row);
+            cancellationSignal.throwIfCanceled();
         }
-        return result;
     }
 
     private static CellValue readValue(Cursor cursor, int index) {
@@ -819,4 +1032,29 @@ final class SqliteInspector extends Inspector {
         String path = file.getPath();
         return path.endsWith("-journal") || path.endsWith("-shm") || path.endsWith("-wal");
     }
+
+    /**
+     * A table changed by a statement, and the database it belongs to.
+     */
+    private static final class TableChange {
+        final SQLiteDatabase mDatabase;
+        final String mTableName;
+
+        TableChange(@NonNull SQLiteDatabase database, @NonNull String tableName) {
+            mDatabase = database;
+            mTableName = tableName;
+        }
+    }
+
+    /**
+     * Whether changing a table can change other tables, for one version of a database schema.
+     */
+    private static final class TablesChangingOtherTables {
+        final String mSchemaVersion;
+        final Map<String, Boolean> mResults = new HashMap<>();
+
+        TablesChangingOtherTables(@NonNull String schemaVersion) {
+            mSchemaVersion = schemaVersion;
+        }
+    }
 }
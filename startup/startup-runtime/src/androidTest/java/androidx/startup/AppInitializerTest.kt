@@ -22,12 +22,16 @@ import androidx.test.ext.junit.runners.AndroidJUnit4
 import androidx.test.filters.MediumTest
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.CoreMatchers.containsString
+import org.hamcrest.CoreMatchers.sameInstance
 import org.junit.Assert.assertThat
 import org.junit.Assert.assertTrue
 import org.junit.Assert.fail
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
 
 @RunWith(AndroidJUnit4::class)
 @MediumTest
@@ -59,6 +63,57 @@ class AppInitializerTest {
         assertThat(appInitializer.mDiscovered.size, `is`(0))
     }
 
+    @Test
+    fun graphInitializationWithBackgroundInitializer() {
+        val graph = InitializerGraph(appInitializer)
+        graph.add(BackgroundInitializerWithDependency::class.java)
+        graph.initialize()
+        assertThat(appInitializer.mInitialized.size, `is`(2))
+        assertTrue(appInitializer.mInitialized.containsKey(InitializerNoDependencies::class.java))
+        assertThat(
+            appInitializer.mInitialized[BackgroundInitializerWithDependency::class.java],
+            `is`<Any>(false)
+        )
+        assertTrue(
+            appInitializer.getInitializationTimeNanos(InitializerNoDependencies::class.java) >= 0
+        )
+    }
+
+    @Test
+    fun onDemandInitializationWhileGraphIsCreating() {
+        SlowBackgroundInitializer.creations.set(0)
+        SlowBackgroundInitializer.started = CountDownLatch(1)
+        val graph = InitializerGraph(appInitializer)
+        graph.add(SlowBackgroundInitializer::class.java)
+        val graphThread = thread { graph.initialize() }
+        assertTrue(SlowBackgroundInitializer.started.await(5, TimeUnit.SECONDS))
+        val result = appInitializer.initializeComponent(SlowBackgroundInitializer::class.java)
+        graphThread.join()
+        assertThat(SlowBackgroundInitializer.creations.get(), `is`(1))
+        assertThat(
+            appInitializer.mInitialized[SlowBackgroundInitializer::class.java],
+            `is`(sameInstance(result))
+        )
+    }
+
+    @Test
+    fun graphInitializationWithCyclicDependencies() {
+        try {
+            InitializerGraph(appInitializer).add(CyclicDependencyInitializer::class.java)
+            fail()
+        } catch (exception: StartupException) {
+            assertThat(exception.localizedMessage, containsString("Cycle detected."))
+        }
+    }
+
+    @Test
+    fun initializationTimeOfUninitializedComponent() {
+        assertThat(
+            appInitializer.getInitializationTimeNanos(InitializerNoDependencies::class.java),
+            `is`(-1L)
+        )
+    }
+
     @Test
     fun discoveredDependencies() {
         // Fake discovery
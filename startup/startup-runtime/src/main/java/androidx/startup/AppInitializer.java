@@ -27,6 +27,7 @@ import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.tracing.Trace;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -57,6 +58,15 @@ public final class AppInitializer {
     @NonNull
     final Map<Class<?>, Object> mInitialized;
 
+    @NonNull
+    final Map<Class<?>, Long> mInitializationTimes;
+
+    /**
+     * The {@link Initializer}s being created, by the thread creating them. Guarded by sLock.
+     */
+    @NonNull
+    final Map<Class<?>, Thread> mCreating;
+
     @NonNull
     final Set<Class<? extends Initializer<?>>> mDiscovered;
 
@@ -72,6 +82,8 @@ public final class AppInitializer {
         mContext = context.getApplicationContext();
         mDiscovered = new HashSet<>();
         mInitialized = new HashMap<>();
+        mInitializationTimes = new HashMap<>();
+        mCreating = new HashMap<>();
     }
 
     /**
@@ -115,6 +127,22 @@ public final class AppInitializer {
         return mDiscovered.contains(component);
     }
 
+    /**
+     * Returns the time spent in {@link Initializer#create(Context)} of the given
+     * {@link Initializer}, excluding the time spent initializing its dependencies.
+     *
+     * @param component The {@link Initializer} class to check
+     * @return The initialization time in nanoseconds, or <code>-1</code> if the
+     * {@link Initializer} was not initialized by this {@link AppInitializer}.
+     */
+    public long getInitializationTimeNanos(
+            @NonNull Class<? extends Initializer<?>> component) {
+        synchronized (sLock) {
+            Long time = mInitializationTimes.get(component);
+            return time != null ? time : -1;
+        }
+    }
+
     @NonNull
     @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
     <T> T doInitialize(
@@ -137,8 +165,7 @@ public final class AppInitializer {
                 if (!mInitialized.containsKey(component)) {
                     initializing.add(component);
                     try {
-                        Object instance = component.getDeclaredConstructor().newInstance();
-                        Initializer<?> initializer = (Initializer<?>) instance;
+                        Initializer<?> initializer = newInitializer(component);
                         List<Class<? extends Initializer<?>>> dependencies =
                                 initializer.dependencies();
 
@@ -149,15 +176,8 @@ public final class AppInitializer {
                                 }
                             }
                         }
-                        if (StartupLogger.DEBUG) {
-                            StartupLogger.i(String.format("Initializing %s", component.getName()));
-                        }
-                        result = initializer.create(mContext);
-                        if (StartupLogger.DEBUG) {
-                            StartupLogger.i(String.format("Initialized %s", component.getName()));
-                        }
+                        result = create(component, initializer);
                         initializing.remove(component);
-                        mInitialized.put(component, result);
                     } catch (Throwable throwable) {
                         throw new StartupException(throwable);
                     }
@@ -171,6 +191,83 @@ public final class AppInitializer {
         }
     }
 
+    @NonNull
+    Initializer<?> newInitializer(@NonNull Class<? extends Initializer<?>> component)
+            throws Exception {
+        return component.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Calls {@link Initializer#create(Context)} and records its result and timing, unless the
+     * {@link Initializer} is already initialized. Must only be called once all the dependencies
+     * of the {@link Initializer} are initialized.
+     * <p>
+     * The {@link Initializer} is claimed by the calling thread under the lock before it is
+     * created, so that it is created once even when it is initialized on demand while the
+     * {@link InitializerGraph} creates it on another thread. Other threads wait for it to be
+     * created instead.
+     */
+    @NonNull
+    Object create(@NonNull Class<? extends Initializer<?>> component,
+            @NonNull Initializer<?> initializer) {
+        synchronized (sLock) {
+            while (!mInitialized.containsKey(component)) {
+                Thread creator = mCreating.get(component);
+                if (creator == null) {
+                    mCreating.put(component, Thread.currentThread());
+                    break;
+                }
+                if (creator == Thread.currentThread()) {
+                    String message = String.format(
+                            "Cannot initialize %s. Cycle detected.", component.getName()
+                    );
+                    throw new IllegalStateException(message);
+                }
+                try {
+                    // Also releases the lock held by doInitialize() while waiting.
+                    sLock.wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new StartupException(exception);
+                }
+            }
+            if (mCreating.get(component) != Thread.currentThread()) {
+                return mInitialized.get(component);
+            }
+        }
+        try {
+            if (StartupLogger.DEBUG) {
+                StartupLogger.i(String.format("Initializing %s", component.getName()));
+            }
+            long start = System.nanoTime();
+            Object result = initializer.create(mContext);
+            long duration = System.nanoTime() - start;
+            if (StartupLogger.DEBUG) {
+                StartupLogger.i(String.format("Initialized %s in %d ns", component.getName(),
+                        duration));
+            }
+            synchronized (sLock) {
+                mInitialized.put(component, result);
+                mInitializationTimes.put(component, duration);
+            }
+            return result;
+        } finally {
+            synchronized (sLock) {
+                mCreating.remove(component);
+                sLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Checks if the {@link Initializer} was already initialized.
+     */
+    boolean isInitialized(@NonNull Class<?> component) {
+        synchronized (sLock) {
+            return mInitialized.containsKey(component);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     void discoverAndInitialize() {
         try {
@@ -182,7 +279,7 @@ public final class AppInitializer {
             Bundle metadata = providerInfo.metaData;
             String startup = mContext.getString(R.string.androidx_startup);
             if (metadata != null) {
-                Set<Class<?>> initializing = new HashSet<>();
+                List<Class<? extends Initializer<?>>> components = new ArrayList<>();
                 Set<String> keys = metadata.keySet();
                 for (String key : keys) {
                     String value = metadata.getString(key, null);
@@ -195,10 +292,15 @@ public final class AppInitializer {
                             if (StartupLogger.DEBUG) {
                                 StartupLogger.i(String.format("Discovered %s", key));
                             }
-                            doInitialize(component, initializing);
+                            components.add(component);
                         }
                     }
                 }
+                InitializerGraph graph = new InitializerGraph(this);
+                for (Class<? extends Initializer<?>> component : components) {
+                    graph.add(component);
+                }
+                graph.initialize();
             }
         } catch (PackageManager.NameNotFoundException | ClassNotFoundException exception) {
             throw new StartupException(exception);
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+/**
+ * An {@link Initializer} whose {@link #create(android.content.Context)} does not need to run on
+ * the main thread.
+ * <p>
+ * When the {@link Initializer}s discovered by {@link InitializationProvider} contain any
+ * {@link BackgroundInitializer}, they are initialized in dependency order where every
+ * {@link BackgroundInitializer} whose dependencies are initialized runs concurrently on a
+ * background thread. All other {@link Initializer}s keep running on the main thread, and
+ * {@link InitializationProvider} still waits for every {@link Initializer} to complete.
+ *
+ * @param <T> The instance type being initialized
+ */
+public interface BackgroundInitializer<T> extends Initializer<T> {
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.tracing.Trace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The dependency graph of the {@link Initializer}s discovered by {@link AppInitializer}.
+ * <p>
+ * {@link Initializer}s run as soon as all of their dependencies are initialized.
+ * {@link BackgroundInitializer}s run concurrently on a background pool, while all other
+ * {@link Initializer}s run on the calling thread. {@link #initialize()} returns once every
+ * {@link Initializer} in the graph is initialized, so startup takes as long as the longest
+ * dependency chain rather than the sum of all {@link Initializer}s.
+ */
+final class InitializerGraph {
+
+    private static final int MAX_BACKGROUND_THREADS = 4;
+
+    @NonNull
+    private final AppInitializer mAppInitializer;
+
+    @NonNull
+    private final Map<Class<?>, Node> mNodes;
+
+    private int mBackgroundNodeCount;
+
+    InitializerGraph(@NonNull AppInitializer appInitializer) {
+        mAppInitializer = appInitializer;
+        mNodes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds an {@link Initializer} and all of its transitive dependencies to the graph.
+     *
+     * @param component The {@link Class} of {@link Initializer} to add.
+     */
+    void add(@NonNull Class<? extends Initializer<?>> component) {
+        add(component, new HashSet<Class<?>>());
+    }
+
+    @Nullable
+    private Node add(
+            @NonNull Class<? extends Initializer<?>> component,
+            @NonNull Set<Class<?>> visiting) {
+        if (visiting.contains(component)) {
+            String message = String.format(
+                    "Cannot initialize %s. Cycle detected.", component.getName()
+            );
+            throw new StartupException(message);
+        }
+        Node node = mNodes.get(component);
+        if (node != null) {
+            return node;
+        }
+        if (mAppInitializer.isInitialized(component)) {
+            return null;
+        }
+        Initializer<?> initializer;
+        try {
+            initializer = mAppInitializer.newInitializer(component);
+        } catch (Throwable throwable) {
+            throw toStartupException(throwable);
+        }
+        node = new Node(component, initializer);
+        visiting.add(component);
+        for (Class<? extends Initializer<?>> dependency : initializer.dependencies()) {
+            Node dependencyNode = add(dependency, visiting);
+            if (dependencyNode != null) {
+                dependencyNode.mDependents.add(node);
+                node.mPendingDependencies++;
+            }
+        }
+        visiting.remove(component);
+        mNodes.put(component, node);
+        if (node.mBackground) {
+            mBackgroundNodeCount++;
+        }
+        return node;
+    }
+
+    /**
+     * Initializes every {@link Initializer} in the graph.
+     */
+    void initialize() {
+        if (mBackgroundNodeCount == 0) {
+            // Nothing can run concurrently. Nodes are added after their dependencies, so
+            // initialize them serially in that order.
+            for (Node node : mNodes.values()) {
+                node.run();
+                if (node.mFailure != null) {
+                    throw toStartupException(node.mFailure);
+                }
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(mBackgroundNodeCount, MAX_BACKGROUND_THREADS), new StartupThreadFactory());
+        try {
+            initialize(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void initialize(@NonNull ExecutorService executor) {
+        ArrayDeque<Node> ready = new ArrayDeque<>();
+        LinkedBlockingQueue<Node> completed = new LinkedBlockingQueue<>();
+        for (Node node : mNodes.values()) {
+            if (node.mPendingDependencies == 0) {
+                dispatch(node, ready, completed, executor);
+            }
+        }
+        int remaining = mNodes.size();
+        while (remaining > 0) {
+            Node node = ready.poll();
+            if (node != null) {
+                // Initializers that need the main thread run inline, in between background ones.
+                node.run();
+            } else {
+                try {
+                    node = completed.take();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new StartupException(exception);
+                }
+            }
+            if (node.mFailure != null) {
+                throw toStartupException(node.mFailure);
+            }
+            remaining--;
+            // Dependency counts are only ever updated on the calling thread.
+            for (Node dependent : node.mDependents) {
+                if (--dependent.mPendingDependencies == 0) {
+                    dispatch(dependent, ready, completed, executor);
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private static StartupException toStartupException(@NonNull Throwable throwable) {
+        // Failures of on demand initializations in create() are already StartupExceptions.
+        if (throwable instanceof StartupException) {
+            return (StartupException) throwable;
+        }
+        return new StartupException(throwable);
+    }
+
+    private static void dispatch(
+            @NonNull final Node node,
+            @NonNull ArrayDeque<Node> ready,
+            @NonNull final LinkedBlockingQueue<Node> completed,
+            @NonNull ExecutorService executor) {
+        if (!node.mBackground) {
+            ready.add(node);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                node.run();
+                completed.add(node);
+            }
+        });
+    }
+
+    private final class Node implements Runnable {
+        @NonNull
+        final Class<? extends Initializer<?>> mComponent;
+
+        @NonNull
+        final Initializer<?> mInitializer;
+
+        @NonNull
+        final List<Node> mDependents = new ArrayList<>();
+
+        final boolean mBackground;
+
+        int mPendingDependencies;
+
+        @Nullable
+        volatile Throwable mFailure;
+
+        Node(@NonNull Class<? extends Initializer<?>> component,
+                @NonNull Initializer<?> initializer) {
+            mComponent = component;
+            mInitializer = initializer;
+            mBackground = initializer instanceof BackgroundInitializer;
+        }
+
+        @Override
+        public void run() {
+            boolean isTracingEnabled = Trace.isEnabled();
+            try {
+                if (isTracingEnabled) {
+                    // Use the simpleName here because section names would get too big otherwise.
+                    Trace.beginSection(mComponent.getSimpleName());
+                }
+                // Does nothing if the Initializer was initialized on demand in the meantime, and
+                // waits for it if it is being initialized on demand on another thread.
+                mAppInitializer.create(mComponent, mInitializer);
+            } catch (Throwable throwable) {
+                mFailure = throwable;
+            } finally {
+                if (isTracingEnabled) {
+                    Trace.endSection();
+                }
+            }
+        }
+    }
+
+    private static final class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "Startup-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
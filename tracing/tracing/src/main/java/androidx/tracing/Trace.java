@@ -35,6 +35,7 @@ import java.lang.reflect.Method;
  * tracing of events that occur across multiple processes.
  * <p>For information about using the Systrace tool, read <a
  * href="{@docRoot}studio/profile/systrace/">Overview of system tracing</a>.
+ * <p>Trace events can also be recorded in-process with {@link TraceRecorder}.
  */
 public final class Trace {
 
@@ -57,6 +58,9 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static boolean isEnabled() {
+        if (TraceRecorder.isRecording()) {
+            return true;
+        }
         try {
             if (sIsTagEnabledMethod == null) {
                 return android.os.Trace.isEnabled();
@@ -77,6 +81,7 @@ public final class Trace {
      * @param label The name of the code section to appear in the trace.
      */
     public static void beginSection(@NonNull String label) {
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, label, 0);
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.beginSection(label);
         }
@@ -90,6 +95,7 @@ public final class Trace {
      * thread.
      */
     public static void endSection() {
+        TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.endSection();
         }
@@ -107,6 +113,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void beginAsyncSection(@NonNull String methodName, int cookie) {
+        TraceRecorder.record(TraceRecorder.TYPE_ASYNC_BEGIN, methodName, cookie);
         try {
             if (sAsyncTraceBeginMethod == null) {
                 TraceApi29Impl.beginAsyncSection(methodName, cookie);
@@ -127,6 +134,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void endAsyncSection(@NonNull String methodName, int cookie) {
+        TraceRecorder.record(TraceRecorder.TYPE_ASYNC_END, methodName, cookie);
         try {
             if (sAsyncTraceEndMethod == null) {
                 TraceApi29Impl.endAsyncSection(methodName, cookie);
@@ -145,6 +153,7 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void setCounter(@NonNull String counterName, int counterValue) {
+        TraceRecorder.record(TraceRecorder.TYPE_COUNTER, counterName, counterValue);
         try {
             if (sTraceCounterMethod == null) {
                 TraceApi29Impl.setCounter(counterName, counterValue);
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the events sent to {@link Trace} into in-process buffers, independently of whether a
+ * system trace is being captured.
+ * <p>
+ * Every thread records into its own ring buffer, so recording an event takes no lock and does
+ * not allocate; when a buffer is full the oldest events of that thread are overwritten. The
+ * recorded events can be written at any time as a
+ * <a href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Chrome
+ * JSON trace</a>, which can be opened with the Perfetto UI or {@code chrome://tracing}.
+ * <p>
+ * The buffer of a thread is kept until the recorded events are written after the thread
+ * terminated. Its events are then part of that trace only, and the buffer is released, so
+ * threads that come and go don't grow the memory used by the recorder as long as the events are
+ * written from time to time.
+ * <p>
+ * This works on the JVM as well, so it can be used to profile code from unit tests.
+ */
+public final class TraceRecorder {
+
+    /**
+     * Number of events kept per thread by {@link #start()}.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 16 * 1024;
+
+    static final int TYPE_BEGIN = 0;
+    static final int TYPE_END = 1;
+    static final int TYPE_ASYNC_BEGIN = 2;
+    static final int TYPE_ASYNC_END = 3;
+    static final int TYPE_COUNTER = 4;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Nullable
+    private static volatile Session sSession;
+
+    private static final ThreadLocal<ThreadBuffer> sThreadBuffer = new ThreadLocal<>();
+
+    /**
+     * Starts recording with {@link #DEFAULT_BUFFER_CAPACITY} events per thread. Events
+     * recorded by a previous session are discarded.
+     */
+    public static void start() {
+        start(DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Starts recording. Events recorded by a previous session are discarded.
+     *
+     * @param bufferCapacity The number of events kept per thread, rounded up to a power of two.
+     */
+    public static void start(int bufferCapacity) {
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("bufferCapacity must be positive");
+        }
+        int capacity = Integer.highestOneBit(bufferCapacity);
+        if (capacity < bufferCapacity) {
+            capacity <<= 1;
+        }
+        sSession = new Session(capacity);
+    }
+
+    /**
+     * Stops recording. Events recorded so far are kept until the next {@link #start()} or
+     * {@link #clear()}.
+     */
+    public static void stop() {
+        Session session = sSession;
+        if (session != null) {
+            session.mRecording = false;
+        }
+    }
+
+    /**
+     * Discards all recorded events and stops recording.
+     */
+    public static void clear() {
+        sSession = null;
+    }
+
+    /**
+     * @return true if events sent to {@link Trace} are currently recorded.
+     */
+    public static boolean isRecording() {
+        Session session = sSession;
+        return session != null && session.mRecording;
+    }
+
+    static void record(int type, @Nullable String name, int value) {
+        Session session = sSession;
+        if (session == null || !session.mRecording) {
+            return;
+        }
+        ThreadBuffer buffer = sThreadBuffer.get();
+        if (buffer == null || buffer.mSession != session) {
+            buffer = new ThreadBuffer(session, Thread.currentThread());
+            session.mBuffers.add(buffer);
+            sThreadBuffer.set(buffer);
+        }
+        buffer.write(type, name, value, System.nanoTime());
+    }
+
+    /**
+     * Writes the recorded events to the given file in the Chrome JSON trace format.
+     *
+     * @param file The file to write the trace to. It is overwritten if it exists.
+     */
+    public static void writeChromeJson(@NonNull File file) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+        try {
+            writeChromeJson(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the recorded events in the Chrome JSON trace format. The writer is not closed.
+     * Recording may continue while the events are written, events recorded meanwhile may or may
+     * not be part of the trace. The events of threads that have terminated are written by the
+     * first call only, after which their buffers are released.
+     *
+     * @param writer The writer to write the trace to.
+     */
+    public static void writeChromeJson(@NonNull Writer writer) throws IOException {
+        writer.write("{\"traceEvents\":[");
+        Session session = sSession;
+        boolean first = true;
+        if (session != null) {
+            for (ThreadBuffer buffer : session.mBuffers) {
+                // Checked before the events are copied, so that none is recorded after the copy.
+                boolean terminated = buffer.isThreadTerminated();
+                first = buffer.writeChromeJson(writer, first);
+                if (terminated) {
+                    session.mBuffers.remove(buffer);
+                }
+            }
+        }
+        writer.write("],\"displayTimeUnit\":\"ns\"}");
+        writer.flush();
+    }
+
+    static void writeJsonString(@NonNull Writer writer, @NonNull String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    private TraceRecorder() {
+    }
+
+    private static final class Session {
+        final int mCapacity;
+        final long mStartNanos = System.nanoTime();
+        final List<ThreadBuffer> mBuffers = new CopyOnWriteArrayList<>();
+        volatile boolean mRecording = true;
+
+        Session(int capacity) {
+            mCapacity = capacity;
+        }
+    }
+
+    /**
+     * A single-writer ring buffer of the events of one thread. The owning thread publishes each
+     * event by bumping {@link #mWriteCount}, readers discard the slots that were overwritten
+     * while they were reading them.
+     */
+    private static final class ThreadBuffer {
+        final Session mSession;
+        final WeakReference<Thread> mThread;
+        final long mThreadId;
+        final String mThreadName;
+        final int mMask;
+        final int[] mTypes;
+        final String[] mNames;
+        final int[] mValues;
+        final long[] mTimestamps;
+        volatile long mWriteCount;
+
+        ThreadBuffer(Session session, Thread thread) {
+            mSession = session;
+            mThread = new WeakReference<>(thread);
+            mThreadId = thread.getId();
+            mThreadName = thread.getName();
+            int capacity = session.mCapacity;
+            mMask = capacity - 1;
+            mTypes = new int[capacity];
+            mNames = new String[capacity];
+            mValues = new int[capacity];
+            mTimestamps = new long[capacity];
+        }
+
+        boolean isThreadTerminated() {
+            Thread thread = mThread.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        void write(int type, String name, int value, long timestamp) {
+            long count = mWriteCount;
+            int slot = (int) count & mMask;
+            mTypes[slot] = type;
+            mNames[slot] = name;
+            mValues[slot] = value;
+            mTimestamps[slot] = timestamp;
+            mWriteCount = count + 1;
+        }
+
+        boolean writeChromeJson(Writer writer, boolean first) throws IOException {
+            long end = mWriteCount;
+            long start = Math.max(0, end - mTypes.length);
+            int size = (int) (end - start);
+            int[] types = new int[size];
+            String[] names = new String[size];
+            int[] values = new int[size];
+            long[] timestamps = new long[size];
+            for (int i = 0; i < size; i++) {
+                int slot = (int) (start + i) & mMask;
+                types[i] = mTypes[slot];
+                names[i] = mNames[slot];
+                values[i] = mValues[slot];
+                timestamps[i] = mTimestamps[slot];
+            }
+            // Drop everything the writer may have overwritten while it was being copied.
+            int skip = (int) Math.max(0, mWriteCount - mTypes.length - start);
+
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":");
+            writer.write(Long.toString(mThreadId));
+            writer.write(",\"args\":{\"name\":");
+            writeJsonString(writer, mThreadName);
+            writer.write("}}");
+            int depth = 0;
+            for (int i = skip; i < size; i++) {
+                int type = types[i];
+                if (type == TYPE_END) {
+                    if (depth == 0) {
+                        // The matching begin was overwritten.
+                        continue;
+                    }
+                    depth--;
+                } else if (type == TYPE_BEGIN) {
+                    depth++;
+                }
+                writeEvent(writer, type, names[i], values[i],
+                        timestamps[i] - mSession.mStartNanos);
+            }
+            return false;
+        }
+
+        private void writeEvent(Writer writer, int type, String name, int value, long timestamp)
+                throws IOException {
+            writer.write(",{\"ph\":\"");
+            switch (type) {
+                case TYPE_BEGIN:
+                    writer.write('B');
+                    break;
+                case TYPE_END:
+                    writer.write('E');
+                    break;
+                case TYPE_ASYNC_BEGIN:
+                    writer.write('b');
+                    break;
+                case TYPE_ASYNC_END:
+                    writer.write('e');
+                    break;
+                default:
+                    writer.write('C');
+                    break;
+            }
+            writer.write("\",\"pid\":0,\"tid\":");
+            writer.write(Long.toString(mThreadId));
+            writer.write(",\"ts\":");
+            // Chrome JSON timestamps are in microseconds.
+            writer.write(Long.toString(timestamp / 1000));
+            writer.write('.');
+            writer.write(String.format(Locale.US, "%03d", timestamp % 1000));
+            if (type != TYPE_END) {
+                writer.write(",\"name\":");
+                writeJsonString(writer, name);
+            }
+            if (type == TYPE_ASYNC_BEGIN || type == TYPE_ASYNC_END) {
+                writer.write(",\"cat\":\"async\",\"id\":");
+                writer.write(Integer.toString(value));
+            } else if (type == TYPE_COUNTER) {
+                writer.write(",\"args\":{");
+                writeJsonString(writer, name);
+                writer.write(':');
+                writer.write(Integer.toString(value));
+                writer.write('}');
+            }
+            writer.write('}');
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RunWith(JUnit4.class)
+public final class TraceRecorderTest {
+
+    @After
+    public void tearDown() {
+        TraceRecorder.clear();
+    }
+
+    @Test
+    public void notRecordingByDefault() throws IOException {
+        assertFalse(TraceRecorder.isRecording());
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "ignored", 0);
+        assertEquals("{\"traceEvents\":[],\"displayTimeUnit\":\"ns\"}", chromeJson());
+    }
+
+    @Test
+    public void recordsSectionsAndCounters() throws IOException {
+        TraceRecorder.start();
+        assertTrue(TraceRecorder.isRecording());
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "outer", 0);
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "inner \"quoted\"", 0);
+        TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
+        TraceRecorder.record(TraceRecorder.TYPE_COUNTER, "counter", 42);
+        TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
+        TraceRecorder.record(TraceRecorder.TYPE_ASYNC_BEGIN, "async", 7);
+        TraceRecorder.record(TraceRecorder.TYPE_ASYNC_END, "async", 7);
+        TraceRecorder.stop();
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "afterStop", 0);
+
+        String json = chromeJson();
+        assertEquals(2, count(json, "\"ph\":\"B\""));
+        assertEquals(2, count(json, "\"ph\":\"E\""));
+        assertTrue(json.contains("\"name\":\"inner \\\"quoted\\\"\""));
+        assertTrue(json.contains("\"args\":{\"counter\":42}"));
+        assertTrue(json.contains("\"ph\":\"b\""));
+        assertTrue(json.contains("\"cat\":\"async\",\"id\":7"));
+        assertFalse(json.contains("afterStop"));
+    }
+
+    @Test
+    public void ringBufferKeepsLatestEvents() throws IOException {
+        TraceRecorder.start(4);
+        for (int i = 0; i < 10; i++) {
+            TraceRecorder.record(TraceRecorder.TYPE_COUNTER, "counter", i);
+        }
+        String json = chromeJson();
+        assertEquals(4, count(json, "\"ph\":\"C\""));
+        assertTrue(json.contains("\"args\":{\"counter\":9}"));
+        assertFalse(json.contains("\"args\":{\"counter\":5}"));
+    }
+
+    @Test
+    public void dropsEndsWithOverwrittenBegin() throws IOException {
+        TraceRecorder.start(2);
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "overwritten", 0);
+        TraceRecorder.record(TraceRecorder.TYPE_COUNTER, "counter", 1);
+        TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
+        String json = chromeJson();
+        assertEquals(0, count(json, "\"ph\":\"E\""));
+    }
+
+    @Test
+    public void recordsEachThreadSeparately() throws Exception {
+        TraceRecorder.start();
+        TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "main", 0);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                TraceRecorder.record(TraceRecorder.TYPE_BEGIN, "worker", 0);
+                TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
+            }
+        }, "TraceRecorderTestWorker");
+        thread.start();
+        thread.join();
+        TraceRecorder.record(TraceRecorder.TYPE_END, null, 0);
+
+        String json = chromeJson();
+        assertEquals(2, count(json, "\"name\":\"thread_name\""));
+        assertTrue(json.contains("\"args\":{\"name\":\"TraceRecorderTestWorker\"}"));
+        assertTrue(json.contains("\"tid\":" + thread.getId()));
+    }
+
+    @Test
+    public void releasesBuffersOfTerminatedThreadsOnceWritten() throws Exception {
+        TraceRecorder.start();
+        TraceRecorder.record(TraceRecorder.TYPE_COUNTER, "main", 1);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                TraceRecorder.record(TraceRecorder.TYPE_COUNTER, "worker", 2);
+            }
+        }, "TraceRecorderTestWorker");
+        thread.start();
+        thread.join();
+
+        String json = chromeJson();
+        assertEquals(2, count(json, "\"name\":\"thread_name\""));
+        assertTrue(json.contains("\"args\":{\"worker\":2}"));
+
+        json = chromeJson();
+        assertEquals(1, count(json, "\"name\":\"thread_name\""));
+        assertFalse(json.contains("TraceRecorderTestWorker"));
+        assertTrue(json.contains("\"args\":{\"main\":1}"));
+    }
+
+    private static String chromeJson() throws IOException {
+        StringWriter writer = new StringWriter();
+        TraceRecorder.writeChromeJson(writer);
+        return writer.toString();
+    }
+
+    private static int count(String value, String substring) {
+        Matcher matcher = Pattern.compile(Pattern.quote(substring)).matcher(value);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -36,6 +36,7 @@ import android.animation.Animator;
 import android.animation.ObjectAnimator;
 import android.animation.TimeInterpolator;
 import android.graphics.Rect;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -271,6 +272,71 @@ public class TransitionTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testMatchManyViewsByInstanceAndId() throws Throwable {
+        final int count = 200;
+        final ViewGroup root = rule.getActivity().getRoot();
+        final FrameLayout container = new FrameLayout(rule.getActivity());
+        final View[] startViews = new View[count];
+        final View[] endViews = new View[count];
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                root.removeAllViews();
+                root.addView(container);
+                for (int i = 0; i < count; i++) {
+                    startViews[i] = new View(rule.getActivity());
+                    startViews[i].setId(ViewCompat.generateViewId());
+                    container.addView(startViews[i]);
+                }
+            }
+        });
+        final SparseArray<View> matchedStartViews = new SparseArray<>();
+        final Transition transition = new EmptyTransition() {
+            @Override
+            public Animator createAnimator(@NonNull ViewGroup sceneRoot,
+                    @Nullable TransitionValues startValues,
+                    @Nullable TransitionValues endValues) {
+                if (startValues != null && endValues != null) {
+                    int id = endValues.view.getId();
+                    assertThat(startValues.view.getId(), is(id));
+                    assertThat(matchedStartViews.get(id), is(nullValue()));
+                    matchedStartViews.put(id, startValues.view);
+                }
+                return null;
+            }
+        };
+        transition.setMatchOrder(Transition.MATCH_INSTANCE, Transition.MATCH_ID);
+        SyncTransitionListener listener = new SyncTransitionListener(
+                SyncTransitionListener.EVENT_END);
+        transition.addListener(listener);
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                TransitionManager.beginDelayedTransition(root, transition);
+                // Keep every other view and replace the others by new views with the same id
+                for (int i = 0; i < count; i++) {
+                    if (i % 2 == 0) {
+                        endViews[i] = startViews[i];
+                    } else {
+                        endViews[i] = new View(rule.getActivity());
+                        endViews[i].setId(startViews[i].getId());
+                        container.removeView(startViews[i]);
+                        container.addView(endViews[i], i);
+                    }
+                }
+            }
+        });
+        if (!listener.await()) {
+            fail("Timed out waiting for the TransitionListener");
+        }
+        assertThat(matchedStartViews.size(), is(count));
+        for (int i = 0; i < count; i++) {
+            assertThat(matchedStartViews.get(endViews[i].getId()),
+                    is(sameInstance(startViews[i])));
+        }
+    }
+
     @Test
     public void testExcludedTransitionAnimator() throws Throwable {
         showInitialScene();
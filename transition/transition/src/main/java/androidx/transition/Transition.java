@@ -536,26 +536,21 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by View instance. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd.
+     * and mEndValuesList and marks them as matched in unmatchedStart and unmatchedEnd.
      */
     private void matchInstances(ArrayMap<View, TransitionValues> unmatchedStart,
             ArrayMap<View, TransitionValues> unmatchedEnd) {
         for (int i = unmatchedStart.size() - 1; i >= 0; i--) {
             View view = unmatchedStart.keyAt(i);
-            if (view != null && isValidTarget(view)) {
-                TransitionValues end = unmatchedEnd.remove(view);
-                if (end != null && isValidTarget(end.view)) {
-                    TransitionValues start = unmatchedStart.removeAt(i);
-                    mStartValuesList.add(start);
-                    mEndValuesList.add(end);
-                }
+            if (view != null && unmatchedStart.valueAt(i) != null && isValidTarget(view)) {
+                matchViews(unmatchedStart, unmatchedEnd, view, view);
             }
         }
     }
 
     /**
      * Match start/end values by Adapter item ID. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
+     * and mEndValuesList and marks them as matched in unmatchedStart and unmatchedEnd, using
      * startItemIds and endItemIds as a guide for which Views have unique item IDs.
      */
     private void matchItemIds(ArrayMap<View, TransitionValues> unmatchedStart,
@@ -567,14 +562,7 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endItemIds.get(startItemIds.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(unmatchedStart, unmatchedEnd, startView, endView);
                 }
             }
         }
@@ -582,7 +570,7 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by Adapter view ID. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
+     * and mEndValuesList and marks them as matched in unmatchedStart and unmatchedEnd, using
      * startIds and endIds as a guide for which Views have unique IDs.
      */
     private void matchIds(ArrayMap<View, TransitionValues> unmatchedStart,
@@ -594,14 +582,7 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endIds.get(startIds.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(unmatchedStart, unmatchedEnd, startView, endView);
                 }
             }
         }
@@ -609,7 +590,7 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by Adapter transitionName. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
+     * and mEndValuesList and marks them as matched in unmatchedStart and unmatchedEnd, using
      * startNames and endNames as a guide for which Views have unique transitionNames.
      */
     private void matchNames(ArrayMap<View, TransitionValues> unmatchedStart,
@@ -621,29 +602,48 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endNames.get(startNames.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(unmatchedStart, unmatchedEnd, startView, endView);
                 }
             }
         }
     }
 
+    /**
+     * Adds the values of startView and endView to mStartValuesList and mEndValuesList if neither
+     * of them was matched yet.
+     * <p>
+     * Matched values are replaced by null in unmatchedStart and unmatchedEnd rather than removed,
+     * as removing an entry from an ArrayMap moves all the entries after it. With hundreds of views,
+     * e.g. the children of a RecyclerView, that made matching quadratic in the number of views.
+     */
+    private void matchViews(ArrayMap<View, TransitionValues> unmatchedStart,
+            ArrayMap<View, TransitionValues> unmatchedEnd, View startView, View endView) {
+        int startIndex = unmatchedStart.indexOfKey(startView);
+        int endIndex = unmatchedEnd.indexOfKey(endView);
+        if (startIndex < 0 || endIndex < 0) {
+            return;
+        }
+        TransitionValues startValues = unmatchedStart.valueAt(startIndex);
+        TransitionValues endValues = unmatchedEnd.valueAt(endIndex);
+        if (startValues != null && endValues != null) {
+            mStartValuesList.add(startValues);
+            mEndValuesList.add(endValues);
+            unmatchedStart.setValueAt(startIndex, null);
+            unmatchedEnd.setValueAt(endIndex, null);
+        }
+    }
+
     /**
      * Adds all values from unmatchedStart and unmatchedEnd to mStartValuesList and mEndValuesList,
-     * assuming that there is no match between values in the list.
+     * assuming that there is no match between values in the list. Values that were matched are
+     * null and are skipped.
      */
     private void addUnmatched(ArrayMap<View, TransitionValues> unmatchedStart,
             ArrayMap<View, TransitionValues> unmatchedEnd) {
         // Views that only exist in the start Scene
         for (int i = 0; i < unmatchedStart.size(); i++) {
             final TransitionValues start = unmatchedStart.valueAt(i);
-            if (isValidTarget(start.view)) {
+            if (start != null && isValidTarget(start.view)) {
                 mStartValuesList.add(start);
                 mEndValuesList.add(null);
             }
@@ -652,7 +652,7 @@ public abstract class Transition implements Cloneable {
         // Views that only exist in the end Scene
         for (int i = 0; i < unmatchedEnd.size(); i++) {
             final TransitionValues end = unmatchedEnd.valueAt(i);
-            if (isValidTarget(end.view)) {
+            if (end != null && isValidTarget(end.view)) {
                 mEndValuesList.add(end);
                 mStartValuesList.add(null);
             }
@@ -760,8 +760,7 @@ public abstract class Transition implements Cloneable {
                             }
                             int numExistingAnims = runningAnimators.size();
                             for (int j = 0; j < numExistingAnims; ++j) {
-                                Animator anim = runningAnimators.keyAt(j);
-                                AnimationInfo info = runningAnimators.get(anim);
+                                AnimationInfo info = runningAnimators.valueAt(j);
                                 if (info.mValues != null && info.mView == view
                                         && info.mName.equals(getName())) {
                                     if (info.mValues.equals(infoValues)) {